@@ -0,0 +1,114 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.util.HexUtils;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.AssetIndex;
+import org.to2mbn.jmccc.version.parsing.VersionParser;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+/**
+ * Measures the parsing of asset indexes.
+ * <p>
+ * The only asset index in the fixtures is a tiny one, so the index is
+ * generated with the same shape as the real ones (1.10 has about 3400 assets).
+ * <code>resolveAssetIndex</code> goes through the streaming parser and the
+ * sidecar cache of {@link Versions}, as a launcher does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AssetIndexBenchmark {
+
+	private static final String[] DIRECTORIES = { "minecraft/sounds/ambient/cave", "minecraft/sounds/mob/zombie", "minecraft/lang", "realms/textures", "icons" };
+
+	private static final int GENERATED_ASSETS = 3400;
+
+	/**
+	 * <code>fixture</code> for the index of the tests, <code>generated</code>
+	 * for a generated one of {@value #GENERATED_ASSETS} assets.
+	 */
+	@Param({ "fixture", "generated" })
+	public String index;
+
+	private VersionParser parser;
+	private byte[] rawJson;
+	private JSONObject json;
+	private File root;
+	private MinecraftDirectory mcdir;
+
+	@Setup
+	public void setup() throws IOException {
+		parser = Versions.getVersionParser();
+		if ("fixture".equals(index)) {
+			rawJson = Fixtures.read("/mcdir/assets/indexes/test.json");
+		} else {
+			rawJson = generateIndex(GENERATED_ASSETS).getBytes(Charset.forName("UTF-8"));
+		}
+		json = IOUtils.toJson(rawJson);
+
+		root = Fixtures.createTempDirectory("assets");
+		mcdir = new MinecraftDirectory(root);
+		Fixtures.write(mcdir.getAssetIndex("bench"), rawJson);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public Set<Asset> parseAssetIndex() {
+		return parser.parseAssetIndex(json);
+	}
+
+	@Benchmark
+	public Set<Asset> parseAssetIndexFromBytes() {
+		return parser.parseAssetIndex(IOUtils.toJson(rawJson));
+	}
+
+	@Benchmark
+	public AssetIndex resolveAssetIndex() throws IOException {
+		return Versions.resolveAssetIndex(mcdir, "bench");
+	}
+
+	private static String generateIndex(int count) {
+		Random random = new Random(0);
+		byte[] hash = new byte[20];
+		StringBuilder sb = new StringBuilder("{\"objects\": {");
+		for (int i = 0; i < count; i++) {
+			random.nextBytes(hash);
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('"').append(DIRECTORIES[i % DIRECTORIES.length]).append("/asset").append(i).append(".ogg\": {")
+					.append("\"hash\": \"").append(HexUtils.bytesToHex(hash)).append("\", ")
+					.append("\"size\": ").append(1024 + random.nextInt(1 << 20)).append('}');
+		}
+		return sb.append("}}").toString();
+	}
+
+}
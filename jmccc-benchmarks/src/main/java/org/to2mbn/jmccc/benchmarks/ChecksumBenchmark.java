@@ -0,0 +1,71 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.util.ChecksumUtils;
+import org.to2mbn.jmccc.util.HexUtils;
+
+/**
+ * Measures {@link ChecksumUtils#verify(File, String, String, long)} over files
+ * of the typical sizes of an asset, a library and a game jar. The files are
+ * likely to be in the page cache, so this measures the hashing rather than the
+ * disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ChecksumBenchmark {
+
+	@Param({ "4096", "1048576", "16777216" })
+	public int size;
+
+	@Param({ "SHA-1" })
+	public String algorithm;
+
+	private File root;
+	private File file;
+	private String checksum;
+
+	@Setup
+	public void setup() throws IOException, NoSuchAlgorithmException {
+		byte[] data = Fixtures.randomBytes(size, size);
+		root = Fixtures.createTempDirectory("checksum");
+		file = new File(root, "data.bin");
+		Fixtures.write(file, data);
+		checksum = HexUtils.bytesToHex(MessageDigest.getInstance(algorithm).digest(data));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public boolean verify() throws IOException, NoSuchAlgorithmException {
+		return ChecksumUtils.verify(file, checksum, algorithm, size);
+	}
+
+	@Benchmark
+	public boolean verifyWithoutSize() throws IOException, NoSuchAlgorithmException {
+		return ChecksumUtils.verify(file, checksum, algorithm);
+	}
+
+}
@@ -0,0 +1,118 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.mcdownloader.download.io.JdkDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.io.async.HttpAsyncDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.FileDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+
+/**
+ * Measures both {@link Downloader} implementations against a
+ * {@link MirrorServer}.
+ * <p>
+ * <code>downloadToMemory</code> measures the latency of a single download,
+ * and <code>downloadToFiles</code> measures the throughput of a batch of
+ * concurrent downloads, as an asset download does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DownloaderBenchmark {
+
+	@Param({ "jdk", "async" })
+	public String downloader;
+
+	@Param({ "8192", "1048576" })
+	public int size;
+
+	@Param({ "64" })
+	public int batch;
+
+	@Param({ "20" })
+	public int maxConnections;
+
+	/**
+	 * The time to first byte of the server, in milliseconds.
+	 */
+	@Param({ "0", "20" })
+	public int latency;
+
+	private MirrorServer server;
+	private Downloader instance;
+	private URI[] uris;
+	private File root;
+
+	@Setup
+	public void setup() throws IOException {
+		server = MirrorServerBuilder.create()
+				.threads(maxConnections)
+				.latency(latency, TimeUnit.MILLISECONDS)
+				.build();
+		uris = new URI[batch];
+		for (int i = 0; i < batch; i++) {
+			uris[i] = server.put("objects/" + i, Fixtures.randomBytes(size, i));
+		}
+		root = Fixtures.createTempDirectory("downloader");
+
+		switch (downloader) {
+			case "jdk":
+				instance = JdkDownloaderBuilder.create().maxConnections(maxConnections).build();
+				break;
+			case "async":
+				instance = HttpAsyncDownloaderBuilder.create().maxConnections(maxConnections).build();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown downloader: " + downloader);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		instance.shutdown();
+		server.close();
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public byte[] downloadToMemory() throws InterruptedException, ExecutionException {
+		return instance.download(new MemoryDownloadTask(uris[0]), null).get();
+	}
+
+	@Benchmark
+	public int downloadToFiles() throws InterruptedException, ExecutionException {
+		List<Future<Void>> futures = new ArrayList<>(batch);
+		for (int i = 0; i < batch; i++) {
+			futures.add(instance.download(new FileDownloadTask(uris[i], new File(root, String.valueOf(i))), null));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+		return futures.size();
+	}
+
+}
@@ -0,0 +1,73 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.util.IOUtils;
+
+/**
+ * Loads the fixtures shared with the tests of jmccc, and generates the
+ * synthetic ones.
+ */
+public final class Fixtures {
+
+	public static byte[] read(String path) throws IOException {
+		try (InputStream in = Fixtures.class.getResourceAsStream(path)) {
+			if (in == null) {
+				throw new IOException("Fixture not found: " + path);
+			}
+			return IOUtils.toByteArray(in);
+		}
+	}
+
+	public static byte[] readVersionJson(String version) throws IOException {
+		return read("/mcdir/versions/" + version + "/" + version + ".json");
+	}
+
+	public static JSONObject readVersion(String version) throws IOException {
+		return IOUtils.toJson(readVersionJson(version));
+	}
+
+	/**
+	 * Generates the given amount of random bytes. The same seed always
+	 * generates the same bytes, so the runs are comparable.
+	 * 
+	 * @param length the amount of bytes
+	 * @param seed the random seed
+	 * @return the random bytes
+	 */
+	public static byte[] randomBytes(int length, long seed) {
+		byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+		return data;
+	}
+
+	public static File createTempDirectory(String prefix) throws IOException {
+		return Files.createTempDirectory("jmccc-benchmarks-" + prefix).toFile();
+	}
+
+	public static void write(File file, byte[] data) throws IOException {
+		file.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(data);
+		}
+	}
+
+	public static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private Fixtures() {}
+
+}
@@ -0,0 +1,144 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.auth.OfflineAuthenticator;
+import org.to2mbn.jmccc.launch.LaunchException;
+import org.to2mbn.jmccc.launch.LaunchPhase;
+import org.to2mbn.jmccc.launch.LaunchTracer;
+import org.to2mbn.jmccc.launch.Launcher;
+import org.to2mbn.jmccc.launch.LauncherBuilder;
+import org.to2mbn.jmccc.option.LaunchOption;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.option.ServerInfo;
+import org.to2mbn.jmccc.option.WindowSize;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Native;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+/**
+ * Measures {@link Launcher#launch(LaunchOption)} of the forge fixture, from
+ * checking the libraries to generating the commandline, with the given amount
+ * of extra libraries in the classpath.
+ * <p>
+ * The tracer is called on the launching thread, so it stops the launch by
+ * throwing once the commandline is generated, and no process is started. The
+ * natives are already up-to-date, and are compared by their sizes only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LaunchBenchmark {
+
+	private static final String VERSION = "1.8-forge1.8-11.14.3.1514";
+
+	@SuppressWarnings("serial")
+	private static final RuntimeException STOP = new RuntimeException("Stops the launch after the commandline is generated") {
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	};
+
+	@Param({ "40", "200" })
+	public int libraries;
+
+	private Launcher launcher;
+	private File root;
+	private LaunchOption option;
+
+	@Setup
+	public void setup() throws IOException {
+		launcher = LauncherBuilder.create()
+				.nativeFastCheck(true)
+				.tracer(new LaunchTracer() {
+
+					@Override
+					public void onPhaseCompleted(LaunchOption option, LaunchPhase phase, long durationNanos, long bytes) {
+						if (phase == LaunchPhase.GENERATE_COMMANDLINE) {
+							throw STOP;
+						}
+					}
+				})
+				.build();
+
+		root = Fixtures.createTempDirectory("launch");
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+		Fixtures.write(mcdir.getVersionJson("1.8"), Fixtures.readVersionJson("1.8"));
+		Fixtures.write(mcdir.getVersionJson(VERSION), Fixtures.readVersionJson(VERSION));
+		Version version = Versions.resolveVersion(mcdir, VERSION);
+
+		// only the existence of the libraries is checked, but the natives are extracted
+		byte[] nativeJar = createNativeJar();
+		for (Library library : version.getLibraries()) {
+			Fixtures.write(mcdir.getLibrary(library), library instanceof Native ? nativeJar : new byte[0]);
+		}
+
+		option = new LaunchOption(version, new OfflineAuthenticator("player"), mcdir);
+		option.setMaxMemory(2048);
+		option.setServerInfo(new ServerInfo("localhost", 25565));
+		option.setWindowSize(WindowSize.window(854, 480));
+		option.extraJvmArguments().add("-XX:+UseG1GC");
+		for (int i = 0; i < libraries; i++) {
+			option.extraClasspath().add(new File(mcdir.getLibraries(), "org/example/library" + i + "/1.0/library" + i + "-1.0.jar"));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public void launch() throws LaunchException {
+		try {
+			launcher.launch(option);
+			throw new IllegalStateException("The launch wasn't stopped");
+		} catch (RuntimeException e) {
+			if (e != STOP) {
+				throw e;
+			}
+		}
+	}
+
+	private static byte[] createNativeJar() throws IOException {
+		ByteArrayOutputStream buf = new ByteArrayOutputStream();
+		byte[] data = Fixtures.randomBytes(1024, 0);
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		// stored, as the extraction needs the sizes in the local headers
+		ZipEntry entry = new ZipEntry("liblibrary.so");
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(data.length);
+		entry.setCrc(crc.getValue());
+		try (ZipOutputStream out = new ZipOutputStream(buf)) {
+			out.putNextEntry(entry);
+			out.write(data);
+			out.closeEntry();
+		}
+		return buf.toByteArray();
+	}
+
+}
@@ -0,0 +1,105 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.testsupport.SyntheticVersion;
+import org.to2mbn.jmccc.version.Version;
+
+/**
+ * Measures {@link MinecraftDownloader#downloadIncrementally} of a
+ * {@link SyntheticVersion} from a {@link MirrorServer}, into an empty
+ * minecraft directory each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MinecraftDownloaderBenchmark {
+
+	/**
+	 * The time to first byte of the server, in milliseconds.
+	 */
+	@Param({ "0", "20" })
+	public int latency;
+
+	/**
+	 * The bandwidth of each response, in bytes per second, 0 for unlimited.
+	 */
+	@Param({ "0" })
+	public long bandwidth;
+
+	@Param({ "0", "0.02" })
+	public double errorRate;
+
+	@Param({ "1000" })
+	public int assets;
+
+	private MirrorServer server;
+	private MinecraftDownloader downloader;
+	private String version;
+	private File root;
+
+	@Setup
+	public void setup() {
+		server = MirrorServerBuilder.create()
+				.latency(latency, TimeUnit.MILLISECONDS)
+				.bandwidth(bandwidth)
+				.errorRate(errorRate)
+				.build();
+		version = SyntheticVersion.create("synthetic")
+				.assets(assets)
+				.publish(server);
+		downloader = MinecraftDownloaderBuilder.create(
+				CombinedDownloaderBuilder.create(DownloaderBuilders.downloader())
+						.defaultTries(10))
+				.providerChain(new MirrorDownloadProvider(server).createProviderChain())
+				.build();
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareDirectory() throws IOException {
+		root = Fixtures.createTempDirectory("mcdir");
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteDirectory() {
+		Fixtures.delete(root);
+	}
+
+	@TearDown
+	public void tearDown() {
+		downloader.shutdown();
+		server.close();
+	}
+
+	@Benchmark
+	public Version downloadIncrementally() throws InterruptedException, ExecutionException {
+		return downloader.downloadIncrementally(new MinecraftDirectory(root), version, null).get();
+	}
+
+}
@@ -0,0 +1,177 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.auth.AuthInfo;
+import org.to2mbn.jmccc.auth.AuthenticationException;
+import org.to2mbn.jmccc.auth.Authenticator;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.launch.LaunchException;
+import org.to2mbn.jmccc.launch.Launcher;
+import org.to2mbn.jmccc.launch.LauncherBuilder;
+import org.to2mbn.jmccc.option.LaunchOption;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+/**
+ * Measures the natives extraction of the launcher, with a native jar shaped
+ * like the lwjgl ones: a few large libraries and a META-INF which is excluded.
+ * The entries are stored, because the extraction needs the sizes in the local
+ * headers, which {@link ZipOutputStream} only writes for stored entries.
+ * <p>
+ * The launch goes through {@link Launcher#launch(LaunchOption)}, and the
+ * authenticator fails it right after the natives are extracted, so no process
+ * is started. The measured time includes checking the only library.
+ * <p>
+ * <code>extractFresh</code> extracts into an empty directory, as the first
+ * launch does. <code>extractUpToDate</code> extracts into a directory which
+ * already has the natives, as every later launch does, so it measures the
+ * comparison with the existing files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NativesExtractionBenchmark {
+
+	private static final String VERSION = "natives";
+
+	private static final AuthenticationException STOP = new AuthenticationException("Stops the launch after the natives are extracted");
+
+	@Param({ "false", "true" })
+	public boolean nativeFastCheck;
+
+	@Param({ "4" })
+	public int libraries;
+
+	@Param({ "1048576" })
+	public int librarySize;
+
+	private Launcher launcher;
+	private File root;
+	private LaunchOption upToDate;
+	private LaunchOption fresh;
+
+	@Setup
+	public void setup() throws IOException, LaunchException {
+		launcher = LauncherBuilder.create()
+				.nativeFastCheck(nativeFastCheck)
+				.build();
+
+		root = Fixtures.createTempDirectory("natives");
+		upToDate = createOption(new File(root, "up-to-date"));
+		fresh = createOption(new File(root, "fresh"));
+		launch(upToDate);
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareFreshDir() {
+		Fixtures.delete(fresh.getMinecraftDirectory().getNatives(fresh.getVersion()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public void extractFresh() throws LaunchException {
+		launch(fresh);
+	}
+
+	@Benchmark
+	public void extractUpToDate() throws LaunchException {
+		launch(upToDate);
+	}
+
+	private void launch(LaunchOption option) throws LaunchException {
+		try {
+			launcher.launch(option);
+			throw new IllegalStateException("The launch wasn't stopped");
+		} catch (AuthenticationException e) {
+			if (e != STOP) {
+				throw e;
+			}
+		}
+	}
+
+	private LaunchOption createOption(File dir) throws IOException {
+		MinecraftDirectory mcdir = new MinecraftDirectory(dir);
+		JSONObject natives = new JSONObject()
+				.put("linux", "natives")
+				.put("windows", "natives")
+				.put("osx", "natives");
+		JSONObject json = new JSONObject()
+				.put("id", VERSION)
+				.put("type", "release")
+				.put("assets", VERSION)
+				.put("mainClass", "net.minecraft.client.main.Main")
+				.put("minecraftArguments", "--username ${auth_player_name}")
+				.put("libraries", new JSONArray()
+						.put(new JSONObject()
+								.put("name", "org.example:natives:1.0")
+								.put("natives", natives)
+								.put("extract", new JSONObject()
+										.put("exclude", new JSONArray().put("META-INF/")))));
+		Fixtures.write(mcdir.getVersionJson(VERSION), json.toString().getBytes("UTF-8"));
+
+		Version version = Versions.resolveVersion(mcdir, VERSION);
+		for (Library library : version.getLibraries()) {
+			writeNativeJar(mcdir.getLibrary(library));
+		}
+
+		return new LaunchOption(version, new Authenticator() {
+
+			@Override
+			public AuthInfo auth() throws AuthenticationException {
+				throw STOP;
+			}
+		}, mcdir);
+	}
+
+	private void writeNativeJar(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			putStoredEntry(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n".getBytes("UTF-8"));
+			for (int i = 0; i < libraries; i++) {
+				putStoredEntry(out, "liblibrary" + i + ".so", Fixtures.randomBytes(librarySize, i));
+			}
+		}
+	}
+
+	private static void putStoredEntry(ZipOutputStream out, String name, byte[] data) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(data.length);
+		entry.setCrc(crc.getValue());
+		out.putNextEntry(entry);
+		out.write(data);
+		out.closeEntry();
+	}
+
+}
@@ -0,0 +1,184 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Pack200;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.util.HexUtils;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.parsing.Versions;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Measures downloading a <code>.pack</code> and a <code>.pack.xz</code>
+ * library, as hosted by forge, from a {@link MirrorServer}. Most of the time
+ * is spent unpacking.
+ * <p>
+ * The pack is made of the classes of jmccc, in the same layout as forge uses:
+ * the pack200 data, the sha1 checksums of the entries, the length of the
+ * checksums in little endian and <code>SIGN</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PackLibraryBenchmark {
+
+	private static final String PACKAGE = "org/to2mbn/jmccc/";
+
+	private static final Library LIBRARY = new Library("org.to2mbn", "packed", "1.0");
+
+	private MirrorServer server;
+	private MirrorDownloadProvider provider;
+	private CombinedDownloader downloader;
+	private File root;
+	private URI packUri;
+	private URI xzPackUri;
+
+	@Setup
+	public void setup() throws IOException, URISyntaxException, NoSuchAlgorithmException {
+		root = Fixtures.createTempDirectory("pack");
+
+		File jar = new File(root, "original.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			copyClasses(new File(Versions.class.getProtectionDomain().getCodeSource().getLocation().toURI()), out);
+		}
+
+		ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		try (JarFile in = new JarFile(jar)) {
+			Pack200.newPacker().pack(in, packed);
+		}
+		byte[] pack = packed.toByteArray();
+
+		// pack200 doesn't keep the class files byte-identical, so the checksums are computed over the unpacked jar
+		StringBuilder checksums = new StringBuilder();
+		File unpacked = new File(root, "unpacked.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(unpacked))) {
+			Pack200.newUnpacker().unpack(new ByteArrayInputStream(pack), out);
+		}
+		MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+		try (JarInputStream in = new JarInputStream(Files.newInputStream(unpacked.toPath()))) {
+			JarEntry entry;
+			while ((entry = in.getNextJarEntry()) != null) {
+				checksums.append(HexUtils.bytesToHex(sha1.digest(IOUtils.toByteArray(in)))).append(' ').append(entry.getName()).append('\n');
+			}
+		}
+		byte[] checksumsData = checksums.toString().getBytes("UTF-8");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(pack);
+		out.write(checksumsData);
+		int length = checksumsData.length;
+		out.write(new byte[] { (byte) length, (byte) (length >>> 8), (byte) (length >>> 16), (byte) (length >>> 24) });
+		out.write("SIGN".getBytes("ASCII"));
+		byte[] data = out.toByteArray();
+
+		ByteArrayOutputStream xzData = new ByteArrayOutputStream();
+		try (XZOutputStream xz = new XZOutputStream(xzData, new LZMA2Options())) {
+			xz.write(data);
+		}
+
+		server = MirrorServerBuilder.buildDefault();
+		packUri = server.put("library.jar.pack", data);
+		xzPackUri = server.put("library.jar.pack.xz", xzData.toByteArray());
+		provider = new MirrorDownloadProvider(server);
+		downloader = CombinedDownloaderBuilder.buildDefault();
+	}
+
+	@TearDown
+	public void tearDown() {
+		downloader.shutdown();
+		server.close();
+		Fixtures.delete(root);
+	}
+
+	@Benchmark
+	public Void downloadPack() throws InterruptedException, ExecutionException {
+		return download(packUri);
+	}
+
+	@Benchmark
+	public Void downloadXZPack() throws InterruptedException, ExecutionException {
+		return download(xzPackUri);
+	}
+
+	private Void download(URI uri) throws InterruptedException, ExecutionException {
+		return downloader.download(provider.library(new MinecraftDirectory(root), LIBRARY, uri), null).get();
+	}
+
+	private static void copyClasses(File source, final JarOutputStream out) throws IOException {
+		if (source.isDirectory()) {
+			final Path base = source.toPath();
+			Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					String name = base.relativize(file).toString().replace(File.separatorChar, '/');
+					if (name.startsWith(PACKAGE)) {
+						copyEntry(name, Files.readAllBytes(file), out);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} else {
+			try (JarFile jar = new JarFile(source)) {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					JarEntry entry = entries.nextElement();
+					if (!entry.isDirectory() && entry.getName().startsWith(PACKAGE)) {
+						try (InputStream in = jar.getInputStream(entry)) {
+							copyEntry(entry.getName(), IOUtils.toByteArray(in), out);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static void copyEntry(String name, byte[] data, JarOutputStream out) throws IOException {
+		out.putNextEntry(new JarEntry(name));
+		out.write(data);
+		out.closeEntry();
+	}
+
+}
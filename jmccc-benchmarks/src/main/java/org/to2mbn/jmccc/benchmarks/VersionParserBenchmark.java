@@ -0,0 +1,88 @@
+package org.to2mbn.jmccc.benchmarks;
+
+import java.io.IOException;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.util.Platform;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.PlatformDescription;
+import org.to2mbn.jmccc.version.parsing.VersionParser;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+/**
+ * Measures {@link VersionParser#parseVersion(Stack, PlatformDescription)} over
+ * the version hierarchies of the fixtures.
+ * <p>
+ * <code>parseVersion</code> works on the already parsed jsons, while
+ * <code>parseVersionFromBytes</code> also includes the json parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VersionParserBenchmark {
+
+	/**
+	 * The version hierarchy, from the child to the root, separated by
+	 * <code>&gt;</code>.
+	 */
+	@Param({ "1.8-forge1.8-11.14.3.1514>1.8", "1.7.10-LiteLoader1.7.10>1.7.10", "16w05b", "1.6.4" })
+	public String hierarchy;
+
+	@Param({ "LINUX", "WINDOWS", "OSX" })
+	public String platform;
+
+	private VersionParser parser;
+	private PlatformDescription platformDescription;
+	private JSONObject[] jsons;
+	private byte[][] rawJsons;
+
+	@Setup
+	public void setup() throws IOException {
+		parser = Versions.getVersionParser();
+		platformDescription = new PlatformDescription(Platform.valueOf(platform), "10.0", "64");
+
+		String[] versions = hierarchy.split(">");
+		jsons = new JSONObject[versions.length];
+		rawJsons = new byte[versions.length][];
+		for (int i = 0; i < versions.length; i++) {
+			rawJsons[i] = Fixtures.readVersionJson(versions[i]);
+			jsons[i] = IOUtils.toJson(rawJsons[i]);
+		}
+	}
+
+	@Benchmark
+	public Version parseVersion() {
+		// parseVersion() pops the stack, so a new one is needed for every invocation
+		Stack<JSONObject> stack = new Stack<>();
+		for (JSONObject json : jsons) {
+			stack.push(json);
+		}
+		return parser.parseVersion(stack, platformDescription);
+	}
+
+	@Benchmark
+	public Version parseVersionFromBytes() {
+		Stack<JSONObject> stack = new Stack<>();
+		for (byte[] json : rawJsons) {
+			stack.push(IOUtils.toJson(json));
+		}
+		return parser.parseVersion(stack, platformDescription);
+	}
+
+}
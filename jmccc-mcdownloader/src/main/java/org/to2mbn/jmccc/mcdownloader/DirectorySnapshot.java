@@ -0,0 +1,85 @@
+package org.to2mbn.jmccc.mcdownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The names of the entries in a set of directories.
+ * <p>
+ * Each directory is listed only once, without reading the attributes of its
+ * entries. A missing file is then answered from the names alone, and only the
+ * files which exist are stat'ed to check their sizes. This pays off for
+ * directories shared by many files, such as <code>assets/objects/xx</code>.
+ */
+class DirectorySnapshot {
+
+	/**
+	 * Returns true if the file is a regular file and its size is the given
+	 * size.
+	 *
+	 * @param file the file
+	 * @param size the expected size, negative if unknown
+	 */
+	public static boolean hasSize(File file, long size) throws IOException {
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		return attrs.isRegularFile() && (size < 0 || attrs.size() == size);
+	}
+
+	private final Map<File, Set<String>> directories = new HashMap<>();
+
+	/**
+	 * Lists the parent directories of the given files.
+	 */
+	public DirectorySnapshot(Collection<File> files) throws IOException {
+		for (File file : files) {
+			File parent = file.getParentFile();
+			if (parent != null && !directories.containsKey(parent)) {
+				directories.put(parent, list(parent.toPath()));
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the file is a regular file and its size is the given
+	 * size.
+	 *
+	 * @param file the file, whose parent must be listed in this snapshot
+	 * @param size the expected size, negative if unknown
+	 */
+	public boolean isFile(File file, long size) throws IOException {
+		Set<String> names = directories.get(file.getParentFile());
+		if (names == null) {
+			throw new IllegalArgumentException("Not in the snapshot: " + file);
+		}
+		return names.contains(file.getName()) && hasSize(file, size);
+	}
+
+	private static Set<String> list(Path dir) throws IOException {
+		Set<String> names = new HashSet<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+			for (Path entry : stream) {
+				names.add(entry.getFileName().toString());
+			}
+		} catch (NoSuchFileException e) {
+			return Collections.emptySet();
+		}
+		return names;
+	}
+
+}
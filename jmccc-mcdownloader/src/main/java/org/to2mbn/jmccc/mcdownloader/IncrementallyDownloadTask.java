@@ -2,11 +2,13 @@ package org.to2mbn.jmccc.mcdownloader;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -18,8 +20,10 @@ import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
 import org.to2mbn.jmccc.mcdownloader.provider.MinecraftDownloadProvider;
 import org.to2mbn.jmccc.option.MinecraftDirectory;
 import org.to2mbn.jmccc.util.ChecksumUtils;
+import org.to2mbn.jmccc.util.FileUtils;
 import org.to2mbn.jmccc.util.IOUtils;
 import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.AssetIndex;
 import org.to2mbn.jmccc.version.DownloadInfo;
 import org.to2mbn.jmccc.version.Library;
 import org.to2mbn.jmccc.version.Version;
@@ -34,11 +38,12 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 	private boolean checkAssetsHash;
 	private boolean updateSnapshots;
 	private AssetOption assetOption;
+	private SharedStore store;
 
 	private Set<String> handledVersions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 	private String resolvedVersion;
 
-	public IncrementallyDownloadTask(MinecraftDownloadProvider downloadProvider, MinecraftDirectory mcdir, String version, boolean checkLibrariesHash, boolean checkAssetsHash, boolean updateSnapshots, AssetOption assetOption) {
+	public IncrementallyDownloadTask(MinecraftDownloadProvider downloadProvider, MinecraftDirectory mcdir, String version, boolean checkLibrariesHash, boolean checkAssetsHash, boolean updateSnapshots, AssetOption assetOption, SharedStore store) {
 		Objects.requireNonNull(mcdir);
 		Objects.requireNonNull(version);
 		Objects.requireNonNull(downloadProvider);
@@ -49,6 +54,7 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 		this.checkAssetsHash = checkAssetsHash;
 		this.updateSnapshots = updateSnapshots;
 		this.assetOption = assetOption;
+		this.store = store;
 	}
 
 	@Override
@@ -67,7 +73,7 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 				final Version versionModel = Versions.resolveVersion(mcdir, resolvedVersion);
 
 				if (mcdir.getAssetIndex(versionModel).exists()) {
-					downloadAssets(context, Versions.resolveAssets(mcdir, versionModel));
+					downloadAssets(context, Versions.resolveAssetIndex(mcdir, versionModel));
 
 				} else {
 					context.submit(provider.assetsIndex(mcdir, versionModel), new CallbackAdapter<Set<Asset>>() {
@@ -79,7 +85,7 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 
 									@Override
 									public Void call() throws Exception {
-										downloadAssets(context, result);
+										downloadAssets(context, result == null ? null : AssetIndex.of(result));
 										return null;
 									}
 								}, null, true);
@@ -152,39 +158,88 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 		}
 	}
 
-	private void downloadAssets(final CombinedDownloadContext<Version> context, Set<Asset> assets) throws InterruptedException {
+	private void downloadAssets(final CombinedDownloadContext<Version> context, AssetIndex assets) throws InterruptedException, IOException {
 		if (assets == null || assetOption == AssetOption.SKIP_ASSETS)
 			return;
 
-		Map<String, Asset> hashMapping = new HashMap<>();
-		for (Asset asset : assets) {
-			// put the assets into a map
-			// to remove the elements which has the same hash
-			hashMapping.put(asset.getHash(), asset);
-		}
+		// assets which have the same hash share the same object
+		List<Asset> objects = assets.getUniqueObjects();
 
 		final boolean fatal = assetOption == AssetOption.FORCIBLY_DOWNLOAD;
 
-		if (checkAssetsHash)
-			for (final Asset asset : hashMapping.values())
+		if (checkAssetsHash) {
+			prepareWrite(objects);
+			for (final Asset asset : objects)
 				context.submit(new Callable<Void>() {
 
 					@Override
 					public Void call() throws Exception {
 						if (!asset.isValid(mcdir))
-							context.submit(provider.asset(mcdir, asset), null, fatal);
+							downloadAsset(context, asset, fatal);
 
 						return null;
 					}
 				}, null, false);
 
-		else
-			for (Asset asset : hashMapping.values())
-				if (!mcdir.getAsset(asset).isFile())
+		} else {
+			List<File> files = new ArrayList<>(objects.size());
+			for (Asset asset : objects)
+				files.add(mcdir.getAsset(asset));
+			DirectorySnapshot snapshot = new DirectorySnapshot(files);
+
+			// truncated files are downloaded again as well
+			List<Asset> missing = new ArrayList<>();
+			for (Asset asset : objects)
+				if (!snapshot.isFile(mcdir.getAsset(asset), asset.getSize()))
+					missing.add(asset);
+
+			prepareWrite(missing);
+			for (final Asset asset : missing)
+				if (store == null)
 					context.submit(provider.asset(mcdir, asset), null, fatal);
+				else
+					context.submit(new Callable<Void>() {
+
+						@Override
+						public Void call() throws Exception {
+							downloadAsset(context, asset, fatal);
+							return null;
+						}
+					}, null, fatal);
+		}
+	}
+
+	/**
+	 * Downloads the asset, or links it to the shared store if the store has
+	 * it.
+	 */
+	private void downloadAsset(CombinedDownloadContext<?> context, Asset asset, boolean fatal) throws Exception {
+		if (store == null) {
+			context.submit(provider.asset(mcdir, asset), null, fatal);
+			return;
+		}
+
+		MinecraftDirectory storeDir = store.getAssetsDirectory();
+		File stored = storeDir.getAsset(asset);
+		File target = mcdir.getAsset(asset);
+		if (checkAssetsHash ? asset.isValid(storeDir) : isStored(stored, asset.getSize()))
+			SharedStore.link(stored, target);
+		else
+			context.submit(provider.asset(storeDir, asset), linkAfterDownload(context, stored, target, asset.getHash(), asset.getSize(), fatal), fatal);
+	}
+
+	/**
+	 * Creates the object directories of the assets at once, rather than
+	 * checking them for each asset.
+	 */
+	private void prepareWrite(List<Asset> assets) throws IOException {
+		List<File> targets = new ArrayList<>(assets.size());
+		for (Asset asset : assets)
+			targets.add(mcdir.getAsset(asset));
+		FileUtils.prepareWrite(targets);
 	}
 
-	private void downloadLibraries(final CombinedDownloadContext<?> context, Version version) throws InterruptedException {
+	private void downloadLibraries(final CombinedDownloadContext<?> context, Version version) throws InterruptedException, IOException {
 		if (checkLibrariesHash)
 			for (final Library library : version.getLibraries())
 				context.submit(new Callable<Void>() {
@@ -201,19 +256,92 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 				}, null, true);
 
 		else {
-			Set<Library> missing = version.getMissingLibraries(mcdir);
+			Set<Library> libraries = version.getLibraries();
+
+			// each library has a directory of its own, so listing them wouldn't save anything
+			Set<Library> missing = new LinkedHashSet<>();
+			for (Library library : libraries) {
+				DownloadInfo info = library.getDownloadInfo();
+				if (!DirectorySnapshot.hasSize(mcdir.getLibrary(library), info == null ? -1 : info.getSize()))
+					missing.add(library);
+			}
+
+			List<File> targets = new ArrayList<>(missing.size());
+			for (Library library : missing)
+				targets.add(mcdir.getLibrary(library));
+			FileUtils.prepareWrite(targets);
+
 			for (Library library : missing)
 				downloadLibrary(context, library, true);
 
-			Set<Library> existing = new HashSet<>(version.getLibraries());
+			Set<Library> existing = new HashSet<>(libraries);
 			existing.removeAll(missing);
 			for (Library library : existing)
 				checkAndUpdate(context, library);
 		}
 	}
 
-	private void downloadLibrary(CombinedDownloadContext<?> context, Library library, boolean fatal) throws InterruptedException {
-		context.submit(provider.library(mcdir, library), null, fatal);
+	/**
+	 * Downloads the library, or links it to the shared store if the store has
+	 * it.
+	 */
+	private void downloadLibrary(final CombinedDownloadContext<?> context, final Library library, final boolean fatal) throws InterruptedException {
+		final MinecraftDirectory storeDir = store == null ? null : store.getLibraryDirectory(library);
+		if (storeDir == null) {
+			context.submit(provider.library(mcdir, library), null, fatal);
+			return;
+		}
+
+		context.submit(new Callable<Void>() {
+
+			@Override
+			public Void call() throws Exception {
+				File stored = storeDir.getLibrary(library);
+				File target = mcdir.getLibrary(library);
+				DownloadInfo info = library.getDownloadInfo();
+				if (checkLibrariesHash ? !needDownload(stored, info) : isStored(stored, info.getSize()))
+					SharedStore.link(stored, target);
+				else
+					context.submit(provider.library(storeDir, library), linkAfterDownload(context, stored, target, info.getChecksum(), info.getSize(), fatal), fatal);
+				return null;
+			}
+		}, null, fatal);
+	}
+
+	/**
+	 * Links the target to the downloaded file, after the file has been
+	 * verified. Every instance which links to the store would see a bad file,
+	 * so it is checked even if the hashes aren't checked otherwise.
+	 *
+	 * @param checksum the SHA-1 checksum of the file, null if unknown
+	 */
+	private CallbackAdapter<Void> linkAfterDownload(final CombinedDownloadContext<?> context, final File stored, final File target, final String checksum, final long size, final boolean fatal) {
+		return new CallbackAdapter<Void>() {
+
+			@Override
+			public void done(Void result) {
+				try {
+					context.submit(new Callable<Void>() {
+
+						@Override
+						public Void call() throws Exception {
+							if (checksum != null && !ChecksumUtils.verify(stored, checksum, "SHA-1", size)) {
+								Files.deleteIfExists(stored.toPath());
+								throw new IOException("checksums mismatch: " + stored);
+							}
+							SharedStore.link(stored, target);
+							return null;
+						}
+					}, null, fatal);
+				} catch (InterruptedException e) {
+					context.cancelled();
+				}
+			}
+		};
+	}
+
+	private static boolean isStored(File stored, long size) {
+		return stored.isFile() && (size < 0 || stored.length() == size);
 	}
 
 	private boolean needDownload(File target, DownloadInfo info) throws NoSuchAlgorithmException, IOException {
@@ -237,7 +365,8 @@ class IncrementallyDownloadTask extends CombinedDownloadTask<Version> {
 							public Void call() throws Exception {
 								String sha1 = IOUtils.toString(mcdir.getLibrary(sha1lib)).trim();
 								if (!ChecksumUtils.verify(mcdir.getLibrary(lib), sha1, "SHA-1")) {
-									downloadLibrary(context, lib, false);
+									// the new build doesn't match the checksum which the store is keyed by
+									context.submit(provider.library(mcdir, lib), null, false);
 								}
 								return null;
 							}
@@ -59,6 +59,7 @@ class MinecraftDownloaderImpl implements MinecraftDownloader {
 		boolean updateSnapshots = false;
 		AssetOption assetOption = null;
 		CacheOption cacheOption = null;
+		SharedStore store = null;
 
 		for (MinecraftDownloadOption option : options) {
 			if (option instanceof CacheOption) {
@@ -87,10 +88,13 @@ class MinecraftDownloaderImpl implements MinecraftDownloader {
 					default:
 						break;
 				}
+
+			} else if (option instanceof SharedStoreOption) {
+				store = new SharedStore(((SharedStoreOption) option).getRoot());
 			}
 		}
 
-		CombinedDownloadTask<Version> task = new IncrementallyDownloadTask(downloadProvider, dir, version, checkLibrariesHash, checkAssetsHash, updateSnapshots, assetOption);
+		CombinedDownloadTask<Version> task = new IncrementallyDownloadTask(downloadProvider, dir, version, checkLibrariesHash, checkAssetsHash, updateSnapshots, assetOption, store);
 
 		if (cacheOption != null) {
 			task = processCacheOption(task, cacheOption);
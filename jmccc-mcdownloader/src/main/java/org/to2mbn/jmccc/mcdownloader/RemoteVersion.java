@@ -1,5 +1,6 @@
 package org.to2mbn.jmccc.mcdownloader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -13,6 +14,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
+import org.to2mbn.jmccc.util.CompactReader;
+import org.to2mbn.jmccc.util.CompactWriter;
 
 public class RemoteVersion implements Serializable {
 
@@ -30,6 +34,46 @@ public class RemoteVersion implements Serializable {
 		String releaseTime = json.optString("releaseTime", null);
 		String type = json.optString("type", null);
 		String url = json.optString("url", null);
+		return create(version, updateTime, releaseTime, type, url);
+	}
+
+	public static RemoteVersion fromJson(JSONPullParser parser) throws JSONException {
+		String version = null;
+		String updateTime = null;
+		String releaseTime = null;
+		String type = null;
+		String url = null;
+		parser.beginObject();
+		while (parser.hasNext()) {
+			switch (parser.nextName()) {
+				case "id":
+					version = parser.nextString();
+					break;
+				case "time":
+					updateTime = parser.nextStringOrNull();
+					break;
+				case "releaseTime":
+					releaseTime = parser.nextStringOrNull();
+					break;
+				case "type":
+					type = parser.nextStringOrNull();
+					break;
+				case "url":
+					url = parser.nextStringOrNull();
+					break;
+				default:
+					parser.skipValue();
+					break;
+			}
+		}
+		parser.endObject();
+		if (version == null) {
+			throw new JSONException("JSONObject[\"id\"] not found.");
+		}
+		return create(version, updateTime, releaseTime, type, url);
+	}
+
+	private static RemoteVersion create(String version, String updateTime, String releaseTime, String type, String url) {
 		return new RemoteVersion(version,
 				updateTime == null ? null : convertDate(updateTime),
 				updateTime,
@@ -39,6 +83,42 @@ public class RemoteVersion implements Serializable {
 				url);
 	}
 
+	static void writeBinary(CompactWriter writer, RemoteVersion version) {
+		writer.writeString(version.version);
+		writer.writeString(version.uploadTimeString);
+		writeDate(writer, version.uploadTime);
+		writer.writeString(version.releaseTimeString);
+		writeDate(writer, version.releaseTime);
+		writer.writeString(version.type);
+		writer.writeString(version.url);
+	}
+
+	static RemoteVersion readBinary(CompactReader reader) throws IOException {
+		String version = reader.readString();
+		String uploadTimeString = reader.readString();
+		Date uploadTime = readDate(reader);
+		String releaseTimeString = reader.readString();
+		Date releaseTime = readDate(reader);
+		String type = reader.readString();
+		String url = reader.readString();
+		if (version == null) {
+			throw new IOException("Corrupted remote version");
+		}
+		return new RemoteVersion(version, uploadTime, uploadTimeString, releaseTime, releaseTimeString, type, url);
+	}
+
+	// the dates are stored rather than re-parsed from the strings
+	private static void writeDate(CompactWriter writer, Date date) {
+		writer.writeBoolean(date != null);
+		if (date != null) {
+			writer.writeSignedVarLong(date.getTime());
+		}
+	}
+
+	private static Date readDate(CompactReader reader) throws IOException {
+		return reader.readBoolean() ? new Date(reader.readSignedVarLong()) : null;
+	}
+
 	private static Date convertDate(String date) {
 		try {
 			Matcher matcher = DATETIME_PATTERN.matcher(date);
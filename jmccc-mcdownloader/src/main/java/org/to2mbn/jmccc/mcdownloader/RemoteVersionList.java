@@ -1,5 +1,7 @@
 package org.to2mbn.jmccc.mcdownloader;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -8,11 +10,17 @@ import java.util.Objects;
 import org.to2mbn.jmccc.internal.org.json.JSONArray;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
+import org.to2mbn.jmccc.util.CompactReader;
+import org.to2mbn.jmccc.util.CompactWriter;
 
 public class RemoteVersionList implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	private static final int BINARY_MAGIC = 0x4a4d5256; // "JMRV"
+	private static final int BINARY_FORMAT_VERSION = 1;
+
 	public static RemoteVersionList fromJson(JSONObject json) throws JSONException {
 		String latestSnapshot = null;
 		String latestRelease = null;
@@ -31,6 +39,76 @@ public class RemoteVersionList implements Serializable {
 		return new RemoteVersionList(latestSnapshot, latestRelease, Collections.unmodifiableMap(versions));
 	}
 
+	public static RemoteVersionList fromJson(JSONPullParser parser) throws JSONException {
+		String latestSnapshot = null;
+		String latestRelease = null;
+		Map<String, RemoteVersion> versions = null;
+		parser.beginObject();
+		while (parser.hasNext()) {
+			switch (parser.nextName()) {
+				case "latest":
+					parser.beginObject();
+					while (parser.hasNext()) {
+						switch (parser.nextName()) {
+							case "snapshot":
+								latestSnapshot = parser.nextStringOrNull();
+								break;
+							case "release":
+								latestRelease = parser.nextStringOrNull();
+								break;
+							default:
+								parser.skipValue();
+								break;
+						}
+					}
+					parser.endObject();
+					break;
+
+				case "versions":
+					versions = new LinkedHashMap<>();
+					parser.beginArray();
+					while (parser.hasNext()) {
+						RemoteVersion version = RemoteVersion.fromJson(parser);
+						versions.put(version.getVersion(), version);
+					}
+					parser.endArray();
+					break;
+
+				default:
+					parser.skipValue();
+					break;
+			}
+		}
+		parser.endObject();
+		if (versions == null) {
+			throw new JSONException("JSONObject[\"versions\"] not found.");
+		}
+		return new RemoteVersionList(latestSnapshot, latestRelease, Collections.unmodifiableMap(versions));
+	}
+
+	/**
+	 * Reads a version list written by {@link #writeBinary(OutputStream)}.
+	 * 
+	 * @param data the encoded version list
+	 * @return the version list
+	 * @throws IOException if the data is corrupted or in an unknown format
+	 */
+	public static RemoteVersionList fromBinary(byte[] data) throws IOException {
+		CompactReader reader = CompactReader.open(data, BINARY_MAGIC, BINARY_FORMAT_VERSION);
+		String latestSnapshot = reader.readString();
+		String latestRelease = reader.readString();
+		int count = reader.readVarInt();
+		Map<String, RemoteVersion> versions = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			RemoteVersion version = RemoteVersion.readBinary(reader);
+			versions.put(version.getVersion(), version);
+		}
+		if (!reader.isEnd()) {
+			throw new IOException("Unexpected data after the version list");
+		}
+		return new RemoteVersionList(latestSnapshot, latestRelease, Collections.unmodifiableMap(versions));
+	}
+
 	private String latestSnapshot;
 	private String latestRelease;
 	private Map<String, RemoteVersion> versions;
@@ -81,6 +159,25 @@ public class RemoteVersionList implements Serializable {
 		return "[latestSnapshot=" + latestSnapshot + ", latestRelease=" + latestRelease + ", versions=" + versions + "]";
 	}
 
+	/**
+	 * Writes the version list in a compact binary form, which can be read by
+	 * {@link #fromBinary(byte[])}.
+	 * 
+	 * @param out the stream to write to
+	 * @throws IOException if an I/O error occurs
+	 * @see CompactWriter
+	 */
+	public void writeBinary(OutputStream out) throws IOException {
+		CompactWriter writer = new CompactWriter();
+		writer.writeString(latestSnapshot);
+		writer.writeString(latestRelease);
+		writer.writeVarInt(versions.size());
+		for (RemoteVersion version : versions.values()) {
+			RemoteVersion.writeBinary(writer, version);
+		}
+		writer.writeTo(out, BINARY_MAGIC, BINARY_FORMAT_VERSION);
+	}
+
 	@Override
 	public int hashCode() {
 		return versions.hashCode();
@@ -0,0 +1,132 @@
+package org.to2mbn.jmccc.mcdownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.util.FileUtils;
+import org.to2mbn.jmccc.version.DownloadInfo;
+import org.to2mbn.jmccc.version.Library;
+
+/**
+ * The layout of a shared store:
+ *
+ * <pre>
+ * assets/objects/&lt;hash prefix&gt;/&lt;hash&gt;
+ * libraries/&lt;sha1&gt;/libraries/&lt;maven path&gt;
+ * </pre>
+ *
+ * So the store can be accessed through {@link MinecraftDirectory}s, and the
+ * download providers can download into it directly.
+ */
+class SharedStore {
+
+	/**
+	 * The ways to link a file to the store, in the order they are tried.
+	 */
+	enum LinkMethod {
+		HARD_LINK, SYMBOLIC_LINK, COPY
+	}
+
+	private final File root;
+	private final MinecraftDirectory assetsDirectory;
+
+	public SharedStore(File root) {
+		this.root = root;
+		this.assetsDirectory = new MinecraftDirectory(root);
+	}
+
+	public MinecraftDirectory getAssetsDirectory() {
+		return assetsDirectory;
+	}
+
+	/**
+	 * @return the directory which the library is stored in, null if the
+	 *         library cannot be shared
+	 */
+	public MinecraftDirectory getLibraryDirectory(Library library) {
+		DownloadInfo info = library.getDownloadInfo();
+		if (info == null || info.getChecksum() == null || info.getChecksum().isEmpty()) {
+			return null;
+		}
+		return new MinecraftDirectory(new File(new File(root, "libraries"), info.getChecksum().toLowerCase()));
+	}
+
+	/**
+	 * Links the target to the stored file. The target is replaced if it
+	 * exists.
+	 */
+	public static void link(File stored, File target) throws IOException {
+		link(stored, target, LinkMethod.HARD_LINK);
+	}
+
+	/**
+	 * Links the target to the stored file, trying the given method first and
+	 * then the ones after it.
+	 *
+	 * @return the method which has linked the file, null if the target is the
+	 *         stored file
+	 */
+	static LinkMethod link(File stored, File target, LinkMethod first) throws IOException {
+		Path source = stored.getAbsoluteFile().toPath();
+		Path dest = target.getAbsoluteFile().toPath();
+		if (source.equals(dest)) {
+			return null;
+		}
+
+		FileUtils.prepareWrite(target);
+		// the store is usually shared by several processes, so the name must be unique across them
+		Path tmp = dest.resolveSibling(dest.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".link");
+		try {
+			LinkMethod method = createLink(source, tmp, first);
+			Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return method;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private static LinkMethod createLink(Path source, Path link, LinkMethod first) throws IOException {
+		if (first == LinkMethod.HARD_LINK) {
+			try {
+				Files.createLink(link, source);
+				return LinkMethod.HARD_LINK;
+			} catch (UnsupportedOperationException e) {
+				// not supported by the file system provider
+			} catch (FileSystemException e) {
+				checkFallback(e);
+			}
+		}
+		if (first != LinkMethod.COPY) {
+			try {
+				Files.createSymbolicLink(link, source);
+				return LinkMethod.SYMBOLIC_LINK;
+			} catch (UnsupportedOperationException e) {
+				// not supported by the file system provider
+			} catch (FileSystemException e) {
+				checkFallback(e);
+			}
+		}
+		Files.copy(source, link);
+		return LinkMethod.COPY;
+	}
+
+	/**
+	 * Rethrows the exceptions which would fail the other methods as well. The
+	 * others are e.g. cross-device links, or links not supported or not
+	 * permitted by the file system.
+	 */
+	private static void checkFallback(FileSystemException e) throws FileSystemException {
+		if (e instanceof FileAlreadyExistsException || e instanceof NoSuchFileException || e instanceof AccessDeniedException) {
+			throw e;
+		}
+	}
+
+}
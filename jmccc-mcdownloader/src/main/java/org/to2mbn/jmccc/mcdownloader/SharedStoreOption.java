@@ -0,0 +1,74 @@
+package org.to2mbn.jmccc.mcdownloader;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Specifies a directory in which the assets and the libraries are shared
+ * between minecraft directories.
+ * <p>
+ * Assets are stored by their SHA-1, and libraries are stored by their SHA-1
+ * and maven path, so a file is downloaded only once no matter how many
+ * minecraft directories use it. The files in the minecraft directory are hard
+ * links to the files in the store. If hard links are not supported (e.g. the
+ * store is on another file system), symbolic links are created instead, and
+ * the files are copied if neither is supported.
+ * <p>
+ * Libraries without a checksum are not shared, they are downloaded into the
+ * minecraft directory as usual.
+ */
+public final class SharedStoreOption implements MinecraftDownloadOption {
+
+	private final File root;
+
+	/**
+	 * Constructs a SharedStoreOption.
+	 *
+	 * @param root the root directory of the store
+	 * @throws NullPointerException if <code>root==null</code>
+	 */
+	public SharedStoreOption(File root) {
+		this.root = Objects.requireNonNull(root);
+	}
+
+	/**
+	 * Constructs a SharedStoreOption.
+	 *
+	 * @param root the root directory of the store
+	 * @throws NullPointerException if <code>root==null</code>
+	 */
+	public SharedStoreOption(String root) {
+		this(new File(Objects.requireNonNull(root)));
+	}
+
+	/**
+	 * Gets the root directory of the store.
+	 *
+	 * @return the root directory of the store
+	 */
+	public File getRoot() {
+		return root;
+	}
+
+	@Override
+	public int hashCode() {
+		return root.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof SharedStoreOption) {
+			return root.equals(((SharedStoreOption) obj).root);
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "SharedStoreOption [root=" + root + "]";
+	}
+
+}
@@ -13,6 +13,7 @@ import org.to2mbn.jmccc.mcdownloader.download.Downloader;
 import org.to2mbn.jmccc.mcdownloader.download.cache.provider.CacheProvider;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.CompletedFuture;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallback;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
 
@@ -29,6 +30,11 @@ class CachedDownloader implements Downloader {
 			this.proxiedTask = proxiedTask;
 		}
 
+		@Override
+		public String getCachePool() {
+			return proxiedTask.getCachePool();
+		}
+
 		private class CachingDownloadSession implements DownloadSession<T> {
 
 			private final DownloadSession<T> proxiedSession;
@@ -113,6 +119,11 @@ class CachedDownloader implements Downloader {
 
 		}
 
+		@Override
+		public void requestStarted() {
+			proxiedTask.requestStarted();
+		}
+
 		@Override
 		public DownloadSession<T> createSession() throws IOException {
 			return new CachingDownloadSession(proxiedTask.createSession(), 8192);
@@ -127,10 +138,12 @@ class CachedDownloader implements Downloader {
 
 	private Downloader upstream;
 	private CacheProvider<URI, byte[]> cacheProvider;
+	private DownloadMetrics metrics;
 
-	public CachedDownloader(Downloader upstream, CacheProvider<URI, byte[]> cacheProvider) {
+	public CachedDownloader(Downloader upstream, CacheProvider<URI, byte[]> cacheProvider, DownloadMetrics metrics) {
 		this.upstream = Objects.requireNonNull(upstream);
 		this.cacheProvider = Objects.requireNonNull(cacheProvider);
+		this.metrics = Objects.requireNonNull(metrics);
 	}
 
 	@Override
@@ -171,6 +184,7 @@ class CachedDownloader implements Downloader {
 
 			byte[] cached = cacheProvider.get(pool, uri);
 			if (cached == null) {
+				metrics.cacheMiss(pool);
 				return submitToUpstream(new CachingDownloadTask<>(task), callback, tries);
 			} else {
 
@@ -179,6 +193,8 @@ class CachedDownloader implements Downloader {
 					result = processCache(task, cached);
 				} catch (Throwable e) {
 					cacheProvider.remove(pool, uri);
+					metrics.cacheEvicted(pool);
+					metrics.cacheMiss(pool);
 
 					if (LOGGER.isLoggable(Level.FINE))
 						LOGGER.log(Level.FINE, String.format("Removed cache [%s] from [%s] because an exception has thrown when applying cache", uri, pool), e);
@@ -186,6 +202,8 @@ class CachedDownloader implements Downloader {
 					return submitToUpstream(new CachingDownloadTask<>(task), callback, tries);
 				}
 
+				metrics.cacheHit(pool);
+
 				if (LOGGER.isLoggable(Level.FINE))
 					LOGGER.fine(String.format("Applied cache [%s] from [%s], length=%d", uri, pool, cached.length));
 
@@ -8,6 +8,8 @@ import org.to2mbn.jmccc.mcdownloader.download.Downloader;
 import org.to2mbn.jmccc.mcdownloader.download.cache.provider.CacheProvider;
 import org.to2mbn.jmccc.mcdownloader.download.cache.provider.EhcacheProvider;
 import org.to2mbn.jmccc.mcdownloader.download.cache.provider.JCacheProvider;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Metrics;
 import org.to2mbn.jmccc.util.Builder;
 import org.to2mbn.jmccc.util.Builders;
 
@@ -36,6 +38,7 @@ public class CachedDownloaderBuilder implements Builder<Downloader> {
 
 	protected final Builder<Downloader> underlying;
 	protected Builder<? extends CacheProvider<URI, byte[]>> cacheProvider;
+	protected DownloadMetrics metrics = Metrics.noop();
 
 	protected CachedDownloaderBuilder(Builder<Downloader> underlying) {
 		this.underlying = Objects.requireNonNull(underlying);
@@ -46,6 +49,11 @@ public class CachedDownloaderBuilder implements Builder<Downloader> {
 		return this;
 	}
 
+	public CachedDownloaderBuilder metrics(DownloadMetrics metrics) {
+		this.metrics = metrics == null ? Metrics.noop() : metrics;
+		return this;
+	}
+
 	// === Ehcache Supports
 
 	private static class EhcacheProviderBuilder implements Builder<CacheProvider<URI, byte[]>> {
@@ -215,7 +223,7 @@ public class CachedDownloaderBuilder implements Builder<Downloader> {
 			underlying = Objects.requireNonNull(this.underlying.build(), "Underlying downloader builder returns null");
 			cache = buildCacheProvider();
 			LOGGER.fine("Using cache provider: " + cache);
-			return new CachedDownloader(underlying, cache);
+			return new CachedDownloader(underlying, cache, metrics);
 
 		} catch (Throwable e) {
 			if (underlying != null) {
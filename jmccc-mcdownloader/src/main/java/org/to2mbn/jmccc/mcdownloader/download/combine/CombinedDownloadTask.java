@@ -2,6 +2,7 @@ package org.to2mbn.jmccc.mcdownloader.download.combine;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 
@@ -74,6 +75,46 @@ abstract public class CombinedDownloadTask<T> {
 		return new AnyCombinedTask<>(tasks, expectedExceptions);
 	}
 
+	/**
+	 * Creates a CombinedDownloadTask which runs the given tasks as hedged
+	 * requests.
+	 * <p>
+	 * The first task is started at once. If it hasn't completed within the
+	 * delay, the next task is started, while the previous one keeps running,
+	 * and so on. If a task fails with an <code>IOException</code>, the next
+	 * task is started without waiting for the delay. The result of the first
+	 * task which completes is used, and the other tasks are cancelled. If the
+	 * delay is 0, all the tasks race at once.
+	 * <p>
+	 * The tasks may run concurrently, so they must not write to the same
+	 * location, unless they do it atomically.
+	 *
+	 * @param delay the delay before starting the next task
+	 * @param unit the unit of the delay
+	 * @param tasks the tasks, in the order of preference
+	 * @param <T> the type of the tasks
+	 * @return the CombinedDownloadTask
+	 * @throws NullPointerException if <code>unit == null || tasks == null</code>
+	 * @throws IllegalArgumentException if <code>delay &lt; 0</code>, or
+	 *             <code>tasks</code> is empty
+	 */
+	@SuppressWarnings("unchecked")
+	@SafeVarargs
+	public static <T> CombinedDownloadTask<T> hedged(long delay, TimeUnit unit, CombinedDownloadTask<T>... tasks) {
+		Objects.requireNonNull(unit);
+		Objects.requireNonNull(tasks);
+		if (delay < 0) {
+			throw new IllegalArgumentException("delay < 0");
+		}
+		if (tasks.length == 0) {
+			throw new IllegalArgumentException("Tasks cannot be empty");
+		}
+		if (tasks.length == 1) {
+			return tasks[0];
+		}
+		return new HedgedCombinedTask<>(tasks.clone(), delay, unit, new Class[] { IOException.class });
+	}
+
 	abstract public void execute(CombinedDownloadContext<T> context) throws Exception;
 
 	public CacheStrategy getCacheStrategy() {
@@ -99,6 +140,25 @@ abstract public class CombinedDownloadTask<T> {
 		return new CombinedTaskCachePoolDecorator<>(this, pool);
 	}
 
+	/**
+	 * Returns a task which runs this task only once per download session.
+	 * <p>
+	 * The first memoized task with the given key in a session runs this task,
+	 * and the following ones with the same key wait for its result, rather
+	 * than running their own tasks. So the tasks with the same key must
+	 * produce the same result. A session starts when a top-level task is
+	 * submitted to the {@link CombinedDownloader}. If the context isn't created
+	 * by the built-in <code>CombinedDownloader</code>, the task runs every time.
+	 *
+	 * @param key the key of the result, compared with
+	 *            {@link Object#equals(Object)}
+	 * @return the memoized task
+	 * @throws NullPointerException if <code>key == null</code>
+	 */
+	public final CombinedDownloadTask<T> memoized(Object key) {
+		return new MemoizedCombinedTask<>(this, key);
+	}
+
 	public final <R> CombinedDownloadTask<R> andThen(ResultProcessor<T, R> processor) {
 		return new AndThenCombinedTask<>(this, processor);
 	}
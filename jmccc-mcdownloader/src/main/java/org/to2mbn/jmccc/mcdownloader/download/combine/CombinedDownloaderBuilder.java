@@ -5,6 +5,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.to2mbn.jmccc.mcdownloader.download.Downloader;
 import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Metrics;
 import org.to2mbn.jmccc.mcdownloader.util.ThreadPoolUtils;
 import org.to2mbn.jmccc.util.Builder;
 
@@ -31,6 +33,7 @@ public class CombinedDownloaderBuilder implements Builder<CombinedDownloader> {
 	protected long threadPoolKeepAliveTime = 10;
 	protected TimeUnit threadPoolKeepAliveTimeUnit = TimeUnit.SECONDS;
 	protected int defaultTries = 3;
+	protected DownloadMetrics metrics = Metrics.noop();
 
 	protected CombinedDownloaderBuilder(Builder<Downloader> underlying) {
 		this.underlying = Objects.requireNonNull(underlying);
@@ -52,6 +55,11 @@ public class CombinedDownloaderBuilder implements Builder<CombinedDownloader> {
 		return this;
 	}
 
+	public CombinedDownloaderBuilder metrics(DownloadMetrics metrics) {
+		this.metrics = metrics == null ? Metrics.noop() : metrics;
+		return this;
+	}
+
 	@Override
 	public CombinedDownloader build() {
 		ExecutorService pool = null;
@@ -59,7 +67,7 @@ public class CombinedDownloaderBuilder implements Builder<CombinedDownloader> {
 		try {
 			pool = ThreadPoolUtils.createPool(threadPoolSize, threadPoolKeepAliveTime, threadPoolKeepAliveTimeUnit, "combinedDownloader");
 			downloader = Objects.requireNonNull(this.underlying.build(), "Underlying downloader builder returns null");
-			return new CombinedDownloaderImpl(pool, downloader, defaultTries);
+			return new CombinedDownloaderImpl(pool, downloader, defaultTries, metrics);
 		} catch (Throwable e) {
 			if (pool != null) {
 				try {
@@ -12,9 +12,11 @@ import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -28,6 +30,8 @@ import org.to2mbn.jmccc.mcdownloader.download.concurrent.CombinedDownloadCallbac
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.CombinedDownloadCallbacks;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallback;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallbacks;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Gauge;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
 
 class CombinedDownloaderImpl implements CombinedDownloader {
@@ -145,18 +149,21 @@ class CombinedDownloaderImpl implements CombinedDownloader {
 		private final CombinedDownloadTask<T> task;
 		private final CombinedDownloadCallback<T> callback;
 		private final int tries;
+		private final ConcurrentMap<Object, Object> sessionAttributes;
 		private final SubtaskCountdownAction countdownAction = new SubtaskCountdownAction();
 		private final SubtaskCounter subtaskCounter = new SubtaskCounter();
 
-		public CombinedAsyncTask(CombinedDownloadTask<T> task, CombinedDownloadCallback<T> callback, int tries) {
+		public CombinedAsyncTask(CombinedDownloadTask<T> task, CombinedDownloadCallback<T> callback, int tries, ConcurrentMap<Object, Object> sessionAttributes) {
 			Objects.requireNonNull(task);
 			Objects.requireNonNull(callback);
+			Objects.requireNonNull(sessionAttributes);
 			if (tries < 1)
 				throw new IllegalArgumentException(String.valueOf(tries));
 
 			this.task = task;
 			this.callback = callback;
 			this.tries = tries;
+			this.sessionAttributes = sessionAttributes;
 		}
 
 		@Override
@@ -259,7 +266,7 @@ class CombinedDownloaderImpl implements CombinedDownloader {
 				checkInterrupted();
 
 				subtaskCounter.countUp();
-				future = CombinedDownloaderImpl.this.download(task, CombinedDownloadCallbacks.group(callbacks), tries);
+				future = CombinedDownloaderImpl.this.download(task, CombinedDownloadCallbacks.group(callbacks), tries, sessionAttributes);
 				futureManager.setFuture(future);
 			} finally {
 				lock.unlock();
@@ -336,7 +343,26 @@ class CombinedDownloaderImpl implements CombinedDownloader {
 
 	}
 
-	private ExecutorService executor;
+	private class QueueGauge implements Gauge {
+
+		@Override
+		public long get() {
+			ExecutorService executor = CombinedDownloaderImpl.this.executor;
+			return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+		}
+
+	}
+
+	private class ActiveTasksGauge implements Gauge {
+
+		@Override
+		public long get() {
+			return tasks.size();
+		}
+
+	}
+
+	private volatile ExecutorService executor;
 	private Downloader downloader;
 	private int defaultTries;
 
@@ -344,24 +370,33 @@ class CombinedDownloaderImpl implements CombinedDownloader {
 	private final ReadWriteLock globalRwlock = new ReentrantReadWriteLock();
 	private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
 
-	public CombinedDownloaderImpl(ExecutorService executor, Downloader downloader, int defaultTries) {
+	public CombinedDownloaderImpl(ExecutorService executor, Downloader downloader, int defaultTries, DownloadMetrics metrics) {
 		Objects.requireNonNull(executor);
 		Objects.requireNonNull(downloader);
+		Objects.requireNonNull(metrics);
 		if (defaultTries < 1)
 			throw new IllegalArgumentException(String.valueOf(defaultTries));
 
 		this.executor = executor;
 		this.downloader = downloader;
 		this.defaultTries = defaultTries;
+
+		metrics.registerGauge("combinedDownloader.queue", new QueueGauge());
+		metrics.registerGauge("combinedDownloader.active", new ActiveTasksGauge());
 	}
 
 	@Override
 	public <T> Future<T> download(CombinedDownloadTask<T> downloadTask, CombinedDownloadCallback<T> callback, int tries) {
+		// a top-level task starts a new session
+		return download(downloadTask, callback, tries, new ConcurrentHashMap<Object, Object>());
+	}
+
+	private <T> Future<T> download(CombinedDownloadTask<T> downloadTask, CombinedDownloadCallback<T> callback, int tries, ConcurrentMap<Object, Object> sessionAttributes) {
 		Objects.requireNonNull(downloadTask);
 		if (tries < 1)
 			throw new IllegalArgumentException("tries < 1");
 
-		CombinedAsyncTask<T> task = new CombinedAsyncTask<>(downloadTask, callback == null ? CombinedDownloadCallbacks.<T> empty() : callback, tries);
+		CombinedAsyncTask<T> task = new CombinedAsyncTask<>(downloadTask, callback == null ? CombinedDownloadCallbacks.<T> empty() : callback, tries, sessionAttributes);
 		Callback<T> statusCallback = Callbacks.whatever(new TaskInactiver(task));
 		if (callback != null) {
 			statusCallback = Callbacks.group(statusCallback, callback);
@@ -382,6 +417,27 @@ class CombinedDownloaderImpl implements CombinedDownloader {
 		return task;
 	}
 
+	/**
+	 * Gets the attributes of the download session which the context belongs
+	 * to.
+	 * <p>
+	 * A session starts when a top-level task is submitted, and all the tasks
+	 * derived from it share the same attributes.
+	 *
+	 * @return the attributes of the download session, null if the context
+	 *         isn't created by a <code>CombinedDownloaderImpl</code>
+	 * @see CombinedDownloadTask#memoized(Object)
+	 */
+	static ConcurrentMap<Object, Object> getSessionAttributes(CombinedDownloadContext<?> context) {
+		while (context instanceof CombinedDownloadContextDecorator) {
+			context = ((CombinedDownloadContextDecorator<?>) context).delegated;
+		}
+		if (context instanceof CombinedDownloaderImpl.CombinedAsyncTask) {
+			return ((CombinedDownloaderImpl.CombinedAsyncTask<?>) context).sessionAttributes;
+		}
+		return null;
+	}
+
 	@Override
 	public void shutdown() {
 		Lock lock = globalRwlock.writeLock();
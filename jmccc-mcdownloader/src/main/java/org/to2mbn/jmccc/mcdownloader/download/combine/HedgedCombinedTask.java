@@ -0,0 +1,197 @@
+package org.to2mbn.jmccc.mcdownloader.download.combine;
+
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
+
+class HedgedCombinedTask<T> extends CombinedDownloadTask<T> {
+
+	private static class SchedulerHolder {
+
+		static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+		private static ScheduledThreadPoolExecutor createScheduler() {
+			ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "hedgedTask.scheduler");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			scheduler.setRemoveOnCancelPolicy(true);
+			return scheduler;
+		}
+
+	}
+
+	private class Race {
+
+		private class Contender extends CallbackAdapter<T> {
+
+			private final int index;
+
+			public Contender(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public void done(T result) {
+				synchronized (lock) {
+					if (terminated)
+						return;
+					terminated = true;
+				}
+				cancelOthers(index);
+				context.done(result);
+			}
+
+			@Override
+			public void failed(Throwable e) {
+				boolean fail;
+				synchronized (lock) {
+					if (terminated)
+						return;
+					if (exception != null && exception != e)
+						e.addSuppressed(exception);
+					exception = e;
+					failures++;
+					fail = failures == tasks.length || !canContinue(e);
+					if (fail)
+						terminated = true;
+				}
+				if (fail) {
+					cancelOthers(index);
+					context.failed(e);
+				} else if (started.get() < tasks.length) {
+					// don't wait for the delay, start the next one now
+					scheduleNext(0);
+				}
+			}
+
+			@Override
+			public void cancelled() {
+				synchronized (lock) {
+					if (terminated)
+						return;
+					terminated = true;
+				}
+				cancelOthers(index);
+				context.cancelled();
+			}
+
+		}
+
+		private final CombinedDownloadContext<T> context;
+		private final Future<?>[] futures = new Future<?>[tasks.length];
+		private final AtomicInteger started = new AtomicInteger();
+		private final Object lock = new Object();
+
+		// guarded by lock
+		private boolean terminated;
+		private int failures;
+		private Throwable exception;
+		private ScheduledFuture<?> timer;
+
+		public Race(CombinedDownloadContext<T> context) {
+			this.context = context;
+		}
+
+		public void startNext() throws InterruptedException {
+			int index = started.getAndIncrement();
+			if (index >= tasks.length)
+				return;
+			synchronized (lock) {
+				if (terminated)
+					return;
+			}
+
+			if (index + 1 < tasks.length)
+				scheduleNext(delay);
+
+			Future<T> future = context.submit(tasks[index], new Contender(index), false);
+
+			boolean cancel;
+			synchronized (lock) {
+				futures[index] = future;
+				cancel = terminated;
+			}
+			if (cancel)
+				future.cancel(true);
+		}
+
+		private void scheduleNext(long nanos) {
+			ScheduledFuture<?> next = SchedulerHolder.SCHEDULER.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						startNext();
+					} catch (InterruptedException e) {
+						// the combined task has terminated
+					} catch (Throwable e) {
+						context.failed(e);
+					}
+				}
+			}, nanos, TimeUnit.NANOSECONDS);
+
+			ScheduledFuture<?> previous;
+			boolean cancel;
+			synchronized (lock) {
+				previous = timer;
+				timer = next;
+				cancel = terminated;
+			}
+			if (previous != null)
+				previous.cancel(false);
+			if (cancel)
+				next.cancel(false);
+		}
+
+		private void cancelOthers(int winner) {
+			Future<?>[] copied;
+			ScheduledFuture<?> timer;
+			synchronized (lock) {
+				copied = futures.clone();
+				timer = this.timer;
+			}
+			if (timer != null)
+				timer.cancel(false);
+			for (int i = 0; i < copied.length; i++)
+				if (i != winner && copied[i] != null)
+					copied[i].cancel(true);
+		}
+
+	}
+
+	private final CombinedDownloadTask<T>[] tasks;
+	private final long delay;
+	private final Class<? extends Throwable>[] expectedExceptions;
+
+	public HedgedCombinedTask(CombinedDownloadTask<T>[] tasks, long delay, TimeUnit unit, Class<? extends Throwable>[] expectedExceptions) {
+		this.tasks = Objects.requireNonNull(tasks);
+		this.delay = unit.toNanos(delay);
+		this.expectedExceptions = Objects.requireNonNull(expectedExceptions);
+	}
+
+	@Override
+	public void execute(CombinedDownloadContext<T> context) throws Exception {
+		new Race(context).startNext();
+	}
+
+	private boolean canContinue(Throwable e) {
+		for (Class<? extends Throwable> expected : expectedExceptions) {
+			if (expected.isInstance(e)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,152 @@
+package org.to2mbn.jmccc.mcdownloader.download.combine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
+
+class MemoizedCombinedTask<T> extends CombinedDownloadTaskDecorator<T> {
+
+	private static class Memo<T> {
+
+		private final List<CombinedDownloadContext<T>> waiters = new ArrayList<>();
+		private boolean completed;
+		private boolean abandoned;
+		private T result;
+		private Throwable exception;
+
+		/**
+		 * Delivers the result to the given context, or the context waits for
+		 * the result if it's not available yet.
+		 *
+		 * @return false if the memo has been abandoned
+		 */
+		boolean await(CombinedDownloadContext<T> context) {
+			synchronized (this) {
+				if (abandoned) {
+					return false;
+				}
+				if (!completed) {
+					waiters.add(context);
+					return true;
+				}
+			}
+			deliver(context);
+			return true;
+		}
+
+		void complete(T result, Throwable exception) {
+			List<CombinedDownloadContext<T>> copiedWaiters;
+			synchronized (this) {
+				this.result = result;
+				this.exception = exception;
+				completed = true;
+				copiedWaiters = new ArrayList<>(waiters);
+				waiters.clear();
+			}
+			for (CombinedDownloadContext<T> waiter : copiedWaiters) {
+				deliver(waiter);
+			}
+		}
+
+		List<CombinedDownloadContext<T>> abandon() {
+			synchronized (this) {
+				abandoned = true;
+				List<CombinedDownloadContext<T>> copiedWaiters = new ArrayList<>(waiters);
+				waiters.clear();
+				return copiedWaiters;
+			}
+		}
+
+		private void deliver(CombinedDownloadContext<T> context) {
+			if (exception == null) {
+				context.done(result);
+			} else {
+				context.failed(exception);
+			}
+		}
+
+	}
+
+	private final Object key;
+
+	public MemoizedCombinedTask(CombinedDownloadTask<T> delegated, Object key) {
+		super(delegated);
+		this.key = Objects.requireNonNull(key);
+	}
+
+	@Override
+	public void execute(final CombinedDownloadContext<T> context) throws Exception {
+		final ConcurrentMap<Object, Object> session = CombinedDownloaderImpl.getSessionAttributes(context);
+		if (session == null) {
+			// not run by a CombinedDownloaderImpl, so there is nothing to share the result with
+			context.submit(delegated, new CallbackAdapter<T>() {
+
+				@Override
+				public void done(T result) {
+					context.done(result);
+				}
+
+			}, true);
+			return;
+		}
+
+		final Memo<T> memo = new Memo<>();
+
+		for (;;) {
+			@SuppressWarnings("unchecked")
+			Memo<T> existing = (Memo<T>) session.putIfAbsent(key, memo);
+			if (existing == null) {
+				break;
+			}
+			if (existing.await(context)) {
+				return;
+			}
+			// the abandoned memo has been removed, try again
+		}
+
+		try {
+			context.submit(delegated, new CallbackAdapter<T>() {
+
+				@Override
+				public void done(T result) {
+					// the waiters get the result before this context terminates
+					memo.complete(result, null);
+					context.done(result);
+				}
+
+				@Override
+				public void failed(Throwable e) {
+					memo.complete(null, e);
+				}
+
+				@Override
+				public void cancelled() {
+					// the task was cancelled with the context which submitted it
+					abandon(session, memo);
+				}
+
+			}, true);
+		} catch (Throwable e) {
+			abandon(session, memo);
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes the memo from the session, and the waiting contexts run the task
+	 * again.
+	 */
+	private void abandon(ConcurrentMap<Object, Object> session, Memo<T> memo) {
+		session.remove(key, memo);
+		for (CombinedDownloadContext<T> waiter : memo.abandon()) {
+			try {
+				execute(waiter);
+			} catch (Throwable e) {
+				waiter.failed(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,457 @@
+package org.to2mbn.jmccc.mcdownloader.download.hedge;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.AsyncFuture;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.Cancelable;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallback;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.SimpleDownloadTaskDecorator;
+import org.to2mbn.jmccc.mcdownloader.util.ThreadPoolUtils;
+
+class HedgedDownloader implements Downloader {
+
+	private static final Logger LOGGER = Logger.getLogger(HedgedDownloader.class.getCanonicalName());
+
+	private static final int SAMPLES = 256;
+	private static final int UPDATE_INTERVAL = 16;
+	private static final double MAX_TOKENS = 10;
+
+	/**
+	 * Keeps the recent time-to-first-byte samples in a ring buffer, and
+	 * recomputes the percentile every {@link #UPDATE_INTERVAL} samples.
+	 */
+	private class LatencyTracker {
+
+		// guarded by this
+		private final long[] samples = new long[SAMPLES];
+		private int count;
+		private int next;
+		private long threshold = -1;
+
+		public synchronized void record(long nanos) {
+			samples[next] = nanos;
+			next = (next + 1) % SAMPLES;
+			if (count < SAMPLES) {
+				count++;
+			}
+			if (count >= minSamples && (threshold == -1 || next % UPDATE_INTERVAL == 0)) {
+				long[] sorted = Arrays.copyOf(samples, count);
+				Arrays.sort(sorted);
+				threshold = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+			}
+		}
+
+		/**
+		 * @return the percentile in nanoseconds, -1 if there aren't enough
+		 *         samples
+		 */
+		public synchronized long getThreshold() {
+			return threshold;
+		}
+
+	}
+
+	/**
+	 * Each request earns <code>budget</code> tokens, and each hedged request
+	 * costs one token.
+	 */
+	private class TokenBucket {
+
+		// guarded by this
+		private double available;
+
+		public synchronized void requested() {
+			available = Math.min(MAX_TOKENS, available + budget);
+		}
+
+		public synchronized boolean tryAcquire() {
+			if (available < 1) {
+				return false;
+			}
+			available--;
+			return true;
+		}
+
+	}
+
+	private class HedgedRequest<T> implements Cancelable {
+
+		private class Attempt extends SimpleDownloadTaskDecorator<T> implements DownloadCallback<T> {
+
+			private volatile long start;
+			private volatile boolean started;
+			private volatile boolean responded;
+			private final AtomicBoolean dequeued = new AtomicBoolean();
+			private Future<T> future; // guarded by HedgedRequest.this
+
+			public Attempt() {
+				super(task);
+			}
+
+			public void submit() {
+				start = System.nanoTime();
+				waiting.incrementAndGet();
+				Future<T> f;
+				try {
+					f = tries == -1
+							? upstream.download(this, this)
+							: upstream.download(this, this, tries);
+				} catch (RuntimeException e) {
+					dequeue();
+					throw e;
+				}
+				boolean cancel;
+				synchronized (HedgedRequest.this) {
+					future = f;
+					cancel = terminated && winner != this;
+				}
+				if (cancel) {
+					f.cancel(true);
+				}
+			}
+
+			public void cancel() {
+				Future<T> f;
+				synchronized (HedgedRequest.this) {
+					f = future;
+				}
+				if (f != null) {
+					f.cancel(true);
+				}
+			}
+
+			/**
+			 * Returns true if the time since {@link #start} doesn't include
+			 * waiting in the upstream's queue.
+			 */
+			public boolean isRunning() {
+				return started || !reportsStart;
+			}
+
+			/**
+			 * @return false if it has already left the queue
+			 */
+			private boolean dequeue() {
+				if (dequeued.compareAndSet(false, true)) {
+					waiting.decrementAndGet();
+					return true;
+				}
+				return false;
+			}
+
+			@Override
+			public void requestStarted() {
+				super.requestStarted();
+				// retries are called again, but the first byte is awaited since the first try
+				if (dequeue()) {
+					start = System.nanoTime();
+					started = true;
+					reportsStart = true;
+					if (this == primary) {
+						scheduleHedge();
+					}
+				}
+			}
+
+			@Override
+			protected DownloadSession<T> createSessionDelegate(DownloadSession<T> session) {
+				if (!responded) {
+					responded = true;
+					tracker.record(System.nanoTime() - start);
+					synchronized (HedgedRequest.this) {
+						if (leader == null) {
+							leader = this;
+						}
+					}
+				}
+				return session;
+			}
+
+			@Override
+			public void done(T result) {
+				dequeue();
+				attemptDone(this, result);
+			}
+
+			@Override
+			public void failed(Throwable e) {
+				dequeue();
+				attemptFailed(this, e);
+			}
+
+			@Override
+			public void cancelled() {
+				dequeue();
+				attemptCancelled();
+			}
+
+			@Override
+			public void updateProgress(long done, long total) {
+				if (callback != null && leader == this) {
+					callback.updateProgress(done, total);
+				}
+			}
+
+			@Override
+			public void retry(Throwable e, int current, int max) {
+				if (callback != null) {
+					callback.retry(e, current, max);
+				}
+			}
+
+		}
+
+		private final DownloadTask<T> task;
+		private final DownloadCallback<T> callback;
+		private final int tries;
+		private final AsyncFuture<T> future = new AsyncFuture<>(this);
+
+		private final Attempt primary;
+		private volatile Attempt leader; // the first one which has responded
+
+		// guarded by this
+		private Attempt hedge;
+		private boolean terminated;
+		private Attempt winner;
+		private int running = 1;
+		private Throwable exception;
+		private boolean hedgeScheduled;
+		private ScheduledFuture<?> timer;
+
+		public HedgedRequest(DownloadTask<T> task, DownloadCallback<T> callback, int tries) {
+			this.task = task;
+			this.callback = callback;
+			this.tries = tries;
+			primary = new Attempt();
+			future.setCallback(callback);
+		}
+
+		public Future<T> start() {
+			tokens.requested();
+			primary.submit();
+			if (!reportsStart) {
+				// the upstream doesn't tell when the request starts, so the clock starts now
+				scheduleHedge();
+			}
+			return future;
+		}
+
+		private void scheduleHedge() {
+			long delay = tracker.getThreshold();
+			if (delay == -1) {
+				return;
+			}
+			synchronized (this) {
+				if (terminated || hedgeScheduled) {
+					return;
+				}
+				hedgeScheduled = true;
+			}
+
+			ScheduledFuture<?> scheduled;
+			try {
+				scheduled = scheduler.schedule(new Runnable() {
+
+					@Override
+					public void run() {
+						hedge();
+					}
+				}, Math.max(delay, minDelay), TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				// the downloader is shutting down
+				return;
+			}
+
+			boolean cancel;
+			synchronized (this) {
+				timer = scheduled;
+				cancel = terminated;
+			}
+			if (cancel) {
+				scheduled.cancel(false);
+			}
+		}
+
+		private void hedge() {
+			Attempt attempt;
+			synchronized (this) {
+				if (terminated || primary.responded) {
+					return;
+				}
+				if (reportsStart && waiting.get() > 0) {
+					// the upstream is saturated, and the hedge would wait behind the queued requests
+					return;
+				}
+				if (!tokens.tryAcquire()) {
+					return;
+				}
+				attempt = hedge = new Attempt();
+				running++;
+			}
+
+			if (LOGGER.isLoggable(Level.FINE))
+				LOGGER.fine(String.format("Hedging [%s] after %dms without response", task.getURI(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primary.start)));
+
+			try {
+				attempt.submit();
+			} catch (RejectedExecutionException e) {
+				// the downloader is shutting down, let the primary request decide
+				Throwable failure;
+				synchronized (this) {
+					running--;
+					if (terminated || running > 0)
+						return;
+					// the primary has failed in the meantime, and left the decision to us
+					terminated = true;
+					failure = exception;
+				}
+				cancelOthers(null);
+				future.failed(failure);
+			}
+		}
+
+		private void attemptDone(Attempt attempt, T result) {
+			synchronized (this) {
+				if (terminated)
+					return;
+				terminated = true;
+				winner = attempt;
+			}
+			cancelOthers(attempt);
+			future.done(result);
+		}
+
+		private void attemptFailed(Attempt attempt, Throwable e) {
+			synchronized (this) {
+				if (terminated)
+					return;
+				if (exception != null && exception != e)
+					e.addSuppressed(exception);
+				exception = e;
+				running--;
+				if (running > 0)
+					return; // the other one is still running
+				terminated = true;
+			}
+			cancelOthers(null);
+			future.failed(e);
+		}
+
+		private void attemptCancelled() {
+			synchronized (this) {
+				if (terminated)
+					return; // cancelled by us
+				terminated = true;
+			}
+			cancelOthers(null);
+			future.cancelled();
+		}
+
+		private void cancelOthers(Attempt winner) {
+			ScheduledFuture<?> t;
+			Attempt h;
+			synchronized (this) {
+				t = timer;
+				h = hedge;
+			}
+			if (t != null) {
+				t.cancel(false);
+			}
+			if (primary != winner) {
+				if (winner != null && !primary.responded && primary.isRunning()) {
+					// the primary is slower than the hedge, and its latency is at least this
+					tracker.record(System.nanoTime() - primary.start);
+				}
+				primary.cancel();
+			}
+			if (h != null && h != winner) {
+				h.cancel();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (this) {
+				if (terminated)
+					return false;
+				terminated = true;
+			}
+			cancelOthers(null);
+			return true;
+		}
+
+	}
+
+	private final Downloader upstream;
+	private final double percentile;
+	private final double budget;
+	private final int minSamples;
+	private final long minDelay;
+
+	private final LatencyTracker tracker = new LatencyTracker();
+	private final TokenBucket tokens = new TokenBucket();
+
+	// whether the upstream calls DownloadTask.requestStarted()
+	private volatile boolean reportsStart;
+	// the attempts which have been submitted but not started by the upstream
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	public HedgedDownloader(Downloader upstream, double percentile, double budget, int minSamples, long minDelay) {
+		this.upstream = Objects.requireNonNull(upstream);
+		this.percentile = percentile;
+		this.budget = budget;
+		this.minSamples = minSamples;
+		this.minDelay = minDelay;
+
+		scheduler = new ScheduledThreadPoolExecutor(1, ThreadPoolUtils.createNamedThreadFactory("hedgedDownloader.scheduler"));
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	@Override
+	public <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback) {
+		Objects.requireNonNull(task);
+		return new HedgedRequest<>(task, callback, -1).start();
+	}
+
+	@Override
+	public <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback, int tries) {
+		Objects.requireNonNull(task);
+		if (tries < 1) {
+			throw new IllegalArgumentException("tries < 1");
+		}
+		return new HedgedRequest<>(task, callback, tries).start();
+	}
+
+	@Override
+	public void shutdown() {
+		try {
+			upstream.shutdown();
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return upstream.isShutdown();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("HedgedDownloader [upstream=%s, percentile=%s, budget=%s, threshold=%dns]", upstream, percentile, budget, tracker.getThreshold());
+	}
+
+}
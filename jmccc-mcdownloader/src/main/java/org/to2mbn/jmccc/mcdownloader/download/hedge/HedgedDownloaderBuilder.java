@@ -0,0 +1,130 @@
+package org.to2mbn.jmccc.mcdownloader.download.hedge;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.util.Builder;
+
+/**
+ * Builds a downloader which sends hedged requests to cut the tail latency.
+ * <p>
+ * The downloader tracks the time to first byte of the recent requests. If a
+ * request hasn't received its response within the given percentile of them
+ * (p95 by default), the same request is sent again, and whichever responds
+ * first wins, while the other one is cancelled. The hedged requests are
+ * limited by a budget, which is the ratio of the extra requests to all the
+ * requests (5% by default).
+ * <p>
+ * If the underlying downloader calls
+ * {@link org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask#requestStarted()},
+ * as the built-in ones do, the time spent waiting for a free connection
+ * isn't counted, and no request is hedged while others are waiting, since
+ * the hedged request would have to wait behind them.
+ * <p>
+ * This is mainly for the small files, such as the assets, where the slowest
+ * few percent of the requests dominate the total time. The tasks must allow
+ * two sessions to run concurrently, which is the case for the built-in
+ * tasks. To hedge among different mirrors, see
+ * {@link org.to2mbn.jmccc.mcdownloader.provider.DownloadProviderChain#addMirror(org.to2mbn.jmccc.mcdownloader.provider.MinecraftDownloadProvider)}.
+ */
+public class HedgedDownloaderBuilder implements Builder<Downloader> {
+
+	public static HedgedDownloaderBuilder create(Builder<Downloader> underlying) {
+		return new HedgedDownloaderBuilder(underlying);
+	}
+
+	public static Downloader buildDefault(Builder<Downloader> underlying) {
+		return create(underlying).build();
+	}
+
+	protected final Builder<Downloader> underlying;
+	protected double percentile = 0.95;
+	protected double budget = 0.05;
+	protected int minSamples = 20;
+	protected long minDelay = 10;
+	protected TimeUnit minDelayUnit = TimeUnit.MILLISECONDS;
+
+	protected HedgedDownloaderBuilder(Builder<Downloader> underlying) {
+		this.underlying = Objects.requireNonNull(underlying);
+	}
+
+	/**
+	 * Sets the percentile of the time to first byte, after which a request is
+	 * hedged. Default to 0.95.
+	 *
+	 * @param percentile the percentile, between 0 (exclusive) and 1
+	 *            (inclusive)
+	 * @return the builder itself
+	 */
+	public HedgedDownloaderBuilder percentile(double percentile) {
+		this.percentile = percentile;
+		return this;
+	}
+
+	/**
+	 * Sets the max ratio of the hedged requests to all the requests. Default
+	 * to 0.05.
+	 *
+	 * @param budget the ratio, 0 to disable hedging
+	 * @return the builder itself
+	 */
+	public HedgedDownloaderBuilder budget(double budget) {
+		this.budget = budget;
+		return this;
+	}
+
+	/**
+	 * Sets the number of the samples needed before any request is hedged.
+	 * Default to 20.
+	 *
+	 * @param minSamples the number of the samples
+	 * @return the builder itself
+	 */
+	public HedgedDownloaderBuilder minSamples(int minSamples) {
+		this.minSamples = minSamples;
+		return this;
+	}
+
+	/**
+	 * Sets the min delay before a request is hedged, so that the requests to
+	 * a fast server aren't hedged because of jitters. Default to 10ms.
+	 *
+	 * @param minDelay the min delay
+	 * @param unit the unit of the delay
+	 * @return the builder itself
+	 */
+	public HedgedDownloaderBuilder minDelay(long minDelay, TimeUnit unit) {
+		this.minDelay = minDelay;
+		this.minDelayUnit = Objects.requireNonNull(unit);
+		return this;
+	}
+
+	@Override
+	public Downloader build() {
+		if (percentile <= 0 || percentile > 1) {
+			throw new IllegalArgumentException("percentile must be in (0, 1]");
+		}
+		if (budget < 0) {
+			throw new IllegalArgumentException("budget < 0");
+		}
+		if (minSamples < 1) {
+			throw new IllegalArgumentException("minSamples < 1");
+		}
+		if (minDelay < 0) {
+			throw new IllegalArgumentException("minDelay < 0");
+		}
+
+		Downloader underlying = Objects.requireNonNull(this.underlying.build(), "Underlying downloader builder returns null");
+		try {
+			return new HedgedDownloader(underlying, percentile, budget, minSamples, minDelayUnit.toNanos(minDelay));
+		} catch (Throwable e) {
+			try {
+				underlying.shutdown();
+			} catch (Throwable e1) {
+				e.addSuppressed(e1);
+			}
+			throw e;
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package org.to2mbn.jmccc.mcdownloader.download.io;
 import java.net.Proxy;
 import java.util.concurrent.TimeUnit;
 import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Metrics;
 import org.to2mbn.jmccc.util.Builder;
 
 abstract public class AbstractDownloaderBuilder implements Builder<Downloader> {
@@ -13,6 +15,7 @@ abstract public class AbstractDownloaderBuilder implements Builder<Downloader> {
 	protected Proxy proxy = Proxy.NO_PROXY;
 	protected long downloadPoolKeepAliveTime = 10;
 	protected TimeUnit downloadPoolKeepAliveTimeUnit = TimeUnit.SECONDS;
+	protected DownloadMetrics metrics = Metrics.noop();
 
 	protected AbstractDownloaderBuilder() {
 	}
@@ -43,4 +46,9 @@ abstract public class AbstractDownloaderBuilder implements Builder<Downloader> {
 		return this;
 	}
 
+	public AbstractDownloaderBuilder metrics(DownloadMetrics metrics) {
+		this.metrics = metrics == null ? Metrics.noop() : metrics;
+		return this;
+	}
+
 }
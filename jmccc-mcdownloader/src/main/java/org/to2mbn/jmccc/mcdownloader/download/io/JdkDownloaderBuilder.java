@@ -14,7 +14,7 @@ public class JdkDownloaderBuilder extends AbstractDownloaderBuilder {
 
 	@Override
 	public Downloader build() {
-		return new JdkHttpDownloader(maxConnections, connectTimeout, readTimeout, downloadPoolKeepAliveTime, downloadPoolKeepAliveTimeUnit, proxy);
+		return new JdkHttpDownloader(maxConnections, connectTimeout, readTimeout, downloadPoolKeepAliveTime, downloadPoolKeepAliveTimeUnit, proxy, metrics);
 	}
 
 }
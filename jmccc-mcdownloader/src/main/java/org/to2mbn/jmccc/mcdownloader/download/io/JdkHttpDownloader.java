@@ -14,6 +14,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -25,6 +26,9 @@ import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackFutureTask;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.Callbacks;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallback;
 import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallbacks;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Gauge;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Metrics;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
 import org.to2mbn.jmccc.mcdownloader.util.ThreadPoolUtils;
@@ -40,6 +44,8 @@ class JdkHttpDownloader implements Downloader {
 		private final DownloadTask<T> task;
 		private final DownloadCallback<T> callback;
 		private final int maxTries;
+		private final String host;
+		private final String pool;
 
 		private boolean skipRetry = false;
 
@@ -52,27 +58,41 @@ class JdkHttpDownloader implements Downloader {
 			this.task = task;
 			this.callback = callback;
 			this.maxTries = maxTries;
+			this.host = Metrics.hostOf(task.getURI());
+			this.pool = Metrics.poolOf(task.getCachePool());
 		}
 
 		@Override
 		public T call() throws Exception {
 			int currentTries = 0;
 			for (;;) {
+				long start = System.nanoTime();
+				task.requestStarted();
+				T result;
 				try {
-					return download();
-				} catch (IOException e) {
+					result = download(start);
+				} catch (Throwable e) {
+					if (!(e instanceof InterruptedException)) {
+						metrics.requestFailed(host, pool, e, System.nanoTime() - start);
+					}
+					if (!(e instanceof IOException)) {
+						throw e;
+					}
 					checkInterrupted();
 					currentTries++;
 					if (currentTries < maxTries && !skipRetry && DownloaderHelper.shouldRetry(e)) {
+						metrics.requestRetried(host, pool, e, currentTries, maxTries);
 						callback.retry(e, currentTries, maxTries);
-					} else {
-						throw e;
+						continue;
 					}
+					throw e;
 				}
+				metrics.requestCompleted(host, pool, System.nanoTime() - start);
+				return result;
 			}
 		}
 
-		private T download() throws Exception {
+		private T download(long start) throws Exception {
 			URLConnection connection = task.getURI().toURL().openConnection(proxy);
 			connection.setReadTimeout(readTimeout);
 			connection.setConnectTimeout(connectTimeout);
@@ -87,10 +107,13 @@ class JdkHttpDownloader implements Downloader {
 			try {
 				if (connection instanceof HttpURLConnection) {
 					int responseCode = ((HttpURLConnection) connection).getResponseCode();
+					metrics.responseReceived(host, pool, System.nanoTime() - start);
 					if (responseCode < 200 || responseCode > 299) {
 						// non-2xx response code
 						throw new IllegalHttpResponseCodeException(((HttpURLConnection) connection).getHeaderField(0), responseCode);
 					}
+				} else {
+					metrics.responseReceived(host, pool, System.nanoTime() - start);
 				}
 
 				String contentLengthStr = connection.getHeaderField("Content-Length");
@@ -125,6 +148,7 @@ class JdkHttpDownloader implements Downloader {
 					while ((read = in.read(buf)) != -1) {
 						checkInterrupted();
 						downloaded += read;
+						metrics.bytesReceived(host, pool, read);
 						session.receiveData(ByteBuffer.wrap(buf, 0, read));
 						skipRetry = true;
 						callback.updateProgress(downloaded, contentLength);
@@ -166,23 +190,48 @@ class JdkHttpDownloader implements Downloader {
 
 	}
 
-	private ExecutorService executor;
+	private class QueueGauge implements Gauge {
+
+		@Override
+		public long get() {
+			ExecutorService executor = JdkHttpDownloader.this.executor;
+			return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+		}
+
+	}
+
+	private class ActiveTasksGauge implements Gauge {
+
+		@Override
+		public long get() {
+			return tasks.size();
+		}
+
+	}
+
+	private volatile ExecutorService executor;
 
 	private int connectTimeout;
 	private int readTimeout;
 	private Proxy proxy;
+	private DownloadMetrics metrics;
 
 	private volatile boolean shutdown;
 	private final ReadWriteLock rwlock = new ReentrantReadWriteLock();
 	private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
 
-	public JdkHttpDownloader(int maxConns, int connectTimeout, int readTimeout, long poolThreadLivingTime, TimeUnit poolThreadLivingTimeUnit, Proxy proxy) {
+	public JdkHttpDownloader(int maxConns, int connectTimeout, int readTimeout, long poolThreadLivingTime, TimeUnit poolThreadLivingTimeUnit, Proxy proxy, DownloadMetrics metrics) {
 		Objects.requireNonNull(proxy);
+		Objects.requireNonNull(metrics);
 
 		this.connectTimeout = connectTimeout;
 		this.readTimeout = readTimeout;
 		this.proxy = proxy;
+		this.metrics = metrics;
 		executor = ThreadPoolUtils.createPool(maxConns, poolThreadLivingTime, poolThreadLivingTimeUnit, "jdkDownloader.io");
+
+		metrics.registerGauge("jdkDownloader.queue", new QueueGauge());
+		metrics.registerGauge("jdkDownloader.active", new ActiveTasksGauge());
 	}
 
 	@Override
@@ -35,6 +35,9 @@ import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallbacks;
 import org.to2mbn.jmccc.mcdownloader.download.io.DownloaderHelper;
 import org.to2mbn.jmccc.mcdownloader.download.io.GzipDownloadSession;
 import org.to2mbn.jmccc.mcdownloader.download.io.IllegalHttpResponseCodeException;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetrics;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Gauge;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Metrics;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
 
@@ -58,13 +61,16 @@ class HttpAsyncDownloader implements Downloader {
 				if (session == null)
 					session = task.createSession();
 
-				received += buf.remaining();
+				int length = buf.remaining();
+				received += length;
+				metrics.bytesReceived(host, pool, length);
 				session.receiveData(buf);
 				downloadCallback.updateProgress(received, contextLength);
 			}
 
 			@Override
 			protected void onResponseReceived(HttpResponse response) throws HttpException, IOException {
+				metrics.responseReceived(host, pool, System.nanoTime() - start);
 				StatusLine statusLine = response.getStatusLine();
 				if (statusLine != null) {
 					int statusCode = statusLine.getStatusCode();
@@ -163,6 +169,10 @@ class HttpAsyncDownloader implements Downloader {
 
 		private final DownloadTask<T> task;
 		private final DownloadCallback<T> downloadCallback;
+		private final DownloadMetrics metrics;
+		private final String host;
+		private final String pool;
+		private final long start;
 
 		private volatile DownloadSession<T> session;
 		private volatile Throwable resultBuildingEx;
@@ -170,11 +180,16 @@ class HttpAsyncDownloader implements Downloader {
 		public final HttpAsyncResponseConsumer<T> consumer;
 		public final FutureCallback<T> callback;
 
-		public DownloadSessionHandler(DownloadTask<T> task, DownloadCallback<T> downloadCallback) {
+		public DownloadSessionHandler(DownloadTask<T> task, DownloadCallback<T> downloadCallback, DownloadMetrics metrics, String host, String pool, long start) {
 			Objects.requireNonNull(task);
 			Objects.requireNonNull(downloadCallback);
+			Objects.requireNonNull(metrics);
 			this.task = task;
 			this.downloadCallback = downloadCallback;
+			this.metrics = metrics;
+			this.host = host;
+			this.pool = pool;
+			this.start = start;
 
 			consumer = new DataConsumer();
 			callback = new DownloadCallbackAdapter(downloadCallback);
@@ -186,10 +201,17 @@ class HttpAsyncDownloader implements Downloader {
 
 		private class DownloadRetryHandler implements DownloadCallback<T> {
 
+			private final long start;
+
 			private volatile boolean skipRetry;
 
+			public DownloadRetryHandler(long start) {
+				this.start = start;
+			}
+
 			@Override
 			public void done(T result) {
+				metrics.requestCompleted(host, pool, System.nanoTime() - start);
 				skipRetry = true;
 				lifecycle().done(result);
 				skipRetry = false;
@@ -197,8 +219,10 @@ class HttpAsyncDownloader implements Downloader {
 
 			@Override
 			public void failed(Throwable e) {
+				metrics.requestFailed(host, pool, e, System.nanoTime() - start);
 				currentTries++;
 				if (currentTries < maxTries && !skipRetry && DownloaderHelper.shouldRetry(e)) {
+					metrics.requestRetried(host, pool, e, currentTries, maxTries);
 					skipRetry = true;
 					callback.retry(e, currentTries, maxTries);
 					skipRetry = false;
@@ -234,6 +258,8 @@ class HttpAsyncDownloader implements Downloader {
 		private final DownloadTask<T> task;
 		private final DownloadCallback<T> callback;
 		private final int maxTries;
+		private final String host;
+		private final String pool;
 
 		private volatile int currentTries;
 
@@ -246,6 +272,8 @@ class HttpAsyncDownloader implements Downloader {
 			this.task = task;
 			this.callback = callback;
 			this.maxTries = maxTries;
+			this.host = Metrics.hostOf(task.getURI());
+			this.pool = Metrics.poolOf(task.getCachePool());
 		}
 
 		@Override
@@ -260,8 +288,10 @@ class HttpAsyncDownloader implements Downloader {
 			}
 
 			FutureManager<T> manager = createFutureManager();
-			DownloadRetryHandler retryHandler = new DownloadRetryHandler();
-			DownloadSessionHandler<T> handler = new DownloadSessionHandler<>(task, DownloadCallbacks.group(DownloadCallbacks.fromCallback(manager), retryHandler));
+			long start = System.nanoTime();
+			task.requestStarted();
+			DownloadRetryHandler retryHandler = new DownloadRetryHandler(start);
+			DownloadSessionHandler<T> handler = new DownloadSessionHandler<>(task, DownloadCallbacks.group(DownloadCallbacks.fromCallback(manager), retryHandler), metrics, host, pool, start);
 			Future<T> downloadFuture = httpClient.execute(HttpAsyncMethods.createGet(task.getURI()), handler.consumer, handler.callback);
 			manager.setFuture(downloadFuture);
 		}
@@ -329,20 +359,33 @@ class HttpAsyncDownloader implements Downloader {
 
 	}
 
+	private class ActiveTasksGauge implements Gauge {
+
+		@Override
+		public long get() {
+			return tasks.size();
+		}
+
+	}
+
 	private CloseableHttpAsyncClient httpClient;
 	private ExecutorService bootstrapPool;
+	private final DownloadMetrics metrics;
 
 	private volatile int status = RUNNING;
 	private final ReadWriteLock rwlock = new ReentrantReadWriteLock();
 	private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
 
-	public HttpAsyncDownloader(CloseableHttpAsyncClient client, ExecutorService bootstrapPool) {
+	public HttpAsyncDownloader(CloseableHttpAsyncClient client, ExecutorService bootstrapPool, DownloadMetrics metrics) {
 		Objects.requireNonNull(client);
 		Objects.requireNonNull(bootstrapPool);
+		Objects.requireNonNull(metrics);
 		this.httpClient = client;
 		this.bootstrapPool = bootstrapPool;
+		this.metrics = metrics;
 
 		httpClient.start();
+		metrics.registerGauge("asyncDownloader.active", new ActiveTasksGauge());
 	}
 
 	@Override
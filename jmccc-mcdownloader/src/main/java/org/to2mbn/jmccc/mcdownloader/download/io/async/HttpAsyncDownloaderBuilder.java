@@ -80,7 +80,7 @@ public class HttpAsyncDownloaderBuilder extends AbstractDownloaderBuilder {
 			}
 
 			pool = ThreadPoolUtils.createPool(bootstrapPoolSize, downloadPoolKeepAliveTime, downloadPoolKeepAliveTimeUnit, "asyncDownloader.bootstrap");
-			return new HttpAsyncDownloader(client, pool);
+			return new HttpAsyncDownloader(client, pool, metrics);
 		} catch (Throwable e) {
 			if (client != null) {
 				try {
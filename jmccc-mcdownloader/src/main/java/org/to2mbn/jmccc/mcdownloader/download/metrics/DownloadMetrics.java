@@ -0,0 +1,121 @@
+package org.to2mbn.jmccc.mcdownloader.download.metrics;
+
+/**
+ * Receives the measurements of the downloaders.
+ * <p>
+ * The requests are tagged with the host of the uri and the cache pool of the
+ * task. A task without a cache pool is tagged with
+ * {@link org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames#DEFAULT}, and
+ * a uri without a host is tagged with an empty string, so the tags are never
+ * null. The durations are in nanoseconds.
+ * <p>
+ * The methods are called on the download threads (or the I/O threads of the
+ * async downloader), so the implementation must be thread-safe and mustn't
+ * block. It's meant to be bridged to a metrics library, such as Micrometer or
+ * the Prometheus client: the events map to counters and timers, and the gauges
+ * map to gauges.
+ * <p>
+ * By default, the downloaders use {@link Metrics#noop()}.
+ *
+ * @see DownloadMetricsAdapter
+ * @see Metrics
+ */
+public interface DownloadMetrics {
+
+	/**
+	 * Called when the response headers of a request are received.
+	 *
+	 * @param host the host
+	 * @param pool the cache pool
+	 * @param nanos the time to the first byte, from the start of the request
+	 */
+	void responseReceived(String host, String pool, long nanos);
+
+	/**
+	 * Called when a part of the response body is received.
+	 *
+	 * @param host the host
+	 * @param pool the cache pool
+	 * @param bytes the count of the received bytes, may be compressed
+	 */
+	void bytesReceived(String host, String pool, long bytes);
+
+	/**
+	 * Called when a request completes.
+	 *
+	 * @param host the host
+	 * @param pool the cache pool
+	 * @param nanos the latency, from the start of the request until the
+	 *            session completes
+	 */
+	void requestCompleted(String host, String pool, long nanos);
+
+	/**
+	 * Called when a request fails, whether it will be retried or not.
+	 * Cancellations aren't reported.
+	 *
+	 * @param host the host
+	 * @param pool the cache pool
+	 * @param e the cause
+	 * @param nanos the time from the start of the request until it fails
+	 */
+	void requestFailed(String host, String pool, Throwable e, long nanos);
+
+	/**
+	 * Called when a failed request is going to be retried.
+	 *
+	 * @param host the host
+	 * @param pool the cache pool
+	 * @param e the cause
+	 * @param current the count of the tries that have failed
+	 * @param max the max tries
+	 */
+	void requestRetried(String host, String pool, Throwable e, int current, int max);
+
+	/**
+	 * Called when a cacheable task is served from the cache.
+	 *
+	 * @param pool the resolved cache pool
+	 */
+	void cacheHit(String pool);
+
+	/**
+	 * Called when a cacheable task has to be downloaded.
+	 *
+	 * @param pool the resolved cache pool
+	 */
+	void cacheMiss(String pool);
+
+	/**
+	 * Called when a cached entry is removed by the downloader, because it
+	 * couldn't be applied. The expirations of the cache provider aren't
+	 * reported.
+	 *
+	 * @param pool the resolved cache pool
+	 */
+	void cacheEvicted(String pool);
+
+	/**
+	 * Registers a gauge.
+	 * <p>
+	 * The downloaders register their gauges when they are created:
+	 * <ul>
+	 * <li><code>jdkDownloader.queue</code> - the requests waiting for a
+	 * connection thread
+	 * <li><code>jdkDownloader.active</code> - the submitted requests which
+	 * haven't terminated
+	 * <li><code>asyncDownloader.active</code> - the submitted requests which
+	 * haven't terminated
+	 * <li><code>combinedDownloader.queue</code> - the combined tasks waiting
+	 * for a thread
+	 * <li><code>combinedDownloader.active</code> - the submitted combined tasks
+	 * which haven't terminated
+	 * </ul>
+	 * The queue gauges read 0 once the downloader is shutdown.
+	 *
+	 * @param name the name of the gauge
+	 * @param gauge the gauge
+	 */
+	void registerGauge(String name, Gauge gauge);
+
+}
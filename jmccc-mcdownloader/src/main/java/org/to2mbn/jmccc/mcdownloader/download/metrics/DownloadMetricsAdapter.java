@@ -0,0 +1,41 @@
+package org.to2mbn.jmccc.mcdownloader.download.metrics;
+
+abstract public class DownloadMetricsAdapter implements DownloadMetrics {
+
+	@Override
+	public void responseReceived(String host, String pool, long nanos) {
+	}
+
+	@Override
+	public void bytesReceived(String host, String pool, long bytes) {
+	}
+
+	@Override
+	public void requestCompleted(String host, String pool, long nanos) {
+	}
+
+	@Override
+	public void requestFailed(String host, String pool, Throwable e, long nanos) {
+	}
+
+	@Override
+	public void requestRetried(String host, String pool, Throwable e, int current, int max) {
+	}
+
+	@Override
+	public void cacheHit(String pool) {
+	}
+
+	@Override
+	public void cacheMiss(String pool) {
+	}
+
+	@Override
+	public void cacheEvicted(String pool) {
+	}
+
+	@Override
+	public void registerGauge(String name, Gauge gauge) {
+	}
+
+}
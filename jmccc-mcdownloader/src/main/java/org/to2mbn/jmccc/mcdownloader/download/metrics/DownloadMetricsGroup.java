@@ -0,0 +1,67 @@
+package org.to2mbn.jmccc.mcdownloader.download.metrics;
+
+import java.util.Objects;
+
+class DownloadMetricsGroup implements DownloadMetrics {
+
+	private final DownloadMetrics[] metrics;
+
+	public DownloadMetricsGroup(DownloadMetrics[] metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+	}
+
+	@Override
+	public void responseReceived(String host, String pool, long nanos) {
+		for (DownloadMetrics m : metrics)
+			m.responseReceived(host, pool, nanos);
+	}
+
+	@Override
+	public void bytesReceived(String host, String pool, long bytes) {
+		for (DownloadMetrics m : metrics)
+			m.bytesReceived(host, pool, bytes);
+	}
+
+	@Override
+	public void requestCompleted(String host, String pool, long nanos) {
+		for (DownloadMetrics m : metrics)
+			m.requestCompleted(host, pool, nanos);
+	}
+
+	@Override
+	public void requestFailed(String host, String pool, Throwable e, long nanos) {
+		for (DownloadMetrics m : metrics)
+			m.requestFailed(host, pool, e, nanos);
+	}
+
+	@Override
+	public void requestRetried(String host, String pool, Throwable e, int current, int max) {
+		for (DownloadMetrics m : metrics)
+			m.requestRetried(host, pool, e, current, max);
+	}
+
+	@Override
+	public void cacheHit(String pool) {
+		for (DownloadMetrics m : metrics)
+			m.cacheHit(pool);
+	}
+
+	@Override
+	public void cacheMiss(String pool) {
+		for (DownloadMetrics m : metrics)
+			m.cacheMiss(pool);
+	}
+
+	@Override
+	public void cacheEvicted(String pool) {
+		for (DownloadMetrics m : metrics)
+			m.cacheEvicted(pool);
+	}
+
+	@Override
+	public void registerGauge(String name, Gauge gauge) {
+		for (DownloadMetrics m : metrics)
+			m.registerGauge(name, gauge);
+	}
+
+}
@@ -0,0 +1,12 @@
+package org.to2mbn.jmccc.mcdownloader.download.metrics;
+
+/**
+ * A value which is sampled when it's needed, such as a queue depth.
+ *
+ * @see DownloadMetrics#registerGauge(String, Gauge)
+ */
+public interface Gauge {
+
+	long get();
+
+}
@@ -0,0 +1,51 @@
+package org.to2mbn.jmccc.mcdownloader.download.metrics;
+
+import java.net.URI;
+import java.util.Objects;
+import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
+
+public final class Metrics {
+
+	private static class NoopMetrics extends DownloadMetricsAdapter {
+	}
+
+	private static final DownloadMetrics NOOP = new NoopMetrics();
+
+	/**
+	 * Returns a <code>DownloadMetrics</code> which discards everything.
+	 *
+	 * @return a no-op <code>DownloadMetrics</code>
+	 */
+	public static DownloadMetrics noop() {
+		return NOOP;
+	}
+
+	public static DownloadMetrics group(DownloadMetrics... metrics) {
+		Objects.requireNonNull(metrics);
+		return new DownloadMetricsGroup(metrics.clone());
+	}
+
+	/**
+	 * Returns the host tag of the given uri.
+	 *
+	 * @param uri the uri
+	 * @return the host, or an empty string if the uri has no host
+	 */
+	public static String hostOf(URI uri) {
+		String host = uri.getHost();
+		return host == null ? "" : host;
+	}
+
+	/**
+	 * Returns the pool tag of the given cache pool.
+	 *
+	 * @param pool the cache pool, can be null
+	 * @return the cache pool, or {@link CacheNames#DEFAULT} if it's null
+	 */
+	public static String poolOf(String pool) {
+		return pool == null ? CacheNames.DEFAULT : pool;
+	}
+
+	private Metrics() {
+	}
+}
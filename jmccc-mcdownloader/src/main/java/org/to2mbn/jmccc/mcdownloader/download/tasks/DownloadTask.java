@@ -61,6 +61,14 @@ abstract public class DownloadTask<T> {
 		return null;
 	}
 
+	/**
+	 * Calls when the downloader starts sending the request, after the task has
+	 * waited for a free connection. It's called again if the request is
+	 * retried. Downloaders which don't report this never call it.
+	 */
+	public void requestStarted() {
+	}
+
 	/**
 	 * Calls when the download task begins.
 	 * 
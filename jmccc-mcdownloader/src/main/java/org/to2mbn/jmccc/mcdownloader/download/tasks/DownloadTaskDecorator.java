@@ -38,6 +38,11 @@ abstract public class DownloadTaskDecorator<SRC, DEST> extends DownloadTask<DEST
 		return delegated.getCachePool();
 	}
 
+	@Override
+	public void requestStarted() {
+		delegated.requestStarted();
+	}
+
 	@Override
 	public DownloadSession<DEST> createSession() throws IOException {
 		return createSessionDelegate(delegated.createSession());
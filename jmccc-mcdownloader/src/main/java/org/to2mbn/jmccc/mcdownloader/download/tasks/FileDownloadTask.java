@@ -1,11 +1,14 @@
 package org.to2mbn.jmccc.mcdownloader.download.tasks;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 import org.to2mbn.jmccc.util.FileUtils;
 
@@ -17,6 +20,7 @@ import org.to2mbn.jmccc.util.FileUtils;
 public class FileDownloadTask extends DownloadTask<Void> {
 
 	private File target;
+	private long expectedSize;
 
 	/**
 	 * Constructs a FileDownloadTask.
@@ -46,6 +50,29 @@ public class FileDownloadTask extends DownloadTask<Void> {
 		this.target = target;
 	}
 
+	/**
+	 * Constructs a FileDownloadTask whose part file is preallocated.
+	 * <p>
+	 * The part file is extended to the expected size before any data is
+	 * written, so that the file system can allocate it at once rather than
+	 * growing it on every write. If the server reports the length of the
+	 * data, the reported length is used instead. If the actual data is
+	 * shorter, the file is truncated when the download completes.
+	 * 
+	 * @param uri the uri of the resource to download
+	 * @param target the folder to save the file
+	 * @param expectedSize the expected size of the file, 0 if unknown
+	 * @throws NullPointerException if <code>uri==null || target==null</code>
+	 * @throws IllegalArgumentException if <code>expectedSize &lt; 0</code>
+	 */
+	public FileDownloadTask(URI uri, File target, long expectedSize) {
+		this(uri, target);
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize < 0");
+		}
+		this.expectedSize = expectedSize;
+	}
+
 	/**
 	 * Gets the folder to save the file downloaded.
 	 * 
@@ -55,6 +82,16 @@ public class FileDownloadTask extends DownloadTask<Void> {
 		return target;
 	}
 
+	/**
+	 * Gets the expected size of the file.
+	 * 
+	 * @return the expected size of the file, 0 if unknown or the part file
+	 *         isn't preallocated
+	 */
+	public long getExpectedSize() {
+		return expectedSize;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(super.hashCode(), target);
@@ -74,12 +111,35 @@ public class FileDownloadTask extends DownloadTask<Void> {
 
 	@Override
 	public DownloadSession<Void> createSession() throws IOException {
-		final File partFile = new File(target.getParentFile(), target.getName() + ".part");
+		return openSession(expectedSize);
+	}
+
+	@Override
+	public DownloadSession<Void> createSession(long length) throws IOException {
+		// preallocates only when the task opts in
+		return openSession(expectedSize > 0 && length > 0 ? length : expectedSize);
+	}
 
-		FileUtils.prepareWrite(partFile);
-		
-		final FileOutputStream out = new FileOutputStream(partFile);
+	private DownloadSession<Void> openSession(long preallocatedSize) throws IOException {
+		final File partFile = FileUtils.createPartFile(target);
+
+		final RandomAccessFile out;
+		try {
+			out = new RandomAccessFile(partFile, "rw");
+		} catch (IOException e) {
+			partFile.delete();
+			throw e;
+		}
 		final FileChannel channel = out.getChannel();
+		if (preallocatedSize > 0) {
+			try {
+				out.setLength(preallocatedSize);
+			} catch (IOException e) {
+				out.close();
+				partFile.delete();
+				throw e;
+			}
+		}
 
 		return new DownloadSession<Void>() {
 
@@ -98,15 +158,17 @@ public class FileDownloadTask extends DownloadTask<Void> {
 
 			@Override
 			public Void completed() throws IOException {
-				close();
-				FileUtils.prepareWrite(target);
-				if (target.exists()) {
-					if (!target.delete()) {
-						throw new IOException("Failed to delete " + target);
-					}
+				try {
+					// the data may be shorter than the preallocated size
+					channel.truncate(channel.position());
+				} finally {
+					close();
 				}
-				if (!partFile.renameTo(target)) {
-					throw new IOException("Failed to rename " + partFile + " to " + target);
+				try {
+					// replace atomically, so the target never disappears when another session completes at the same time
+					Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
 				}
 				return null;
 			}
@@ -99,7 +99,7 @@ class DownloadInfoProvider extends AbstractMinecraftDownloadProvider implements
 		if (info == null || info.getUrl() == null) {
 			return null;
 		}
-		return CombinedDownloadTask.single(new FileDownloadTask(parseURI(info.getUrl()), target)
+		return CombinedDownloadTask.single(new FileDownloadTask(parseURI(info.getUrl()), target, Math.max(info.getSize(), 0))
 				.andThen(new ResultProcessor<Void, Void>() {
 
 					@Override
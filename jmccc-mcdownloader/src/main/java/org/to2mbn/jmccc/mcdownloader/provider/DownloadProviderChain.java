@@ -3,6 +3,7 @@ package org.to2mbn.jmccc.mcdownloader.provider;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import org.to2mbn.jmccc.util.Builder;
 
 public class DownloadProviderChain implements Builder<MinecraftDownloadProvider> {
@@ -89,6 +90,10 @@ public class DownloadProviderChain implements Builder<MinecraftDownloadProvider>
 	protected List<Builder<MinecraftDownloadProvider>> aheadProviders = new ArrayList<>();
 	protected boolean useDownloadInfo = true;
 	protected List<DownloadInfoProcessor> downloadInfoProcessor = new ArrayList<>();
+	protected List<MinecraftDownloadProvider> mirrors = new ArrayList<>();
+	protected long hedgeDelay = 500;
+	protected TimeUnit hedgeDelayUnit = TimeUnit.MILLISECONDS;
+	protected long smallFileThreshold = 256 * 1024;
 
 	protected DownloadProviderChain() {}
 
@@ -117,9 +122,69 @@ public class DownloadProviderChain implements Builder<MinecraftDownloadProvider>
 		return this;
 	}
 
+	/**
+	 * Adds a mirror of the base provider.
+	 * <p>
+	 * If any mirror is added, the base provider and the mirrors are selected
+	 * by their observed latency and failure rate, instead of being tried in
+	 * order. A small file is requested from the best two of them, as hedged
+	 * requests (see {@link #hedgeDelay(long, TimeUnit)}), and a large file is
+	 * requested from the best healthy one. If the requests fail, the others
+	 * are tried in turn.
+	 * <p>
+	 * The files whose urls are given in the version json are still downloaded
+	 * from the urls (see {@link #useDownloadInfo(boolean)}) unless a
+	 * {@link DownloadInfoProcessor} rewrites them.
+	 *
+	 * @param mirror the mirror
+	 * @return this
+	 */
+	public DownloadProviderChain addMirror(MinecraftDownloadProvider mirror) {
+		mirrors.add(Objects.requireNonNull(mirror));
+		return this;
+	}
+
+	/**
+	 * Sets how long to wait for the best mirror before requesting a small file
+	 * from the second best mirror. If it's 0, the two mirrors race at once.
+	 * The default is 500ms.
+	 *
+	 * @param hedgeDelay the delay
+	 * @param unit the unit of the delay
+	 * @return this
+	 */
+	public DownloadProviderChain hedgeDelay(long hedgeDelay, TimeUnit unit) {
+		if (hedgeDelay < 0) {
+			throw new IllegalArgumentException("hedgeDelay < 0");
+		}
+		this.hedgeDelay = hedgeDelay;
+		this.hedgeDelayUnit = Objects.requireNonNull(unit);
+		return this;
+	}
+
+	/**
+	 * Sets the max size of a small file, in bytes. The default is 256KB.
+	 * <p>
+	 * The version list, the version jsons and the asset indexes are always
+	 * small files, and the game jars are always large files.
+	 *
+	 * @param smallFileThreshold the max size of a small file
+	 * @return this
+	 */
+	public DownloadProviderChain smallFileThreshold(long smallFileThreshold) {
+		this.smallFileThreshold = smallFileThreshold;
+		return this;
+	}
+
 	@Override
 	public MinecraftDownloadProvider build() {
 		MinecraftDownloadProvider right = this.baseProvider == null ? new MojangDownloadProvider() : this.baseProvider;
+		if (!mirrors.isEmpty()) {
+			List<MinecraftDownloadProvider> candidates = new ArrayList<>();
+			candidates.add(right);
+			candidates.addAll(mirrors);
+			right = new MirrorSelectingProvider(candidates, hedgeDelay, hedgeDelayUnit, smallFileThreshold);
+		}
 		for (MinecraftDownloadProvider left : providers) {
 			if (left instanceof ExtendedDownloadProvider) {
 				((ExtendedDownloadProvider) left).setUpstreamProvider(withAheadProvider(right));
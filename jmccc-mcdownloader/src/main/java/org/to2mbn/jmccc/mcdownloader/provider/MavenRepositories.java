@@ -1,49 +1,186 @@
 package org.to2mbn.jmccc.mcdownloader.provider;
 
-import java.io.CharArrayReader;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadContext;
 import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 public final class MavenRepositories {
 
+	private static final List<String> SNAPSHOT_PATH = Arrays.asList("metadata", "versioning", "snapshot");
+
+	// snapshots are seldom published more than once in a few minutes
+	private static final long SNAPSHOT_CACHE_TTL = TimeUnit.MINUTES.toNanos(10);
+
+	private static class CachedPostfix {
+
+		final String postfix;
+		final long expireTime;
+
+		CachedPostfix(String postfix, long expireTime) {
+			this.postfix = postfix;
+			this.expireTime = expireTime;
+		}
+
+	}
+
+	private static class SnapshotPostfixTask extends CombinedDownloadTask<String> {
+
+		private final String url;
+
+		public SnapshotPostfixTask(String url) {
+			this.url = url;
+		}
+
+		@Override
+		public void execute(final CombinedDownloadContext<String> context) throws Exception {
+			CachedPostfix cached = snapshotPostfixes.get(url);
+			if (cached != null) {
+				if (System.nanoTime() - cached.expireTime < 0) {
+					context.done(cached.postfix);
+					return;
+				}
+				snapshotPostfixes.remove(url, cached);
+			}
+
+			context.submit(new MemoryDownloadTask(url)
+					.andThen(new ResultProcessor<byte[], String>() {
+
+						@Override
+						public String process(byte[] arg) throws Exception {
+							String postfix;
+							try {
+								postfix = parseSnapshotPostfix(arg);
+							} catch (XMLStreamException | IllegalArgumentException e) {
+								throw new IllegalArgumentException("Couldn't parse [" + url + "]\n" + new String(arg, "UTF-8"), e);
+							}
+							long now = System.nanoTime();
+							// drops the postfixes which have expired but haven't been read again
+							for (Map.Entry<String, CachedPostfix> entry : snapshotPostfixes.entrySet()) {
+								if (now - entry.getValue().expireTime >= 0) {
+									snapshotPostfixes.remove(entry.getKey(), entry.getValue());
+								}
+							}
+							snapshotPostfixes.put(url, new CachedPostfix(postfix, now + SNAPSHOT_CACHE_TTL));
+							return postfix;
+						}
+					})
+					.cacheable()
+					.cachePool(CacheNames.M2_METADATA), new CallbackAdapter<String>() {
+
+						@Override
+						public void done(String result) {
+							context.done(result);
+						}
+					}, true);
+		}
+
+	}
+
+	// XMLInputFactory isn't guaranteed to be thread-safe
+	private static final ThreadLocal<XMLInputFactory> xmlInputFactory = new ThreadLocal<XMLInputFactory>() {
+
+		@Override
+		protected XMLInputFactory initialValue() {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			return factory;
+		}
+	};
+
+	private static final Map<String, CachedPostfix> snapshotPostfixes = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns a task which resolves the postfix of the latest build of a
+	 * snapshot version, such as <code>20160101.123456-1</code>.
+	 * <p>
+	 * The resolved postfixes are cached in this process for 10 minutes,
+	 * keyed by the repository and the GAV, and a postfix is resolved only once
+	 * per download session.
+	 *
+	 * @param groupId the group id
+	 * @param artifactId the artifact id
+	 * @param version the snapshot version
+	 * @param repo the url of the repository
+	 * @return a task which resolves the postfix
+	 * @throws IllegalArgumentException if <code>version</code> isn't a
+	 *             snapshot version
+	 */
 	public static CombinedDownloadTask<String> snapshotPostfix(String groupId, String artifactId, String version, String repo) {
 		if (!version.endsWith("-SNAPSHOT")) {
 			throw new IllegalArgumentException("Not a snapshot version: " + version);
 		}
-		final String url = repo + groupId.replace('.', '/') + '/' + artifactId + '/' + version + "/maven-metadata.xml";
-		return CombinedDownloadTask.single(
-				new MemoryDownloadTask(url)
-						.cacheable()
-						.cachePool(CacheNames.M2_METADATA))
-				.andThen(new ResultProcessor<byte[], String>() {
-
-					@Override
-					public String process(byte[] arg) throws Exception {
-						String str = new String(arg, "UTF-8");
-						try {
-							Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new CharArrayReader(str.toCharArray())));
-							XPath xpath = XPathFactory.newInstance().newXPath();
-							String timestamp = xpath.evaluate("metadata/versioning/snapshot/timestamp", doc);
-							String buildNumber = xpath.evaluate("metadata/versioning/snapshot/buildNumber", doc);
-							if (timestamp == null || buildNumber == null) {
-								throw new IllegalArgumentException("Missing timestamp/buildNumber");
+		String url = repo + groupId.replace('.', '/') + '/' + artifactId + '/' + version + "/maven-metadata.xml";
+		return new SnapshotPostfixTask(url)
+				.memoized(Arrays.asList(MavenRepositories.class, "snapshotPostfix", url));
+	}
+
+	/**
+	 * Parses the postfix of the latest snapshot build from
+	 * <code>maven-metadata.xml</code>.
+	 * <p>
+	 * The metadata is parsed as a stream, and the parsing stops once the
+	 * timestamp and the build number are found.
+	 *
+	 * @param metadata the content of <code>maven-metadata.xml</code>
+	 * @return the postfix, <code>timestamp-buildNumber</code>
+	 * @throws XMLStreamException if the metadata is malformed
+	 * @throws IllegalArgumentException if the timestamp or the build number is
+	 *             missing
+	 */
+	public static String parseSnapshotPostfix(byte[] metadata) throws XMLStreamException {
+		String timestamp = null;
+		String buildNumber = null;
+		List<String> path = new ArrayList<>();
+
+		XMLStreamReader reader = xmlInputFactory.get().createXMLStreamReader(new ByteArrayInputStream(metadata));
+		try {
+			while (reader.hasNext() && (timestamp == null || buildNumber == null)) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						String name = reader.getLocalName();
+						if (path.equals(SNAPSHOT_PATH) && ("timestamp".equals(name) || "buildNumber".equals(name))) {
+							String text = reader.getElementText().trim();
+							if ("timestamp".equals(name)) {
+								timestamp = text;
+							} else {
+								buildNumber = text;
 							}
-							return timestamp + '-' + buildNumber;
-						} catch (SAXException | XPathExpressionException | ParserConfigurationException | IllegalArgumentException e) {
-							throw new IllegalArgumentException("Couldn't parse [" + url + "]\n" + str, e);
+						} else {
+							path.add(name);
 						}
-					}
-				});
+						break;
+
+					case XMLStreamConstants.END_ELEMENT:
+						path.remove(path.size() - 1);
+						break;
+
+					default:
+						break;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		if (timestamp == null || timestamp.isEmpty() || buildNumber == null || buildNumber.isEmpty()) {
+			throw new IllegalArgumentException("Missing timestamp/buildNumber");
+		}
+		return timestamp + '-' + buildNumber;
 	}
 
 	private MavenRepositories() {}
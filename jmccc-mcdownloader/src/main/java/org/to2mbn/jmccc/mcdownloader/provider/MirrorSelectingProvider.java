@@ -0,0 +1,280 @@
+package org.to2mbn.jmccc.mcdownloader.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.to2mbn.jmccc.mcdownloader.RemoteVersionList;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadContext;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.LibraryInfo;
+import org.to2mbn.jmccc.version.Version;
+
+/**
+ * Selects among several mirrors by their observed latency and failure rate.
+ * <p>
+ * The mirrors are ranked by {@link MirrorStatistics}: the healthy mirrors
+ * first, then the lower latency first. A small file is requested from the
+ * best two mirrors as hedged requests (see
+ * {@link CombinedDownloadTask#hedged(long, TimeUnit, CombinedDownloadTask...)}),
+ * and a large file is requested from the best mirror. In both cases the other
+ * mirrors are tried in turn if the requests fail.
+ * <p>
+ * The latency is only sampled from the small files, as the latency of a large
+ * file depends on its size rather than on the mirror.
+ */
+class MirrorSelectingProvider implements MinecraftDownloadProvider {
+
+	private static final Logger LOGGER = Logger.getLogger(MirrorSelectingProvider.class.getCanonicalName());
+
+	private static interface Operation<T> {
+
+		CombinedDownloadTask<T> apply(MinecraftDownloadProvider provider);
+
+	}
+
+	private static class ObservedTask<T> extends CombinedDownloadTask<T> {
+
+		private final CombinedDownloadTask<T> task;
+		private final MirrorStatistics statistics;
+		private final boolean sampleLatency;
+
+		public ObservedTask(CombinedDownloadTask<T> task, MirrorStatistics statistics, boolean sampleLatency) {
+			this.task = task;
+			this.statistics = statistics;
+			this.sampleLatency = sampleLatency;
+		}
+
+		@Override
+		public void execute(final CombinedDownloadContext<T> context) throws Exception {
+			final long start = System.nanoTime();
+			context.submit(task, new CallbackAdapter<T>() {
+
+				@Override
+				public void done(T result) {
+					if (sampleLatency) {
+						statistics.succeeded(System.nanoTime() - start);
+					} else {
+						statistics.succeeded();
+					}
+					context.done(result);
+				}
+
+				@Override
+				public void failed(Throwable e) {
+					statistics.failed();
+					if (LOGGER.isLoggable(Level.FINE))
+						LOGGER.fine(String.format("Mirror failed, now %s: %s", statistics, e));
+					context.failed(e);
+				}
+
+				@Override
+				public void cancelled() {
+					// the loser of a hedged request, not a failure
+					if (sampleLatency) {
+						statistics.cancelled(System.nanoTime() - start);
+					}
+					context.cancelled();
+				}
+			}, false);
+		}
+
+	}
+
+	/**
+	 * Ranks the mirrors when it's executed rather than when it's created, as
+	 * the tasks of the assets are created at once, before any of them has
+	 * completed.
+	 */
+	private class SelectingTask<T> extends CombinedDownloadTask<T> {
+
+		private final CombinedDownloadTask<T>[] tasks; // indexed by mirror, null if unavailable
+		private final boolean small;
+
+		public SelectingTask(CombinedDownloadTask<T>[] tasks, boolean small) {
+			this.tasks = tasks;
+			this.small = small;
+		}
+
+		@Override
+		public void execute(CombinedDownloadContext<T> context) throws Exception {
+			List<CombinedDownloadTask<T>> ordered = new ArrayList<>();
+			for (int i : rank()) {
+				if (tasks[i] != null) {
+					ordered.add(new ObservedTask<>(tasks[i], statistics[i], small));
+				}
+			}
+			compose(ordered).execute(context);
+		}
+
+		private CombinedDownloadTask<T> compose(List<CombinedDownloadTask<T>> ordered) {
+			if (ordered.size() == 1) {
+				return ordered.get(0);
+			}
+
+			@SuppressWarnings("unchecked")
+			CombinedDownloadTask<T>[] candidates = ordered.toArray(new CombinedDownloadTask[ordered.size()]);
+			if (small) {
+				CombinedDownloadTask<T> hedged = CombinedDownloadTask.hedged(hedgeDelay, hedgeDelayUnit, candidates[0], candidates[1]);
+				if (candidates.length == 2) {
+					return hedged;
+				}
+				candidates = Arrays.copyOfRange(candidates, 1, candidates.length);
+				candidates[0] = hedged;
+			}
+			return CombinedDownloadTask.any(candidates);
+		}
+
+	}
+
+	private final MinecraftDownloadProvider[] mirrors;
+	private final MirrorStatistics[] statistics;
+	private final long hedgeDelay;
+	private final TimeUnit hedgeDelayUnit;
+	private final long smallFileThreshold;
+
+	public MirrorSelectingProvider(List<MinecraftDownloadProvider> mirrors, long hedgeDelay, TimeUnit hedgeDelayUnit, long smallFileThreshold) {
+		this.mirrors = mirrors.toArray(new MinecraftDownloadProvider[mirrors.size()]);
+		this.hedgeDelay = hedgeDelay;
+		this.hedgeDelayUnit = Objects.requireNonNull(hedgeDelayUnit);
+		this.smallFileThreshold = smallFileThreshold;
+
+		statistics = new MirrorStatistics[this.mirrors.length];
+		for (int i = 0; i < statistics.length; i++) {
+			statistics[i] = new MirrorStatistics(i);
+		}
+	}
+
+	@Override
+	public CombinedDownloadTask<RemoteVersionList> versionList() {
+		return select(true, new Operation<RemoteVersionList>() {
+
+			@Override
+			public CombinedDownloadTask<RemoteVersionList> apply(MinecraftDownloadProvider provider) {
+				return provider.versionList();
+			}
+		});
+	}
+
+	@Override
+	public CombinedDownloadTask<Set<Asset>> assetsIndex(final MinecraftDirectory mcdir, final Version version) {
+		return select(true, new Operation<Set<Asset>>() {
+
+			@Override
+			public CombinedDownloadTask<Set<Asset>> apply(MinecraftDownloadProvider provider) {
+				return provider.assetsIndex(mcdir, version);
+			}
+		});
+	}
+
+	@Override
+	public CombinedDownloadTask<Void> gameJar(final MinecraftDirectory mcdir, final Version version) {
+		return select(false, new Operation<Void>() {
+
+			@Override
+			public CombinedDownloadTask<Void> apply(MinecraftDownloadProvider provider) {
+				return provider.gameJar(mcdir, version);
+			}
+		});
+	}
+
+	@Override
+	public CombinedDownloadTask<String> gameVersionJson(final MinecraftDirectory mcdir, final String version) {
+		return select(true, new Operation<String>() {
+
+			@Override
+			public CombinedDownloadTask<String> apply(MinecraftDownloadProvider provider) {
+				return provider.gameVersionJson(mcdir, version);
+			}
+		});
+	}
+
+	@Override
+	public CombinedDownloadTask<Void> library(final MinecraftDirectory mcdir, final Library library) {
+		LibraryInfo info = library.getDownloadInfo();
+		boolean small = info != null && info.getSize() > 0 && info.getSize() <= smallFileThreshold;
+		return select(small, new Operation<Void>() {
+
+			@Override
+			public CombinedDownloadTask<Void> apply(MinecraftDownloadProvider provider) {
+				return provider.library(mcdir, library);
+			}
+		});
+	}
+
+	@Override
+	public CombinedDownloadTask<Void> asset(final MinecraftDirectory mcdir, final Asset asset) {
+		return select(asset.getSize() <= smallFileThreshold, new Operation<Void>() {
+
+			@Override
+			public CombinedDownloadTask<Void> apply(MinecraftDownloadProvider provider) {
+				return provider.asset(mcdir, asset);
+			}
+		});
+	}
+
+	private <T> CombinedDownloadTask<T> select(boolean small, Operation<T> operation) {
+		@SuppressWarnings("unchecked")
+		CombinedDownloadTask<T>[] tasks = new CombinedDownloadTask[mirrors.length];
+		int available = 0;
+		for (int i = 0; i < mirrors.length; i++) {
+			tasks[i] = operation.apply(mirrors[i]);
+			if (tasks[i] != null) {
+				available++;
+			}
+		}
+
+		if (available == 0) {
+			return null;
+		}
+		return new SelectingTask<>(tasks, small);
+	}
+
+	private int[] rank() {
+		// take a snapshot, so the order is consistent while sorting
+		final boolean[] healthy = new boolean[statistics.length];
+		final double[] scores = new double[statistics.length];
+		Integer[] order = new Integer[statistics.length];
+		for (int i = 0; i < statistics.length; i++) {
+			healthy[i] = statistics[i].isHealthy();
+			scores[i] = statistics[i].getScore();
+			order[i] = i;
+		}
+
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				if (healthy[o1] != healthy[o2]) {
+					return healthy[o1] ? -1 : 1;
+				}
+				int result = Double.compare(scores[o1], scores[o2]);
+				if (result == 0) {
+					result = o1.compareTo(o2);
+				}
+				return result;
+			}
+		});
+
+		int[] result = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			result[i] = order[i];
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MirrorSelectingProvider [mirrors=%s, statistics=%s]", Arrays.toString(mirrors), Arrays.toString(statistics));
+	}
+
+}
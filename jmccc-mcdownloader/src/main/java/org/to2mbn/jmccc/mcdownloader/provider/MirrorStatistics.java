@@ -0,0 +1,76 @@
+package org.to2mbn.jmccc.mcdownloader.provider;
+
+/**
+ * Tracks the observed latency and failure rate of a mirror, as exponentially
+ * weighted moving averages.
+ * <p>
+ * This class is thread-safe.
+ */
+class MirrorStatistics {
+
+	private static final double ALPHA = 0.2;
+	private static final double UNHEALTHY_FAILURE_RATE = 0.5;
+
+	private final int order; // for debugging
+
+	// guarded by this
+	private double latency = -1; // nanoseconds, -1 if there's no sample
+	private double failureRate = 0;
+
+	public MirrorStatistics(int order) {
+		this.order = order;
+	}
+
+	public synchronized void succeeded(long nanos) {
+		latency = latency < 0 ? nanos : latency + ALPHA * (nanos - latency);
+		failureRate -= ALPHA * failureRate;
+	}
+
+	/**
+	 * Records a latency sample of a request which has been cancelled, because
+	 * another mirror responded faster. The latency is at least the given
+	 * time.
+	 */
+	public synchronized void cancelled(long nanos) {
+		if (latency < nanos) {
+			latency = latency < 0 ? nanos : latency + ALPHA * (nanos - latency);
+		}
+	}
+
+	/**
+	 * Records a success without a latency sample, e.g. a large file, whose
+	 * latency depends on its size.
+	 */
+	public synchronized void succeeded() {
+		failureRate -= ALPHA * failureRate;
+	}
+
+	public synchronized void failed() {
+		failureRate += ALPHA * (1 - failureRate);
+	}
+
+	public synchronized boolean isHealthy() {
+		return failureRate < UNHEALTHY_FAILURE_RATE;
+	}
+
+	/**
+	 * Returns the score of the mirror, the lower the better.
+	 * <p>
+	 * A mirror without latency samples scores 0, so it will be tried soon.
+	 *
+	 * @return the score
+	 */
+	public synchronized double getScore() {
+		if (latency < 0) {
+			return 0;
+		}
+		// penalize the failures, as a failed request costs at least one more round trip
+		return latency * (1 + 2 * failureRate);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("MirrorStatistics [order=%d, latency=%.0fns, failureRate=%.3f]", order, latency, failureRate);
+	}
+
+}
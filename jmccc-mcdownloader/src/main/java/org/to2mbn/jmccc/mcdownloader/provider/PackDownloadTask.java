@@ -0,0 +1,98 @@
+package org.to2mbn.jmccc.mcdownloader.provider;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
+import org.to2mbn.jmccc.util.FileUtils;
+import org.tukaani.xz.XZInputStream;
+
+/**
+ * Downloads a <code>.pack</code> or <code>.pack.xz</code> library, and
+ * unpacks it to the target jar.
+ * <p>
+ * The downloaded data is spooled to a temporary file next to the target as
+ * it arrives, rather than buffered in the memory. When the download
+ * completes, the xz data is decompressed to another temporary file, whose
+ * trailing checksums can be read without loading the whole pack, and then
+ * the pack is streamed to the unpacker.
+ */
+class PackDownloadTask extends DownloadTask<Void> {
+
+	private final File target;
+	private final boolean xz;
+
+	public PackDownloadTask(URI uri, File target, boolean xz) {
+		super(uri);
+		this.target = Objects.requireNonNull(target);
+		this.xz = xz;
+	}
+
+	@Override
+	public DownloadSession<Void> createSession() throws IOException {
+		final File spoolFile = FileUtils.createPartFile(target);
+
+		final FileOutputStream out;
+		try {
+			out = new FileOutputStream(spoolFile);
+		} catch (IOException e) {
+			spoolFile.delete();
+			throw e;
+		}
+		final FileChannel channel = out.getChannel();
+
+		return new DownloadSession<Void>() {
+
+			@Override
+			public void receiveData(ByteBuffer data) throws IOException {
+				channel.write(data);
+			}
+
+			@Override
+			public void failed() throws IOException {
+				out.close();
+				if (!spoolFile.delete()) {
+					throw new IOException("Failed to delete " + spoolFile);
+				}
+			}
+
+			@Override
+			public Void completed() throws Exception {
+				out.close();
+				File packFile = spoolFile;
+				try {
+					if (xz) {
+						packFile = FileUtils.createPartFile(target);
+						decompress(spoolFile, packFile);
+					}
+					new PackProcessor(target).process(packFile);
+				} finally {
+					spoolFile.delete();
+					packFile.delete();
+				}
+				return null;
+			}
+		};
+	}
+
+	private static void decompress(File src, File dest) throws IOException {
+		try (InputStream in = new XZInputStream(new BufferedInputStream(new FileInputStream(src)));
+				OutputStream out = new FileOutputStream(dest)) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+	}
+
+}
@@ -2,31 +2,46 @@ package org.to2mbn.jmccc.mcdownloader.provider;
 
 import static org.to2mbn.jmccc.util.HexUtils.bytesToHex;
 import static org.to2mbn.jmccc.util.HexUtils.hexToBytes;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Pack200;
 import java.util.jar.Pack200.Unpacker;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 import org.to2mbn.jmccc.util.FileUtils;
 
-class PackProcessor implements ResultProcessor<byte[], Void> {
+/**
+ * Unpacks the <code>.pack</code> of the libraries hosted by forge.
+ * <p>
+ * The pack is made of the pack200 data, the sha1 checksums of the entries
+ * (<code>checksums.sha1</code>), the length of the checksums in little endian
+ * and <code>SIGN</code>.
+ */
+class PackProcessor {
 
 	private static final byte[] POSTFIX;
+	private static final int TRAILER_LENGTH;
 
 	static {
 		try {
@@ -34,6 +49,133 @@ class PackProcessor implements ResultProcessor<byte[], Void> {
 		} catch (UnsupportedEncodingException e) {
 			throw new IllegalStateException("unable to encode ascii", e);
 		}
+		TRAILER_LENGTH = 4 + POSTFIX.length;
+	}
+
+	/**
+	 * Limits the pack200 data to the given length, so the unpacker doesn't
+	 * read into the checksums.
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		public LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = in.read();
+			if (b != -1) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = in.read(b, off, (int) Math.min(len, remaining));
+			if (read != -1) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(in.available(), remaining);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Computes the sha1 checksum of each entry as it's written, and compares
+	 * it with the expected one, so the jar doesn't need to be read again.
+	 */
+	private static class DigestingJarOutputStream extends JarOutputStream {
+
+		private final Map<String, byte[]> checksums;
+		private final MessageDigest sha1;
+		private final Set<String> verified = new HashSet<>();
+		private String current; // null if the current entry has no checksum
+
+		public DigestingJarOutputStream(OutputStream out, Map<String, byte[]> checksums) throws IOException, NoSuchAlgorithmException {
+			super(out);
+			this.checksums = checksums;
+			this.sha1 = MessageDigest.getInstance("SHA-1");
+		}
+
+		@Override
+		public void putNextEntry(ZipEntry entry) throws IOException {
+			verifyCurrent();
+			super.putNextEntry(entry);
+			if (checksums.containsKey(entry.getName())) {
+				current = entry.getName();
+				sha1.reset();
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			super.write(b, off, len);
+			if (current != null) {
+				sha1.update(b, off, len);
+			}
+		}
+
+		@Override
+		public void closeEntry() throws IOException {
+			verifyCurrent();
+			super.closeEntry();
+		}
+
+		/**
+		 * Verifies the last entry, and checks that every entry in the
+		 * checksums has been written.
+		 */
+		public void verify() throws IOException {
+			verifyCurrent();
+			for (String name : checksums.keySet()) {
+				if (!verified.contains(name)) {
+					throw new IOException("missing entry: " + name);
+				}
+			}
+		}
+
+		private void verifyCurrent() throws IOException {
+			if (current == null) {
+				return;
+			}
+			String name = current;
+			current = null;
+			byte[] expectedChecksum = checksums.get(name);
+			byte[] actualChecksum = sha1.digest();
+			if (!Arrays.equals(expectedChecksum, actualChecksum)) {
+				throw new IOException("illegal sha1 checksum for " + name + ": expected=" + bytesToHex(expectedChecksum) + ", actual=" + bytesToHex(actualChecksum));
+			}
+			verified.add(name);
+		}
+
 	}
 
 	private Unpacker unpacker = Pack200.newUnpacker();
@@ -43,67 +185,77 @@ class PackProcessor implements ResultProcessor<byte[], Void> {
 		this.target = target;
 	}
 
-	@Override
-	public Void process(byte[] data) throws IOException, NoSuchAlgorithmException {
-		FileUtils.prepareWrite(target);
+	/**
+	 * Unpacks a pack file. Only the checksums are loaded into the memory, and
+	 * the pack200 data is streamed to the unpacker.
+	 *
+	 * @param pack the pack file
+	 * @throws IOException if an I/O error occurs, or the pack is malformed
+	 * @throws NoSuchAlgorithmException if SHA-1 is not supported
+	 */
+	public void process(File pack) throws IOException, NoSuchAlgorithmException {
+		long packLength;
+		byte[] checksumData;
+		try (RandomAccessFile in = new RandomAccessFile(pack, "r")) {
+			long length = in.length();
+			if (length < TRAILER_LENGTH) {
+				throw new IOException("pack data too short: " + length);
+			}
+			byte[] trailer = new byte[TRAILER_LENGTH];
+			in.seek(length - TRAILER_LENGTH);
+			in.readFully(trailer);
+			int checksumsLength = readTrailer(trailer, length - TRAILER_LENGTH);
+
+			packLength = length - TRAILER_LENGTH - checksumsLength;
+			checksumData = new byte[checksumsLength];
+			in.seek(packLength);
+			in.readFully(checksumData);
+		}
 
-		if (data.length < 4 + POSTFIX.length) {
-			throw new IOException("pack data too short: " + data.length);
+		try (InputStream in = new LimitedInputStream(new BufferedInputStream(new FileInputStream(pack)), packLength)) {
+			unpack(in, checksumData);
 		}
+	}
+
+	/**
+	 * Checks the postfix, and returns the length of the checksums.
+	 */
+	private static int readTrailer(byte[] trailer, long maxChecksumsLength) throws IOException {
 		for (int i = 0; i < POSTFIX.length; i++) {
-			if (data[data.length - i - 1] != POSTFIX[POSTFIX.length - i - 1]) {
+			if (trailer[TRAILER_LENGTH - i - 1] != POSTFIX[POSTFIX.length - i - 1]) {
 				throw new IOException("bad postfix");
 			}
 		}
-		int checksumsLengthPos = data.length - POSTFIX.length - 4;
-		int checksumsLength = data[checksumsLengthPos] & 0xff | (data[checksumsLengthPos + 1] & 0xff) << 8 | (data[checksumsLengthPos + 2] & 0xff) << 16 | (data[checksumsLengthPos + 3] & 0xff) << 24;
-		if (checksumsLength < 0 || checksumsLength > checksumsLengthPos) {
+		int checksumsLength = trailer[0] & 0xff | (trailer[1] & 0xff) << 8 | (trailer[2] & 0xff) << 16 | (trailer[3] & 0xff) << 24;
+		if (checksumsLength < 0 || checksumsLength > maxChecksumsLength) {
 			throw new IOException("illegal checksums length: " + checksumsLength);
 		}
-		JarEntry checksumsEntry = new JarEntry("checksums.sha1");
-		checksumsEntry.setTime(0);
-
-		byte[] checksumData = new byte[checksumsLength];
-		System.arraycopy(data, checksumsLengthPos - checksumsLength, checksumData, 0, checksumsLength);
-
-		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(target))) {
-			unpacker.unpack(new ByteArrayInputStream(data), out);
-			out.putNextEntry(checksumsEntry);
-			out.write(checksumData);
-			out.closeEntry();
-		}
-
-		try {
-			verifyChecksums(readChecksums(checksumData));
-		} catch (Throwable e) {
-			target.delete();
-			throw e;
-		}
-
-		return null;
+		return checksumsLength;
 	}
 
-	private void verifyChecksums(Map<String, byte[]> checksums) throws IOException, NoSuchAlgorithmException {
-		MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+	private void unpack(InputStream pack, byte[] checksumData) throws IOException, NoSuchAlgorithmException {
+		File partFile = FileUtils.createPartFile(target);
 
-		try (ZipInputStream in = new ZipInputStream(new FileInputStream(target))) {
-			ZipEntry entry = in.getNextEntry();
+		JarEntry checksumsEntry = new JarEntry("checksums.sha1");
+		checksumsEntry.setTime(0);
 
-			byte[] expectedChecksum = checksums.get(entry.getName());
-			if (expectedChecksum != null) {
-				sha1.reset();
-				byte[] buffer = new byte[8192];
-				int read;
-				while ((read = in.read(buffer)) != -1) {
-					sha1.update(buffer, 0, read);
-				}
-				byte[] actualChecksum = sha1.digest();
-				if (!Arrays.equals(expectedChecksum, actualChecksum)) {
-					throw new IOException("illegal sha1 checksum for " + entry.getName() + ": expected=" + bytesToHex(expectedChecksum) + ", actual=" + actualChecksum);
-				}
+		try {
+			try (DigestingJarOutputStream out = new DigestingJarOutputStream(new FileOutputStream(partFile), readChecksums(checksumData))) {
+				unpacker.unpack(pack, out);
+				out.verify();
+				out.putNextEntry(checksumsEntry);
+				out.write(checksumData);
+				out.closeEntry();
 			}
 
-			in.closeEntry();
+			try {
+				Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (Throwable e) {
+			partFile.delete();
+			throw e;
 		}
 	}
 
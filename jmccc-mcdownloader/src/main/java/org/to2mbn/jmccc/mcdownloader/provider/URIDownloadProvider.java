@@ -8,7 +8,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListMap;
-import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.mcdownloader.RemoteVersionList;
 import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
 import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
@@ -17,6 +17,7 @@ import org.to2mbn.jmccc.mcdownloader.download.tasks.FileDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.util.IOUtils;
 import org.to2mbn.jmccc.version.Asset;
 import org.to2mbn.jmccc.version.Library;
 import org.to2mbn.jmccc.version.Version;
@@ -59,12 +60,15 @@ abstract public class URIDownloadProvider implements MinecraftDownloadProvider {
 		}
 		return CombinedDownloadTask.single(
 				new MemoryDownloadTask(uri)
-						.andThen(new JsonDecoder())
-						.andThen(new ResultProcessor<JSONObject, RemoteVersionList>() {
+						.andThen(new ResultProcessor<byte[], RemoteVersionList>() {
 
 							@Override
-							public RemoteVersionList process(JSONObject json) throws Exception {
-								return RemoteVersionList.fromJson(json);
+							public RemoteVersionList process(byte[] data) throws Exception {
+								try {
+									return RemoteVersionList.fromJson(IOUtils.toJsonParser(data));
+								} catch (JSONException e) {
+									throw new IOException("Couldn't parse version list", e);
+								}
 							}
 						})
 						.cacheable()
@@ -150,7 +154,7 @@ abstract public class URIDownloadProvider implements MinecraftDownloadProvider {
 			return null;
 		}
 		return CombinedDownloadTask.single(
-				new FileDownloadTask(uri, mcdir.getAsset(asset))
+				new FileDownloadTask(uri, mcdir.getAsset(asset), Math.max(asset.getSize(), 0))
 						.cachePool(CacheNames.ASSET));
 	}
 
@@ -1,27 +1,24 @@
 package org.to2mbn.jmccc.mcdownloader.provider.forge;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.util.concurrent.TimeUnit;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
 import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadContext;
 import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.CallbackAdapter;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.FileDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 import org.to2mbn.jmccc.mcdownloader.provider.AbstractMinecraftDownloadProvider;
 import org.to2mbn.jmccc.mcdownloader.provider.ExtendedDownloadProvider;
-import org.to2mbn.jmccc.mcdownloader.provider.JsonDecoder;
 import org.to2mbn.jmccc.mcdownloader.provider.MinecraftDownloadProvider;
 import org.to2mbn.jmccc.mcdownloader.provider.VersionJsonInstaller;
+import org.to2mbn.jmccc.mcdownloader.util.ZipRewriter;
 import org.to2mbn.jmccc.option.MinecraftDirectory;
 import org.to2mbn.jmccc.util.FileUtils;
 import org.to2mbn.jmccc.util.IOUtils;
@@ -40,10 +37,70 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 
 	private static final String[] UNIVERSAL_TYPES = new String[] { "jar", "zip" };
 
+	private static final ZipRewriter.EntryFilter NON_META_INF = new ZipRewriter.EntryFilter() {
+
+		@Override
+		public boolean accept(String name) {
+			return !name.startsWith("META-INF/");
+		}
+	};
+
+	private static class CachedVersionList {
+
+		final ForgeVersionList versionList;
+		final long expireTime;
+
+		CachedVersionList(ForgeVersionList versionList, long expireTime) {
+			this.versionList = versionList;
+			this.expireTime = expireTime;
+		}
+
+	}
+
+	private class VersionListTask extends CombinedDownloadTask<ForgeVersionList> {
+
+		@Override
+		public void execute(final CombinedDownloadContext<ForgeVersionList> context) throws Exception {
+			CachedVersionList cached = cachedVersionList;
+			if (cached != null && System.nanoTime() - cached.expireTime < 0) {
+				context.done(cached.versionList);
+				return;
+			}
+
+			context.submit(new MemoryDownloadTask(source.getForgeVersionListUrl())
+					.andThen(new ResultProcessor<byte[], ForgeVersionList>() {
+
+						@Override
+						public ForgeVersionList process(byte[] data) throws IOException {
+							ForgeVersionList versionList;
+							try {
+								versionList = ForgeVersionList.fromJson(IOUtils.toJsonParser(data));
+							} catch (JSONException e) {
+								throw new IOException("Couldn't parse forge version list", e);
+							}
+							cachedVersionList = new CachedVersionList(versionList, System.nanoTime() + versionListTTL);
+							return versionList;
+						}
+					})
+					.cacheable()
+					.cachePool(CacheNames.FORGE_VERSION_LIST), new CallbackAdapter<ForgeVersionList>() {
+
+						@Override
+						public void done(ForgeVersionList result) {
+							context.done(result);
+						}
+					}, true);
+		}
+
+	}
+
 	private ForgeDownloadSource source;
 
 	private MinecraftDownloadProvider upstreamProvider;
 
+	private volatile CachedVersionList cachedVersionList;
+	private volatile long versionListTTL = TimeUnit.HOURS.toNanos(2);
+
 	public ForgeDownloadProvider() {
 		this(new DefaultForgeDownloadSource());
 	}
@@ -52,19 +109,18 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 		this.source = Objects.requireNonNull(source);
 	}
 
+	/**
+	 * Returns a task which fetches the forge version list.
+	 * <p>
+	 * The parsed version list is kept by this provider for the version list
+	 * TTL, and the following tasks return it without fetching or parsing the
+	 * list again.
+	 *
+	 * @return a task which fetches the forge version list
+	 * @see #setVersionListTTL(long, TimeUnit)
+	 */
 	public CombinedDownloadTask<ForgeVersionList> forgeVersionList() {
-		return CombinedDownloadTask.single(
-				new MemoryDownloadTask(source.getForgeVersionListUrl())
-						.andThen(new JsonDecoder())
-						.andThen(new ResultProcessor<JSONObject, ForgeVersionList>() {
-
-							@Override
-							public ForgeVersionList process(JSONObject json) throws IOException {
-								return ForgeVersionList.fromJson(json);
-							}
-						})
-						.cacheable()
-						.cachePool(CacheNames.FORGE_VERSION_LIST));
+		return new VersionListTask();
 	}
 
 	@Override
@@ -78,9 +134,9 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 						@Override
 						public CombinedDownloadTask<String> process(final ForgeVersion forge) throws Exception {
 							return CombinedDownloadTask.any(
-									installerTask(forge.getMavenVersion())
+									installerTask(mcdir, forge.getMavenVersion())
 											.andThen(new InstallProfileProcessor(mcdir)),
-									upstreamProvider.gameVersionJson(mcdir, forge.getMinecraftVersion())
+									upstreamGameVersionJson(mcdir, forge.getMinecraftVersion())
 											.andThen(new ResultProcessor<String, JSONObject>() {
 
 												// for old forge versions
@@ -102,7 +158,7 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 		if (FORGE_GROUP_ID.equals(library.getGroupId())) {
 
 			if (FORGE_ARTIFACT_ID.equals(library.getArtifactId())) {
-				return universalTask(library.getVersion(), mcdir.getLibrary(library));
+				return universalTask(mcdir, library.getVersion(), mcdir.getLibrary(library));
 
 			} else if (FORGE_OLD_ARTIFACT_ID.equals(library.getArtifactId())) {
 				return forgeVersion(library.getVersion())
@@ -110,7 +166,7 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 
 							@Override
 							public CombinedDownloadTask<Void> process(ForgeVersion version) throws Exception {
-								return universalTask(version.getMavenVersion(), mcdir.getLibrary(library));
+								return universalTask(mcdir, version.getMavenVersion(), mcdir.getLibrary(library));
 							}
 						});
 			}
@@ -166,7 +222,7 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 
 										@Override
 										public CombinedDownloadTask<Version> process(ForgeVersion forge) throws Exception {
-											return universalTask(forge.getMavenVersion(), universalFile)
+											return universalTask(mcdir, forge.getMavenVersion(), universalFile)
 													.andThenReturn(superVersion);
 										}
 									});
@@ -194,35 +250,75 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 		}
 	}
 
+	/**
+	 * Sets how long the parsed forge version list is kept. The default value
+	 * is 2 hours, which is the same as the default TTL of the download cache.
+	 * If <code>ttl</code> is 0, the version list is fetched every time.
+	 *
+	 * @param ttl the time to keep the version list
+	 * @param unit the unit of <code>ttl</code>
+	 * @throws IllegalArgumentException if <code>ttl &lt; 0</code>
+	 */
+	public void setVersionListTTL(long ttl, TimeUnit unit) {
+		if (ttl < 0) {
+			throw new IllegalArgumentException("ttl < 0");
+		}
+		versionListTTL = unit.toNanos(ttl);
+		cachedVersionList = null;
+	}
+
 	@Override
 	public void setUpstreamProvider(MinecraftDownloadProvider upstreamProvider) {
 		this.upstreamProvider = upstreamProvider;
 	}
 
+	/**
+	 * Downloads the installer into the libraries directory, and opens it.
+	 * <p>
+	 * The task is memoized, so the installer is downloaded and parsed only
+	 * once in a download session when both its install profile and its
+	 * universal jar are needed. The opened installer is not kept after the
+	 * session.
+	 *
+	 * @param mcdir the minecraft directory
+	 * @param m2Version the maven version of forge
+	 * @return the installer task
+	 */
+	protected CombinedDownloadTask<ForgeInstaller> installerTask(MinecraftDirectory mcdir, String m2Version) {
+		return installerTask(m2Version, mcdir.getLibrary(installerLibrary(m2Version)));
+	}
+
+	/**
+	 * Downloads the installer into memory.
+	 *
+	 * @param m2Version the maven version of forge
+	 * @return the installer task
+	 * @deprecated use {@link #installerTask(MinecraftDirectory, String)}, which
+	 *             doesn't hold the whole installer in memory
+	 */
+	@Deprecated
 	protected CombinedDownloadTask<byte[]> installerTask(String m2Version) {
-		Library lib = new Library(FORGE_GROUP_ID, FORGE_ARTIFACT_ID, m2Version, CLASSIFIER_INSTALLER, "jar");
 		return CombinedDownloadTask.single(
-				new MemoryDownloadTask(source.getForgeMavenRepositoryUrl() + lib.getPath())
+				new MemoryDownloadTask(source.getForgeMavenRepositoryUrl() + installerLibrary(m2Version).getPath())
 						.cacheable()
 						.cachePool(CacheNames.FORGE_INSTALLER));
 	}
 
-	protected CombinedDownloadTask<Void> universalTask(String m2Version, File target) {
-		String[] types = UNIVERSAL_TYPES;
-
-		@SuppressWarnings("unchecked")
-		CombinedDownloadTask<Void>[] tasks = new CombinedDownloadTask[types.length + 1];
-		tasks[0] = installerTask(m2Version)
-				.andThen(new UniversalDecompressor(target, m2Version));
-
-		for (int i = 0; i < types.length; i++) {
-			Library lib = new Library(FORGE_GROUP_ID, FORGE_ARTIFACT_ID, m2Version, CLASSIFIER_UNIVERSAL, types[i]);
-			tasks[i + 1] = CombinedDownloadTask.single(
-					new FileDownloadTask(source.getForgeMavenRepositoryUrl() + lib.getPath(), target)
-							.cachePool(CacheNames.FORGE_UNIVERSAL));
-		}
+	protected CombinedDownloadTask<Void> universalTask(MinecraftDirectory mcdir, String m2Version, File target) {
+		return universalTask(m2Version, target, mcdir.getLibrary(installerLibrary(m2Version)));
+	}
 
-		return CombinedDownloadTask.any(tasks);
+	/**
+	 * @param m2Version the maven version of forge
+	 * @param target the file to save the universal to
+	 * @return the universal task
+	 * @deprecated use {@link #universalTask(MinecraftDirectory, String, File)};
+	 *             this one downloads the installer next to <code>target</code>
+	 */
+	@Deprecated
+	protected CombinedDownloadTask<Void> universalTask(String m2Version, File target) {
+		String installerName = new File(installerLibrary(m2Version).getPath()).getName();
+		return universalTask(m2Version, target, new File(target.getAbsoluteFile().getParentFile(), installerName));
 	}
 
 	protected JSONObject createForgeVersionJson(MinecraftDirectory mcdir, ForgeVersion forgeVersion) throws IOException, JSONException {
@@ -238,58 +334,58 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 
 	protected void mergeJar(File parent, File universal, File target) throws IOException {
 		FileUtils.prepareWrite(target);
-		try (ZipInputStream in = new ZipInputStream(new FileInputStream(parent));
-				ZipInputStream universalIn = new ZipInputStream(new FileInputStream(universal));
-				ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target));) {
-			ZipEntry entry;
-			byte[] buf = new byte[8192];
-			int read;
-
-			Set<String> universalEntries = new HashSet<>();
-
-			while ((entry = universalIn.getNextEntry()) != null) {
-				universalEntries.add(entry.getName());
-				out.putNextEntry(entry);
-				while ((read = universalIn.read(buf)) != -1) {
-					out.write(buf, 0, read);
-				}
-				out.closeEntry();
-				universalIn.closeEntry();
-			}
-
-			while ((entry = in.getNextEntry()) != null) {
-				if (!isMetaInfEntry(entry) && !universalEntries.contains(entry.getName())) {
-					out.putNextEntry(entry);
-					while ((read = in.read(buf)) != -1) {
-						out.write(buf, 0, read);
-					}
-					out.closeEntry();
-				}
-				in.closeEntry();
-			}
+		try (ZipRewriter out = new ZipRewriter(target)) {
+			// the universal entries override the ones in the parent
+			out.copyFrom(universal, ZipRewriter.ALL);
+			out.copyFrom(parent, NON_META_INF);
 		}
 	}
 
 	protected void purgeMetaInf(File src, File target) throws IOException {
 		FileUtils.prepareWrite(target);
-		try (ZipInputStream in = new ZipInputStream(new FileInputStream(src));
-				ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target));) {
-			ZipEntry entry;
-			byte[] buf = new byte[8192];
-			int read;
-			while ((entry = in.getNextEntry()) != null) {
-				if (!isMetaInfEntry(entry)) {
-					out.putNextEntry(entry);
-					while ((read = in.read(buf)) != -1) {
-						out.write(buf, 0, read);
-					}
-					out.closeEntry();
-				}
-				in.closeEntry();
-			}
+		try (ZipRewriter out = new ZipRewriter(target)) {
+			out.copyFrom(src, NON_META_INF);
 		}
 	}
 
+	private Library installerLibrary(String m2Version) {
+		return new Library(FORGE_GROUP_ID, FORGE_ARTIFACT_ID, m2Version, CLASSIFIER_INSTALLER, "jar");
+	}
+
+	private CombinedDownloadTask<ForgeInstaller> installerTask(String m2Version, final File installerFile) {
+		return CombinedDownloadTask.single(
+				new FileDownloadTask(source.getForgeMavenRepositoryUrl() + installerLibrary(m2Version).getPath(), installerFile)
+						.cacheable()
+						.cachePool(CacheNames.FORGE_INSTALLER)
+						.andThen(new ResultProcessor<Void, ForgeInstaller>() {
+
+							@Override
+							public ForgeInstaller process(Void arg) throws Exception {
+								return ForgeInstaller.open(installerFile);
+							}
+						}))
+				.memoized(Arrays.asList(this, "installer", installerFile));
+	}
+
+	private CombinedDownloadTask<Void> universalTask(String m2Version, File target, File installerFile) {
+		String[] types = UNIVERSAL_TYPES;
+
+		@SuppressWarnings("unchecked")
+		CombinedDownloadTask<Void>[] tasks = new CombinedDownloadTask[types.length + 1];
+		tasks[0] = installerTask(m2Version, installerFile)
+				.andThen(new UniversalDecompressor(target, m2Version));
+
+		for (int i = 0; i < types.length; i++) {
+			Library lib = new Library(FORGE_GROUP_ID, FORGE_ARTIFACT_ID, m2Version, CLASSIFIER_UNIVERSAL, types[i]);
+			tasks[i + 1] = CombinedDownloadTask.single(
+					new FileDownloadTask(source.getForgeMavenRepositoryUrl() + lib.getPath(), target)
+							.cachePool(CacheNames.FORGE_UNIVERSAL));
+		}
+
+		return CombinedDownloadTask.any(tasks)
+				.memoized(Arrays.asList(this, "universal", m2Version, target, installerFile));
+	}
+
 	private CombinedDownloadTask<ForgeVersion> forgeVersion(final String forgeVersion) {
 		return forgeVersionList()
 				.andThen(new ResultProcessor<ForgeVersionList, ForgeVersion>() {
@@ -302,15 +398,18 @@ public class ForgeDownloadProvider extends AbstractMinecraftDownloadProvider imp
 						}
 						return forge;
 					}
-				});
+				})
+				.memoized(Arrays.asList(this, "forgeVersion", forgeVersion));
 	}
 
-	private boolean isMetaInfEntry(ZipEntry entry) {
-		return entry.getName().startsWith("META-INF/");
+	private CombinedDownloadTask<String> upstreamGameVersionJson(MinecraftDirectory mcdir, String version) {
+		// both the version json and the game jar of forge need the super version
+		return upstreamProvider.gameVersionJson(mcdir, version)
+				.memoized(Arrays.asList(upstreamProvider, "gameVersionJson", mcdir, version));
 	}
 
 	private CombinedDownloadTask<Version> downloadSuperVersion(final MinecraftDirectory mcdir, String version) {
-		return upstreamProvider.gameVersionJson(mcdir, version)
+		return upstreamGameVersionJson(mcdir, version)
 				.andThenDownload(new ResultProcessor<String, CombinedDownloadTask<Version>>() {
 
 					@Override
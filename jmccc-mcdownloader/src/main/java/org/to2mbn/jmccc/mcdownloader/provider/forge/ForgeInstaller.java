@@ -0,0 +1,155 @@
+package org.to2mbn.jmccc.mcdownloader.provider.forge;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONTokener;
+import org.to2mbn.jmccc.util.FileUtils;
+
+/**
+ * A forge installer stored in a file.
+ * <p>
+ * The installer is parsed once when it's opened: the entry names are read
+ * from its central directory, and <code>install_profile.json</code> is
+ * parsed. The other entries are extracted with random access, rather than
+ * by scanning the whole installer.
+ *
+ * @see ForgeDownloadProvider#installerTask(org.to2mbn.jmccc.option.MinecraftDirectory,
+ *      String)
+ */
+public class ForgeInstaller {
+
+	public static final String INSTALL_PROFILE = "install_profile.json";
+
+	public static ForgeInstaller open(File file) throws IOException, JSONException {
+		Objects.requireNonNull(file);
+		long lastModified = file.lastModified();
+		long length = file.length();
+
+		try (ZipFile zip = new ZipFile(file)) {
+			List<String> entries = new ArrayList<>(zip.size());
+			Enumeration<? extends ZipEntry> it = zip.entries();
+			while (it.hasMoreElements()) {
+				entries.add(it.nextElement().getName());
+			}
+
+			JSONObject installProfile = null;
+			ZipEntry profileEntry = zip.getEntry(INSTALL_PROFILE);
+			if (profileEntry != null) {
+				try (InputStream in = zip.getInputStream(profileEntry)) {
+					installProfile = new JSONObject(new JSONTokener(new InputStreamReader(in, "UTF-8")));
+				}
+			}
+
+			return new ForgeInstaller(file, lastModified, length, Collections.unmodifiableList(entries), installProfile);
+		}
+	}
+
+	private final File file;
+	private final long lastModified;
+	private final long length;
+	private final List<String> entries;
+	private final JSONObject installProfile;
+
+	private ForgeInstaller(File file, long lastModified, long length, List<String> entries, JSONObject installProfile) {
+		this.file = file;
+		this.lastModified = lastModified;
+		this.length = length;
+		this.entries = entries;
+		this.installProfile = installProfile;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the names of the entries in the installer.
+	 *
+	 * @return the names of the entries
+	 */
+	public List<String> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Gets the parsed <code>install_profile.json</code>.
+	 * <p>
+	 * The returned object is shared, and should not be modified.
+	 *
+	 * @return the install profile, null if the installer doesn't have one
+	 */
+	public JSONObject getInstallProfile() {
+		return installProfile;
+	}
+
+	/**
+	 * Finds the first entry whose name is one of the given names, ignoring
+	 * the case.
+	 *
+	 * @param names the names
+	 * @return the name of the entry, null if not found
+	 */
+	public String findEntry(String... names) {
+		for (String entry : entries) {
+			for (String name : names) {
+				if (name.equalsIgnoreCase(entry)) {
+					return entry;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Extracts an entry to the given file.
+	 *
+	 * @param entry the name of the entry
+	 * @param target the file to write to
+	 * @throws IOException if an I/O error occurs, or the entry doesn't exist
+	 */
+	public void extract(String entry, File target) throws IOException {
+		try (ZipFile zip = new ZipFile(file)) {
+			ZipEntry zipEntry = zip.getEntry(entry);
+			if (zipEntry == null) {
+				throw new IOException("No such entry in " + file + ": " + entry);
+			}
+			FileUtils.prepareWrite(target);
+			try (InputStream in = zip.getInputStream(zipEntry); OutputStream out = new FileOutputStream(target)) {
+				byte[] buf = new byte[8192];
+				int read;
+				while ((read = in.read(buf)) != -1) {
+					out.write(buf, 0, read);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the file hasn't been changed since the installer was
+	 * opened.
+	 *
+	 * @return true if the file is still the same
+	 */
+	public boolean isUpToDate() {
+		return file.isFile() && file.lastModified() == lastModified && file.length() == length;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ForgeInstaller [file=%s, entries=%d]", file, entries.size());
+	}
+
+}
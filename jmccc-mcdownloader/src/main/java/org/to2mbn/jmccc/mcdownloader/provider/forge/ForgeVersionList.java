@@ -1,24 +1,97 @@
 package org.to2mbn.jmccc.mcdownloader.provider.forge;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
+import org.to2mbn.jmccc.util.CompactReader;
+import org.to2mbn.jmccc.util.CompactWriter;
 
+/**
+ * The forge version list.
+ * <p>
+ * The versions are stored in parallel arrays sorted by the build number, rather
+ * than as {@link ForgeVersion} objects, and the {@link ForgeVersion}s are
+ * created on lookup. A build number is looked up with a binary search, a forge
+ * version with a hash index, and the versions of a minecraft version are kept
+ * in a contiguous range. The index is built once when the list is created, and
+ * the list is immutable.
+ */
 public class ForgeVersionList implements Serializable {
 
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
 
-	public static ForgeVersionList fromJson(JSONObject json) {
-		Map<Integer, ForgeVersion> versions = new TreeMap<>();
-		Map<String, ForgeVersion> latests = new TreeMap<>();
-		Map<String, ForgeVersion> recommendeds = new TreeMap<>();
-		Map<String, ForgeVersion> forgeVersionMapping = new TreeMap<>();
-		ForgeVersion latest = null;
-		ForgeVersion recommended = null;
+	private static final int BINARY_MAGIC = 0x4a4d4656; // "JMFV"
+	private static final int BINARY_FORMAT_VERSION = 2;
+
+	private static final String LATEST = "latest";
+	private static final String RECOMMENDED = "recommended";
+	private static final String LATEST_SUFFIX = "-" + LATEST;
+	private static final String RECOMMENDED_SUFFIX = "-" + RECOMMENDED;
+
+	/**
+	 * Collects the versions before they are indexed.
+	 */
+	private static class VersionCollector {
+
+		private int size;
+		private int[] buildNumbers = new int[256];
+		private String[] minecraftVersions = new String[256];
+		private String[] forgeVersions = new String[256];
+		private String[] branches = new String[256];
+
+		// the minecraft versions and the branches are shared by many versions
+		private final Map<String, String> strings = new HashMap<>();
+
+		void add(String mcversion, String forgeversion, int buildnum, String branch) {
+			if (size == buildNumbers.length) {
+				int capacity = size * 2;
+				buildNumbers = Arrays.copyOf(buildNumbers, capacity);
+				minecraftVersions = Arrays.copyOf(minecraftVersions, capacity);
+				forgeVersions = Arrays.copyOf(forgeVersions, capacity);
+				branches = Arrays.copyOf(branches, capacity);
+			}
+			buildNumbers[size] = buildnum;
+			minecraftVersions[size] = intern(Objects.requireNonNull(mcversion));
+			forgeVersions[size] = Objects.requireNonNull(forgeversion);
+			branches[size] = intern(branch);
+			size++;
+		}
+
+		void add(ForgeVersion version) {
+			add(version.getMinecraftVersion(), version.getForgeVersion(), version.getBuildNumber(), version.getBranch());
+		}
+
+		private String intern(String string) {
+			if (string == null) {
+				return null;
+			}
+			String interned = strings.get(string);
+			if (interned == null) {
+				strings.put(string, string);
+				interned = string;
+			}
+			return interned;
+		}
 
+	}
+
+	public static ForgeVersionList fromJson(JSONObject json) {
+		VersionCollector collector = new VersionCollector();
 		JSONObject versionsJson = json.getJSONObject("number");
 		for (String strbuildnum : versionsJson.keySet()) {
 			JSONObject versionJson = versionsJson.getJSONObject(strbuildnum);
@@ -30,67 +103,412 @@ public class ForgeVersionList implements Serializable {
 				continue;
 			}
 
-			String branch = versionJson.optString("branch", null);
-			ForgeVersion version = new ForgeVersion(mcversion, forgeversion, buildnum, branch);
+			collector.add(mcversion, forgeversion, buildnum, versionJson.optString("branch", null));
+		}
 
-			versions.put(buildnum, version);
-			forgeVersionMapping.put(forgeversion, version);
+		Map<String, Integer> promos = new LinkedHashMap<>();
+		JSONObject promosJson = json.getJSONObject("promos");
+		for (String key : promosJson.keySet()) {
+			promos.put(key, promosJson.getInt(key));
 		}
-		JSONObject promos = json.getJSONObject("promos");
-		for (String key : promos.keySet()) {
-			ForgeVersion version = versions.get(promos.getInt(key));
-			if ("latest".equals(key)) {
-				latest = version;
-			} else if ("recommended".equals(key)) {
-				recommended = version;
-			} else if (key.endsWith("-latest")) {
-				// 7 - length of "-latest"
-				latests.put(key.substring(0, key.length() - 7), version);
-			} else if (key.endsWith("-recommended")) {
-				// 12 - length of "-recommended"
-				recommendeds.put(key.substring(0, key.length() - 12), version);
+		return new ForgeVersionList(collector, promos);
+	}
+
+	public static ForgeVersionList fromJson(JSONPullParser parser) throws JSONException {
+		VersionCollector collector = new VersionCollector();
+
+		// promos may appear before the versions they refer to
+		Map<String, Integer> promos = null;
+		boolean hasVersions = false;
+
+		parser.beginObject();
+		while (parser.hasNext()) {
+			switch (parser.nextName()) {
+				case "number":
+					hasVersions = true;
+					parser.beginObject();
+					while (parser.hasNext()) {
+						parser.nextName();
+						parseVersion(parser, collector);
+					}
+					parser.endObject();
+					break;
+
+				case "promos":
+					promos = new LinkedHashMap<>();
+					parser.beginObject();
+					while (parser.hasNext()) {
+						String key = parser.nextName();
+						promos.put(key, parser.nextInt());
+					}
+					parser.endObject();
+					break;
+
+				default:
+					parser.skipValue();
+					break;
 			}
 		}
-		return new ForgeVersionList(Collections.unmodifiableMap(versions),
-				Collections.unmodifiableMap(latests),
-				Collections.unmodifiableMap(recommendeds),
-				Collections.unmodifiableMap(forgeVersionMapping),
-				latest,
-				recommended);
+		parser.endObject();
+
+		if (!hasVersions) {
+			throw new JSONException("JSONObject[\"number\"] not found.");
+		}
+		if (promos == null) {
+			throw new JSONException("JSONObject[\"promos\"] not found.");
+		}
+		return new ForgeVersionList(collector, promos);
 	}
 
-	private Map<Integer, ForgeVersion> versions;
-	private Map<String, ForgeVersion> latests;
-	private Map<String, ForgeVersion> recommendeds;
-	private Map<String, ForgeVersion> forgeVersionMapping;
-	private ForgeVersion latest;
-	private ForgeVersion recommended;
+	private static void parseVersion(JSONPullParser parser, VersionCollector collector) throws JSONException {
+		String mcversion = null;
+		String forgeversion = null;
+		int buildnum = -1;
+		String branch = null;
 
+		parser.beginObject();
+		while (parser.hasNext()) {
+			String key = parser.nextName();
+			if (parser.peek() == JSONPullParser.Token.NULL) {
+				parser.nextNull();
+				continue;
+			}
+			switch (key) {
+				case "mcversion":
+					mcversion = parser.nextString();
+					break;
+				case "version":
+					forgeversion = parser.nextString();
+					break;
+				case "build":
+					buildnum = parser.nextInt();
+					break;
+				case "branch":
+					branch = parser.nextString();
+					break;
+				default:
+					// skip the file list, which takes most of the space
+					parser.skipValue();
+					break;
+			}
+		}
+		parser.endObject();
+
+		if (mcversion != null && forgeversion != null && buildnum != -1) {
+			collector.add(mcversion, forgeversion, buildnum, branch);
+		}
+	}
+
+	/**
+	 * Reads a version list written by {@link #writeBinary(OutputStream)}.
+	 *
+	 * @param data the encoded version list
+	 * @return the version list
+	 * @throws IOException if the data is corrupted or in an unknown format
+	 */
+	public static ForgeVersionList fromBinary(byte[] data) throws IOException {
+		CompactReader reader = CompactReader.open(data, BINARY_MAGIC, BINARY_FORMAT_VERSION);
+		try {
+			VersionCollector collector = new VersionCollector();
+			int count = reader.readVarInt();
+			long buildnum = 0;
+			for (int i = 0; i < count; i++) {
+				// the build numbers are sorted, so only the deltas are written
+				buildnum += reader.readSignedVarLong();
+				String mcversion = reader.readString();
+				String forgeversion = reader.readString();
+				String branch = reader.readString();
+				collector.add(mcversion, forgeversion, (int) buildnum, branch);
+			}
+
+			Map<String, Integer> promos = new LinkedHashMap<>();
+			int promoCount = reader.readVarInt();
+			for (int i = 0; i < promoCount; i++) {
+				String key = Objects.requireNonNull(reader.readString());
+				promos.put(key, reader.readBoolean() ? (int) reader.readSignedVarLong() : null);
+			}
+			if (!reader.isEnd()) {
+				throw new IOException("Unexpected data after the version list");
+			}
+			return new ForgeVersionList(collector, promos);
+		} catch (NullPointerException e) {
+			throw new IOException("Corrupted forge version list", e);
+		}
+	}
+
+	private static Map<String, Integer> toPromos(Map<String, ForgeVersion> latests, Map<String, ForgeVersion> recommendeds, ForgeVersion latest, ForgeVersion recommended) {
+		Map<String, Integer> promos = new LinkedHashMap<>();
+		for (Entry<String, ForgeVersion> entry : latests.entrySet()) {
+			promos.put(entry.getKey() + LATEST_SUFFIX, toBuildNumber(entry.getValue()));
+		}
+		for (Entry<String, ForgeVersion> entry : recommendeds.entrySet()) {
+			promos.put(entry.getKey() + RECOMMENDED_SUFFIX, toBuildNumber(entry.getValue()));
+		}
+		if (latest != null) {
+			promos.put(LATEST, latest.getBuildNumber());
+		}
+		if (recommended != null) {
+			promos.put(RECOMMENDED, recommended.getBuildNumber());
+		}
+		return promos;
+	}
+
+	private static Integer toBuildNumber(ForgeVersion version) {
+		return version == null ? null : version.getBuildNumber();
+	}
+
+	// the versions, sorted by the build number
+	private final int[] buildNumbers;
+	private final String[] forgeVersions;
+	private final String[] branches;
+	private final int[] minecraftVersionIndexes;
+
+	// the minecraft versions, sorted
+	private final String[] minecraftVersions;
+
+	// the positions of the versions grouped by the minecraft version,
+	// the versions of minecraftVersions[i] are at [minecraftVersionStarts[i], minecraftVersionStarts[i + 1])
+	private final int[] versionsByMinecraftVersion;
+	private final int[] minecraftVersionStarts;
+
+	// open addressing hash table of the forge versions, the values are the positions + 1
+	private final int[] forgeVersionTable;
+
+	// the promotions are few, so they are kept as maps
+	private final Map<String, ForgeVersion> latests;
+	private final Map<String, ForgeVersion> recommendeds;
+	private final ForgeVersion latest;
+	private final ForgeVersion recommended;
+
+	// created on demand
+	private transient volatile Map<Integer, ForgeVersion> versionMap;
+	private transient volatile Map<String, ForgeVersion> forgeVersionMap;
+
+	/**
+	 * Creates a ForgeVersionList.
+	 * <p>
+	 * If several versions have the same build number, only the last one is
+	 * kept. The promoted versions are looked up in <code>versions</code> by
+	 * their build numbers.
+	 *
+	 * @param versions the forge versions
+	 * @param latests the latest versions, key is the minecraft version
+	 * @param recommendeds the recommended versions, key is the minecraft
+	 *            version
+	 * @param latest the latest version, can be null
+	 * @param recommended the recommended version, can be null
+	 */
+	public ForgeVersionList(Collection<ForgeVersion> versions, Map<String, ForgeVersion> latests, Map<String, ForgeVersion> recommendeds, ForgeVersion latest, ForgeVersion recommended) {
+		this(collect(versions), toPromos(Objects.requireNonNull(latests), Objects.requireNonNull(recommendeds), latest, recommended));
+	}
+
+	/**
+	 * Creates a ForgeVersionList.
+	 *
+	 * @param versions the forge versions, key is the build number
+	 * @param latests the latest versions, key is the minecraft version
+	 * @param recommendeds the recommended versions, key is the minecraft
+	 *            version
+	 * @param forgeVersionMapping ignored, the mapping is derived from
+	 *            <code>versions</code>
+	 * @param latest the latest version, can be null
+	 * @param recommended the recommended version, can be null
+	 * @deprecated use
+	 *             {@link #ForgeVersionList(Collection, Map, Map, ForgeVersion, ForgeVersion)}
+	 */
+	@Deprecated
 	public ForgeVersionList(Map<Integer, ForgeVersion> versions, Map<String, ForgeVersion> latests, Map<String, ForgeVersion> recommendeds, Map<String, ForgeVersion> forgeVersionMapping, ForgeVersion latest, ForgeVersion recommended) {
-		Objects.requireNonNull(versions);
-		Objects.requireNonNull(latests);
-		Objects.requireNonNull(recommendeds);
+		this(Objects.requireNonNull(versions).values(), latests, recommendeds, latest, recommended);
 		Objects.requireNonNull(forgeVersionMapping);
-		this.versions = versions;
-		this.latests = latests;
-		this.recommendeds = recommendeds;
-		this.forgeVersionMapping = forgeVersionMapping;
+	}
+
+	private static VersionCollector collect(Collection<ForgeVersion> versions) {
+		VersionCollector collector = new VersionCollector();
+		for (ForgeVersion version : versions) {
+			collector.add(version);
+		}
+		return collector;
+	}
+
+	private ForgeVersionList(VersionCollector collector, Map<String, Integer> promos) {
+		int size = collector.size;
+
+		// sort by the build number, the insertion order breaks the ties
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) collector.buildNumbers[i] << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		int[] order = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (i + 1 < size && (keys[i + 1] >> 32) == (keys[i] >> 32)) {
+				// the last one with the same build number wins
+				continue;
+			}
+			order[count++] = (int) keys[i];
+		}
+
+		TreeSet<String> mcversions = new TreeSet<>();
+		for (int i = 0; i < count; i++) {
+			mcversions.add(collector.minecraftVersions[order[i]]);
+		}
+		minecraftVersions = mcversions.toArray(new String[mcversions.size()]);
+		Map<String, Integer> mcversionIndexes = new HashMap<>();
+		for (int i = 0; i < minecraftVersions.length; i++) {
+			mcversionIndexes.put(minecraftVersions[i], i);
+		}
+
+		buildNumbers = new int[count];
+		forgeVersions = new String[count];
+		branches = new String[count];
+		minecraftVersionIndexes = new int[count];
+		minecraftVersionStarts = new int[minecraftVersions.length + 1];
+		for (int i = 0; i < count; i++) {
+			int src = order[i];
+			buildNumbers[i] = collector.buildNumbers[src];
+			forgeVersions[i] = collector.forgeVersions[src];
+			branches[i] = collector.branches[src];
+			minecraftVersionIndexes[i] = mcversionIndexes.get(collector.minecraftVersions[src]);
+			minecraftVersionStarts[minecraftVersionIndexes[i] + 1]++;
+		}
+
+		// counting sort, which keeps the versions of a minecraft version sorted by the build number
+		for (int i = 0; i < minecraftVersions.length; i++) {
+			minecraftVersionStarts[i + 1] += minecraftVersionStarts[i];
+		}
+		versionsByMinecraftVersion = new int[count];
+		int[] next = Arrays.copyOf(minecraftVersionStarts, minecraftVersions.length);
+		for (int i = 0; i < count; i++) {
+			versionsByMinecraftVersion[next[minecraftVersionIndexes[i]]++] = i;
+		}
+
+		forgeVersionTable = new int[Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1];
+		for (int i = 0; i < count; i++) {
+			int slot = findSlot(forgeVersions[i]);
+			// if several versions have the same forge version, the newest one wins
+			forgeVersionTable[slot] = i + 1;
+		}
+
+		Map<String, ForgeVersion> latests = new TreeMap<>();
+		Map<String, ForgeVersion> recommendeds = new TreeMap<>();
+		ForgeVersion latest = null;
+		ForgeVersion recommended = null;
+		for (Entry<String, Integer> entry : promos.entrySet()) {
+			String key = entry.getKey();
+			ForgeVersion version = entry.getValue() == null ? null : get(entry.getValue());
+			if (LATEST.equals(key)) {
+				latest = version;
+			} else if (RECOMMENDED.equals(key)) {
+				recommended = version;
+			} else if (key.endsWith(LATEST_SUFFIX)) {
+				latests.put(key.substring(0, key.length() - LATEST_SUFFIX.length()), version);
+			} else if (key.endsWith(RECOMMENDED_SUFFIX)) {
+				recommendeds.put(key.substring(0, key.length() - RECOMMENDED_SUFFIX.length()), version);
+			}
+		}
+		this.latests = Collections.unmodifiableMap(latests);
+		this.recommendeds = Collections.unmodifiableMap(recommendeds);
 		this.latest = latest;
 		this.recommended = recommended;
 	}
 
+	/**
+	 * Returns the slot of the given forge version in the hash table, or the
+	 * empty slot where it should be inserted.
+	 */
+	private int findSlot(String forgeVersion) {
+		int mask = forgeVersionTable.length - 1;
+		int hash = forgeVersion.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		for (;;) {
+			int position = forgeVersionTable[slot];
+			if (position == 0 || forgeVersions[position - 1].equals(forgeVersion)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private ForgeVersion versionAt(int position) {
+		return new ForgeVersion(minecraftVersions[minecraftVersionIndexes[position]], forgeVersions[position], buildNumbers[position], branches[position]);
+	}
+
+	/**
+	 * Gets the number of the forge versions.
+	 *
+	 * @return the number of the forge versions
+	 */
+	public int size() {
+		return buildNumbers.length;
+	}
+
 	/**
 	 * Gets all the forge versions.
-	 * 
-	 * @return all the forge versions, key is the build number
+	 * <p>
+	 * The map is created on the first call. Prefer {@link #get(int)},
+	 * {@link #get(String)} and {@link #getVersions(String)} for lookups.
+	 *
+	 * @return all the forge versions, key is the build number, sorted by the
+	 *         build number
 	 */
 	public Map<Integer, ForgeVersion> getVersions() {
-		return versions;
+		Map<Integer, ForgeVersion> map = versionMap;
+		if (map == null) {
+			Map<Integer, ForgeVersion> versions = new LinkedHashMap<>();
+			for (int i = 0; i < buildNumbers.length; i++) {
+				versions.put(buildNumbers[i], versionAt(i));
+			}
+			map = Collections.unmodifiableMap(versions);
+			versionMap = map;
+		}
+		return map;
+	}
+
+	/**
+	 * Gets the forge versions of the given minecraft version.
+	 *
+	 * @param mcversion the minecraft version
+	 * @return the forge versions of <code>mcversion</code>, sorted by the
+	 *         build number, empty if there are no such versions
+	 */
+	public List<ForgeVersion> getVersions(String mcversion) {
+		int index = Arrays.binarySearch(minecraftVersions, Objects.requireNonNull(mcversion));
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		final int start = minecraftVersionStarts[index];
+		final int end = minecraftVersionStarts[index + 1];
+		return new AbstractList<ForgeVersion>() {
+
+			@Override
+			public ForgeVersion get(int index) {
+				if (index < 0 || index >= end - start) {
+					throw new IndexOutOfBoundsException(String.valueOf(index));
+				}
+				return versionAt(versionsByMinecraftVersion[start + index]);
+			}
+
+			@Override
+			public int size() {
+				return end - start;
+			}
+		};
+	}
+
+	/**
+	 * Gets the minecraft versions which have forge versions.
+	 *
+	 * @return the minecraft versions, sorted
+	 */
+	public List<String> getMinecraftVersions() {
+		return Collections.unmodifiableList(Arrays.asList(minecraftVersions));
 	}
 
 	/**
 	 * Gets all the latest versions.
-	 * 
+	 *
 	 * @return a map including all the latest versions, key is the minecraft
 	 *         version, value is the latest forge version of the minecraft
 	 *         version
@@ -101,7 +519,7 @@ public class ForgeVersionList implements Serializable {
 
 	/**
 	 * Gets all the recommended versions.
-	 * 
+	 *
 	 * @return a map including all the recommended versions, key is the
 	 *         minecraft version, value is the recommended forge version of the
 	 *         minecraft version
@@ -112,7 +530,7 @@ public class ForgeVersionList implements Serializable {
 
 	/**
 	 * Gets the latest forge version.
-	 * 
+	 *
 	 * @return the latest forge version, null if unknown
 	 */
 	public ForgeVersion getLatest() {
@@ -121,7 +539,7 @@ public class ForgeVersionList implements Serializable {
 
 	/**
 	 * Gets the latest forge version of the given minecraft version.
-	 * 
+	 *
 	 * @param mcversion the minecraft version
 	 * @return the latest forge version of <code>mcversion</code>, null if
 	 *         unknown
@@ -132,7 +550,7 @@ public class ForgeVersionList implements Serializable {
 
 	/**
 	 * Gets the recommended forge version.
-	 * 
+	 *
 	 * @return the recommended forge version, null if unknown
 	 */
 	public ForgeVersion getRecommended() {
@@ -141,7 +559,7 @@ public class ForgeVersionList implements Serializable {
 
 	/**
 	 * Gets the recommended forge version of the given minecraft version.
-	 * 
+	 *
 	 * @param mcversion the minecraft version
 	 * @return the recommended forge version of <code>mcversion</code>, null if
 	 *         unknown
@@ -150,21 +568,74 @@ public class ForgeVersionList implements Serializable {
 		return recommendeds.get(mcversion);
 	}
 
+	/**
+	 * Gets all the forge versions, indexed by the forge version.
+	 * <p>
+	 * The map is created on the first call. Prefer {@link #get(String)} for
+	 * lookups.
+	 *
+	 * @return all the forge versions, key is the forge version
+	 */
 	public Map<String, ForgeVersion> getForgeVersionMapping() {
-		return forgeVersionMapping;
+		Map<String, ForgeVersion> map = forgeVersionMap;
+		if (map == null) {
+			Map<String, ForgeVersion> mapping = new TreeMap<>();
+			for (int position : forgeVersionTable) {
+				if (position != 0) {
+					mapping.put(forgeVersions[position - 1], versionAt(position - 1));
+				}
+			}
+			map = Collections.unmodifiableMap(mapping);
+			forgeVersionMap = map;
+		}
+		return map;
 	}
 
 	public ForgeVersion get(int buildNumber) {
-		return versions.get(buildNumber);
+		int position = Arrays.binarySearch(buildNumbers, buildNumber);
+		return position < 0 ? null : versionAt(position);
 	}
 
 	public ForgeVersion get(String forgeVersion) {
-		return forgeVersionMapping.get(forgeVersion);
+		int position = forgeVersionTable[findSlot(Objects.requireNonNull(forgeVersion))];
+		return position == 0 ? null : versionAt(position - 1);
+	}
+
+	/**
+	 * Writes the version list in a compact binary form, which can be read by
+	 * {@link #fromBinary(byte[])}.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if an I/O error occurs
+	 * @see CompactWriter
+	 */
+	public void writeBinary(OutputStream out) throws IOException {
+		CompactWriter writer = new CompactWriter();
+		writer.writeVarInt(buildNumbers.length);
+		long last = 0;
+		for (int i = 0; i < buildNumbers.length; i++) {
+			writer.writeSignedVarLong(buildNumbers[i] - last);
+			last = buildNumbers[i];
+			writer.writeString(minecraftVersions[minecraftVersionIndexes[i]]);
+			writer.writeString(forgeVersions[i]);
+			writer.writeString(branches[i]);
+		}
+
+		Map<String, Integer> promos = toPromos(latests, recommendeds, latest, recommended);
+		writer.writeVarInt(promos.size());
+		for (Entry<String, Integer> entry : promos.entrySet()) {
+			writer.writeString(entry.getKey());
+			writer.writeBoolean(entry.getValue() != null);
+			if (entry.getValue() != null) {
+				writer.writeSignedVarLong(entry.getValue());
+			}
+		}
+		writer.writeTo(out, BINARY_MAGIC, BINARY_FORMAT_VERSION);
 	}
 
 	@Override
 	public int hashCode() {
-		return versions.hashCode();
+		return Arrays.hashCode(buildNumbers);
 	}
 
 	@Override
@@ -174,10 +645,13 @@ public class ForgeVersionList implements Serializable {
 		}
 		if (obj instanceof ForgeVersionList) {
 			ForgeVersionList another = (ForgeVersionList) obj;
-			return Objects.equals(versions, another.versions) &&
+			return Arrays.equals(buildNumbers, another.buildNumbers) &&
+					Arrays.equals(forgeVersions, another.forgeVersions) &&
+					Arrays.equals(branches, another.branches) &&
+					Arrays.equals(minecraftVersions, another.minecraftVersions) &&
+					Arrays.equals(minecraftVersionIndexes, another.minecraftVersionIndexes) &&
 					Objects.equals(latests, another.latests) &&
 					Objects.equals(recommendeds, another.recommendeds) &&
-					Objects.equals(forgeVersionMapping, another.forgeVersionMapping) &&
 					Objects.equals(latest, another.latest) &&
 					Objects.equals(recommended, another.recommended);
 		}
@@ -186,7 +660,7 @@ public class ForgeVersionList implements Serializable {
 
 	@Override
 	public String toString() {
-		return String.format("ForgeVersionList [versions=%s, latests=%s, recommendeds=%s, forgeVersionMapping=%s, latest=%s, recommended=%s]", versions, latests, recommendeds, forgeVersionMapping, latest, recommended);
+		return String.format("ForgeVersionList [versions=%d, minecraftVersions=%s, latests=%s, recommendeds=%s, latest=%s, recommended=%s]", buildNumbers.length, Arrays.toString(minecraftVersions), latests, recommendeds, latest, recommended);
 	}
 
 }
@@ -1,16 +1,11 @@
 package org.to2mbn.jmccc.mcdownloader.provider.forge;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
-import org.to2mbn.jmccc.internal.org.json.JSONTokener;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 import org.to2mbn.jmccc.mcdownloader.provider.VersionJsonInstaller;
 import org.to2mbn.jmccc.option.MinecraftDirectory;
 
-class InstallProfileProcessor implements ResultProcessor<byte[], String> {
+class InstallProfileProcessor implements ResultProcessor<ForgeInstaller, String> {
 
 	private MinecraftDirectory mcdir;
 
@@ -19,25 +14,12 @@ class InstallProfileProcessor implements ResultProcessor<byte[], String> {
 	}
 
 	@Override
-	public String process(byte[] arg) throws Exception {
-		String version = null;
-		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(arg))) {
-			ZipEntry entry;
-			while ((entry = in.getNextEntry()) != null) {
-				if ("install_profile.json".equals(entry.getName())) {
-					version = new VersionJsonInstaller(mcdir).process((processJson(new JSONObject(new JSONTokener(new InputStreamReader(in, "UTF-8"))))));
-					in.closeEntry();
-					break;
-				}
-				in.closeEntry();
-			}
-		}
-
-		if (version == null) {
+	public String process(ForgeInstaller installer) throws Exception {
+		JSONObject installProfile = installer.getInstallProfile();
+		if (installProfile == null) {
 			throw new IllegalArgumentException("No install_profile.json has found");
 		}
-
-		return version;
+		return new VersionJsonInstaller(mcdir).process(processJson(installProfile));
 	}
 
 	protected JSONObject processJson(JSONObject installprofile) {
@@ -1,15 +1,9 @@
 package org.to2mbn.jmccc.mcdownloader.provider.forge;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
-import org.to2mbn.jmccc.util.FileUtils;
 
-class UniversalDecompressor implements ResultProcessor<byte[], Void> {
+class UniversalDecompressor implements ResultProcessor<ForgeInstaller, Void> {
 
 	private static final String NAME_TEMPLATE = "forge-%s-universal.jar";
 	private static final String OLD_NAME_TEMPLATE = "minecraftforge-universal-%s.jar";
@@ -27,37 +21,13 @@ class UniversalDecompressor implements ResultProcessor<byte[], Void> {
 	}
 
 	@Override
-	public Void process(byte[] arg) throws Exception {
-		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(arg))) {
-			ZipEntry entry;
-			while ((entry = in.getNextEntry()) != null) {
-				if (isUniversalJar(entry.getName())) {
-					FileUtils.prepareWrite(target);
-					try (OutputStream out = new FileOutputStream(target)) {
-						byte[] buf = new byte[8192];
-						int read;
-						while ((read = in.read(buf)) != -1) {
-							out.write(buf, 0, read);
-						}
-					}
-					in.closeEntry();
-					return null;
-				}
-
-				in.closeEntry();
-			}
+	public Void process(ForgeInstaller installer) throws Exception {
+		String entry = installer.findEntry(names);
+		if (entry == null) {
+			throw new IllegalArgumentException("No universal jar found");
 		}
-
-		throw new IllegalArgumentException("No universal jar found");
-	}
-
-	private boolean isUniversalJar(String name) {
-		for (String expectedName : names) {
-			if (expectedName.equalsIgnoreCase(name)) {
-				return true;
-			}
-		}
-		return false;
+		installer.extract(entry, target);
+		return null;
 	}
 
 }
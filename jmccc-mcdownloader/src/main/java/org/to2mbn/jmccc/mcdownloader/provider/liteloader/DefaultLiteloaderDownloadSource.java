@@ -1,10 +1,13 @@
 package org.to2mbn.jmccc.mcdownloader.provider.liteloader;
 
+import java.io.IOException;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
 import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
-import org.to2mbn.jmccc.mcdownloader.provider.JsonDecoder;
+import org.to2mbn.jmccc.util.IOUtils;
 
 public class DefaultLiteloaderDownloadSource implements LiteloaderDownloadSource {
 
@@ -17,12 +20,23 @@ public class DefaultLiteloaderDownloadSource implements LiteloaderDownloadSource
 	public CombinedDownloadTask<JSONObject> liteloaderSnapshotVersionJson(LiteloaderVersion liteloader) {
 		return CombinedDownloadTask.single(
 				new MemoryDownloadTask("https://raw.githubusercontent.com/Mumfrey/LiteLoaderInstaller/" + liteloader.getMinecraftVersion() + "/src/main/resources/install_profile.json")
-						.andThen(new JsonDecoder())
-						.andThen(new ResultProcessor<JSONObject, JSONObject>() {
+						.andThen(new ResultProcessor<byte[], JSONObject>() {
 
 							@Override
-							public JSONObject process(JSONObject installProfile) throws Exception {
-								return installProfile.getJSONObject("versionInfo");
+							public JSONObject process(byte[] data) throws Exception {
+								// only the version info is materialized
+								try (JSONPullParser parser = IOUtils.toJsonParser(data)) {
+									parser.beginObject();
+									while (parser.hasNext()) {
+										if ("versionInfo".equals(parser.nextName())) {
+											return parser.nextObject();
+										}
+										parser.skipValue();
+									}
+								} catch (JSONException e) {
+									throw new IOException("Couldn't parse liteloader install profile", e);
+								}
+								throw new IOException("No versionInfo in liteloader install profile");
 							}
 						})
 						.cacheable());
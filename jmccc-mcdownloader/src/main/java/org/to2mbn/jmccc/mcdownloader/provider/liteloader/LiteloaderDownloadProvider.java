@@ -1,9 +1,11 @@
 package org.to2mbn.jmccc.mcdownloader.provider.liteloader;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Set;
 import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
 import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
 import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadContext;
@@ -13,7 +15,6 @@ import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
 import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
 import org.to2mbn.jmccc.mcdownloader.provider.AbstractMinecraftDownloadProvider;
 import org.to2mbn.jmccc.mcdownloader.provider.ExtendedDownloadProvider;
-import org.to2mbn.jmccc.mcdownloader.provider.JsonDecoder;
 import org.to2mbn.jmccc.mcdownloader.provider.MavenRepositories;
 import org.to2mbn.jmccc.mcdownloader.provider.MinecraftDownloadProvider;
 import org.to2mbn.jmccc.mcdownloader.provider.VersionJsonInstaller;
@@ -50,16 +51,20 @@ public class LiteloaderDownloadProvider extends AbstractMinecraftDownloadProvide
 
 	public CombinedDownloadTask<LiteloaderVersionList> liteloaderVersionList() {
 		return CombinedDownloadTask.single(new MemoryDownloadTask(source.getLiteloaderManifestUrl())
-				.andThen(new JsonDecoder())
-				.andThen(new ResultProcessor<JSONObject, LiteloaderVersionList>() {
+				.andThen(new ResultProcessor<byte[], LiteloaderVersionList>() {
 
 					@Override
-					public LiteloaderVersionList process(JSONObject json) throws Exception {
-						return LiteloaderVersionList.fromJson(json);
+					public LiteloaderVersionList process(byte[] data) throws Exception {
+						try {
+							return LiteloaderVersionList.fromJson(IOUtils.toJsonParser(data));
+						} catch (JSONException e) {
+							throw new IOException("Couldn't parse liteloader version list", e);
+						}
 					}
 				})
 				.cacheable()
-				.cachePool(CacheNames.LITELOADER_VERSION_LIST));
+				.cachePool(CacheNames.LITELOADER_VERSION_LIST))
+				.memoized(Arrays.asList(this, "liteloaderVersionList"));
 	}
 
 	@Override
@@ -70,6 +75,7 @@ public class LiteloaderDownloadProvider extends AbstractMinecraftDownloadProvide
 		}
 
 		return upstreamProvider.gameVersionJson(mcdir, liteloaderInfo.getSuperVersion())
+				.memoized(Arrays.asList(upstreamProvider, "gameVersionJson", mcdir, liteloaderInfo.getSuperVersion()))
 				.andThenDownload(new ResultProcessor<String, CombinedDownloadTask<LiteloaderVersion>>() {
 
 					// lookup LiteloaderVersion
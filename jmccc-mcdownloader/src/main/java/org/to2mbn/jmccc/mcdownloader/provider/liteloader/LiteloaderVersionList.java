@@ -9,7 +9,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
 import static org.to2mbn.jmccc.mcdownloader.provider.liteloader.LiteloaderDownloadProvider.LITELOADER_GROUP_ID;
 import static org.to2mbn.jmccc.mcdownloader.provider.liteloader.LiteloaderDownloadProvider.LITELOADER_ARTIFACT_ID;
 
@@ -65,6 +67,144 @@ public class LiteloaderVersionList implements Serializable {
 		return libraries;
 	}
 
+	public static LiteloaderVersionList fromJson(JSONPullParser parser) throws JSONException {
+		Map<String, Map<String, LiteloaderVersion>> versions = null;
+		parser.beginObject();
+		while (parser.hasNext()) {
+			if (!"versions".equals(parser.nextName())) {
+				parser.skipValue();
+				continue;
+			}
+			versions = new TreeMap<>();
+			parser.beginObject();
+			while (parser.hasNext()) {
+				String mcversion = parser.nextName();
+				Map<String, LiteloaderVersion> artefacts = parseVersionRoot(parser, mcversion);
+				if (!artefacts.isEmpty()) {
+					versions.put(mcversion, artefacts);
+				}
+			}
+			parser.endObject();
+		}
+		parser.endObject();
+		if (versions == null) {
+			throw new JSONException("JSONObject[\"versions\"] not found.");
+		}
+		return new LiteloaderVersionList(versions);
+	}
+
+	private static Map<String, LiteloaderVersion> parseVersionRoot(JSONPullParser parser, String mcversion) throws JSONException {
+		Map<String, LiteloaderVersion> artefacts = new TreeMap<>();
+		String repoUrl = null;
+		boolean hasSnapshots = false;
+		Set<JSONObject> snapshotLibraries = null;
+
+		parser.beginObject();
+		while (parser.hasNext()) {
+			switch (parser.nextName()) {
+				case "repo":
+					parser.beginObject();
+					while (parser.hasNext()) {
+						if ("url".equals(parser.nextName())) {
+							repoUrl = parser.nextStringOrNull();
+						} else {
+							parser.skipValue();
+						}
+					}
+					parser.endObject();
+					break;
+
+				case "artefacts":
+					boolean hasLiteloaderArtefacts = false;
+					parser.beginObject();
+					while (parser.hasNext()) {
+						if (!(LITELOADER_GROUP_ID + ":" + LITELOADER_ARTIFACT_ID).equals(parser.nextName())) {
+							parser.skipValue();
+							continue;
+						}
+						hasLiteloaderArtefacts = true;
+						parser.beginObject();
+						while (parser.hasNext()) {
+							String artefactId = parser.nextName();
+							artefacts.put(artefactId, parseArtefact(parser, mcversion));
+						}
+						parser.endObject();
+					}
+					parser.endObject();
+					if (!hasLiteloaderArtefacts) {
+						throw new JSONException("JSONObject[\"" + LITELOADER_GROUP_ID + ":" + LITELOADER_ARTIFACT_ID + "\"] not found.");
+					}
+					break;
+
+				case "snapshots":
+					hasSnapshots = true;
+					parser.beginObject();
+					while (parser.hasNext()) {
+						if ("libraries".equals(parser.nextName())) {
+							snapshotLibraries = parseLibraries(parser);
+						} else {
+							parser.skipValue();
+						}
+					}
+					parser.endObject();
+					break;
+
+				default:
+					parser.skipValue();
+					break;
+			}
+		}
+		parser.endObject();
+
+		// the repo url may appear after the snapshots
+		if (hasSnapshots) {
+			artefacts.put("snapshot", new LiteloaderVersion(mcversion, mcversion + "-SNAPSHOT", null, repoUrl, snapshotLibraries));
+		}
+		return artefacts;
+	}
+
+	private static LiteloaderVersion parseArtefact(JSONPullParser parser, String mcversion) throws JSONException {
+		String liteloaderVersion = null;
+		String tweakClass = null;
+		Set<JSONObject> libraries = null;
+		parser.beginObject();
+		while (parser.hasNext()) {
+			switch (parser.nextName()) {
+				case "version":
+					liteloaderVersion = parser.nextString();
+					break;
+				case "tweakClass":
+					tweakClass = parser.nextStringOrNull();
+					break;
+				case "libraries":
+					libraries = parseLibraries(parser);
+					break;
+				default:
+					parser.skipValue();
+					break;
+			}
+		}
+		parser.endObject();
+		if (liteloaderVersion == null) {
+			throw new JSONException("JSONObject[\"version\"] not found.");
+		}
+		return new LiteloaderVersion(mcversion, liteloaderVersion, tweakClass, null, libraries);
+	}
+
+	private static Set<JSONObject> parseLibraries(JSONPullParser parser) throws JSONException {
+		if (parser.peek() == JSONPullParser.Token.NULL) {
+			parser.nextNull();
+			return null;
+		}
+		Set<JSONObject> libraries = new LinkedHashSet<>();
+		parser.beginArray();
+		while (parser.hasNext()) {
+			libraries.add(parser.nextObject());
+		}
+		parser.endArray();
+		return Collections.unmodifiableSet(libraries);
+	}
+
 	/**
 	 * The outside map's key is the minecraft version, value is the artifacts.
 	 * The inside map's key is the artifact name, value is artifact.
@@ -0,0 +1,251 @@
+package org.to2mbn.jmccc.mcdownloader.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a zip file by copying the entries of other zip files, without
+ * decompressing and recompressing them.
+ * <p>
+ * The entries of a source are located with its central directory, and their
+ * compressed data is copied verbatim, along with their CRC and sizes. The
+ * entries are selected by name only. If several entries have the same name,
+ * only the first one is copied, so the entries copied earlier override the
+ * later ones.
+ * <p>
+ * ZIP64 and multi-disk archives are not supported.
+ */
+public class ZipRewriter implements Closeable {
+
+	public static interface EntryFilter {
+
+		boolean accept(String name);
+
+	}
+
+	public static final EntryFilter ALL = new EntryFilter() {
+
+		@Override
+		public boolean accept(String name) {
+			return true;
+		}
+	};
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int LOCAL_HEADER_LENGTH = 30;
+	private static final int CENTRAL_HEADER_LENGTH = 46;
+	private static final int END_LENGTH = 22;
+	private static final int MAX_COMMENT_LENGTH = 0xffff;
+	private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+	private static final long MAX_OFFSET = 0xffffffffL;
+	private static final int MAX_ENTRIES = 0xffff;
+
+	private final FileOutputStream out;
+	private final FileChannel channel;
+	private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+	private final Set<String> names = new HashSet<>();
+	private int entries;
+	private boolean closed;
+
+	public ZipRewriter(File target) throws IOException {
+		out = new FileOutputStream(target);
+		channel = out.getChannel();
+	}
+
+	/**
+	 * Copies the accepted entries of the given zip file.
+	 *
+	 * @param src the zip file to copy from
+	 * @param filter the filter of the entry names
+	 * @throws IOException if an I/O error occurs, or the zip file is malformed
+	 */
+	public void copyFrom(File src, EntryFilter filter) throws IOException {
+		Objects.requireNonNull(src);
+		Objects.requireNonNull(filter);
+		ensureOpen();
+
+		try (RandomAccessFile file = new RandomAccessFile(src, "r")) {
+			FileChannel in = file.getChannel();
+			ByteBuffer cen = readCentralDirectory(in, src);
+
+			while (cen.remaining() > 0) {
+				int pos = cen.position();
+				if (cen.remaining() < CENTRAL_HEADER_LENGTH || cen.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+					throw new ZipException("Invalid central directory header in " + src);
+				}
+				int flags = cen.getShort(pos + 8) & 0xffff;
+				long compressedSize = cen.getInt(pos + 20) & 0xffffffffL;
+				int nameLength = cen.getShort(pos + 28) & 0xffff;
+				int extraLength = cen.getShort(pos + 30) & 0xffff;
+				int commentLength = cen.getShort(pos + 32) & 0xffff;
+				long localOffset = cen.getInt(pos + 42) & 0xffffffffL;
+				int headerLength = CENTRAL_HEADER_LENGTH + nameLength + extraLength + commentLength;
+				if (cen.remaining() < headerLength) {
+					throw new ZipException("Invalid central directory header in " + src);
+				}
+
+				byte[] nameBytes = new byte[nameLength];
+				cen.position(pos + CENTRAL_HEADER_LENGTH);
+				cen.get(nameBytes);
+				String name = new String(nameBytes, UTF_8);
+
+				if (filter.accept(name) && names.add(name)) {
+					ByteBuffer header = cen.duplicate();
+					header.limit(pos + headerLength).position(pos);
+					copyEntry(in, src, header.slice().order(ByteOrder.LITTLE_ENDIAN), flags & ~FLAG_DATA_DESCRIPTOR, compressedSize, nameBytes, localOffset);
+				}
+				cen.position(pos + headerLength);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			long offset = channel.position();
+			byte[] cen = centralDirectory.toByteArray();
+			if (offset > MAX_OFFSET || entries > MAX_ENTRIES) {
+				throw new ZipException("ZIP64 is not supported");
+			}
+			writeFully(ByteBuffer.wrap(cen));
+
+			ByteBuffer end = ByteBuffer.allocate(END_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+			end.putInt(END_SIGNATURE);
+			end.putShort((short) 0); // number of this disk
+			end.putShort((short) 0); // disk with the central directory
+			end.putShort((short) entries);
+			end.putShort((short) entries);
+			end.putInt(cen.length);
+			end.putInt((int) offset);
+			end.putShort((short) 0); // comment length
+			end.flip();
+			writeFully(end);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void copyEntry(FileChannel in, File src, ByteBuffer centralHeader, int flags, long compressedSize, byte[] nameBytes, long localOffset) throws IOException {
+		ByteBuffer srcLocal = ByteBuffer.allocate(LOCAL_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(in, srcLocal, localOffset);
+		if (srcLocal.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+			throw new ZipException("Invalid local header in " + src);
+		}
+		int srcNameLength = srcLocal.getShort(26) & 0xffff;
+		int srcExtraLength = srcLocal.getShort(28) & 0xffff;
+		ByteBuffer extra = ByteBuffer.allocate(srcExtraLength);
+		readFully(in, extra, localOffset + LOCAL_HEADER_LENGTH + srcNameLength);
+		long dataOffset = localOffset + LOCAL_HEADER_LENGTH + srcNameLength + srcExtraLength;
+
+		long offset = channel.position();
+		if (offset > MAX_OFFSET) {
+			throw new ZipException("ZIP64 is not supported");
+		}
+
+		// the sizes and the crc are known, so the data descriptor isn't needed
+		ByteBuffer local = ByteBuffer.allocate(LOCAL_HEADER_LENGTH + nameBytes.length + srcExtraLength).order(ByteOrder.LITTLE_ENDIAN);
+		local.putInt(LOCAL_HEADER_SIGNATURE);
+		local.putShort(centralHeader.getShort(6)); // version needed to extract
+		local.putShort((short) flags);
+		local.putShort(centralHeader.getShort(10)); // method
+		local.putInt(centralHeader.getInt(12)); // time and date
+		local.putInt(centralHeader.getInt(16)); // crc
+		local.putInt(centralHeader.getInt(20)); // compressed size
+		local.putInt(centralHeader.getInt(24)); // uncompressed size
+		local.putShort((short) nameBytes.length);
+		local.putShort((short) srcExtraLength);
+		local.put(nameBytes);
+		local.put(extra.array());
+		local.flip();
+		writeFully(local);
+
+		long transferred = 0;
+		while (transferred < compressedSize) {
+			long n = in.transferTo(dataOffset + transferred, compressedSize - transferred, channel);
+			if (n <= 0) {
+				throw new ZipException("Unexpected end of " + src);
+			}
+			transferred += n;
+		}
+
+		byte[] central = new byte[centralHeader.remaining()];
+		centralHeader.get(central);
+		ByteBuffer.wrap(central).order(ByteOrder.LITTLE_ENDIAN)
+				.putShort(8, (short) flags)
+				.putInt(42, (int) offset);
+		centralDirectory.write(central);
+		entries++;
+	}
+
+	private static ByteBuffer readCentralDirectory(FileChannel in, File src) throws IOException {
+		long size = in.size();
+		if (size < END_LENGTH) {
+			throw new ZipException("Not a zip file: " + src);
+		}
+		int tailLength = (int) Math.min(size, END_LENGTH + MAX_COMMENT_LENGTH);
+		ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(in, tail, size - tailLength);
+
+		for (int i = tailLength - END_LENGTH; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIGNATURE) {
+				int entries = tail.getShort(i + 10) & 0xffff;
+				long cenSize = tail.getInt(i + 12) & 0xffffffffL;
+				long cenOffset = tail.getInt(i + 16) & 0xffffffffL;
+				if (entries == MAX_ENTRIES || cenSize == MAX_OFFSET || cenOffset == MAX_OFFSET) {
+					throw new ZipException("ZIP64 is not supported: " + src);
+				}
+				if (cenOffset + cenSize > size - tailLength + i) {
+					throw new ZipException("Invalid central directory in " + src);
+				}
+				ByteBuffer cen = ByteBuffer.allocate((int) cenSize).order(ByteOrder.LITTLE_ENDIAN);
+				readFully(in, cen, cenOffset);
+				return cen;
+			}
+		}
+		throw new ZipException("Not a zip file: " + src);
+	}
+
+	private static void readFully(FileChannel in, ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			int read = in.read(buf, position);
+			if (read == -1) {
+				throw new ZipException("Unexpected end of file");
+			}
+			position += read;
+		}
+		buf.flip();
+	}
+
+	private void writeFully(ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Closed");
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.to2mbn.jmccc.mcdownloader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.SharedStore.LinkMethod;
+
+public class SharedStoreLinkTest {
+
+	private static final byte[] DATA = "stored".getBytes();
+
+	private File root;
+	private File stored;
+	private File target;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-store-link-test").toFile();
+		stored = new File(root, "stored");
+		target = new File(root, "target");
+		Files.write(stored.toPath(), DATA);
+	}
+
+	@After
+	public void tearDown() {
+		delete(root);
+	}
+
+	@Test
+	public void testHardLink() throws IOException {
+		assertEquals(LinkMethod.HARD_LINK, SharedStore.link(stored, target, LinkMethod.HARD_LINK));
+		assertTrue(Files.isSameFile(stored.toPath(), target.toPath()));
+		assertFalse(Files.isSymbolicLink(target.toPath()));
+		assertEquals(2, root.listFiles().length);
+	}
+
+	@Test
+	public void testWrongTarget() throws IOException {
+		Files.write(target.toPath(), "wrong".getBytes());
+		SharedStore.link(stored, target);
+		assertArrayEquals(DATA, Files.readAllBytes(target.toPath()));
+		assertEquals(2, root.listFiles().length);
+	}
+
+	@Test
+	public void testSymbolicLink() throws IOException {
+		assumeTrue(Files.getFileStore(root.toPath()).supportsFileAttributeView("posix"));
+		assertEquals(LinkMethod.SYMBOLIC_LINK, SharedStore.link(stored, target, LinkMethod.SYMBOLIC_LINK));
+		assertTrue(Files.isSymbolicLink(target.toPath()));
+		assertArrayEquals(DATA, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test
+	public void testFallbackToSymbolicLink() throws IOException {
+		assumeTrue(Files.getFileStore(root.toPath()).supportsFileAttributeView("posix"));
+		// directories can't be hard linked
+		File dir = new File(root, "dir");
+		dir.mkdir();
+		assertEquals(LinkMethod.SYMBOLIC_LINK, SharedStore.link(dir, target, LinkMethod.HARD_LINK));
+		assertTrue(Files.isSymbolicLink(target.toPath()));
+	}
+
+	@Test
+	public void testCopy() throws IOException {
+		assertEquals(LinkMethod.COPY, SharedStore.link(stored, target, LinkMethod.COPY));
+		assertFalse(Files.isSameFile(stored.toPath(), target.toPath()));
+		assertArrayEquals(DATA, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test
+	public void testMissingStoredFile() throws IOException {
+		stored.delete();
+		try {
+			SharedStore.link(stored, target);
+			fail();
+		} catch (NoSuchFileException e) {
+			// expected, rather than a dangling symbolic link
+		}
+		assertEquals(0, root.listFiles().length);
+	}
+
+	private static void delete(File file) {
+		File[] children = Files.isSymbolicLink(file.toPath()) ? null : file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,127 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadSession;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.FileDownloadTask;
+
+public class FileDownloadTaskTest {
+
+	private File root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-file-task-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		delete(root);
+	}
+
+	@Test
+	public void testPreallocate() throws Exception {
+		File target = new File(root, "objects/ab/target");
+		FileDownloadTask task = new FileDownloadTask(URI.create("http://localhost/target"), target, 100);
+
+		DownloadSession<Void> session = task.createSession();
+		File dir = target.getParentFile();
+		File[] parts = dir.listFiles();
+		assertEquals(1, parts.length);
+		assertEquals(100, parts[0].length());
+
+		// the data is shorter than expected
+		byte[] data = "0123456789".getBytes();
+		session.receiveData(ByteBuffer.wrap(data));
+		session.completed();
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+		assertEquals(1, dir.listFiles().length);
+	}
+
+	@Test
+	public void testContentLength() throws Exception {
+		File target = new File(root, "target");
+		FileDownloadTask task = new FileDownloadTask(URI.create("http://localhost/target"), target, 100);
+
+		// the length reported by the server is preferred
+		DownloadSession<Void> session = task.createSession(20);
+		assertEquals(20, root.listFiles()[0].length());
+		session.failed();
+		assertEquals(0, root.listFiles().length);
+	}
+
+	@Test
+	public void testConcurrentSessions() throws Exception {
+		File target = new File(root, "target");
+		FileDownloadTask task = new FileDownloadTask(URI.create("http://localhost/target"), target);
+
+		DownloadSession<Void> session1 = task.createSession();
+		DownloadSession<Void> session2 = task.createSession();
+		File[] parts = root.listFiles();
+		assertEquals(2, parts.length);
+		assertNotEquals(parts[0], parts[1]);
+
+		session1.receiveData(ByteBuffer.wrap("first".getBytes()));
+		session2.receiveData(ByteBuffer.wrap("second".getBytes()));
+		session2.completed();
+		session1.completed();
+		assertArrayEquals("first".getBytes(), Files.readAllBytes(target.toPath()));
+		assertEquals(1, root.listFiles().length);
+
+		if (Files.getFileStore(root.toPath()).supportsFileAttributeView("posix")) {
+			// the same permissions as a file written directly
+			File direct = new File(root, "direct");
+			new FileOutputStream(direct).close();
+			assertEquals(Files.getPosixFilePermissions(direct.toPath()), Files.getPosixFilePermissions(target.toPath()));
+		}
+	}
+
+	@Test
+	public void testStaleParts() throws Exception {
+		File target = new File(root, "target");
+		File stale = new File(root, "target.1.part");
+		File recent = new File(root, "target.2.part");
+		File other = new File(root, "other.3.part");
+		for (File file : new File[] { stale, recent, other }) {
+			new FileOutputStream(file).close();
+			if (file != recent) {
+				file.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+			}
+		}
+
+		FileDownloadTask task = new FileDownloadTask(URI.create("http://localhost/target"), target);
+		task.createSession().completed();
+
+		// left by a crashed process
+		assertFalse(stale.exists());
+		// may be written by another process
+		assertTrue(recent.exists());
+		// not a part of the target
+		assertTrue(other.exists());
+		assertTrue(target.exists());
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.provider.forge.ForgeInstaller;
+
+public class ForgeInstallerTest {
+
+	private File root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-forge-installer-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = root.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		root.delete();
+	}
+
+	@Test
+	public void testOpen() throws Exception {
+		byte[] universal = "universal".getBytes();
+		File file = new File(root, "installer.jar");
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			out.putNextEntry(new ZipEntry("big.bin"));
+			out.write(new byte[100000]);
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("forge-1.0-universal.jar"));
+			out.write(universal);
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry(ForgeInstaller.INSTALL_PROFILE));
+			out.write("{\"versionInfo\":{\"id\":\"1.0-forge\"}}".getBytes("UTF-8"));
+			out.closeEntry();
+		}
+
+		ForgeInstaller installer = ForgeInstaller.open(file);
+		assertEquals(3, installer.getEntries().size());
+		assertEquals("1.0-forge", installer.getInstallProfile().getJSONObject("versionInfo").getString("id"));
+		assertNull(installer.findEntry("missing.jar"));
+
+		String entry = installer.findEntry("FORGE-1.0-UNIVERSAL.JAR");
+		assertEquals("forge-1.0-universal.jar", entry);
+		File target = new File(root, "universal.jar");
+		installer.extract(entry, target);
+		assertArrayEquals(universal, Files.readAllBytes(target.toPath()));
+
+		assertTrue(installer.isUpToDate());
+		file.delete();
+		assertFalse(installer.isUpToDate());
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.mcdownloader.provider.forge.ForgeVersion;
+import org.to2mbn.jmccc.mcdownloader.provider.forge.ForgeVersionList;
+import org.to2mbn.jmccc.util.IOUtils;
+
+public class ForgeVersionListTest {
+
+	private static final String JSON = "{\"promos\":{\"latest\":1614,\"1.7.10-latest\":1614,\"1.8-recommended\":1450,\"1.8-latest\":9999},"
+			+ "\"number\":{"
+			+ "\"1614\":{\"build\":1614,\"mcversion\":\"1.7.10\",\"version\":\"10.13.4.1614\",\"branch\":\"1.7.10\",\"files\":[[\"zip\",\"src\"]]},"
+			+ "\"1450\":{\"build\":1450,\"mcversion\":\"1.8\",\"version\":\"11.14.3.1450\",\"branch\":null},"
+			+ "\"1448\":{\"build\":1448,\"mcversion\":\"1.7.10\",\"version\":\"10.13.4.1448\",\"branch\":\"1.7.10\"},"
+			+ "\"1502\":{\"build\":1502,\"mcversion\":\"1.8\",\"version\":\"11.14.3.1502\"},"
+			+ "\"1\":{\"build\":1,\"version\":\"1.0\"}},"
+			+ "\"homepage\":\"https://example.com/\"}";
+
+	@Test
+	public void testLookup() {
+		ForgeVersionList list = ForgeVersionList.fromJson(IOUtils.toJsonParser(JSON.getBytes()));
+		assertEquals(list, ForgeVersionList.fromJson(new JSONObject(JSON)));
+
+		assertEquals(4, list.size());
+		assertEquals(Arrays.asList(1448, 1450, 1502, 1614), Arrays.asList(list.getVersions().keySet().toArray()));
+		assertEquals(new ForgeVersion("1.7.10", "10.13.4.1614", 1614, "1.7.10"), list.get(1614));
+		assertEquals(new ForgeVersion("1.8", "11.14.3.1450", 1450, null), list.get("11.14.3.1450"));
+		assertNull(list.get(1));
+		assertNull(list.get("1.0"));
+
+		assertEquals(Arrays.asList("1.7.10", "1.8"), list.getMinecraftVersions());
+		assertEquals(Arrays.asList(list.get(1448), list.get(1614)), list.getVersions("1.7.10"));
+		assertEquals(Arrays.asList(list.get(1450), list.get(1502)), list.getVersions("1.8"));
+		assertTrue(list.getVersions("1.9").isEmpty());
+
+		assertEquals(list.get(1614), list.getLatest());
+		assertNull(list.getRecommended());
+		assertEquals(list.get(1614), list.getLatest("1.7.10"));
+		assertEquals(list.get(1450), list.getRecommended("1.8"));
+		assertTrue(list.getLatests().containsKey("1.8"));
+		assertNull(list.getLatest("1.8"));
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+		ForgeVersionList list = ForgeVersionList.fromJson(IOUtils.toJsonParser(JSON.getBytes()));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		list.writeBinary(out);
+		ForgeVersionList read = ForgeVersionList.fromBinary(out.toByteArray());
+		assertEquals(list, read);
+		assertEquals(list.getForgeVersionMapping(), read.getForgeVersionMapping());
+		assertEquals(list.getLatests(), read.getLatests());
+	}
+
+}
@@ -0,0 +1,37 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.provider.MavenRepositories;
+
+public class MavenRepositoriesTest {
+
+	@Test
+	public void testParseSnapshotPostfix() throws Exception {
+		String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<metadata modelVersion=\"1.1.0\">\n"
+				+ "  <groupId>com.mumfrey</groupId>\n"
+				+ "  <artifactId>liteloader</artifactId>\n"
+				+ "  <version>1.10.2-SNAPSHOT</version>\n"
+				+ "  <timestamp>ignored</timestamp>\n"
+				+ "  <versioning>\n"
+				+ "    <lastUpdated>20161101084815</lastUpdated>\n"
+				+ "    <snapshotVersions>\n"
+				+ "      <snapshotVersion><extension>jar</extension><value>1.10.2-20161001.000000-1</value></snapshotVersion>\n"
+				+ "    </snapshotVersions>\n"
+				+ "    <snapshot>\n"
+				+ "      <timestamp>20161101.084815</timestamp>\n"
+				+ "      <buildNumber>42</buildNumber>\n"
+				+ "    </snapshot>\n"
+				+ "  </versioning>\n"
+				+ "</metadata>\n";
+		assertEquals("20161101.084815-42", MavenRepositories.parseSnapshotPostfix(metadata.getBytes("UTF-8")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseSnapshotPostfixMissing() throws Exception {
+		String metadata = "<metadata><versioning><snapshot><timestamp>20161101.084815</timestamp></snapshot></versioning></metadata>";
+		MavenRepositories.parseSnapshotPostfix(metadata.getBytes("UTF-8"));
+	}
+
+}
@@ -0,0 +1,89 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadContext;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.ResultProcessor;
+
+public class MemoizedTaskTest {
+
+	private static class CountingTask extends CombinedDownloadTask<Integer> {
+
+		private final AtomicInteger count = new AtomicInteger();
+		private final boolean fail;
+
+		CountingTask(boolean fail) {
+			this.fail = fail;
+		}
+
+		@Override
+		public void execute(CombinedDownloadContext<Integer> context) throws Exception {
+			int n = count.incrementAndGet();
+			if (fail) {
+				throw new IOException("failed");
+			}
+			context.done(n);
+		}
+
+	}
+
+	private CombinedDownloader downloader;
+
+	@Before
+	public void setUp() {
+		downloader = CombinedDownloaderBuilder.create(DownloaderBuilders.downloader()).build();
+	}
+
+	@After
+	public void tearDown() {
+		downloader.shutdown();
+	}
+
+	@Test
+	public void testOncePerSession() throws Exception {
+		final CountingTask task = new CountingTask(false);
+		CombinedDownloadTask<Void> session = CombinedDownloadTask.multiple(
+				task.memoized("a"),
+				task.memoized("a").andThen(new ResultProcessor<Integer, Integer>() {
+
+					@Override
+					public Integer process(Integer result) throws Exception {
+						// the result of the run in this session
+						assertEquals(task.count.get(), result.intValue());
+						return result;
+					}
+				}),
+				task.memoized("a").memoized("b"));
+
+		downloader.download(session, null).get();
+		assertEquals(1, task.count.get());
+
+		// a new session
+		downloader.download(session, null).get();
+		assertEquals(2, task.count.get());
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		CountingTask task = new CountingTask(true);
+		try {
+			downloader.download(CombinedDownloadTask.multiple(task.memoized("a"), task.memoized("a")), null).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		assertEquals(1, task.count.get());
+	}
+
+}
@@ -1,11 +1,14 @@
 package org.to2mbn.jmccc.mcdownloader.test;
 
 import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
 import org.junit.Test;
 import org.to2mbn.jmccc.mcdownloader.RemoteVersion;
 import org.to2mbn.jmccc.mcdownloader.RemoteVersionList;
+import org.to2mbn.jmccc.util.IOUtils;
 
 public class RemoteVersionListTest {
 
@@ -21,4 +24,27 @@ public class RemoteVersionListTest {
 				RemoteVersionList.fromJson(new JSONObject("{\"latest\":{\"snapshot\":\"latest-snapshot\"},\"versions\":[]}")));
 	}
 
+	@Test
+	public void testFromJsonStreaming() {
+		String json = "{\"latest\":{\"snapshot\":\"16w02a\",\"release\":null},\"unknown\":[{\"a\":[1,2.5e3,true]}],"
+				+ "\"versions\":[{\"id\":\"16w02a\",\"time\":\"2016-01-13T15:08:36+00:00\",\"type\":\"snapshot\",\"extra\":{}},"
+				+ "{\"id\":\"1.8.9\",\"type\":\"release\",\"url\":\"https://example.com/1.8.9.json\"}]}";
+		RemoteVersionList expected = RemoteVersionList.fromJson(new JSONObject(json));
+		RemoteVersionList actual = RemoteVersionList.fromJson(IOUtils.toJsonParser(json.getBytes()));
+		assertEquals(expected, actual);
+
+		assertEquals("[16w02a, 1.8.9]", actual.getVersions().keySet().toString());
+		assertNull(actual.getLatestRelease());
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+		RemoteVersionList list = RemoteVersionList.fromJson(new JSONObject("{\"latest\":{\"snapshot\":\"16w02a\"},"
+				+ "\"versions\":[{\"id\":\"16w02a\",\"time\":\"2016-01-13T15:08:36+00:00\",\"type\":\"snapshot\"},"
+				+ "{\"id\":\"1.8.9\",\"releaseTime\":\"2015-12-03T09:24:39+00:00\",\"type\":\"release\",\"url\":\"https://example.com/1.8.9.json\"}]}"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		list.writeBinary(out);
+		assertEquals(list, RemoteVersionList.fromBinary(out.toByteArray()));
+	}
+
 }
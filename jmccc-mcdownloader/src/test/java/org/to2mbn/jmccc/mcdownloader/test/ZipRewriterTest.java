@@ -0,0 +1,132 @@
+package org.to2mbn.jmccc.mcdownloader.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.util.ZipRewriter;
+import org.to2mbn.jmccc.util.IOUtils;
+
+public class ZipRewriterTest {
+
+	private File root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-zip-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = root.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		root.delete();
+	}
+
+	@Test
+	public void testMerge() throws IOException {
+		Map<String, byte[]> universal = new LinkedHashMap<>();
+		universal.put("a/Overridden.class", "universal".getBytes());
+		universal.put("b/Universal.class", repeat("forge", 1000));
+
+		Map<String, byte[]> parent = new LinkedHashMap<>();
+		parent.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes());
+		parent.put("META-INF/MOJANGCS.SF", "signature".getBytes());
+		parent.put("a/", new byte[0]);
+		parent.put("a/Overridden.class", "parent".getBytes());
+		parent.put("c/Stored.png", repeat("png", 100));
+		parent.put("c/Deflated.class", repeat("minecraft", 1000));
+
+		File universalFile = zip("universal.jar", universal, null);
+		File parentFile = zip("parent.jar", parent, "c/Stored.png");
+		File target = new File(root, "target.jar");
+
+		try (ZipRewriter out = new ZipRewriter(target)) {
+			out.copyFrom(universalFile, ZipRewriter.ALL);
+			out.copyFrom(parentFile, new ZipRewriter.EntryFilter() {
+
+				@Override
+				public boolean accept(String name) {
+					return !name.startsWith("META-INF/");
+				}
+			});
+		}
+
+		Map<String, byte[]> expected = new LinkedHashMap<>();
+		expected.putAll(universal);
+		expected.put("a/", new byte[0]);
+		expected.put("c/Stored.png", parent.get("c/Stored.png"));
+		expected.put("c/Deflated.class", parent.get("c/Deflated.class"));
+
+		// the central directory
+		try (ZipFile zip = new ZipFile(target)) {
+			assertEquals(expected.size(), zip.size());
+			for (Entry<String, byte[]> entry : expected.entrySet()) {
+				ZipEntry zipEntry = zip.getEntry(entry.getKey());
+				try (InputStream in = zip.getInputStream(zipEntry)) {
+					assertArrayEquals(entry.getKey(), entry.getValue(), IOUtils.toByteArray(in));
+				}
+			}
+			assertEquals(ZipEntry.STORED, zip.getEntry("c/Stored.png").getMethod());
+			assertEquals(ZipEntry.DEFLATED, zip.getEntry("c/Deflated.class").getMethod());
+		}
+
+		// the local headers
+		Map<String, byte[]> actual = new LinkedHashMap<>();
+		try (ZipInputStream in = new ZipInputStream(new FileInputStream(target))) {
+			ZipEntry entry;
+			while ((entry = in.getNextEntry()) != null) {
+				actual.put(entry.getName(), IOUtils.toByteArray(in));
+			}
+		}
+		assertEquals(expected.keySet(), actual.keySet());
+	}
+
+	private File zip(String name, Map<String, byte[]> entries, String stored) throws IOException {
+		File file = new File(root, name);
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			for (Entry<String, byte[]> entry : entries.entrySet()) {
+				ZipEntry zipEntry = new ZipEntry(entry.getKey());
+				if (entry.getKey().equals(stored)) {
+					CRC32 crc = new CRC32();
+					crc.update(entry.getValue());
+					zipEntry.setMethod(ZipEntry.STORED);
+					zipEntry.setSize(entry.getValue().length);
+					zipEntry.setCrc(crc.getValue());
+				}
+				out.putNextEntry(zipEntry);
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	private static byte[] repeat(String s, int times) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			sb.append(s).append(i);
+		}
+		return sb.toString().getBytes();
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.to2mbn.jmccc.testsupport;
+
+import java.net.URI;
+import java.util.Objects;
+import org.to2mbn.jmccc.mcdownloader.provider.DownloadInfoProcessor;
+import org.to2mbn.jmccc.mcdownloader.provider.DownloadProviderChain;
+import org.to2mbn.jmccc.mcdownloader.provider.MojangDownloadProvider;
+
+/**
+ * A {@link MojangDownloadProvider} which downloads from a
+ * {@link MirrorServer}.
+ * <p>
+ * The content of each Mojang host is served under the path named after the
+ * host:
+ *
+ * <pre>
+ * https://launchermeta.mojang.com/        -&gt; launchermeta/
+ * https://launcher.mojang.com/            -&gt; launcher/
+ * https://libraries.minecraft.net/        -&gt; libraries/
+ * http://resources.download.minecraft.net/ -&gt; resources/
+ * </pre>
+ *
+ * The urls in the recorded version jsons still point to Mojang, so
+ * {@link #getDownloadInfoProcessor()} should be added to the provider chain,
+ * as {@link #createProviderChain()} does.
+ */
+public class MirrorDownloadProvider extends MojangDownloadProvider {
+
+	private static final String[][] HOSTS = {
+			{ "https://launchermeta.mojang.com/", "launchermeta/" },
+			{ "https://launcher.mojang.com/", "launcher/" },
+			{ "https://libraries.minecraft.net/", "libraries/" },
+			{ "http://resources.download.minecraft.net/", "resources/" }
+	};
+
+	private final String baseURL;
+
+	public MirrorDownloadProvider(MirrorServer server) {
+		this(server.getBaseURI());
+	}
+
+	public MirrorDownloadProvider(URI baseURI) {
+		String url = Objects.requireNonNull(baseURI).toString();
+		this.baseURL = url.endsWith("/") ? url : url + "/";
+	}
+
+	@Override
+	protected String getLibraryBaseURL() {
+		return baseURL + "libraries/";
+	}
+
+	@Override
+	protected String getVersionListURL() {
+		return baseURL + "launchermeta/mc/game/version_manifest.json";
+	}
+
+	@Override
+	protected String getAssetBaseURL() {
+		return baseURL + "resources/";
+	}
+
+	/**
+	 * Gets a processor which rewrites the urls of the Mojang hosts to the
+	 * mirror.
+	 *
+	 * @return the url processor
+	 */
+	public DownloadInfoProcessor getDownloadInfoProcessor() {
+		return new DownloadInfoProcessor() {
+
+			@Override
+			public String process(String uri) {
+				for (String[] host : HOSTS) {
+					if (uri.startsWith(host[0])) {
+						return baseURL + host[1] + uri.substring(host[0].length());
+					}
+				}
+				return uri;
+			}
+		};
+	}
+
+	/**
+	 * Creates a provider chain which downloads everything from the mirror.
+	 *
+	 * @return the provider chain
+	 */
+	public DownloadProviderChain createProviderChain() {
+		return DownloadProviderChain.create()
+				.baseProvider(this)
+				.addDownloadInfoProcessor(getDownloadInfoProcessor());
+	}
+
+}
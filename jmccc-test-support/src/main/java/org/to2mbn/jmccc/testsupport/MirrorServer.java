@@ -0,0 +1,349 @@
+package org.to2mbn.jmccc.testsupport;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.to2mbn.jmccc.util.HexUtils;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process HTTP server on the loopback interface, which serves the
+ * content of the Minecraft download servers, so the downloader can be tested
+ * offline.
+ * <p>
+ * The content is put in memory with {@link #put(String, byte[])}, generated
+ * by {@link SyntheticVersion}, or loaded from a recorded directory with
+ * {@link #putDirectory(String, File)}. The paths follow the layout of
+ * {@link MirrorDownloadProvider}: the content of each Mojang host is under
+ * the path named after the host.
+ * <p>
+ * The server supports <code>GET</code> and <code>HEAD</code>, single byte
+ * ranges (<code>Range</code> and <code>If-Range</code>) and strong ETags
+ * (<code>If-None-Match</code>). It can add latency (including
+ * a latency tail), throttle the responses and
+ * inject errors, as configured by {@link MirrorServerBuilder}.
+ *
+ * @see MirrorServerBuilder
+ */
+public class MirrorServer implements Closeable {
+
+	private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+	private static final int CHUNK_SIZE = 8192;
+
+	private static class Resource {
+
+		final byte[] data;
+		final String etag;
+		final String contentType;
+
+		Resource(byte[] data, String etag, String contentType) {
+			this.data = data;
+			this.etag = etag;
+			this.contentType = contentType;
+		}
+
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+	private final long latencyNanos;
+	private final double tailRate;
+	private final long tailLatencyNanos;
+	private final long bandwidth;
+	private final double errorRate;
+	private final int errorStatus;
+	private final Random random;
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong injectedErrors = new AtomicLong();
+
+	MirrorServer(int port, int threads, long latencyNanos, double tailRate, long tailLatencyNanos, long bandwidth, double errorRate, int errorStatus, long seed) throws IOException {
+		this.latencyNanos = latencyNanos;
+		this.tailRate = tailRate;
+		this.tailLatencyNanos = tailLatencyNanos;
+		this.bandwidth = bandwidth;
+		this.errorRate = errorRate;
+		this.errorStatus = errorStatus;
+		this.random = new Random(seed);
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.createContext("/", new HttpHandler() {
+
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					serve(exchange);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+	}
+
+	/**
+	 * Gets the base uri of the server, which ends with <code>/</code>.
+	 *
+	 * @return the base uri
+	 */
+	public URI getBaseURI() {
+		InetSocketAddress address = server.getAddress();
+		return URI.create("http://" + address.getAddress().getHostAddress() + ":" + address.getPort() + "/");
+	}
+
+	/**
+	 * Gets the uri of the given path.
+	 *
+	 * @param path the path, without the leading <code>/</code>
+	 * @return the uri
+	 */
+	public URI getURI(String path) {
+		return getBaseURI().resolve(path);
+	}
+
+	/**
+	 * Serves the data at the given path.
+	 *
+	 * @param path the path, without the leading <code>/</code>
+	 * @param data the data to serve
+	 * @return the uri of the data
+	 */
+	public URI put(String path, byte[] data) {
+		Objects.requireNonNull(path);
+		Objects.requireNonNull(data);
+		String contentType = path.endsWith(".json") ? "application/json" : "application/octet-stream";
+		resources.put("/" + path, new Resource(data, "\"" + sha1(data) + "\"", contentType));
+		return getURI(path);
+	}
+
+	/**
+	 * Serves all the files in the given directory, under the given prefix.
+	 * <p>
+	 * A recorded directory can be served with this method. The files are read
+	 * into memory at once.
+	 *
+	 * @param prefix the path prefix, such as <code>"libraries/"</code>, can be
+	 *            empty
+	 * @param dir the directory
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void putDirectory(final String prefix, File dir) throws IOException {
+		final Path base = dir.toPath();
+		Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				put(prefix + base.relativize(file).toString().replace(File.separatorChar, '/'), Files.readAllBytes(file));
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	public void remove(String path) {
+		resources.remove("/" + path);
+	}
+
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	public long getInjectedErrorCount() {
+		return injectedErrors.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void serve(HttpExchange exchange) throws IOException, InterruptedException {
+		requests.incrementAndGet();
+		long delay = latencyNanos;
+		if (injectTailLatency()) {
+			delay += tailLatencyNanos;
+		}
+		if (delay > 0) {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+
+		String method = exchange.getRequestMethod();
+		boolean head = "HEAD".equals(method);
+		if (!head && !"GET".equals(method)) {
+			exchange.sendResponseHeaders(405, -1);
+			return;
+		}
+
+		if (injectError()) {
+			injectedErrors.incrementAndGet();
+			exchange.sendResponseHeaders(errorStatus, -1);
+			return;
+		}
+
+		Resource resource = resources.get(exchange.getRequestURI().getPath());
+		if (resource == null) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+
+		Headers request = exchange.getRequestHeaders();
+		Headers response = exchange.getResponseHeaders();
+		response.set("ETag", resource.etag);
+		response.set("Accept-Ranges", "bytes");
+		response.set("Content-Type", resource.contentType);
+
+		String ifNoneMatch = request.getFirst("If-None-Match");
+		if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(resource.etag))) {
+			exchange.sendResponseHeaders(304, -1);
+			return;
+		}
+
+		int length = resource.data.length;
+		int from = 0;
+		int to = length; // exclusive
+		int status = 200;
+
+		String range = request.getFirst("Range");
+		String ifRange = request.getFirst("If-Range");
+		if (range != null && (ifRange == null || ifRange.equals(resource.etag))) {
+			long[] parsed = parseRange(range, length);
+			if (parsed == null) {
+				response.set("Content-Range", "bytes */" + length);
+				exchange.sendResponseHeaders(416, -1);
+				return;
+			}
+			from = (int) parsed[0];
+			to = (int) parsed[1];
+			status = 206;
+			response.set("Content-Range", "bytes " + from + "-" + (to - 1) + "/" + length);
+		}
+
+		if (head) {
+			response.set("Content-Length", String.valueOf(to - from));
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+
+		exchange.sendResponseHeaders(status, to - from);
+		try (OutputStream out = exchange.getResponseBody()) {
+			write(out, resource.data, from, to);
+		}
+	}
+
+	private boolean injectTailLatency() {
+		if (tailRate <= 0) {
+			return false;
+		}
+		synchronized (random) {
+			return random.nextDouble() < tailRate;
+		}
+	}
+
+	private boolean injectError() {
+		if (errorRate <= 0) {
+			return false;
+		}
+		synchronized (random) {
+			return random.nextDouble() < errorRate;
+		}
+	}
+
+	private void write(OutputStream out, byte[] data, int from, int to) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		int chunkSize = bandwidth > 0 ? (int) Math.max(1, Math.min(CHUNK_SIZE, bandwidth / 10)) : CHUNK_SIZE;
+		int sent = 0;
+		for (int off = from; off < to; off += chunkSize) {
+			int len = Math.min(chunkSize, to - off);
+			out.write(data, off, len);
+			sent += len;
+			bytesSent.addAndGet(len);
+			if (bandwidth > 0) {
+				long expected = sent * 1_000_000_000L / bandwidth;
+				long elapsed = System.nanoTime() - start;
+				if (expected > elapsed) {
+					TimeUnit.NANOSECONDS.sleep(expected - elapsed);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses a single byte range.
+	 *
+	 * @return <code>{from, to}</code>, <code>to</code> is exclusive, or null
+	 *         if the range is not satisfiable
+	 */
+	private static long[] parseRange(String range, int length) {
+		Matcher matcher = RANGE_PATTERN.matcher(range.trim());
+		if (!matcher.matches()) {
+			return null;
+		}
+		String first = matcher.group(1);
+		String last = matcher.group(2);
+		long from;
+		long to;
+		try {
+			if (first.isEmpty()) {
+				if (last.isEmpty()) {
+					return null;
+				}
+				// suffix range, the last n bytes
+				from = Math.max(0, length - Long.parseLong(last));
+				to = length;
+			} else {
+				from = Long.parseLong(first);
+				to = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (from >= length || from >= to) {
+			return null;
+		}
+		return new long[] { from, to };
+	}
+
+	private static String sha1(byte[] data) {
+		try {
+			return HexUtils.bytesToHex(MessageDigest.getInstance("SHA-1").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not supported", e);
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.to2mbn.jmccc.testsupport;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.to2mbn.jmccc.util.Builder;
+
+public class MirrorServerBuilder implements Builder<MirrorServer> {
+
+	public static MirrorServerBuilder create() {
+		return new MirrorServerBuilder();
+	}
+
+	public static MirrorServer buildDefault() {
+		return create().build();
+	}
+
+	protected int port = 0;
+	protected int threads = 32;
+	protected long latency = 0;
+	protected TimeUnit latencyUnit = TimeUnit.MILLISECONDS;
+	protected double tailRate = 0;
+	protected long tailLatency = 0;
+	protected TimeUnit tailLatencyUnit = TimeUnit.MILLISECONDS;
+	protected long bandwidth = 0;
+	protected double errorRate = 0;
+	protected int errorStatus = 503;
+	protected long seed = 0;
+
+	protected MirrorServerBuilder() {}
+
+	/**
+	 * Sets the port to listen on, 0 for an ephemeral port (default).
+	 * 
+	 * @param port the port
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder port(int port) {
+		this.port = port;
+		return this;
+	}
+
+	/**
+	 * Sets the number of the threads serving the requests, which is also the
+	 * maximum amount of the concurrent requests.
+	 * 
+	 * @param threads the number of the threads
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder threads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the delay before the response headers are sent, i.e. the time to
+	 * first byte.
+	 * 
+	 * @param latency the delay
+	 * @param unit the unit of the delay
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder latency(long latency, TimeUnit unit) {
+		this.latency = latency;
+		this.latencyUnit = unit;
+		return this;
+	}
+
+	/**
+	 * Sets the probability that a request is delayed by an extra latency, in
+	 * addition to {@link #latency(long, TimeUnit)}, so as to simulate the slow
+	 * requests in the tail of the latency distribution.
+	 * 
+	 * @param rate the probability, between 0 and 1
+	 * @param latency the extra latency
+	 * @param unit the unit of the extra latency
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder tailLatency(double rate, long latency, TimeUnit unit) {
+		this.tailRate = rate;
+		this.tailLatency = latency;
+		this.tailLatencyUnit = unit;
+		return this;
+	}
+
+	/**
+	 * Sets the bandwidth of each response, 0 for unlimited (default).
+	 * 
+	 * @param bytesPerSecond the bandwidth in bytes per second
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder bandwidth(long bytesPerSecond) {
+		this.bandwidth = bytesPerSecond;
+		return this;
+	}
+
+	/**
+	 * Sets the probability that a request fails with the error status.
+	 * 
+	 * @param errorRate the probability, between 0 and 1
+	 * @return the builder itself
+	 * @see #errorStatus(int)
+	 */
+	public MirrorServerBuilder errorRate(double errorRate) {
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	/**
+	 * Sets the status of the injected errors, 503 by default.
+	 * 
+	 * @param errorStatus the status
+	 * @return the builder itself
+	 * @see #errorRate(double)
+	 */
+	public MirrorServerBuilder errorStatus(int errorStatus) {
+		this.errorStatus = errorStatus;
+		return this;
+	}
+
+	/**
+	 * Sets the seed of the error and latency injection, so that a test is reproducible.
+	 * 
+	 * @param seed the seed
+	 * @return the builder itself
+	 */
+	public MirrorServerBuilder seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Builds and starts the server.
+	 * 
+	 * @return the started server
+	 * @throws IllegalStateException if the server cannot be started
+	 */
+	@Override
+	public MirrorServer build() {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads < 1");
+		}
+		if (latency < 0 || tailLatency < 0 || bandwidth < 0) {
+			throw new IllegalArgumentException("latency < 0 || tailLatency < 0 || bandwidth < 0");
+		}
+		if (tailRate < 0 || tailRate > 1) {
+			throw new IllegalArgumentException("tail latency rate must be between 0 and 1");
+		}
+		if (errorRate < 0 || errorRate > 1) {
+			throw new IllegalArgumentException("errorRate must be between 0 and 1");
+		}
+		try {
+			return new MirrorServer(port, threads, latencyUnit.toNanos(latency), tailRate, tailLatencyUnit.toNanos(tailLatency), bandwidth, errorRate, errorStatus, seed);
+		} catch (IOException e) {
+			throw new IllegalStateException("Couldn't start the mirror server", e);
+		}
+	}
+
+}
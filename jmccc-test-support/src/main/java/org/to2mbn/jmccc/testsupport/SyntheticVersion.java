@@ -0,0 +1,178 @@
+package org.to2mbn.jmccc.testsupport;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.Random;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.util.HexUtils;
+
+/**
+ * Generates a version with random content, and publishes it on a
+ * {@link MirrorServer} together with its version manifest, asset index,
+ * assets, libraries and game jar.
+ * <p>
+ * The same seed always generates the same content. All the urls in the
+ * generated jsons point to the mirror, and follow the layout of
+ * {@link MirrorDownloadProvider}.
+ * <p>
+ * The published version manifest only lists this version.
+ */
+public class SyntheticVersion {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String TIME = "2016-01-01T00:00:00+00:00";
+	private static final String GROUP_ID = "org.to2mbn.synthetic";
+
+	public static SyntheticVersion create(String version) {
+		return new SyntheticVersion(version);
+	}
+
+	private final String version;
+	private int libraries = 40;
+	private int librarySize = 64 * 1024;
+	private int assets = 500;
+	private int assetSize = 4 * 1024;
+	private int gameJarSize = 1024 * 1024;
+	private long seed = 0;
+
+	protected SyntheticVersion(String version) {
+		this.version = Objects.requireNonNull(version);
+	}
+
+	public SyntheticVersion libraries(int libraries) {
+		this.libraries = libraries;
+		return this;
+	}
+
+	public SyntheticVersion librarySize(int librarySize) {
+		this.librarySize = librarySize;
+		return this;
+	}
+
+	public SyntheticVersion assets(int assets) {
+		this.assets = assets;
+		return this;
+	}
+
+	public SyntheticVersion assetSize(int assetSize) {
+		this.assetSize = assetSize;
+		return this;
+	}
+
+	public SyntheticVersion gameJarSize(int gameJarSize) {
+		this.gameJarSize = gameJarSize;
+		return this;
+	}
+
+	public SyntheticVersion seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Generates the content and puts it on the given server.
+	 *
+	 * @param server the server
+	 * @return the version id
+	 */
+	public String publish(MirrorServer server) {
+		Random random = new Random(seed);
+
+		// assets
+		JSONObject objects = new JSONObject();
+		long assetsTotalSize = 0;
+		for (int i = 0; i < assets; i++) {
+			byte[] data = randomBytes(random, assetSize);
+			String hash = sha1(data);
+			server.put("resources/" + hash.substring(0, 2) + "/" + hash, data);
+			objects.put("synthetic/asset" + i, new JSONObject()
+					.put("hash", hash)
+					.put("size", data.length));
+			assetsTotalSize += data.length;
+		}
+		byte[] assetIndex = json(new JSONObject().put("objects", objects));
+		String assetIndexPath = "launchermeta/mc-staging/assets/" + version + "/" + sha1(assetIndex) + "/" + version + ".json";
+
+		// libraries
+		JSONArray librariesJson = new JSONArray();
+		for (int i = 0; i < libraries; i++) {
+			byte[] data = randomBytes(random, librarySize);
+			String artifactId = "library" + i;
+			String path = GROUP_ID.replace('.', '/') + "/" + artifactId + "/1.0/" + artifactId + "-1.0.jar";
+			librariesJson.put(new JSONObject()
+					.put("name", GROUP_ID + ":" + artifactId + ":1.0")
+					.put("downloads", new JSONObject()
+							.put("artifact", new JSONObject()
+									.put("path", path)
+									.put("url", server.put("libraries/" + path, data).toString())
+									.put("sha1", sha1(data))
+									.put("size", data.length))));
+		}
+
+		// game jar
+		byte[] gameJar = randomBytes(random, gameJarSize);
+		String gameJarHash = sha1(gameJar);
+		String gameJarPath = "launcher/mc/game/" + version + "/client/" + gameJarHash + "/client.jar";
+
+		JSONObject versionJson = new JSONObject()
+				.put("id", version)
+				.put("time", TIME)
+				.put("releaseTime", TIME)
+				.put("type", "release")
+				.put("minecraftArguments", "--username ${auth_player_name} --version ${version_name} --gameDir ${game_directory} --assetsDir ${assets_root} --assetIndex ${assets_index_name} --uuid ${auth_uuid} --accessToken ${auth_access_token} --userType ${user_type}")
+				.put("mainClass", "net.minecraft.client.main.Main")
+				.put("minimumLauncherVersion", 18)
+				.put("assets", version)
+				.put("libraries", librariesJson)
+				.put("downloads", new JSONObject()
+						.put("client", new JSONObject()
+								.put("url", server.put(gameJarPath, gameJar).toString())
+								.put("sha1", gameJarHash)
+								.put("size", gameJar.length)))
+				.put("assetIndex", new JSONObject()
+						.put("id", version)
+						.put("url", server.put(assetIndexPath, assetIndex).toString())
+						.put("sha1", sha1(assetIndex))
+						.put("size", assetIndex.length)
+						.put("totalSize", assetsTotalSize));
+		byte[] versionData = json(versionJson);
+		String versionPath = "launchermeta/mc/game/" + sha1(versionData) + "/" + version + ".json";
+
+		JSONObject manifest = new JSONObject()
+				.put("latest", new JSONObject()
+						.put("release", version)
+						.put("snapshot", version))
+				.put("versions", new JSONArray()
+						.put(new JSONObject()
+								.put("id", version)
+								.put("type", "release")
+								.put("time", TIME)
+								.put("releaseTime", TIME)
+								.put("url", server.put(versionPath, versionData).toString())));
+		server.put("launchermeta/mc/game/version_manifest.json", json(manifest));
+
+		return version;
+	}
+
+	private static byte[] randomBytes(Random random, int length) {
+		byte[] data = new byte[length];
+		random.nextBytes(data);
+		return data;
+	}
+
+	private static byte[] json(JSONObject json) {
+		return json.toString().getBytes(UTF_8);
+	}
+
+	private static String sha1(byte[] data) {
+		try {
+			return HexUtils.bytesToHex(MessageDigest.getInstance("SHA-1").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not supported", e);
+		}
+	}
+
+}
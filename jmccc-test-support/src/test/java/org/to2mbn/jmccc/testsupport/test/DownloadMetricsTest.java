@@ -0,0 +1,134 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.mcdownloader.download.cache.CacheNames;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.io.JdkDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.DownloadMetricsAdapter;
+import org.to2mbn.jmccc.mcdownloader.download.metrics.Gauge;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+
+public class DownloadMetricsTest {
+
+	private static class CountingMetrics extends DownloadMetricsAdapter {
+
+		final AtomicLong responses = new AtomicLong();
+		final AtomicLong bytes = new AtomicLong();
+		final AtomicLong completed = new AtomicLong();
+		final AtomicLong failed = new AtomicLong();
+		final AtomicLong retried = new AtomicLong();
+		final Map<String, String> tags = new ConcurrentHashMap<>();
+		final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+		@Override
+		public void responseReceived(String host, String pool, long nanos) {
+			assertTrue(nanos >= 0);
+			responses.incrementAndGet();
+			tags.put(host, pool);
+		}
+
+		@Override
+		public void bytesReceived(String host, String pool, long bytes) {
+			this.bytes.addAndGet(bytes);
+		}
+
+		@Override
+		public void requestCompleted(String host, String pool, long nanos) {
+			completed.incrementAndGet();
+		}
+
+		@Override
+		public void requestFailed(String host, String pool, Throwable e, long nanos) {
+			failed.incrementAndGet();
+		}
+
+		@Override
+		public void requestRetried(String host, String pool, Throwable e, int current, int max) {
+			retried.incrementAndGet();
+		}
+
+		@Override
+		public void registerGauge(String name, Gauge gauge) {
+			gauges.put(name, gauge);
+		}
+
+	}
+
+	private MirrorServer server;
+
+	@After
+	public void tearDown() {
+		if (server != null) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void testDownloaderMetrics() throws Exception {
+		server = MirrorServerBuilder.create()
+				.errorRate(0.3)
+				.build();
+		byte[] data = new byte[10000];
+		List<URI> uris = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			uris.add(server.put("data" + i, data));
+		}
+
+		CountingMetrics metrics = new CountingMetrics();
+		Downloader downloader = JdkDownloaderBuilder.create()
+				.metrics(metrics)
+				.build();
+		try {
+			List<Future<byte[]>> futures = new ArrayList<>();
+			for (URI uri : uris) {
+				futures.add(downloader.download(new MemoryDownloadTask(uri), null, 50));
+			}
+			for (Future<byte[]> future : futures) {
+				assertArrayEquals(data, future.get());
+			}
+		} finally {
+			downloader.shutdown();
+		}
+
+		long errors = server.getInjectedErrorCount();
+		assertTrue(errors > 0);
+		assertEquals(20, metrics.completed.get());
+		assertEquals(errors, metrics.failed.get());
+		assertEquals(errors, metrics.retried.get());
+		assertEquals(20 + errors, metrics.responses.get());
+		assertEquals(20 * data.length, metrics.bytes.get());
+		assertEquals(CacheNames.DEFAULT, metrics.tags.get(server.getBaseURI().getHost()));
+		assertEquals(0, metrics.gauges.get("jdkDownloader.queue").get());
+	}
+
+	@Test
+	public void testGauges() {
+		CountingMetrics metrics = new CountingMetrics();
+		CombinedDownloader downloader = CombinedDownloaderBuilder.create(JdkDownloaderBuilder.create().metrics(metrics))
+				.metrics(metrics)
+				.build();
+		try {
+			assertEquals(0, metrics.gauges.get("combinedDownloader.queue").get());
+			assertEquals(0, metrics.gauges.get("combinedDownloader.active").get());
+			assertEquals(0, metrics.gauges.get("jdkDownloader.active").get());
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+}
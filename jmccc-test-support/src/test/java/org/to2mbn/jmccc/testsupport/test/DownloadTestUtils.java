@@ -0,0 +1,58 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import java.io.File;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.provider.MinecraftDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.SyntheticVersion;
+import org.to2mbn.jmccc.util.Builder;
+
+final class DownloadTestUtils {
+
+	public static final int LIBRARY_SIZE = 1024;
+	public static final int ASSET_SIZE = 256;
+
+	/**
+	 * Publishes a synthetic version with small libraries and assets.
+	 *
+	 * @return the version id
+	 */
+	public static String publish(MirrorServer server, int libraries, int assets) {
+		return SyntheticVersion.create("synthetic")
+				.libraries(libraries)
+				.librarySize(LIBRARY_SIZE)
+				.assets(assets)
+				.assetSize(ASSET_SIZE)
+				.gameJarSize(4096)
+				.publish(server);
+	}
+
+	public static MinecraftDownloader createDownloader(MirrorServer server, int tries) {
+		return createDownloader(new MirrorDownloadProvider(server).createProviderChain(), tries);
+	}
+
+	public static MinecraftDownloader createDownloader(Builder<MinecraftDownloadProvider> providerChain, int tries) {
+		return MinecraftDownloaderBuilder.create(
+				CombinedDownloaderBuilder.create(DownloaderBuilders.downloader())
+						.defaultTries(tries))
+				.providerChain(providerChain)
+				.build();
+	}
+
+	public static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private DownloadTestUtils() {}
+
+}
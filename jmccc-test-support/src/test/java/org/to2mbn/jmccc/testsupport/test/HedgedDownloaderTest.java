@@ -0,0 +1,237 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.download.Downloader;
+import org.to2mbn.jmccc.mcdownloader.download.concurrent.DownloadCallback;
+import org.to2mbn.jmccc.mcdownloader.download.hedge.HedgedDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.io.JdkDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.DownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.util.Builder;
+
+public class HedgedDownloaderTest {
+
+	private MirrorServer server;
+
+	@After
+	public void tearDown() {
+		if (server != null) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void testHedging() throws Exception {
+		server = MirrorServerBuilder.create()
+				.tailLatency(0.2, 1, TimeUnit.SECONDS)
+				.seed(1)
+				.build();
+		byte[] data = "hedged".getBytes();
+		URI uri = server.put("data", data);
+
+		// 20% of the requests are slow, so hedge those slower than the median
+		Downloader downloader = HedgedDownloaderBuilder.create(JdkDownloaderBuilder.create())
+				.percentile(0.5)
+				.budget(1)
+				.minSamples(10)
+				.build();
+		try {
+			download(downloader, uri, data, 20); // warm up
+			long start = System.nanoTime();
+			download(downloader, uri, data, 40);
+
+			// ~8 of them are slow, and they would take 8s without hedging
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+			assertTrue(server.getRequestCount() > 60);
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	@Test
+	public void testBudget() throws Exception {
+		server = MirrorServerBuilder.create()
+				.tailLatency(0.2, 200, TimeUnit.MILLISECONDS)
+				.seed(1)
+				.build();
+		byte[] data = "hedged".getBytes();
+		URI uri = server.put("data", data);
+
+		Downloader downloader = HedgedDownloaderBuilder.create(JdkDownloaderBuilder.create())
+				.percentile(0.5)
+				.budget(0)
+				.minSamples(10)
+				.build();
+		try {
+			download(downloader, uri, data, 30);
+			assertEquals(30, server.getRequestCount());
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	@Test
+	public void testSaturatedUpstream() throws Exception {
+		server = MirrorServerBuilder.create()
+				.latency(50, TimeUnit.MILLISECONDS)
+				.build();
+		byte[] data = "hedged".getBytes();
+		URI uri = server.put("data", data);
+
+		// the hedges which wait in the queue are cancelled before they reach the server, so they are counted here
+		final Downloader upstream = JdkDownloaderBuilder.create().maxConnections(2).build();
+		final AtomicInteger submitted = new AtomicInteger();
+		Downloader counting = new Downloader() {
+
+			@Override
+			public <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback) {
+				submitted.incrementAndGet();
+				return upstream.download(task, callback);
+			}
+
+			@Override
+			public <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback, int tries) {
+				submitted.incrementAndGet();
+				return upstream.download(task, callback, tries);
+			}
+
+			@Override
+			public void shutdown() {
+				upstream.shutdown();
+			}
+
+			@Override
+			public boolean isShutdown() {
+				return upstream.isShutdown();
+			}
+		};
+
+		Downloader downloader = HedgedDownloaderBuilder.create(constant(counting))
+				.percentile(0.5)
+				.budget(1)
+				.minSamples(10)
+				.build();
+		try {
+			download(downloader, uri, data, 10); // warm up
+
+			// most of the requests wait for a connection far longer than the threshold
+			List<Future<byte[]>> futures = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				futures.add(downloader.download(new MemoryDownloadTask(uri), null));
+			}
+			for (Future<byte[]> future : futures) {
+				assertArrayEquals(data, future.get());
+			}
+
+			// only the last ones, which don't wait, may be hedged
+			assertTrue(submitted.get() <= 50 + 2);
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void testPrimaryFailedBeforeHedgeRejected() throws Exception {
+		final IOException primaryFailure = new IOException("expected by the test");
+		Downloader upstream = new Downloader() {
+
+			private int calls;
+			private DownloadCallback<?> primary;
+
+			@Override
+			public synchronized <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback) {
+				switch (calls++) {
+					case 0:
+						// responds at once, to provide the only latency sample
+						try {
+							callback.done(task.createSession().completed());
+						} catch (Exception e) {
+							throw new AssertionError(e);
+						}
+						break;
+
+					case 1:
+						// never responds
+						primary = callback;
+						break;
+
+					default:
+						// the primary fails while the hedge is being submitted, and the hedge is rejected
+						primary.failed(primaryFailure);
+						throw new RejectedExecutionException();
+				}
+				return new FutureTask<>(new Runnable() {
+
+					@Override
+					public void run() {}
+				}, null);
+			}
+
+			@Override
+			public <T> Future<T> download(DownloadTask<T> task, DownloadCallback<T> callback, int tries) {
+				return download(task, callback);
+			}
+
+			@Override
+			public void shutdown() {}
+
+			@Override
+			public boolean isShutdown() {
+				return false;
+			}
+		};
+
+		Downloader downloader = HedgedDownloaderBuilder.create(constant(upstream))
+				.budget(1)
+				.minSamples(1)
+				.minDelay(0, TimeUnit.MILLISECONDS)
+				.build();
+		try {
+			URI uri = URI.create("http://localhost/data");
+			downloader.download(new MemoryDownloadTask(uri), null).get();
+			try {
+				downloader.download(new MemoryDownloadTask(uri), null).get();
+				fail();
+			} catch (ExecutionException e) {
+				assertSame(primaryFailure, e.getCause());
+			}
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	private static Builder<Downloader> constant(final Downloader downloader) {
+		return new Builder<Downloader>() {
+
+			@Override
+			public Downloader build() {
+				return downloader;
+			}
+		};
+	}
+
+	private static void download(Downloader downloader, URI uri, byte[] expected, int times) throws Exception {
+		for (int i = 0; i < times; i++) {
+			assertArrayEquals(expected, downloader.download(new MemoryDownloadTask(uri), null).get());
+		}
+	}
+
+}
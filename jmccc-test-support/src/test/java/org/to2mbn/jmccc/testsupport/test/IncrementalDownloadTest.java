@@ -0,0 +1,85 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.to2mbn.jmccc.testsupport.test.DownloadTestUtils.ASSET_SIZE;
+import static org.to2mbn.jmccc.testsupport.test.DownloadTestUtils.LIBRARY_SIZE;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class IncrementalDownloadTest {
+
+	private MirrorServer server;
+	private MinecraftDownloader downloader;
+	private File root;
+	private String version;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-incremental-test").toFile();
+		server = MirrorServerBuilder.buildDefault();
+		version = DownloadTestUtils.publish(server, 3, 5);
+		downloader = DownloadTestUtils.createDownloader(server, 3);
+	}
+
+	@After
+	public void tearDown() {
+		downloader.shutdown();
+		server.close();
+		DownloadTestUtils.delete(root);
+	}
+
+	@Test
+	public void testTruncatedFiles() throws Exception {
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+		downloader.downloadIncrementally(mcdir, version, null).get();
+
+		Version resolved = Versions.resolveVersion(mcdir, version);
+		Library library = resolved.getLibraries().iterator().next();
+		Asset asset = Versions.resolveAssets(mcdir, resolved).iterator().next();
+		truncate(mcdir.getLibrary(library));
+		truncate(mcdir.getAsset(asset));
+
+		downloader.downloadIncrementally(mcdir, version, null).get();
+		assertEquals(LIBRARY_SIZE, mcdir.getLibrary(library).length());
+		assertEquals(ASSET_SIZE, mcdir.getAsset(asset).length());
+	}
+
+	@Test
+	public void testMissingFiles() throws Exception {
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+		downloader.downloadIncrementally(mcdir, version, null).get();
+
+		Version resolved = Versions.resolveVersion(mcdir, version);
+		Library library = resolved.getLibraries().iterator().next();
+		Asset asset = Versions.resolveAssets(mcdir, resolved).iterator().next();
+		Files.delete(mcdir.getLibrary(library).toPath());
+		Files.delete(mcdir.getAsset(asset).toPath());
+
+		long bytes = server.getBytesSent();
+		downloader.downloadIncrementally(mcdir, version, null).get();
+		// only the deleted files are downloaded again
+		assertEquals(LIBRARY_SIZE + ASSET_SIZE, server.getBytesSent() - bytes);
+		assertEquals(LIBRARY_SIZE, mcdir.getLibrary(library).length());
+		assertEquals(ASSET_SIZE, mcdir.getAsset(asset).length());
+	}
+
+	private static void truncate(File file) throws IOException {
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			out.setLength(file.length() / 2);
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.mcdownloader.download.tasks.MemoryDownloadTask;
+import org.to2mbn.jmccc.mcdownloader.provider.DownloadProviderChain;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class MirrorSelectionTest {
+
+	private MirrorServer primary;
+	private MirrorServer mirror;
+	private File root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-mirror-selection-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		if (primary != null) {
+			primary.close();
+		}
+		if (mirror != null) {
+			mirror.close();
+		}
+		DownloadTestUtils.delete(root);
+	}
+
+	@Test
+	public void testHedged() throws Exception {
+		primary = MirrorServerBuilder.create()
+				.latency(2, TimeUnit.SECONDS)
+				.build();
+		mirror = MirrorServerBuilder.buildDefault();
+		byte[] data = "hedged".getBytes();
+
+		CombinedDownloader downloader = CombinedDownloaderBuilder.create(DownloaderBuilders.downloader()).build();
+		try {
+			long start = System.nanoTime();
+			byte[] result = downloader.download(CombinedDownloadTask.hedged(100, TimeUnit.MILLISECONDS,
+					CombinedDownloadTask.single(new MemoryDownloadTask(primary.put("data", data))),
+					CombinedDownloadTask.single(new MemoryDownloadTask(mirror.put("data", data)))),
+					null).get();
+			assertArrayEquals(data, result);
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+			assertEquals(1, mirror.getRequestCount());
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailover() throws Exception {
+		primary = MirrorServerBuilder.create()
+				.errorRate(1)
+				.build();
+		mirror = MirrorServerBuilder.buildDefault();
+		String version = publish(primary, mirror);
+
+		download(version, 0);
+
+		assertTrue(primary.getInjectedErrorCount() > 0);
+		assertDownloaded(version);
+	}
+
+	@Test
+	public void testLatencyScoring() throws Exception {
+		primary = MirrorServerBuilder.create()
+				.latency(300, TimeUnit.MILLISECONDS)
+				.build();
+		mirror = MirrorServerBuilder.buildDefault();
+		String version = publish(primary, mirror);
+
+		download(version, 50);
+
+		// once the mirror has won a hedged request, it's preferred
+		assertTrue(primary.getRequestCount() < 20);
+		assertTrue(mirror.getRequestCount() > 100);
+		assertDownloaded(version);
+	}
+
+	private String publish(MirrorServer... servers) {
+		String version = null;
+		for (MirrorServer server : servers) {
+			version = DownloadTestUtils.publish(server, 10, 100);
+		}
+		return version;
+	}
+
+	private void download(String version, long hedgeDelay) throws Exception {
+		MirrorDownloadProvider primaryProvider = new MirrorDownloadProvider(primary);
+		MirrorDownloadProvider mirrorProvider = new MirrorDownloadProvider(mirror);
+		MinecraftDownloader downloader = DownloadTestUtils.createDownloader(DownloadProviderChain.create()
+				.baseProvider(primaryProvider)
+				.addMirror(mirrorProvider)
+				.hedgeDelay(hedgeDelay, TimeUnit.MILLISECONDS), 1);
+		try {
+			assertEquals(version, downloader.downloadIncrementally(new MinecraftDirectory(root), version, null).get().getVersion());
+		} finally {
+			downloader.shutdown();
+		}
+	}
+
+	private void assertDownloaded(String version) throws IOException {
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+		Version resolved = Versions.resolveVersion(mcdir, version);
+		assertTrue(mcdir.getVersionJar(resolved).isFile());
+		for (Asset asset : Versions.resolveAssets(mcdir, resolved)) {
+			assertTrue(mcdir.getAsset(asset).isFile());
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class MirrorServerTest {
+
+	private static final byte[] DATA = "0123456789".getBytes();
+
+	private MirrorServer server;
+	private File root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-mirror-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		if (server != null) {
+			server.close();
+		}
+		DownloadTestUtils.delete(root);
+	}
+
+	@Test
+	public void testRange() throws IOException {
+		server = MirrorServerBuilder.buildDefault();
+		URI uri = server.put("data", DATA);
+
+		HttpURLConnection connection = open(uri);
+		connection.setRequestProperty("Range", "bytes=2-5");
+		assertEquals(206, connection.getResponseCode());
+		assertEquals("bytes 2-5/10", connection.getHeaderField("Content-Range"));
+		assertArrayEquals(Arrays.copyOfRange(DATA, 2, 6), read(connection));
+
+		connection = open(uri);
+		connection.setRequestProperty("Range", "bytes=-3");
+		assertEquals(206, connection.getResponseCode());
+		assertArrayEquals(Arrays.copyOfRange(DATA, 7, 10), read(connection));
+
+		connection = open(uri);
+		connection.setRequestProperty("Range", "bytes=10-");
+		assertEquals(416, connection.getResponseCode());
+
+		// the range is ignored if the resource has changed
+		connection = open(uri);
+		connection.setRequestProperty("Range", "bytes=2-5");
+		connection.setRequestProperty("If-Range", "\"outdated\"");
+		assertEquals(200, connection.getResponseCode());
+		assertArrayEquals(DATA, read(connection));
+	}
+
+	@Test
+	public void testETag() throws IOException {
+		server = MirrorServerBuilder.buildDefault();
+		URI uri = server.put("data", DATA);
+
+		HttpURLConnection connection = open(uri);
+		assertEquals(200, connection.getResponseCode());
+		String etag = connection.getHeaderField("ETag");
+		assertNotNull(etag);
+		read(connection);
+
+		connection = open(uri);
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(304, connection.getResponseCode());
+
+		server.put("data", "changed".getBytes());
+		connection = open(uri);
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(200, connection.getResponseCode());
+		assertArrayEquals("changed".getBytes(), read(connection));
+	}
+
+	@Test
+	public void testErrorInjection() throws IOException {
+		server = MirrorServerBuilder.create()
+				.errorRate(1)
+				.errorStatus(500)
+				.build();
+		URI uri = server.put("data", DATA);
+
+		assertEquals(500, open(uri).getResponseCode());
+		assertEquals(1, server.getInjectedErrorCount());
+	}
+
+	@Test
+	public void testDownloadIncrementally() throws Exception {
+		server = MirrorServerBuilder.create()
+				.errorRate(0.1)
+				.build();
+		String version = DownloadTestUtils.publish(server, 10, 50);
+
+		MinecraftDownloader downloader = DownloadTestUtils.createDownloader(server, 10);
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+		try {
+			assertEquals(version, downloader.downloadIncrementally(mcdir, version, null).get().getVersion());
+		} finally {
+			downloader.shutdown();
+		}
+
+		Version resolved = Versions.resolveVersion(mcdir, version);
+		assertEquals(10, resolved.getLibraries().size());
+		for (Library library : resolved.getLibraries()) {
+			assertTrue(mcdir.getLibrary(library).isFile());
+		}
+		assertTrue(mcdir.getVersionJar(resolved).isFile());
+		for (Asset asset : Versions.resolveAssets(mcdir, resolved)) {
+			assertTrue(mcdir.getAsset(asset).isFile());
+		}
+		assertTrue(server.getInjectedErrorCount() > 0);
+	}
+
+	private static HttpURLConnection open(URI uri) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+		connection.setUseCaches(false);
+		return connection;
+	}
+
+	private static byte[] read(HttpURLConnection connection) throws IOException {
+		try (InputStream in = connection.getInputStream()) {
+			return IOUtils.toByteArray(in);
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Pack200;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.download.DownloaderBuilders;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloader;
+import org.to2mbn.jmccc.mcdownloader.download.combine.CombinedDownloaderBuilder;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorDownloadProvider;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.util.HexUtils;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Library;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+public class PackLibraryTest {
+
+	private static final Library LIBRARY = new Library("org.to2mbn", "packed", "1.0");
+
+	private MirrorServer server;
+	private File root;
+	private Map<String, byte[]> entries;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-pack-test").toFile();
+		server = MirrorServerBuilder.buildDefault();
+
+		entries = new LinkedHashMap<>();
+		for (int i = 0; i < 10; i++) {
+			byte[] data = new byte[1024 * (i + 1)];
+			for (int j = 0; j < data.length; j++) {
+				data[j] = (byte) (i * 31 + j % 7);
+			}
+			entries.put("data/entry" + i + ".bin", data);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		server.close();
+		delete(root);
+	}
+
+	@Test
+	public void testPack() throws Exception {
+		assertUnpacked(download("library.jar.pack", pack(null)));
+	}
+
+	@Test
+	public void testXZPack() throws Exception {
+		assertUnpacked(download("library.jar.pack.xz", xz(pack(null))));
+	}
+
+	@Test
+	public void testBadChecksum() throws Exception {
+		// not the first entry, every entry must be verified
+		try {
+			download("library.jar.pack.xz", xz(pack("data/entry9.bin")));
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		File jar = new MinecraftDirectory(root).getLibrary(LIBRARY);
+		assertFalse(jar.exists());
+		assertEquals(0, jar.getParentFile().listFiles().length);
+	}
+
+	private File download(String path, byte[] data) throws Exception {
+		URI uri = server.put(path, data);
+		MinecraftDirectory mcdir = new MinecraftDirectory(root);
+
+		CombinedDownloader downloader = CombinedDownloaderBuilder.create(DownloaderBuilders.downloader()).build();
+		try {
+			downloader.download(new MirrorDownloadProvider(server).library(mcdir, LIBRARY, uri), null).get();
+		} finally {
+			downloader.shutdown();
+		}
+		return mcdir.getLibrary(LIBRARY);
+	}
+
+	private void assertUnpacked(File jar) throws IOException {
+		try (JarFile in = new JarFile(jar)) {
+			for (Entry<String, byte[]> entry : entries.entrySet()) {
+				JarEntry jarEntry = in.getJarEntry(entry.getKey());
+				assertNotNull(entry.getKey(), jarEntry);
+				try (InputStream entryIn = in.getInputStream(jarEntry)) {
+					assertArrayEquals(entry.getValue(), IOUtils.toByteArray(entryIn));
+				}
+			}
+			assertNotNull(in.getJarEntry("checksums.sha1"));
+		}
+		File[] remaining = jar.getParentFile().listFiles();
+		assertEquals(1, remaining.length);
+	}
+
+	/**
+	 * Creates a pack in the layout used by forge: the pack200 data, the sha1
+	 * checksums of the entries, the length of the checksums in little endian
+	 * and <code>SIGN</code>.
+	 * <p>
+	 * The checksum of <code>corrupted</code> is replaced with a wrong one,
+	 * unless it's null.
+	 */
+	private byte[] pack(String corrupted) throws Exception {
+		File jar = new File(root, "original.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			for (Entry<String, byte[]> entry : entries.entrySet()) {
+				out.putNextEntry(new JarEntry(entry.getKey()));
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		}
+		ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		try (JarFile in = new JarFile(jar)) {
+			Pack200.newPacker().pack(in, packed);
+		}
+		jar.delete();
+		byte[] pack = packed.toByteArray();
+
+		// pack200 doesn't keep the entries byte-identical, so the checksums are computed over the unpacked jar
+		ByteArrayOutputStream unpacked = new ByteArrayOutputStream();
+		try (JarOutputStream out = new JarOutputStream(unpacked)) {
+			Pack200.newUnpacker().unpack(new ByteArrayInputStream(pack), out);
+		}
+		StringBuilder checksums = new StringBuilder();
+		MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+		try (JarInputStream in = new JarInputStream(new ByteArrayInputStream(unpacked.toByteArray()))) {
+			JarEntry entry;
+			while ((entry = in.getNextJarEntry()) != null) {
+				byte[] data = IOUtils.toByteArray(in);
+				if (entry.getName().equals(corrupted)) {
+					data = "corrupted".getBytes();
+				}
+				checksums.append(HexUtils.bytesToHex(sha1.digest(data))).append(' ').append(entry.getName()).append('\n');
+			}
+		}
+		byte[] checksumsData = checksums.toString().getBytes("UTF-8");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(pack);
+		out.write(checksumsData);
+		int length = checksumsData.length;
+		out.write(new byte[] { (byte) length, (byte) (length >>> 8), (byte) (length >>> 16), (byte) (length >>> 24) });
+		out.write("SIGN".getBytes("ASCII"));
+		return out.toByteArray();
+	}
+
+	private static byte[] xz(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (XZOutputStream xz = new XZOutputStream(out, new LZMA2Options())) {
+			xz.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,142 @@
+package org.to2mbn.jmccc.testsupport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.to2mbn.jmccc.testsupport.test.DownloadTestUtils.ASSET_SIZE;
+import static org.to2mbn.jmccc.testsupport.test.DownloadTestUtils.LIBRARY_SIZE;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.to2mbn.jmccc.mcdownloader.ChecksumOption;
+import org.to2mbn.jmccc.mcdownloader.MinecraftDownloader;
+import org.to2mbn.jmccc.mcdownloader.SharedStoreOption;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.testsupport.MirrorServer;
+import org.to2mbn.jmccc.testsupport.MirrorServerBuilder;
+import org.to2mbn.jmccc.util.ChecksumUtils;
+import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class SharedStoreTest {
+
+	private MirrorServer server;
+	private MinecraftDownloader downloader;
+	private File root;
+	private SharedStoreOption store;
+	private String version;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmccc-shared-store-test").toFile();
+		store = new SharedStoreOption(new File(root, "store"));
+		server = MirrorServerBuilder.buildDefault();
+		version = DownloadTestUtils.publish(server, 10, 50);
+		downloader = DownloadTestUtils.createDownloader(server, 3);
+	}
+
+	@After
+	public void tearDown() {
+		downloader.shutdown();
+		server.close();
+		DownloadTestUtils.delete(root);
+	}
+
+	@Test
+	public void testSharedStore() throws Exception {
+		MinecraftDirectory mcdir1 = new MinecraftDirectory(new File(root, "mc1"));
+		MinecraftDirectory mcdir2 = new MinecraftDirectory(new File(root, "mc2"));
+		downloader.downloadIncrementally(mcdir1, version, null, store).get();
+		long firstBytes = server.getBytesSent();
+		downloader.downloadIncrementally(mcdir2, version, null, store).get();
+		long secondBytes = server.getBytesSent() - firstBytes;
+
+		// the libraries and the assets are downloaded only once
+		assertTrue(secondBytes <= firstBytes - 10 * LIBRARY_SIZE - 50 * ASSET_SIZE);
+
+		Version resolved = Versions.resolveVersion(mcdir2, version);
+		for (Library library : resolved.getLibraries()) {
+			assertTrue(Files.isSameFile(mcdir1.getLibrary(library).toPath(), mcdir2.getLibrary(library).toPath()));
+		}
+		for (Asset asset : Versions.resolveAssets(mcdir2, resolved)) {
+			assertTrue(Files.isSameFile(mcdir1.getAsset(asset).toPath(), mcdir2.getAsset(asset).toPath()));
+		}
+	}
+
+	@Test
+	public void testWrongFiles() throws Exception {
+		MinecraftDirectory mcdir = new MinecraftDirectory(new File(root, "mc"));
+		downloader.downloadIncrementally(mcdir, version, null, store).get();
+
+		Version resolved = Versions.resolveVersion(mcdir, version);
+		Iterator<Library> libraries = resolved.getLibraries().iterator();
+		Library wrongLibrary = libraries.next();
+		Library wrongStoredLibrary = libraries.next();
+		Asset truncatedAsset = Versions.resolveAssets(mcdir, resolved).iterator().next();
+
+		// wrong files in the minecraft directory, which are no longer links
+		replace(mcdir.getLibrary(wrongLibrary), new byte[LIBRARY_SIZE]);
+		replace(mcdir.getAsset(truncatedAsset), new byte[ASSET_SIZE / 2]);
+		// a wrong file in the store, which all the links see
+		Files.write(storedLibrary(wrongStoredLibrary).toPath(), new byte[LIBRARY_SIZE]);
+
+		long bytes = server.getBytesSent();
+		downloader.downloadIncrementally(mcdir, version, null, store, ChecksumOption.CHECK_LIBRARIES).get();
+		// only the wrong stored library is downloaded again
+		assertTrue(server.getBytesSent() - bytes < 2 * LIBRARY_SIZE);
+
+		for (Library library : Arrays.asList(wrongLibrary, wrongStoredLibrary)) {
+			File file = mcdir.getLibrary(library);
+			assertTrue(ChecksumUtils.verify(file, library.getDownloadInfo().getChecksum(), "SHA-1", LIBRARY_SIZE));
+			assertTrue(Files.isSameFile(storedLibrary(library).toPath(), file.toPath()));
+		}
+		File asset = mcdir.getAsset(truncatedAsset);
+		assertEquals(ASSET_SIZE, asset.length());
+		assertTrue(Files.isSameFile(new MinecraftDirectory(store.getRoot()).getAsset(truncatedAsset).toPath(), asset.toPath()));
+	}
+
+	@Test
+	public void testNewDirectoryCheckingLibraries() throws Exception {
+		MinecraftDirectory mcdir1 = new MinecraftDirectory(new File(root, "mc1"));
+		MinecraftDirectory mcdir2 = new MinecraftDirectory(new File(root, "mc2"));
+		// the libraries are downloaded to the store, and then linked from it
+		downloader.downloadIncrementally(mcdir1, version, null, store, ChecksumOption.CHECK_LIBRARIES).get();
+		downloader.downloadIncrementally(mcdir2, version, null, store, ChecksumOption.CHECK_LIBRARIES).get();
+
+		for (Library library : Versions.resolveVersion(mcdir2, version).getLibraries()) {
+			assertTrue(Files.isSameFile(mcdir1.getLibrary(library).toPath(), mcdir2.getLibrary(library).toPath()));
+		}
+	}
+
+	@Test
+	public void testCorruptedDownload() throws Exception {
+		MinecraftDirectory mcdir1 = new MinecraftDirectory(new File(root, "mc1"));
+		MinecraftDirectory mcdir2 = new MinecraftDirectory(new File(root, "mc2"));
+		downloader.downloadIncrementally(mcdir1, version, null).get();
+		Asset asset = Versions.resolveAssets(mcdir1, Versions.resolveVersion(mcdir1, version)).iterator().next();
+		String hash = asset.getHash();
+		server.put("resources/" + hash.substring(0, 2) + "/" + hash, new byte[ASSET_SIZE]);
+
+		downloader.downloadIncrementally(mcdir2, version, null, store).get();
+		// the bad object doesn't enter the store
+		assertFalse(new MinecraftDirectory(store.getRoot()).getAsset(asset).exists());
+		assertFalse(mcdir2.getAsset(asset).exists());
+	}
+
+	private File storedLibrary(Library library) {
+		return new MinecraftDirectory(new File(new File(store.getRoot(), "libraries"), library.getDownloadInfo().getChecksum().toLowerCase())).getLibrary(library);
+	}
+
+	private static void replace(File file, byte[] data) throws IOException {
+		Files.delete(file.toPath());
+		Files.write(file.toPath(), data);
+	}
+
+}
@@ -0,0 +1,603 @@
+package org.to2mbn.jmccc.internal.org.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A pull parser which reads a JSON document token by token, without building a
+ * {@link JSONObject} tree.
+ * <p>
+ * Objects are read with {@link #beginObject()}, then {@link #nextName()} and a
+ * value for each member while {@link #hasNext()} returns true, then
+ * {@link #endObject()}. Arrays are read in the same way with
+ * {@link #beginArray()} and {@link #endArray()}. Unwanted values can be skipped
+ * with {@link #skipValue()}, and {@link #nextValue()} materializes a value (such
+ * as a subtree which is kept as a JSONObject) in the same form as
+ * {@link JSONTokener#nextValue()} does.
+ * <p>
+ * All the syntax errors are reported as {@link JSONException}s, and so are the
+ * I/O errors of the underlying reader.
+ */
+public class JSONPullParser implements Closeable {
+
+	public static enum Token {
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		NAME,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL,
+		END_DOCUMENT
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private Reader reader;
+	private char[] buffer = new char[8192];
+	private int pos;
+	private int limit;
+	private long consumed;
+
+	private int[] scopes = new int[32];
+	private int depth;
+
+	private Token peeked;
+	private StringBuilder builder = new StringBuilder();
+
+	public JSONPullParser(Reader reader) {
+		if (reader == null) {
+			throw new NullPointerException();
+		}
+		this.reader = reader;
+		scopes[depth++] = EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * Returns the type of the next token without consuming it.
+	 *
+	 * @return the type of the next token
+	 * @throws JSONException if a syntax error or an I/O error occurs
+	 */
+	public Token peek() throws JSONException {
+		if (peeked == null) {
+			peeked = doPeek();
+		}
+		return peeked;
+	}
+
+	/**
+	 * Returns true if the current array or object has more elements.
+	 *
+	 * @return true if the current array or object has more elements
+	 * @throws JSONException if a syntax error or an I/O error occurs
+	 */
+	public boolean hasNext() throws JSONException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws JSONException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws JSONException {
+		expect(Token.END_OBJECT);
+		depth--;
+	}
+
+	public void beginArray() throws JSONException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws JSONException {
+		expect(Token.END_ARRAY);
+		depth--;
+	}
+
+	public String nextName() throws JSONException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+	/**
+	 * Consumes a string value. A number is returned in its literal form.
+	 *
+	 * @return the string
+	 * @throws JSONException if the next token is neither a string nor a number,
+	 *             or a syntax error or an I/O error occurs
+	 */
+	public String nextString() throws JSONException {
+		Token token = peek();
+		if (token == Token.STRING) {
+			peeked = null;
+			return readString();
+		} else if (token == Token.NUMBER) {
+			peeked = null;
+			return readLiteral();
+		}
+		throw syntaxError("Expected STRING but was " + token);
+	}
+
+	/**
+	 * Consumes a string value, or a null.
+	 *
+	 * @return the string, null if the value is null
+	 * @throws JSONException if the next token is neither a string, a number
+	 *             nor a null, or a syntax error or an I/O error occurs
+	 */
+	public String nextStringOrNull() throws JSONException {
+		if (peek() == Token.NULL) {
+			nextNull();
+			return null;
+		}
+		return nextString();
+	}
+
+	/**
+	 * Consumes a number value and converts it to an int. As
+	 * {@link JSONObject#getInt(String)} does, a string containing a number is
+	 * also accepted.
+	 *
+	 * @return the int value
+	 * @throws JSONException if the next token is not a number, or a syntax
+	 *             error or an I/O error occurs
+	 */
+	public int nextInt() throws JSONException {
+		return (int) nextLong();
+	}
+
+	/**
+	 * Consumes a number value and converts it to a long. As
+	 * {@link JSONObject#getLong(String)} does, a string containing a number is
+	 * also accepted.
+	 *
+	 * @return the long value
+	 * @throws JSONException if the next token is not a number, or a syntax
+	 *             error or an I/O error occurs
+	 */
+	public long nextLong() throws JSONException {
+		Token token = peek();
+		String literal;
+		if (token == Token.NUMBER) {
+			peeked = null;
+			literal = readLiteral();
+		} else if (token == Token.STRING) {
+			peeked = null;
+			literal = readString();
+		} else {
+			throw syntaxError("Expected NUMBER but was " + token);
+		}
+		try {
+			return Long.parseLong(literal);
+		} catch (NumberFormatException e) {
+			try {
+				return (long) Double.parseDouble(literal);
+			} catch (NumberFormatException e1) {
+				throw syntaxError("Not a number: " + literal);
+			}
+		}
+	}
+
+	public boolean nextBoolean() throws JSONException {
+		expect(Token.BOOLEAN);
+		String literal = readLiteral();
+		if ("true".equals(literal)) {
+			return true;
+		} else if ("false".equals(literal)) {
+			return false;
+		}
+		throw syntaxError("Unexpected literal: " + literal);
+	}
+
+	public void nextNull() throws JSONException {
+		expect(Token.NULL);
+		String literal = readLiteral();
+		if (!"null".equals(literal)) {
+			throw syntaxError("Unexpected literal: " + literal);
+		}
+	}
+
+	/**
+	 * Consumes the next value, and returns it as a {@link JSONObject}, a
+	 * {@link JSONArray}, a String, a Number, a Boolean or
+	 * {@link JSONObject#NULL}.
+	 *
+	 * @return the value
+	 * @throws JSONException if a syntax error or an I/O error occurs
+	 */
+	public Object nextValue() throws JSONException {
+		Token token = peek();
+		switch (token) {
+			case BEGIN_OBJECT:
+				JSONObject object = new JSONObject();
+				beginObject();
+				while (hasNext()) {
+					String name = nextName();
+					if (object.has(name)) {
+						throw syntaxError("Duplicate key \"" + name + "\"");
+					}
+					object.put(name, nextValue());
+				}
+				endObject();
+				return object;
+
+			case BEGIN_ARRAY:
+				JSONArray array = new JSONArray();
+				beginArray();
+				while (hasNext()) {
+					array.put(nextValue());
+				}
+				endArray();
+				return array;
+
+			case STRING:
+				return nextString();
+
+			case NUMBER:
+				peeked = null;
+				return JSONObject.stringToValue(readLiteral());
+
+			case BOOLEAN:
+				return nextBoolean();
+
+			case NULL:
+				nextNull();
+				return JSONObject.NULL;
+
+			default:
+				throw syntaxError("Expected a value but was " + token);
+		}
+	}
+
+	/**
+	 * Consumes and returns the next value, which must be an object.
+	 *
+	 * @return the object
+	 * @throws JSONException if the next value is not an object, or a syntax
+	 *             error or an I/O error occurs
+	 */
+	public JSONObject nextObject() throws JSONException {
+		if (peek() != Token.BEGIN_OBJECT) {
+			throw syntaxError("Expected BEGIN_OBJECT but was " + peeked);
+		}
+		return (JSONObject) nextValue();
+	}
+
+	/**
+	 * Skips the next value, including all the nested values if it's an array
+	 * or an object.
+	 *
+	 * @throws JSONException if a syntax error or an I/O error occurs
+	 */
+	public void skipValue() throws JSONException {
+		int count = 0;
+		do {
+			Token token = peek();
+			switch (token) {
+				case BEGIN_OBJECT:
+					beginObject();
+					count++;
+					break;
+
+				case BEGIN_ARRAY:
+					beginArray();
+					count++;
+					break;
+
+				case END_OBJECT:
+					endObject();
+					count--;
+					break;
+
+				case END_ARRAY:
+					endArray();
+					count--;
+					break;
+
+				case NAME:
+					peeked = null;
+					skipString();
+					break;
+
+				case STRING:
+					peeked = null;
+					skipString();
+					break;
+
+				case NUMBER:
+				case BOOLEAN:
+				case NULL:
+					peeked = null;
+					readLiteral();
+					break;
+
+				default:
+					throw syntaxError("Expected a value but was " + token);
+			}
+		} while (count != 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	@Override
+	public String toString() {
+		return "JSONPullParser at character " + (consumed + pos);
+	}
+
+	private void expect(Token expected) throws JSONException {
+		Token token = peek();
+		if (token != expected) {
+			throw syntaxError("Expected " + expected + " but was " + token);
+		}
+		peeked = null;
+	}
+
+	private void push(int scope) {
+		if (depth == scopes.length) {
+			int[] newScopes = new int[depth * 2];
+			System.arraycopy(scopes, 0, newScopes, 0, depth);
+			scopes = newScopes;
+		}
+		scopes[depth++] = scope;
+	}
+
+	private Token doPeek() throws JSONException {
+		int scope = scopes[depth - 1];
+		int c;
+		switch (scope) {
+			case EMPTY_ARRAY:
+				scopes[depth - 1] = NONEMPTY_ARRAY;
+				c = nextClean();
+				if (c == ']') {
+					return Token.END_ARRAY;
+				}
+				pos--;
+				break;
+
+			case NONEMPTY_ARRAY:
+				c = nextClean();
+				if (c == ']') {
+					return Token.END_ARRAY;
+				} else if (c != ',') {
+					throw syntaxError("Expected a ',' or ']'");
+				}
+				break;
+
+			case EMPTY_OBJECT:
+			case NONEMPTY_OBJECT:
+				scopes[depth - 1] = DANGLING_NAME;
+				c = nextClean();
+				if (c == '}') {
+					return Token.END_OBJECT;
+				}
+				if (scope == NONEMPTY_OBJECT) {
+					if (c != ',') {
+						throw syntaxError("Expected a ',' or '}'");
+					}
+					c = nextClean();
+				}
+				if (c != '"') {
+					throw syntaxError("Expected a name");
+				}
+				return Token.NAME;
+
+			case DANGLING_NAME:
+				scopes[depth - 1] = NONEMPTY_OBJECT;
+				if (nextClean() != ':') {
+					throw syntaxError("Expected a ':' after a key");
+				}
+				break;
+
+			case EMPTY_DOCUMENT:
+				scopes[depth - 1] = NONEMPTY_DOCUMENT;
+				break;
+
+			case NONEMPTY_DOCUMENT:
+				if (skipWhitespaces()) {
+					throw syntaxError("Unexpected content after the document");
+				}
+				return Token.END_DOCUMENT;
+
+			default:
+				throw new IllegalStateException("Unknown scope: " + scope);
+		}
+
+		c = nextClean();
+		switch (c) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+
+			case '[':
+				return Token.BEGIN_ARRAY;
+
+			case '"':
+				return Token.STRING;
+
+			case 't':
+			case 'f':
+				pos--;
+				return Token.BOOLEAN;
+
+			case 'n':
+				pos--;
+				return Token.NULL;
+
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					pos--;
+					return Token.NUMBER;
+				}
+				throw syntaxError("Unexpected character '" + (char) c + "'");
+		}
+	}
+
+	private boolean fill() throws JSONException {
+		consumed += pos;
+		limit -= pos;
+		if (limit > 0) {
+			System.arraycopy(buffer, pos, buffer, 0, limit);
+		}
+		pos = 0;
+		try {
+			int read;
+			while ((read = reader.read(buffer, limit, buffer.length - limit)) != -1) {
+				limit += read;
+				if (limit > 0) {
+					return true;
+				}
+			}
+		} catch (IOException e) {
+			throw new JSONException(e);
+		}
+		return false;
+	}
+
+	/**
+	 * Skips the whitespaces.
+	 *
+	 * @return true if there are more characters
+	 */
+	private boolean skipWhitespaces() throws JSONException {
+		for (;;) {
+			while (pos < limit) {
+				char c = buffer[pos];
+				if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+					return true;
+				}
+				pos++;
+			}
+			if (!fill()) {
+				return false;
+			}
+		}
+	}
+
+	private char nextClean() throws JSONException {
+		if (!skipWhitespaces()) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return buffer[pos++];
+	}
+
+	private String readString() throws JSONException {
+		builder.setLength(0);
+		readString(true);
+		return builder.toString();
+	}
+
+	private void skipString() throws JSONException {
+		readString(false);
+	}
+
+	// the opening quote has been consumed
+	private void readString(boolean keep) throws JSONException {
+		for (;;) {
+			int start = pos;
+			while (pos < limit) {
+				char c = buffer[pos++];
+				if (c == '"') {
+					if (keep) {
+						builder.append(buffer, start, pos - start - 1);
+					}
+					return;
+				} else if (c == '\\') {
+					if (keep) {
+						builder.append(buffer, start, pos - start - 1);
+					}
+					char escaped = readEscape();
+					if (keep) {
+						builder.append(escaped);
+					}
+					start = pos;
+				} else if (c == '\n' || c == '\r') {
+					throw syntaxError("Unterminated string");
+				}
+			}
+			if (keep) {
+				builder.append(buffer, start, pos - start);
+			}
+			if (!fill()) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	private char readEscape() throws JSONException {
+		char c = nextChar();
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'f':
+				return '\f';
+			case 'r':
+				return '\r';
+			case 'u':
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = JSONTokener.dehexchar(nextChar());
+					if (digit == -1) {
+						throw syntaxError("Illegal escape.");
+					}
+					value = (value << 4) | digit;
+				}
+				return (char) value;
+			case '"':
+			case '\'':
+			case '\\':
+			case '/':
+				return c;
+			default:
+				throw syntaxError("Illegal escape.");
+		}
+	}
+
+	private char nextChar() throws JSONException {
+		if (pos == limit && !fill()) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return buffer[pos++];
+	}
+
+	private String readLiteral() throws JSONException {
+		builder.setLength(0);
+		for (;;) {
+			int start = pos;
+			while (pos < limit) {
+				char c = buffer[pos];
+				if (c == ',' || c == ']' || c == '}' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+					builder.append(buffer, start, pos - start);
+					return builder.toString();
+				}
+				pos++;
+			}
+			builder.append(buffer, start, pos - start);
+			if (!fill()) {
+				return builder.toString();
+			}
+		}
+	}
+
+	private JSONException syntaxError(String message) {
+		return new JSONException(message + " at character " + (consumed + pos));
+	}
+
+}
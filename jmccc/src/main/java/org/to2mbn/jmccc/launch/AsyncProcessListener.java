@@ -0,0 +1,153 @@
+package org.to2mbn.jmccc.launch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decouples the threads reading the output of the game process from a
+ * (probably slow) listener.
+ * <p>
+ * Logs are put into a {@link LogRingBuffer}, and delivered to the underlying
+ * listener by a drain task running on the given executor. The drain task is
+ * only submitted when there are logs to deliver, so an idle process doesn't
+ * occupy any thread.
+ * <p>
+ * Exceptions thrown by the underlying listener are printed, and don't stop the
+ * delivery of the following logs and the exit.
+ */
+class AsyncProcessListener implements ProcessListener, Runnable {
+
+	private static final int MAX_BATCH_SIZE = 256;
+	private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private ProcessListener listener;
+	private LogOverflowPolicy overflowPolicy;
+	private Executor executor;
+	private LogRingBuffer buffer;
+
+	private AtomicBoolean scheduled = new AtomicBoolean(false);
+	private AtomicBoolean exitDelivered = new AtomicBoolean(false);
+	private volatile boolean exited = false;
+	private volatile int exitCode;
+
+	public AsyncProcessListener(ProcessListener listener, int bufferSize, LogOverflowPolicy overflowPolicy, Executor executor) {
+		this.listener = listener;
+		this.overflowPolicy = overflowPolicy;
+		this.executor = executor;
+		this.buffer = new LogRingBuffer(bufferSize);
+	}
+
+	@Override
+	public void onLog(String log) {
+		put(new LogRingBuffer.Entry(log, false));
+	}
+
+	@Override
+	public void onErrorLog(String log) {
+		put(new LogRingBuffer.Entry(log, true));
+	}
+
+	@Override
+	public void onExit(int code) {
+		exitCode = code;
+		exited = true;
+		scheduleDrain();
+	}
+
+	private void put(LogRingBuffer.Entry entry) {
+		while (!buffer.offer(entry)) {
+			switch (overflowPolicy) {
+				case DROP_OLDEST:
+					buffer.poll();
+					break;
+
+				case BLOCK:
+					scheduleDrain();
+					LockSupport.parkNanos(BLOCK_PARK_NANOS);
+					break;
+			}
+		}
+		scheduleDrain();
+	}
+
+	private void scheduleDrain() {
+		if (scheduled.compareAndSet(false, true)) {
+			executor.execute(this);
+		}
+	}
+
+	@Override
+	public void run() {
+		do {
+			try {
+				drain();
+				if (exited && buffer.isEmpty() && exitDelivered.compareAndSet(false, true)) {
+					try {
+						listener.onExit(exitCode);
+					} catch (RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+			} finally {
+				// otherwise no drain would ever be scheduled again
+				scheduled.set(false);
+			}
+
+			// logs may have been put after the last poll
+		} while (hasPendingWork() && scheduled.compareAndSet(false, true));
+	}
+
+	private boolean hasPendingWork() {
+		return !buffer.isEmpty() || (exited && !exitDelivered.get());
+	}
+
+	private void drain() {
+		BatchProcessListener batchListener = listener instanceof BatchProcessListener ? (BatchProcessListener) listener : null;
+		List<String> batch = new ArrayList<>();
+		boolean batchIsErr = false;
+
+		LogRingBuffer.Entry entry;
+		while ((entry = buffer.poll()) != null) {
+			if (batchListener == null) {
+				try {
+					if (entry.isErr) {
+						listener.onErrorLog(entry.log);
+					} else {
+						listener.onLog(entry.log);
+					}
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				continue;
+			}
+
+			if (!batch.isEmpty() && (batchIsErr != entry.isErr || batch.size() >= MAX_BATCH_SIZE)) {
+				deliver(batchListener, batch, batchIsErr);
+				batch = new ArrayList<>();
+			}
+			batch.add(entry.log);
+			batchIsErr = entry.isErr;
+		}
+
+		if (!batch.isEmpty()) {
+			deliver(batchListener, batch, batchIsErr);
+		}
+	}
+
+	private void deliver(BatchProcessListener batchListener, List<String> batch, boolean isErr) {
+		try {
+			if (isErr) {
+				batchListener.onErrorLogs(batch);
+			} else {
+				batchListener.onLogs(batch);
+			}
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package org.to2mbn.jmccc.launch;
+
+import java.util.List;
+
+/**
+ * A {@link ProcessListener} which receives logs in batches.
+ * <p>
+ * When asynchronous logging is enabled (see
+ * {@link LauncherBuilder#asyncLogging(int, LogOverflowPolicy)}) and the
+ * listener implements this interface, the buffered logs will be passed to
+ * {@link #onLogs(List)} and {@link #onErrorLogs(List)} instead of
+ * {@link #onLog(String)} and {@link #onErrorLog(String)}. Otherwise, the
+ * listener is used as a normal {@link ProcessListener}.
+ */
+public interface BatchProcessListener extends ProcessListener {
+
+	/**
+	 * Called when receiving a batch of logs from stdout.
+	 *
+	 * @param logs the logs, in the order they were printed
+	 */
+	void onLogs(List<String> logs);
+
+	/**
+	 * Called when receiving a batch of logs from stderr.
+	 *
+	 * @param logs the logs, in the order they were printed
+	 */
+	void onErrorLogs(List<String> logs);
+
+}
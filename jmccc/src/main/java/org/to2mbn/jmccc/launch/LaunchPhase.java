@@ -0,0 +1,46 @@
+package org.to2mbn.jmccc.launch;
+
+/**
+ * The phases of launching the game, in the order they are performed.
+ *
+ * @see LaunchTracer
+ */
+public enum LaunchPhase {
+
+	/**
+	 * Checks whether any library is missing.
+	 */
+	CHECK_LIBRARIES,
+
+	/**
+	 * Extracts the natives into the natives directory.
+	 * <p>
+	 * The reported byte count is the number of bytes written to the natives
+	 * directory. Natives which are already up-to-date are not counted.
+	 */
+	EXTRACT_NATIVES,
+
+	/**
+	 * Copies the assets to the virtual legacy assets directory. This phase is
+	 * only performed for legacy versions.
+	 * <p>
+	 * The reported byte count is the number of bytes copied.
+	 */
+	BUILD_LEGACY_ASSETS,
+
+	/**
+	 * Calls {@link org.to2mbn.jmccc.auth.Authenticator#auth()}.
+	 */
+	AUTHENTICATE,
+
+	/**
+	 * Generates the launch commandline.
+	 */
+	GENERATE_COMMANDLINE,
+
+	/**
+	 * Starts the game process.
+	 */
+	START_PROCESS
+
+}
@@ -0,0 +1,32 @@
+package org.to2mbn.jmccc.launch;
+
+import org.to2mbn.jmccc.option.LaunchOption;
+
+/**
+ * Receives the timings of each phase of launching.
+ * <p>
+ * The tracer is called on the thread calling
+ * {@link Launcher#launch(LaunchOption, ProcessListener)}, so it should return
+ * quickly.
+ *
+ * @see LauncherBuilder#tracer(LaunchTracer)
+ */
+public interface LaunchTracer {
+
+	/**
+	 * Called when a launch phase completes successfully.
+	 * <p>
+	 * A phase which is skipped (such as
+	 * {@link LaunchPhase#BUILD_LEGACY_ASSETS} for non-legacy versions) won't be
+	 * reported. If a phase fails, it won't be reported either, and the launch
+	 * is aborted.
+	 *
+	 * @param option the launching configuration
+	 * @param phase the completed phase
+	 * @param durationNanos the time spent in the phase, in nanoseconds
+	 * @param bytes the number of bytes written in the phase, or -1 if the
+	 *            phase doesn't write files
+	 */
+	void onPhaseCompleted(LaunchOption option, LaunchPhase phase, long durationNanos, long bytes);
+
+}
@@ -1,5 +1,11 @@
 package org.to2mbn.jmccc.launch;
 
+import java.util.Objects;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.to2mbn.jmccc.util.Builder;
 
 /**
@@ -30,6 +36,10 @@ public class LauncherBuilder implements Builder<Launcher> {
 	private boolean nativeFastCheck = false;
 	private boolean printDebugCommandline = false;
 	private boolean useDaemonThreads = false;
+	private int sharedIOThreads = 0;
+	private int asyncLogBufferSize = 0;
+	private LogOverflowPolicy logOverflowPolicy = LogOverflowPolicy.DROP_OLDEST;
+	private LaunchTracer tracer;
 
 	protected LauncherBuilder() {}
 
@@ -89,6 +99,78 @@ public class LauncherBuilder implements Builder<Launcher> {
 		return this;
 	}
 
+	/**
+	 * Sets the number of shared threads used to receive the output of the
+	 * game processes.
+	 * <p>
+	 * By default, the value is 0. In this case, the launcher starts dedicated
+	 * threads for each process it launches (two for the output, plus one for
+	 * waiting the exit if a listener is given).<br>
+	 * If the value is positive, all the processes launched by the launcher are
+	 * serviced by a fixed number of shared threads. The shared threads poll
+	 * the output streams and the exit of the processes, so the number of
+	 * threads doesn't grow with the number of processes. The daemon attribute
+	 * of the shared threads is controlled by
+	 * {@link #useDaemonThreads(boolean)}.
+	 * 
+	 * @param sharedIOThreads the number of shared threads, 0 to use dedicated
+	 *            threads for each process
+	 * @return the builder itself
+	 * @throws IllegalArgumentException if <code>sharedIOThreads &lt; 0</code>
+	 */
+	public LauncherBuilder sharedIOThreads(int sharedIOThreads) {
+		if (sharedIOThreads < 0) {
+			throw new IllegalArgumentException("sharedIOThreads < 0");
+		}
+		this.sharedIOThreads = sharedIOThreads;
+		return this;
+	}
+
+	/**
+	 * Sets whether to deliver logs to the {@link ProcessListener}
+	 * asynchronously.
+	 * <p>
+	 * By default, the value is 0. In this case, the listener is called on the
+	 * threads reading the output of the game process. A slow listener will
+	 * stall the pipe, and then block the game process when it writes logs.<br>
+	 * If the value is positive, the logs will be put into a lock-free ring
+	 * buffer of the given size, and delivered to the listener by a separate
+	 * thread. If the listener is a {@link BatchProcessListener}, the logs will
+	 * be delivered in batches. When the buffer is full, the given policy
+	 * decides whether to discard the oldest log or to wait for the listener.
+	 * <p>
+	 * This option has no effect on {@link RawProcessListener}s.
+	 * 
+	 * @param bufferSize the size of the ring buffer, 0 to disable asynchronous
+	 *            logging
+	 * @param overflowPolicy what to do when the buffer is full
+	 * @return the builder itself
+	 * @throws IllegalArgumentException if <code>bufferSize &lt; 0</code>
+	 * @throws NullPointerException if <code>overflowPolicy==null</code>
+	 */
+	public LauncherBuilder asyncLogging(int bufferSize, LogOverflowPolicy overflowPolicy) {
+		if (bufferSize < 0) {
+			throw new IllegalArgumentException("bufferSize < 0");
+		}
+		this.asyncLogBufferSize = bufferSize;
+		this.logOverflowPolicy = Objects.requireNonNull(overflowPolicy);
+		return this;
+	}
+
+	/**
+	 * Sets the tracer to receive the timings of each launch phase.
+	 * <p>
+	 * By default, no tracer is set.
+	 * 
+	 * @param tracer the tracer, null to disable tracing
+	 * @return the builder itself
+	 * @see LaunchPhase
+	 */
+	public LauncherBuilder tracer(LaunchTracer tracer) {
+		this.tracer = tracer;
+		return this;
+	}
+
 	/**
 	 * Creates a new <code>Launcher</code> instance according to the
 	 * configurations.
@@ -101,7 +183,28 @@ public class LauncherBuilder implements Builder<Launcher> {
 		launcher.setNativeFastCheck(nativeFastCheck);
 		launcher.setPrintDebugCommandline(printDebugCommandline);
 		launcher.setUseDaemonThreads(useDaemonThreads);
+		launcher.setTracer(tracer);
+		if (sharedIOThreads > 0) {
+			launcher.setMultiplexer(new ProcessIOMultiplexer(sharedIOThreads, useDaemonThreads));
+		}
+		if (asyncLogBufferSize > 0) {
+			launcher.setAsyncLogging(createLogDispatcher(), asyncLogBufferSize, logOverflowPolicy);
+		}
 		return launcher;
 	}
 
+	private ThreadPoolExecutor createLogDispatcher() {
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		final boolean daemon = useDaemonThreads;
+		return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "log-dispatcher-" + threadNumber.getAndIncrement());
+				t.setDaemon(daemon);
+				return t;
+			}
+		});
+	}
+
 }
@@ -12,6 +12,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import org.to2mbn.jmccc.auth.AuthInfo;
@@ -31,6 +32,11 @@ class LauncherImpl implements Launcher {
 	private boolean nativeFastCheck = false;
 	private boolean printDebugCommandline = false;
 	private boolean useDaemonThreads = false;
+	private ProcessIOMultiplexer multiplexer;
+	private Executor logDispatcher;
+	private int logBufferSize;
+	private LogOverflowPolicy logOverflowPolicy;
+	private LaunchTracer tracer;
 
 	public LauncherImpl() {
 	}
@@ -57,23 +63,50 @@ class LauncherImpl implements Launcher {
 		this.useDaemonThreads = useDaemonThreads;
 	}
 
+	public void setMultiplexer(ProcessIOMultiplexer multiplexer) {
+		this.multiplexer = multiplexer;
+	}
+
+	public void setAsyncLogging(Executor logDispatcher, int logBufferSize, LogOverflowPolicy logOverflowPolicy) {
+		this.logDispatcher = logDispatcher;
+		this.logBufferSize = logBufferSize;
+		this.logOverflowPolicy = logOverflowPolicy;
+	}
+
+	public void setTracer(LaunchTracer tracer) {
+		this.tracer = tracer;
+	}
+
 	private Process launch(LaunchArgument arg, ProcessListener listener) throws LaunchException {
+		LaunchOption option = arg.getLaunchOption();
+
+		long start = System.nanoTime();
 		String[] commandline = arg.generateCommandline();
+		trace(option, LaunchPhase.GENERATE_COMMANDLINE, start, -1);
+
 		if (printDebugCommandline) {
 			printDebugCommandline(commandline);
 		}
 
 		ProcessBuilder processBuilder = new ProcessBuilder(commandline);
-		processBuilder.directory(arg.getLaunchOption().getRuntimeDirectory().getRoot());
+		processBuilder.directory(option.getRuntimeDirectory().getRoot());
 
 		Process process;
+		start = System.nanoTime();
 		try {
 			process = processBuilder.start();
 		} catch (SecurityException | IOException e) {
 			throw new LaunchException("Couldn't start process", e);
 		}
+		trace(option, LaunchPhase.START_PROCESS, start, -1);
 
-		if (listener == null) {
+		if (logDispatcher != null && listener != null && !(listener instanceof RawProcessListener)) {
+			listener = new AsyncProcessListener(listener, logBufferSize, logOverflowPolicy, logDispatcher);
+		}
+
+		if (multiplexer != null) {
+			multiplexer.register(process, listener);
+		} else if (listener == null) {
 			startStreamPumps(process);
 		} else {
 			startStreamLoggers(process, listener, useDaemonThreads);
@@ -93,18 +126,22 @@ class LauncherImpl implements Launcher {
 		Version version = option.getVersion();
 
 		// check libraries
+		long start = System.nanoTime();
 		Set<Library> missing = version.getMissingLibraries(mcdir);
 		if (!missing.isEmpty()) {
 			throw new MissingDependenciesException(missing);
 		}
+		trace(option, LaunchPhase.CHECK_LIBRARIES, start, -1);
 
+		start = System.nanoTime();
+		long nativesBytes = 0;
 		Set<File> javaLibraries = new LinkedHashSet<>();
 		File nativesDir = mcdir.getNatives(version);
 		for (Library library : version.getLibraries()) {
 			File libraryFile = mcdir.getLibrary(library);
 			if (library instanceof Native) {
 				try {
-					decompressZipWithExcludes(libraryFile, nativesDir, ((Native) library).getExtractExcludes());
+					nativesBytes += decompressZipWithExcludes(libraryFile, nativesDir, ((Native) library).getExtractExcludes());
 				} catch (IOException e) {
 					throw new LaunchException("Couldn't uncompress " + libraryFile, e);
 				}
@@ -114,16 +151,22 @@ class LauncherImpl implements Launcher {
 		}
 		javaLibraries.add(mcdir.getVersionJar(version));
 		javaLibraries.addAll(option.extraClasspath());
+		trace(option, LaunchPhase.EXTRACT_NATIVES, start, nativesBytes);
 
 		if (version.isLegacy()) {
+			start = System.nanoTime();
+			long assetsBytes;
 			try {
-				buildLegacyAssets(mcdir, version);
+				assetsBytes = buildLegacyAssets(mcdir, version);
 			} catch (IOException e) {
 				throw new LaunchException("Couldn't build virtual assets", e);
 			}
+			trace(option, LaunchPhase.BUILD_LEGACY_ASSETS, start, assetsBytes);
 		}
 
+		start = System.nanoTime();
 		AuthInfo auth = option.getAuthenticator().auth();
+		trace(option, LaunchPhase.AUTHENTICATE, start, -1);
 
 		Map<String, String> tokens = new HashMap<>();
 		String token = auth.getToken();
@@ -148,17 +191,23 @@ class LauncherImpl implements Launcher {
 		return new LaunchArgument(option, tokens, javaLibraries, nativesDir);
 	}
 
-	private void buildLegacyAssets(MinecraftDirectory mcdir, Version version) throws IOException {
+	private long buildLegacyAssets(MinecraftDirectory mcdir, Version version) throws IOException {
+		long bytes = 0;
 		Set<Asset> assets = Versions.resolveAssets(mcdir, version);
 		if (assets != null)
-			for (Asset asset : assets)
+			for (Asset asset : assets) {
 				FileUtils.copyFile(mcdir.getAsset(asset), mcdir.getVirtualAsset(asset));
+				bytes += asset.getSize();
+			}
+		return bytes;
 	}
 
-	private void decompressZipWithExcludes(File zip, File outputDir, Set<String> excludes) throws IOException {
+	private long decompressZipWithExcludes(File zip, File outputDir, Set<String> excludes) throws IOException {
 		if (!outputDir.exists())
 			outputDir.mkdirs();
 
+		long written = 0;
+
 		try (ZipInputStream in = new ZipInputStream(new FileInputStream(zip))) {
 			ZipEntry entry;
 			byte[] buf = null;
@@ -217,6 +266,7 @@ class LauncherImpl implements Launcher {
 							try (OutputStream out = new FileOutputStream(outFile)) {
 								out.write(buf, 0, len);
 							}
+							written += len;
 						}
 					}
 				}
@@ -225,6 +275,13 @@ class LauncherImpl implements Launcher {
 			}
 		}
 
+		return written;
+	}
+
+	private void trace(LaunchOption option, LaunchPhase phase, long startNanos, long bytes) {
+		if (tracer != null) {
+			tracer.onPhaseCompleted(option, phase, System.nanoTime() - startNanos, bytes);
+		}
 	}
 
 	private void printDebugCommandline(String[] commandline) {
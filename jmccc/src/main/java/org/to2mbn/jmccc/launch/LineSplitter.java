@@ -0,0 +1,136 @@
+package org.to2mbn.jmccc.launch;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes the output of a process block by block, and splits it into lines.
+ * <p>
+ * Both <code>"\n"</code> and <code>"\r\n"</code> are recognized as line
+ * terminators, regardless of the current platform. The terminators are not
+ * included in the lines passed to the listener.
+ */
+class LineSplitter {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ProcessListener listener;
+	private boolean isErr;
+	private CharsetDecoder decoder;
+	private ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+	private CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+	private StringBuilder pending = new StringBuilder();
+
+	public LineSplitter(ProcessListener listener, boolean isErr, Charset charset) {
+		this.listener = listener;
+		this.isErr = isErr;
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Feeds a block of output.
+	 * <p>
+	 * Complete lines in the block are passed to the listener immediately. The
+	 * trailing partial line (and any incomplete multi-byte character) is kept
+	 * until more output arrives.
+	 *
+	 * @param b the buffer
+	 * @param off the start offset in the buffer
+	 * @param len the number of bytes
+	 */
+	public void feed(byte[] b, int off, int len) {
+		while (len > 0) {
+			int n = Math.min(len, bytes.remaining());
+			bytes.put(b, off, n);
+			off += n;
+			len -= n;
+
+			bytes.flip();
+			decode(false);
+			bytes.compact();
+		}
+	}
+
+	/**
+	 * Signals the end of the output, and passes the trailing partial line (if
+	 * any) to the listener.
+	 */
+	public void finish() {
+		bytes.flip();
+		decode(true);
+		bytes.clear();
+
+		CoderResult result;
+		do {
+			result = decoder.flush(chars);
+			drainChars();
+		} while (result.isOverflow());
+		decoder.reset();
+
+		if (pending.length() > 0) {
+			int len = pending.length();
+			if (pending.charAt(len - 1) == '\r') {
+				pending.setLength(len - 1);
+			}
+			emit(pending.toString());
+			pending.setLength(0);
+		}
+	}
+
+	private void decode(boolean endOfInput) {
+		CoderResult result;
+		do {
+			result = decoder.decode(bytes, chars, endOfInput);
+			drainChars();
+		} while (result.isOverflow());
+	}
+
+	private void drainChars() {
+		chars.flip();
+		split(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+		chars.clear();
+	}
+
+	private void split(char[] buf, int off, int len) {
+		int end = off + len;
+		int start = off;
+		for (int i = off; i < end; i++) {
+			if (buf[i] == '\n') {
+				int lineEnd = i;
+				if (lineEnd > start) {
+					if (buf[lineEnd - 1] == '\r') {
+						lineEnd--;
+					}
+				} else if (pending.length() > 0 && pending.charAt(pending.length() - 1) == '\r') {
+					// '\r' was at the end of the previous block
+					pending.setLength(pending.length() - 1);
+				}
+
+				if (pending.length() == 0) {
+					emit(new String(buf, start, lineEnd - start));
+				} else {
+					pending.append(buf, start, lineEnd - start);
+					emit(pending.toString());
+					pending.setLength(0);
+				}
+				start = i + 1;
+			}
+		}
+		pending.append(buf, start, end - start);
+	}
+
+	private void emit(String line) {
+		if (isErr) {
+			listener.onErrorLog(line);
+		} else {
+			listener.onLog(line);
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.to2mbn.jmccc.launch;
+
+/**
+ * Describes what to do when the log buffer between the game process and the
+ * {@link ProcessListener} is full.
+ *
+ * @see LauncherBuilder#asyncLogging(int, LogOverflowPolicy)
+ */
+public enum LogOverflowPolicy {
+
+	/**
+	 * Discards the oldest log in the buffer to make room for the new one.
+	 * <p>
+	 * The game process never waits for the listener, but logs may be lost if
+	 * the listener can't keep up.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Waits until the listener has consumed some logs.
+	 * <p>
+	 * No log is lost, but the game process may be blocked when writing its
+	 * output if the listener can't keep up.
+	 */
+	BLOCK
+
+}
@@ -0,0 +1,111 @@
+package org.to2mbn.jmccc.launch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer ring buffer of logs.
+ * <p>
+ * Each slot carries a sequence number which tells whether it is ready to be
+ * written or to be read in the current lap, so producers and consumers only
+ * contend on the tail and the head counters respectively.
+ */
+class LogRingBuffer {
+
+	static class Entry {
+
+		final String log;
+		final boolean isErr;
+
+		Entry(String log, boolean isErr) {
+			this.log = log;
+			this.isErr = isErr;
+		}
+
+	}
+
+	private int mask;
+	private Entry[] entries;
+	private AtomicLongArray sequences;
+	private AtomicLong head = new AtomicLong();
+	private AtomicLong tail = new AtomicLong();
+
+	public LogRingBuffer(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity < 1");
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		mask = size - 1;
+		entries = new Entry[size];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Inserts a log if the buffer is not full.
+	 *
+	 * @param entry the log
+	 * @return false if the buffer is full
+	 */
+	public boolean offer(Entry entry) {
+		long pos = tail.get();
+		int idx;
+		for (;;) {
+			idx = (int) pos & mask;
+			long diff = sequences.get(idx) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					break;
+				}
+				pos = tail.get();
+			} else if (diff < 0) {
+				// the slot hasn't been consumed in the last lap
+				return false;
+			} else {
+				pos = tail.get();
+			}
+		}
+		entries[idx] = entry;
+		sequences.set(idx, pos + 1);
+		return true;
+	}
+
+	/**
+	 * Removes the oldest log.
+	 *
+	 * @return the oldest log, or null if the buffer is empty
+	 */
+	public Entry poll() {
+		long pos = head.get();
+		int idx;
+		for (;;) {
+			idx = (int) pos & mask;
+			long diff = sequences.get(idx) - (pos + 1);
+			if (diff == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					break;
+				}
+				pos = head.get();
+			} else if (diff < 0) {
+				// the slot hasn't been written in this lap
+				return null;
+			} else {
+				pos = head.get();
+			}
+		}
+		Entry entry = entries[idx];
+		entries[idx] = null;
+		sequences.set(idx, pos + mask + 1);
+		return entry;
+	}
+
+	public boolean isEmpty() {
+		return head.get() >= tail.get();
+	}
+
+}
@@ -0,0 +1,268 @@
+package org.to2mbn.jmccc.launch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.to2mbn.jmccc.util.Platform;
+
+/**
+ * Services the output streams and the exit of many processes with a fixed
+ * number of threads.
+ * <p>
+ * Each process is assigned to one of the workers. A worker polls the streams of
+ * its processes, reads whatever is available without blocking, and detects the
+ * exit of the processes. When none of its processes produces output, the
+ * worker backs off for a short time. A worker thread terminates when it has no
+ * processes left, and is restarted when a new process is assigned to it.
+ * <p>
+ * If a listener throws an exception, the exception is printed and the output
+ * of the process is discarded from then on. The streams are still drained, so
+ * the process doesn't block on a full pipe. The other processes of the worker
+ * are not affected.
+ */
+class ProcessIOMultiplexer {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final long MIN_IDLE_SLEEP = 1;
+	private static final long MAX_IDLE_SLEEP = 50;
+
+	private Worker[] workers;
+	private boolean daemon;
+	private int next = 0;
+
+	public ProcessIOMultiplexer(int threads, boolean daemon) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads < 1");
+		}
+		this.daemon = daemon;
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker("process-io-" + i);
+		}
+	}
+
+	/**
+	 * Starts servicing the given process.
+	 * <p>
+	 * If <code>listener==null</code>, the output of the process will be
+	 * discarded.
+	 *
+	 * @param process the process
+	 * @param listener the listener, can be null
+	 */
+	public void register(Process process, ProcessListener listener) {
+		Worker worker;
+		synchronized (this) {
+			worker = workers[next];
+			next = (next + 1) % workers.length;
+		}
+		worker.register(new ProcessEntry(process, listener));
+	}
+
+	private class Worker implements Runnable {
+
+		private String name;
+		private List<ProcessEntry> incoming = new ArrayList<>();
+		private Thread thread;
+
+		public Worker(String name) {
+			this.name = name;
+		}
+
+		public synchronized void register(ProcessEntry entry) {
+			incoming.add(entry);
+			if (thread == null) {
+				thread = new Thread(this);
+				thread.setName(name);
+				thread.setDaemon(daemon);
+				thread.start();
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				service();
+			} finally {
+				synchronized (this) {
+					// let register() start a new thread, even if this one died unexpectedly
+					if (thread == Thread.currentThread()) {
+						thread = null;
+					}
+				}
+			}
+		}
+
+		private void service() {
+			List<ProcessEntry> entries = new ArrayList<>();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long idleSleep = MIN_IDLE_SLEEP;
+
+			for (;;) {
+				synchronized (this) {
+					entries.addAll(incoming);
+					incoming.clear();
+					if (entries.isEmpty()) {
+						thread = null;
+						return;
+					}
+				}
+
+				boolean progressed = false;
+				Iterator<ProcessEntry> it = entries.iterator();
+				while (it.hasNext()) {
+					ProcessEntry entry = it.next();
+					try {
+						if (entry.poll(buffer)) {
+							progressed = true;
+						}
+					} catch (RuntimeException e) {
+						// thrown by the listener
+						e.printStackTrace();
+						entry.discardOutput();
+						continue;
+					}
+					if (entry.isDone()) {
+						it.remove();
+					}
+				}
+
+				if (progressed) {
+					idleSleep = MIN_IDLE_SLEEP;
+				} else {
+					try {
+						Thread.sleep(idleSleep);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+					idleSleep = Math.min(idleSleep * 2, MAX_IDLE_SLEEP);
+				}
+			}
+		}
+
+	}
+
+	private static class ProcessEntry {
+
+		private Process process;
+		private ProcessListener listener;
+		private InputStream stdout;
+		private InputStream stderr;
+		private LineSplitter stdoutSplitter;
+		private LineSplitter stderrSplitter;
+		private boolean done = false;
+
+		public ProcessEntry(Process process, ProcessListener listener) {
+			this.process = process;
+			this.listener = listener;
+			this.stdout = process.getInputStream();
+			this.stderr = process.getErrorStream();
+			if (listener != null && !(listener instanceof RawProcessListener)) {
+				Charset charset = Charset.forName(Platform.getEncoding());
+				stdoutSplitter = new LineSplitter(listener, false, charset);
+				stderrSplitter = new LineSplitter(listener, true, charset);
+			}
+		}
+
+		/**
+		 * Reads the available output of the process, and checks whether the
+		 * process has terminated.
+		 *
+		 * @param buffer the buffer to use
+		 * @return true if any output was read
+		 */
+		public boolean poll(byte[] buffer) {
+			// check the exit before reading, so that the output written before
+			// the exit will be drained by the reads below
+			Integer exitCode = exitCode();
+
+			boolean progressed = false;
+			if (stdout != null && pollStream(stdout, false, buffer)) {
+				progressed = true;
+			}
+			if (stderr != null && pollStream(stderr, true, buffer)) {
+				progressed = true;
+			}
+
+			if (!progressed && exitCode != null) {
+				if (stdoutSplitter != null) {
+					stdoutSplitter.finish();
+					stderrSplitter.finish();
+				}
+				if (listener != null) {
+					listener.onExit(exitCode);
+				}
+				done = true;
+			}
+			return progressed;
+		}
+
+		public boolean isDone() {
+			return done;
+		}
+
+		/**
+		 * Stops delivering to the listener, but keeps draining the streams.
+		 */
+		public void discardOutput() {
+			listener = null;
+			stdoutSplitter = null;
+			stderrSplitter = null;
+		}
+
+		private boolean pollStream(InputStream in, boolean isErr, byte[] buffer) {
+			try {
+				int available = in.available();
+				if (available <= 0) {
+					return false;
+				}
+				int read = in.read(buffer, 0, Math.min(available, buffer.length));
+				if (read == -1) {
+					closeStream(isErr);
+					return false;
+				}
+				deliver(isErr, buffer, read);
+				return true;
+			} catch (IOException e) {
+				e.printStackTrace();
+				closeStream(isErr);
+				return false;
+			}
+		}
+
+		private void deliver(boolean isErr, byte[] buffer, int len) {
+			if (listener == null) {
+				return;
+			}
+			if (stdoutSplitter != null) {
+				(isErr ? stderrSplitter : stdoutSplitter).feed(buffer, 0, len);
+			} else if (isErr) {
+				((RawProcessListener) listener).onErrorOutput(buffer, 0, len);
+			} else {
+				((RawProcessListener) listener).onOutput(buffer, 0, len);
+			}
+		}
+
+		private void closeStream(boolean isErr) {
+			if (isErr) {
+				stderr = null;
+			} else {
+				stdout = null;
+			}
+		}
+
+		private Integer exitCode() {
+			try {
+				return process.exitValue();
+			} catch (IllegalThreadStateException e) {
+				// the process hasn't terminated yet
+				return null;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+package org.to2mbn.jmccc.launch;
+
+/**
+ * A {@link ProcessListener} which receives the output of the game process in
+ * raw byte chunks.
+ * <p>
+ * If the listener passed to {@link Launcher#launch(org.to2mbn.jmccc.option.LaunchOption, ProcessListener)}
+ * implements this interface, the output won't be decoded or split into lines.
+ * {@link #onOutput(byte[], int, int)} and
+ * {@link #onErrorOutput(byte[], int, int)} will be called instead of
+ * {@link #onLog(String)} and {@link #onErrorLog(String)}.
+ */
+public interface RawProcessListener extends ProcessListener {
+
+	/**
+	 * Called when receiving a chunk of output from stdout.
+	 * <p>
+	 * The array will be reused after this method returns. Copy the data if you
+	 * need to keep it.
+	 *
+	 * @param data the buffer containing the output
+	 * @param offset the start offset of the output in the buffer
+	 * @param length the length of the output
+	 */
+	void onOutput(byte[] data, int offset, int length);
+
+	/**
+	 * Called when receiving a chunk of output from stderr.
+	 * <p>
+	 * The array will be reused after this method returns. Copy the data if you
+	 * need to keep it.
+	 *
+	 * @param data the buffer containing the output
+	 * @param offset the start offset of the output in the buffer
+	 * @param length the length of the output
+	 */
+	void onErrorOutput(byte[] data, int offset, int length);
+
+}
@@ -2,12 +2,13 @@ package org.to2mbn.jmccc.launch;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.Charset;
 import org.to2mbn.jmccc.util.Platform;
 
 class StreamLogger implements Runnable {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private ProcessListener listener;
 	private boolean isErr;
 	private InputStream in;
@@ -20,45 +21,46 @@ class StreamLogger implements Runnable {
 
 	@Override
 	public void run() {
-		char[] eol = Platform.getLineSeparator().toCharArray();
+		// no need for closing the stream
+		// because we don't need to close the underlying stream
 		try {
-			// no need for closing this
-			// because we don't need to close the underlying stream
-			Reader reader = new InputStreamReader(in, Platform.getEncoding());
+			if (listener instanceof RawProcessListener) {
+				pumpRaw((RawProcessListener) listener);
+			} else {
+				pumpLines();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 
-			StringBuilder buffer = new StringBuilder();
-			int ch;
-			while ((ch = reader.read()) != -1) {
-				buffer.append((char) ch);
+	private void pumpLines() throws IOException {
+		LineSplitter splitter = new LineSplitter(listener, isErr, Charset.forName(Platform.getEncoding()));
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			splitter.feed(buffer, 0, read);
 
-				if (buffer.length() >= eol.length) {
-					// check eol
-					boolean isEOL = true;
-					for (int i = 0; i < eol.length; i++) {
-						if (eol[i] != buffer.charAt(buffer.length() - eol.length + i)) {
-							isEOL = false;
-							break;
-						}
-					}
+			if (Thread.interrupted()) {
+				return;
+			}
+		}
+		splitter.finish();
+	}
 
-					if (isEOL) {
-						buffer.delete(buffer.length() - eol.length, buffer.length());
-						String log = buffer.toString();
-						buffer.delete(0, buffer.length());
-						if (isErr) {
-							listener.onErrorLog(log);
-						} else {
-							listener.onLog(log);
-						}
-					}
-				}
+	private void pumpRaw(RawProcessListener rawListener) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			if (isErr) {
+				rawListener.onErrorOutput(buffer, 0, read);
+			} else {
+				rawListener.onOutput(buffer, 0, read);
+			}
 
-				if (Thread.interrupted()) {
-					return;
-				}
+			if (Thread.interrupted()) {
+				return;
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
 	}
 
@@ -5,6 +5,8 @@ import java.io.InputStream;
 
 class StreamPump implements Runnable {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private InputStream in;
 
 	public StreamPump(InputStream in) {
@@ -13,9 +15,10 @@ class StreamPump implements Runnable {
 
 	@Override
 	public void run() {
+		byte[] buffer = new byte[BUFFER_SIZE];
 		try {
 			while (!Thread.interrupted()) {
-				if (in.read() == -1) {
+				if (in.read(buffer) == -1) {
 					break;
 				}
 			}
@@ -0,0 +1,152 @@
+package org.to2mbn.jmccc.util;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Reads a document written by {@link CompactWriter}.
+ * <p>
+ * The reader works on a byte array, and it's not thread-safe. However, the
+ * readers returned by {@link #readBlock()} are independent of this reader, so
+ * they can be read later (or never) from any thread.
+ *
+ * @see CompactWriter
+ */
+public class CompactReader {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Opens a document.
+	 *
+	 * @param data the document
+	 * @param magic the expected magic number
+	 * @param formatVersion the expected version of the document format
+	 * @return a reader positioned at the beginning of the body
+	 * @throws IOException if the document is corrupted, or the magic number or
+	 *             the format version doesn't match
+	 */
+	public static CompactReader open(byte[] data, int magic, int formatVersion) throws IOException {
+		CompactReader reader = new CompactReader(data, 0, data.length, null);
+		if (reader.readInt() != magic) {
+			throw new IOException("Bad magic number");
+		}
+		int actualVersion = reader.readInt();
+		if (actualVersion != formatVersion) {
+			throw new IOException("Unsupported format version: " + actualVersion);
+		}
+
+		int count = reader.readVarInt();
+		// each string takes at least one byte
+		if (count > reader.limit - reader.pos) {
+			throw new IOException("Corrupted string table");
+		}
+		String[] strings = new String[count];
+		for (int i = 0; i < count; i++) {
+			int length = reader.readVarInt();
+			reader.require(length);
+			strings[i] = new String(data, reader.pos, length, UTF_8);
+			reader.pos += length;
+		}
+		reader.strings = strings;
+		return reader;
+	}
+
+	private byte[] data;
+	private int pos;
+	private int limit;
+	private String[] strings;
+
+	private CompactReader(byte[] data, int pos, int limit, String[] strings) {
+		this.data = data;
+		this.pos = pos;
+		this.limit = limit;
+		this.strings = strings;
+	}
+
+	/**
+	 * Reads a block written by {@link CompactWriter#writeBlock(CompactWriter)},
+	 * and skips it in this reader.
+	 *
+	 * @return a reader of the block
+	 * @throws IOException if the document is corrupted
+	 */
+	public CompactReader readBlock() throws IOException {
+		int length = readVarInt();
+		require(length);
+		CompactReader block = new CompactReader(data, pos, pos + length, strings);
+		pos += length;
+		return block;
+	}
+
+	public boolean readBoolean() throws IOException {
+		require(1);
+		byte value = data[pos++];
+		if (value == 0) {
+			return false;
+		} else if (value == 1) {
+			return true;
+		}
+		throw new IOException("Bad boolean: " + value);
+	}
+
+	public int readVarInt() throws IOException {
+		long value = readVarLong();
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IOException("Varint out of range: " + value);
+		}
+		return (int) value;
+	}
+
+	public long readSignedVarLong() throws IOException {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public String readString() throws IOException {
+		int index = readVarInt();
+		if (index == 0) {
+			return null;
+		}
+		if (index > strings.length) {
+			throw new IOException("Bad string index: " + index);
+		}
+		return strings[index - 1];
+	}
+
+	/**
+	 * Returns true if all the data of this reader (or block) has been read.
+	 *
+	 * @return true if all the data has been read
+	 */
+	public boolean isEnd() {
+		return pos == limit;
+	}
+
+	private int readInt() throws IOException {
+		require(4);
+		int value = ((data[pos] & 0xff) << 24) | ((data[pos + 1] & 0xff) << 16) | ((data[pos + 2] & 0xff) << 8) | (data[pos + 3] & 0xff);
+		pos += 4;
+		return value;
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			require(1);
+			byte b = data[pos++];
+			value |= (long) (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Varint too long");
+	}
+
+	private void require(int length) throws IOException {
+		if (length < 0 || limit - pos < length) {
+			throw new IOException("Unexpected end of data");
+		}
+	}
+
+}
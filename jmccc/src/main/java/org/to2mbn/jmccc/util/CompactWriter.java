@@ -0,0 +1,148 @@
+package org.to2mbn.jmccc.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes a compact binary document, which can be read by {@link CompactReader}.
+ * <p>
+ * Integers are written as varints, and strings are written as indexes into a
+ * string table, so a string which occurs many times (such as a group id of the
+ * libraries) is only stored once. The string table is written before the body,
+ * so any part of the body can be decoded independently.
+ * <p>
+ * The document layout is:
+ *
+ * <pre>
+ * int magic
+ * int format version
+ * varint string count, then for each string: varint length, UTF-8 bytes
+ * body
+ * </pre>
+ *
+ * @see CompactReader
+ */
+public class CompactWriter {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private Map<String, Integer> strings;
+	private ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+	public CompactWriter() {
+		this(new LinkedHashMap<String, Integer>());
+	}
+
+	private CompactWriter(Map<String, Integer> strings) {
+		this.strings = strings;
+	}
+
+	/**
+	 * Creates a writer for a block, which shares the string table with this
+	 * writer. The block is appended to this writer by
+	 * {@link #writeBlock(CompactWriter)}, and can be skipped or read later with
+	 * {@link CompactReader#readBlock()}.
+	 *
+	 * @return a writer for a block
+	 */
+	public CompactWriter newBlock() {
+		return new CompactWriter(strings);
+	}
+
+	public void writeBlock(CompactWriter block) {
+		if (block.strings != strings) {
+			throw new IllegalArgumentException("The block doesn't belong to this writer");
+		}
+		byte[] data = block.body.toByteArray();
+		writeVarInt(data.length);
+		body.write(data, 0, data.length);
+	}
+
+	public void writeBoolean(boolean value) {
+		body.write(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a non-negative int as an unsigned varint.
+	 *
+	 * @param value the int to write
+	 * @throws IllegalArgumentException if <code>value &lt; 0</code>
+	 */
+	public void writeVarInt(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("value < 0");
+		}
+		writeVarLong(value & 0xffffffffL);
+	}
+
+	/**
+	 * Writes a long in zigzag encoding, so small negative numbers (such as -1)
+	 * take only one byte.
+	 *
+	 * @param value the long to write
+	 */
+	public void writeSignedVarLong(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	/**
+	 * Writes a nullable string as an index into the string table.
+	 *
+	 * @param value the string to write, can be null
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			writeVarInt(0);
+			return;
+		}
+		Integer index = strings.get(value);
+		if (index == null) {
+			index = strings.size();
+			strings.put(value, index);
+		}
+		writeVarInt(index + 1);
+	}
+
+	/**
+	 * Writes the whole document.
+	 *
+	 * @param out the stream to write to
+	 * @param magic the magic number identifying the document type
+	 * @param formatVersion the version of the document format
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(OutputStream out, int magic, int formatVersion) throws IOException {
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(magic);
+		header.writeInt(formatVersion);
+
+		ByteArrayOutputStream table = new ByteArrayOutputStream();
+		writeVarLong(table, strings.size());
+		for (String string : strings.keySet()) {
+			byte[] bytes = string.getBytes(UTF_8);
+			writeVarLong(table, bytes.length);
+			table.write(bytes, 0, bytes.length);
+		}
+		table.writeTo(header);
+		body.writeTo(header);
+		header.flush();
+	}
+
+	private void writeVarLong(long value) {
+		writeVarLong(body, value);
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7fL) != 0) {
+			out.write((int) ((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+}
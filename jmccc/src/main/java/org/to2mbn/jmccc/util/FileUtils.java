@@ -3,11 +3,33 @@ package org.to2mbn.jmccc.util;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public final class FileUtils {
 
+	/**
+	 * The age after which a part file is considered to be left by a crashed
+	 * process.
+	 */
+	private static final long STALE_PART_AGE = TimeUnit.DAYS.toMillis(1);
+
+	// Files.createTempFile() defaults to rw-------, but the part files become the downloaded files, so the umask decides as usual
+	private static final FileAttribute<?>[] PART_FILE_ATTRIBUTES = FileSystems.getDefault().supportedFileAttributeViews().contains("posix")
+			? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-rw-rw-")) }
+			: new FileAttribute<?>[0];
+
 	public static void mkdirs(File dir) throws IOException {
 		if (!dir.mkdirs()) {
 			throw new IOException("Cannot mkdirs: " + dir);
@@ -21,6 +43,82 @@ public final class FileUtils {
 		}
 	}
 
+	/**
+	 * Creates the parent directories of all the given files.
+	 * <p>
+	 * Each distinct directory is checked only once, so this is much cheaper
+	 * than calling {@link #prepareWrite(File)} for each file when the files
+	 * share a few directories.
+	 * 
+	 * @param files the files to write
+	 * @throws IOException if a directory cannot be created
+	 */
+	public static void prepareWrite(Collection<File> files) throws IOException {
+		Set<File> checked = new HashSet<>();
+		for (File file : files) {
+			File parent = file.getParentFile();
+			if (parent != null && checked.add(parent) && !parent.isDirectory()) {
+				// another thread may have created it
+				if (!parent.mkdirs() && !parent.isDirectory()) {
+					throw new IOException("Cannot mkdirs: " + parent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a new empty part file next to the given target, named
+	 * <code>&lt;target name&gt;.&lt;random&gt;.part</code>.
+	 * <p>
+	 * The name is unique across threads and processes, so the same target can
+	 * be written by several sessions at once, e.g. by hedged requests or by
+	 * another launcher sharing the directory. The part files of the target
+	 * which haven't been modified for a day are left by crashed processes,
+	 * and are deleted.
+	 * <p>
+	 * The parent directories are created if necessary.
+	 * 
+	 * @param target the file to be written through the part file
+	 * @return the part file
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static File createPartFile(File target) throws IOException {
+		File dir = target.getAbsoluteFile().getParentFile();
+		String prefix = target.getName() + ".";
+		deleteStaleParts(dir, prefix);
+
+		Path part;
+		try {
+			part = Files.createTempFile(dir.toPath(), prefix, ".part", PART_FILE_ATTRIBUTES);
+		} catch (NoSuchFileException e) {
+			// the directory usually exists, so it's only checked when the file can't be created
+			prepareWrite(target.getAbsoluteFile());
+			part = Files.createTempFile(dir.toPath(), prefix, ".part", PART_FILE_ATTRIBUTES);
+		}
+		return part.toFile();
+	}
+
+	private static void deleteStaleParts(File dir, final String prefix) {
+		File[] parts = dir.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(prefix) && name.endsWith(".part");
+			}
+		});
+		if (parts == null) {
+			return;
+		}
+		long staleBefore = System.currentTimeMillis() - STALE_PART_AGE;
+		for (File part : parts) {
+			long lastModified = part.lastModified();
+			if (lastModified != 0 && lastModified < staleBefore) {
+				// another process may have deleted it
+				part.delete();
+			}
+		}
+	}
+
 	public static void copyFile(File src, File target) throws IOException {
 		prepareWrite(target);
 		try (FileInputStream in = new FileInputStream(src); FileOutputStream out = new FileOutputStream(target)) {
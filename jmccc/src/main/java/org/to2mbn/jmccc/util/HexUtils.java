@@ -5,8 +5,12 @@ public final class HexUtils {
 	private static final char[] HEX = "0123456789abcdef".toCharArray();
 
 	public static String bytesToHex(byte[] bytes) {
-		char[] str = new char[bytes.length << 1];
-		for (int i = 0, j = 0; i < bytes.length; i++) {
+		return bytesToHex(bytes, 0, bytes.length);
+	}
+
+	public static String bytesToHex(byte[] bytes, int offset, int length) {
+		char[] str = new char[length << 1];
+		for (int i = offset, j = 0; i < offset + length; i++) {
 			str[j++] = HEX[(bytes[i] & 0xf0) >>> 4];
 			str[j++] = HEX[bytes[i] & 0x0f];
 		}
@@ -1,6 +1,7 @@
 package org.to2mbn.jmccc.util;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.File;
@@ -12,6 +13,7 @@ import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
 import org.to2mbn.jmccc.internal.org.json.JSONTokener;
 
 public final class IOUtils {
@@ -26,6 +28,18 @@ public final class IOUtils {
 		return new JSONObject(toString(data));
 	}
 
+	public static JSONPullParser toJsonParser(File file) throws IOException {
+		return new JSONPullParser(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+	}
+
+	public static JSONPullParser toJsonParser(byte[] data) {
+		try {
+			return new JSONPullParser(new InputStreamReader(new ByteArrayInputStream(data), "UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 is not supported", e);
+		}
+	}
+
 	public static String toString(File file) throws IOException {
 		try (InputStream in = new FileInputStream(file)) {
 			return toString(in);
@@ -0,0 +1,511 @@
+package org.to2mbn.jmccc.version;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.to2mbn.jmccc.util.HexUtils;
+
+/**
+ * A compact, immutable asset index.
+ * <p>
+ * Unlike a <code>Set&lt;Asset&gt;</code>, this class doesn't hold an
+ * {@link Asset} object for each entry. The virtual paths are kept in a sorted
+ * string table, the SHA-1 hashes are packed into a single byte array (20 bytes
+ * per entry), and the sizes are kept in an int array. Assets can be looked up
+ * by virtual path or by hash with binary searches, and {@link Asset} objects
+ * are only created on demand.
+ * <p>
+ * The index can be written to a binary form with
+ * {@link #writeTo(OutputStream, long, long)}, and read back with
+ * {@link #readFrom(ByteBuffer, long, long)} without parsing any json.
+ *
+ * @see org.to2mbn.jmccc.version.parsing.Versions#resolveAssetIndex(org.to2mbn.jmccc.option.MinecraftDirectory,
+ *      String)
+ */
+public final class AssetIndex implements Serializable {
+
+	/**
+	 * Builder for {@link AssetIndex}.
+	 */
+	public static class Builder implements org.to2mbn.jmccc.util.Builder<AssetIndex> {
+
+		private String[] paths = new String[64];
+		private byte[] hashes = new byte[64 * HASH_LENGTH];
+		private int[] sizes = new int[64];
+		private int count = 0;
+
+		/**
+		 * Adds an asset.
+		 * <p>
+		 * If an asset with the same virtual path has been added, it will be
+		 * replaced.
+		 *
+		 * @param virtualPath the virtual path
+		 * @param hash the sha1 hash in hex
+		 * @param size the size
+		 * @return the builder itself
+		 * @throws NullPointerException if
+		 *             <code>virtualPath == null || hash == null</code>
+		 * @throws IllegalArgumentException if the hash is not a valid SHA-1
+		 *             hash, or <code>size &lt; 0</code>
+		 */
+		public Builder add(String virtualPath, String hash, int size) {
+			Objects.requireNonNull(virtualPath);
+			Objects.requireNonNull(hash);
+			if (hash.length() != HASH_LENGTH * 2)
+				throw new IllegalArgumentException("Invalid SHA-1 hash: " + hash);
+			if (size < 0)
+				throw new IllegalArgumentException("size < 0");
+
+			ensureCapacity(count + 1);
+			paths[count] = virtualPath;
+			int off = count * HASH_LENGTH;
+			for (int i = 0; i < HASH_LENGTH; i++) {
+				hashes[off + i] = (byte) ((hexDigit(hash.charAt(i * 2)) << 4) | hexDigit(hash.charAt(i * 2 + 1)));
+			}
+			sizes[count] = size;
+			count++;
+			return this;
+		}
+
+		/**
+		 * Adds an asset.
+		 *
+		 * @param asset the asset
+		 * @return the builder itself
+		 * @throws NullPointerException if <code>asset == null</code>
+		 */
+		public Builder add(Asset asset) {
+			return add(asset.getVirtualPath(), asset.getHash(), asset.getSize());
+		}
+
+		@Override
+		public AssetIndex build() {
+			final String[] addedPaths = paths;
+			Integer[] order = new Integer[count];
+			for (int i = 0; i < count; i++) {
+				order[i] = i;
+			}
+			// stable, so entries with the same path stay in the order they
+			// were added
+			Arrays.sort(order, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return addedPaths[o1].compareTo(addedPaths[o2]);
+				}
+			});
+
+			int n = 0;
+			for (int i = 0; i < count; i++) {
+				if (i + 1 < count && addedPaths[order[i]].equals(addedPaths[order[i + 1]])) {
+					// replaced by a later one
+					continue;
+				}
+				order[n++] = order[i];
+			}
+
+			String[] newPaths = new String[n];
+			byte[] newHashes = new byte[n * HASH_LENGTH];
+			int[] newSizes = new int[n];
+			for (int i = 0; i < n; i++) {
+				int src = order[i];
+				newPaths[i] = addedPaths[src];
+				System.arraycopy(hashes, src * HASH_LENGTH, newHashes, i * HASH_LENGTH, HASH_LENGTH);
+				newSizes[i] = sizes[src];
+			}
+			return new AssetIndex(newPaths, newHashes, newSizes);
+		}
+
+		private void ensureCapacity(int required) {
+			if (required > paths.length) {
+				int newCapacity = Math.max(required, paths.length << 1);
+				paths = Arrays.copyOf(paths, newCapacity);
+				hashes = Arrays.copyOf(hashes, newCapacity * HASH_LENGTH);
+				sizes = Arrays.copyOf(sizes, newCapacity);
+			}
+		}
+
+		private static int hexDigit(char ch) {
+			int result = Character.digit(ch, 16);
+			if (result == -1) {
+				throw new IllegalArgumentException("invalid hexadecimal character: " + ch);
+			}
+			return result;
+		}
+
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int HASH_LENGTH = 20;
+	private static final int MAGIC = 0x4a4d4149; // "JMAI"
+	private static final int FORMAT_VERSION = 1;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Creates a new builder.
+	 *
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates an <code>AssetIndex</code> from the given assets.
+	 *
+	 * @param assets the assets
+	 * @return the asset index
+	 * @throws NullPointerException if <code>assets == null</code>
+	 */
+	public static AssetIndex of(Collection<Asset> assets) {
+		Builder builder = builder();
+		for (Asset asset : assets) {
+			builder.add(asset);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Reads an asset index which was written by
+	 * {@link #writeTo(OutputStream, long, long)}.
+	 * <p>
+	 * The stamp arguments describe the json which the index was built from.
+	 * If they don't match the stamp stored in the binary form, the binary form
+	 * is considered out-of-date and this method returns null.
+	 *
+	 * @param buffer the buffer to read from
+	 * @param sourceLastModified the last modified time of the source json
+	 * @param sourceLength the length of the source json
+	 * @return the asset index, or null if the binary form is out-of-date or
+	 *         in an unknown format
+	 * @throws IOException if the binary form is corrupted
+	 */
+	public static AssetIndex readFrom(ByteBuffer buffer, long sourceLastModified, long sourceLength) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+				return null;
+			if (buffer.getLong() != sourceLastModified || buffer.getLong() != sourceLength)
+				return null;
+
+			int n = buffer.getInt();
+			// each entry takes at least 26 bytes
+			if (n < 0 || n > buffer.remaining() / (HASH_LENGTH + 6))
+				throw new IOException("Invalid entry count: " + n);
+
+			String[] paths = new String[n];
+			byte[] scratch = new byte[256];
+			for (int i = 0; i < n; i++) {
+				int len = buffer.getShort() & 0xffff;
+				if (scratch.length < len)
+					scratch = new byte[len];
+				buffer.get(scratch, 0, len);
+				paths[i] = new String(scratch, 0, len, UTF_8);
+			}
+
+			byte[] hashes = new byte[n * HASH_LENGTH];
+			buffer.get(hashes);
+
+			int[] sizes = new int[n];
+			buffer.asIntBuffer().get(sizes);
+			buffer.position(buffer.position() + n * 4);
+
+			return new AssetIndex(paths, hashes, sizes);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated asset index", e);
+		}
+	}
+
+	private final String[] paths;
+	private final byte[] hashes;
+	private final int[] sizes;
+	private transient volatile int[] hashOrder;
+
+	private AssetIndex(String[] paths, byte[] hashes, int[] sizes) {
+		this.paths = paths;
+		this.hashes = hashes;
+		this.sizes = sizes;
+	}
+
+	/**
+	 * Returns the number of assets in the index.
+	 *
+	 * @return the number of assets
+	 */
+	public int size() {
+		return paths.length;
+	}
+
+	/**
+	 * Gets the virtual path of the i-th asset. The assets are sorted by their
+	 * virtual paths.
+	 *
+	 * @param i the index of the asset
+	 * @return the virtual path
+	 * @throws IndexOutOfBoundsException if <code>i</code> is out of range
+	 */
+	public String getVirtualPath(int i) {
+		return paths[i];
+	}
+
+	/**
+	 * Gets the sha1 hash (in hex) of the i-th asset.
+	 *
+	 * @param i the index of the asset
+	 * @return the sha1 hash
+	 * @throws IndexOutOfBoundsException if <code>i</code> is out of range
+	 */
+	public String getHash(int i) {
+		checkIndex(i);
+		return HexUtils.bytesToHex(hashes, i * HASH_LENGTH, HASH_LENGTH);
+	}
+
+	/**
+	 * Gets the size of the i-th asset.
+	 *
+	 * @param i the index of the asset
+	 * @return the size
+	 * @throws IndexOutOfBoundsException if <code>i</code> is out of range
+	 */
+	public int getSize(int i) {
+		return sizes[i];
+	}
+
+	/**
+	 * Creates an {@link Asset} object for the i-th asset.
+	 *
+	 * @param i the index of the asset
+	 * @return the asset
+	 * @throws IndexOutOfBoundsException if <code>i</code> is out of range
+	 */
+	public Asset get(int i) {
+		return new Asset(paths[i], getHash(i), sizes[i]);
+	}
+
+	/**
+	 * Finds the asset with the given virtual path.
+	 *
+	 * @param virtualPath the virtual path
+	 * @return the index of the asset, or -1 if not found
+	 */
+	public int indexOfPath(String virtualPath) {
+		int idx = Arrays.binarySearch(paths, virtualPath);
+		return idx < 0 ? -1 : idx;
+	}
+
+	/**
+	 * Finds an asset with the given sha1 hash.
+	 * <p>
+	 * If more than one asset has the given hash, any of them may be returned.
+	 *
+	 * @param hash the sha1 hash in hex
+	 * @return the index of the asset, or -1 if not found
+	 */
+	public int indexOfHash(String hash) {
+		if (hash.length() != HASH_LENGTH * 2)
+			return -1;
+		byte[] key;
+		try {
+			key = HexUtils.hexToBytes(hash);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+
+		int[] order = hashOrder();
+		int low = 0;
+		int high = order.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareHash(order[mid], key, 0);
+			if (cmp < 0)
+				low = mid + 1;
+			else if (cmp > 0)
+				high = mid - 1;
+			else
+				return order[mid];
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the asset with the given virtual path.
+	 *
+	 * @param virtualPath the virtual path
+	 * @return the asset, or null if not found
+	 */
+	public Asset getByPath(String virtualPath) {
+		int idx = indexOfPath(virtualPath);
+		return idx == -1 ? null : get(idx);
+	}
+
+	/**
+	 * Gets an asset with the given sha1 hash.
+	 *
+	 * @param hash the sha1 hash in hex
+	 * @return the asset, or null if not found
+	 */
+	public Asset getByHash(String hash) {
+		int idx = indexOfHash(hash);
+		return idx == -1 ? null : get(idx);
+	}
+
+	/**
+	 * Returns one asset for each distinct hash.
+	 * <p>
+	 * Assets with the same hash share the same object file, so this is the
+	 * list of the object files to download.
+	 *
+	 * @return the assets with distinct hashes
+	 */
+	public List<Asset> getUniqueObjects() {
+		int[] order = hashOrder();
+		List<Asset> result = new ArrayList<>(order.length);
+		for (int i = 0; i < order.length; i++) {
+			if (i > 0 && compareHash(order[i], hashes, order[i - 1] * HASH_LENGTH) == 0) {
+				continue;
+			}
+			result.add(get(order[i]));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns a view of the assets as a list, sorted by virtual path.
+	 * <p>
+	 * The {@link Asset} objects are created when they are accessed.
+	 *
+	 * @return a list view of the assets
+	 */
+	public List<Asset> asList() {
+		return new AbstractList<Asset>() {
+
+			@Override
+			public Asset get(int index) {
+				return AssetIndex.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return AssetIndex.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Converts the index to a set of {@link Asset}s, iterated in the order of
+	 * virtual paths.
+	 *
+	 * @return an unmodifiable set of the assets
+	 */
+	public Set<Asset> toAssetSet() {
+		return Collections.unmodifiableSet(new LinkedHashSet<>(asList()));
+	}
+
+	/**
+	 * Writes the index in binary form.
+	 *
+	 * @param out the stream to write to
+	 * @param sourceLastModified the last modified time of the source json
+	 * @param sourceLength the length of the source json
+	 * @throws IOException if an I/O error occurs
+	 * @see #readFrom(ByteBuffer, long, long)
+	 */
+	public void writeTo(OutputStream out, long sourceLastModified, long sourceLength) throws IOException {
+		DataOutputStream dout = new DataOutputStream(out);
+		dout.writeInt(MAGIC);
+		dout.writeInt(FORMAT_VERSION);
+		dout.writeLong(sourceLastModified);
+		dout.writeLong(sourceLength);
+		dout.writeInt(paths.length);
+		for (String path : paths) {
+			byte[] encoded = path.getBytes(UTF_8);
+			if (encoded.length > 0xffff)
+				throw new IOException("Virtual path too long: " + path);
+			dout.writeShort(encoded.length);
+			dout.write(encoded);
+		}
+		dout.write(hashes);
+		for (int size : sizes) {
+			dout.writeInt(size);
+		}
+		dout.flush();
+	}
+
+	private int[] hashOrder() {
+		int[] order = hashOrder;
+		if (order == null) {
+			Integer[] boxed = new Integer[paths.length];
+			for (int i = 0; i < boxed.length; i++) {
+				boxed[i] = i;
+			}
+			Arrays.sort(boxed, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return compareHash(o1, hashes, o2 * HASH_LENGTH);
+				}
+			});
+			order = new int[boxed.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = boxed[i];
+			}
+			hashOrder = order;
+		}
+		return order;
+	}
+
+	private int compareHash(int idx, byte[] other, int otherOff) {
+		int off = idx * HASH_LENGTH;
+		for (int i = 0; i < HASH_LENGTH; i++) {
+			int cmp = (hashes[off + i] & 0xff) - (other[otherOff + i] & 0xff);
+			if (cmp != 0)
+				return cmp;
+		}
+		return 0;
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= paths.length)
+			throw new IndexOutOfBoundsException(String.valueOf(i));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof AssetIndex) {
+			AssetIndex another = (AssetIndex) obj;
+			return Arrays.equals(paths, another.paths)
+					&& Arrays.equals(hashes, another.hashes)
+					&& Arrays.equals(sizes, another.sizes);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(hashes);
+	}
+
+	@Override
+	public String toString() {
+		return "AssetIndex [size=" + paths.length + "]";
+	}
+
+}
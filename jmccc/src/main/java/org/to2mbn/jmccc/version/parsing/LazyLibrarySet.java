@@ -0,0 +1,68 @@
+package org.to2mbn.jmccc.version.parsing;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.to2mbn.jmccc.util.CompactReader;
+import org.to2mbn.jmccc.version.Library;
+
+/**
+ * An unmodifiable set of libraries, which is decoded from a
+ * {@link VersionCodec} block on first access.
+ */
+class LazyLibrarySet extends AbstractSet<Library> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int size;
+	private transient CompactReader block;
+	private volatile Set<Library> libraries;
+
+	public LazyLibrarySet(CompactReader block, int size) {
+		this.block = block;
+		this.size = size;
+	}
+
+	@Override
+	public Iterator<Library> iterator() {
+		return decoded().iterator();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return decoded().contains(o);
+	}
+
+	private Set<Library> decoded() {
+		Set<Library> result = libraries;
+		if (result == null) {
+			synchronized (this) {
+				result = libraries;
+				if (result == null) {
+					try {
+						result = VersionCodec.readLibraries(block, size);
+					} catch (IOException e) {
+						throw new IllegalStateException("Corrupted libraries", e);
+					}
+					libraries = result;
+					// release the encoded document
+					block = null;
+				}
+			}
+		}
+		return result;
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		return decoded();
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.to2mbn.jmccc.version.parsing;
+
+import java.util.Objects;
+import org.to2mbn.jmccc.version.Library;
+
+/**
+ * Identifies a library in a version hierarchy, so a child version can override
+ * the library of its parent.
+ * <p>
+ * The keys are ordered as the strings
+ * <code>groupId:artifactId[:classifier]</code> are, without building the
+ * strings.
+ */
+class LibraryKey implements Comparable<LibraryKey> {
+
+	private final String groupId;
+	private final String artifactId;
+	private final String classifier;
+	private final int hash;
+
+	public LibraryKey(Library library) {
+		this.groupId = library.getGroupId();
+		this.artifactId = library.getArtifactId();
+		this.classifier = library.getClassifier();
+		this.hash = Objects.hash(groupId, artifactId, classifier);
+	}
+
+	@Override
+	public int compareTo(LibraryKey o) {
+		int len1 = length();
+		int len2 = o.length();
+		int limit = Math.min(len1, len2);
+		for (int i = 0; i < limit; i++) {
+			char c1 = charAt(i);
+			char c2 = o.charAt(i);
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return len1 - len2;
+	}
+
+	private int length() {
+		int length = groupId.length() + 1 + artifactId.length();
+		if (classifier != null) {
+			length += 1 + classifier.length();
+		}
+		return length;
+	}
+
+	private char charAt(int index) {
+		if (index < groupId.length()) {
+			return groupId.charAt(index);
+		}
+		index -= groupId.length();
+		if (index == 0) {
+			return ':';
+		}
+		index--;
+		if (index < artifactId.length()) {
+			return artifactId.charAt(index);
+		}
+		index -= artifactId.length();
+		if (index == 0) {
+			return ':';
+		}
+		return classifier.charAt(index - 1);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof LibraryKey) {
+			LibraryKey another = (LibraryKey) obj;
+			return hash == another.hash
+					&& groupId.equals(another.groupId)
+					&& artifactId.equals(another.artifactId)
+					&& Objects.equals(classifier, another.classifier);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return classifier == null
+				? groupId + ":" + artifactId
+				: groupId + ":" + artifactId + ":" + classifier;
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.to2mbn.jmccc.version.parsing;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+
+/**
+ * Evaluates the library rules for a specific platform.
+ * <p>
+ * The os version patterns are compiled and matched only once per distinct
+ * pattern.
+ * <p>
+ * This class is thread-safe.
+ */
+class RuleEvaluator {
+
+	private final PlatformDescription platform;
+	private final String platformName;
+
+	private final ConcurrentMap<String, Boolean> versionMatches = new ConcurrentHashMap<>();
+
+	public RuleEvaluator(PlatformDescription platform) {
+		this.platform = platform;
+		this.platformName = platform.getPlatform().name();
+	}
+
+	public PlatformDescription getPlatform() {
+		return platform;
+	}
+
+	public boolean isAllowed(JSONArray rules) throws JSONException {
+		// by default it's allowed
+		if (rules == null || rules.length() == 0) {
+			return true;
+		}
+		return evaluate(rules);
+	}
+
+	private boolean evaluate(JSONArray rules) throws JSONException {
+		// else it's disallow by default
+		boolean allow = false;
+		for (int i = 0; i < rules.length(); i++) {
+			JSONObject rule = rules.getJSONObject(i);
+
+			boolean action = rule.get("action").equals("allow");
+
+			// apply by default
+			boolean apply = true;
+
+			if (rule.has("os")) {
+				// don't apply by default if has os rule
+				apply = false;
+
+				JSONObject osRule = rule.getJSONObject("os");
+				String name = osRule.getString("name");
+				String version = osRule.optString("version", null);
+
+				if (platformName.equalsIgnoreCase(name)) {
+					if (version == null || matchesVersion(version)) {
+						apply = true;
+					}
+				}
+			}
+
+			if (apply) {
+				allow = action;
+			}
+		}
+		return allow;
+	}
+
+	private boolean matchesVersion(String regex) {
+		Boolean matches = versionMatches.get(regex);
+		if (matches == null) {
+			String version = platform.getVersion();
+			matches = version != null && Pattern.matches(regex, version);
+			versionMatches.put(regex, matches);
+		}
+		return matches;
+	}
+
+}
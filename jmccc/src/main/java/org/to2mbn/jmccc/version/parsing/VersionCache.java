@@ -0,0 +1,324 @@
+package org.to2mbn.jmccc.version.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Stack;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.option.MinecraftDirectory;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Version;
+
+/**
+ * Caches the resolved versions.
+ * <p>
+ * A cached version is keyed by the minecraft directory, the version name and
+ * the platform, and it is only returned if the modification time and the size
+ * of every json in its inheritance hierarchy are unchanged. So a cache hit
+ * costs two stats per json.
+ * <p>
+ * This class is thread-safe. Concurrent misses of the same version may resolve
+ * it more than once, and the last one wins.
+ */
+class VersionCache {
+
+	/**
+	 * The files modified within this period before they are read are not
+	 * cached, because a following modification may not change the timestamp
+	 * on file systems with a coarse timestamp granularity.
+	 */
+	static final long RACY_PERIOD = 2000;
+
+	private static class Key {
+
+		final MinecraftDirectory mcdir;
+		final String version;
+		final PlatformDescription platform;
+
+		Key(MinecraftDirectory mcdir, String version, PlatformDescription platform) {
+			this.mcdir = mcdir;
+			this.version = version;
+			this.platform = platform;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (obj instanceof Key) {
+				Key another = (Key) obj;
+				return mcdir.equals(another.mcdir)
+						&& version.equals(another.version)
+						&& platform.equals(another.platform);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mcdir, version, platform);
+		}
+	}
+
+	private static class FileStamp {
+
+		final File file;
+		final long lastModified;
+		final long length;
+
+		FileStamp(File file) {
+			this.file = file;
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+		}
+
+		boolean isUpToDate() {
+			return file.lastModified() == lastModified && file.length() == length;
+		}
+	}
+
+	private static class Entry {
+
+		final Version version;
+		final FileStamp[] stamps;
+
+		Entry(Version version, FileStamp[] stamps) {
+			this.version = version;
+			this.stamps = stamps;
+		}
+
+		boolean isUpToDate() {
+			for (FileStamp stamp : stamps) {
+				if (!stamp.isUpToDate()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class VersionJson {
+
+		final String name;
+		final FileStamp stamp;
+		final JSONObject json;
+		final String inheritsFrom;
+
+		VersionJson(String name, FileStamp stamp, JSONObject json) {
+			this.name = name;
+			this.stamp = stamp;
+			this.json = json;
+			this.inheritsFrom = json.optString("inheritsFrom", null);
+		}
+	}
+
+	private final VersionParser parser;
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	public VersionCache(VersionParser parser) {
+		this.parser = Objects.requireNonNull(parser);
+	}
+
+	/**
+	 * Resolves the version, returning the cached one if it's up-to-date.
+	 *
+	 * @param mcdir the minecraft directory
+	 * @param version the version name
+	 * @param platform the platform to resolve the libraries for
+	 * @return the version, null if the version does not exist
+	 * @throws IOException if an I/O error occurs
+	 * @throws JSONException if any json in the hierarchy is malformed
+	 */
+	public Version resolve(MinecraftDirectory mcdir, String version, PlatformDescription platform) throws IOException, JSONException {
+		Key key = new Key(mcdir, version, platform);
+		Version cached = getCached(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		if (!mcdir.getVersionJson(version).isFile()) {
+			entries.remove(key);
+			return null;
+		}
+
+		long readTime = System.currentTimeMillis();
+		List<VersionJson> hierarchy = new ArrayList<>();
+		String current = version;
+		do {
+			VersionJson json = readJson(mcdir, current);
+			hierarchy.add(json);
+			current = nextInHierarchy(hierarchy, json);
+		} while (current != null);
+
+		return parseAndStore(key, hierarchy, readTime);
+	}
+
+	/**
+	 * Resolves all the versions in the minecraft directory in parallel.
+	 * <p>
+	 * Each json is read at most once, even if it's the parent of many versions.
+	 * The versions which cannot be resolved (the json of the version or its
+	 * parent is missing or malformed) are excluded from the result.
+	 *
+	 * @param mcdir the minecraft directory
+	 * @param platform the platform to resolve the libraries for
+	 * @param executor the executor to read and parse the jsons
+	 * @return the resolved versions, key is the version name
+	 * @throws IOException if an I/O error occurs during listing the versions
+	 * @throws InterruptedException if the current thread is interrupted
+	 */
+	public Map<String, Version> resolveAll(final MinecraftDirectory mcdir, final PlatformDescription platform, ExecutorService executor) throws IOException, InterruptedException {
+		final long readTime = System.currentTimeMillis();
+
+		// 1. read the version jsons, unless the cached versions are up-to-date
+		Map<String, Future<Object>> reads = new TreeMap<>();
+		Path versionsDir = mcdir.getVersions().toPath();
+		if (Files.isDirectory(versionsDir)) {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(versionsDir)) {
+				for (Path subdir : stream) {
+					final String name = subdir.getFileName().toString();
+					reads.put(name, executor.submit(new Callable<Object>() {
+
+						@Override
+						public Object call() throws Exception {
+							Version cached = getCached(new Key(mcdir, name, platform));
+							if (cached != null) {
+								return cached;
+							}
+							if (!mcdir.getVersionJson(name).isFile()) {
+								return null;
+							}
+							return readJson(mcdir, name);
+						}
+					}));
+				}
+			}
+		}
+
+		Map<String, Version> result = new TreeMap<>();
+		final ConcurrentMap<String, VersionJson> jsons = new ConcurrentHashMap<>();
+		for (Map.Entry<String, Future<Object>> read : reads.entrySet()) {
+			Object value = await(read.getValue());
+			if (value instanceof Version) {
+				result.put(read.getKey(), (Version) value);
+			} else if (value instanceof VersionJson) {
+				jsons.put(read.getKey(), (VersionJson) value);
+			}
+		}
+
+		// 2. parse the versions, sharing the parent jsons
+		Map<String, Future<Object>> parses = new TreeMap<>();
+		for (final String name : new ArrayList<>(jsons.keySet())) {
+			parses.put(name, executor.submit(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					List<VersionJson> hierarchy = new ArrayList<>();
+					String current = name;
+					do {
+						VersionJson json = jsons.get(current);
+						if (json == null) {
+							// the parent isn't in the listing
+							json = readJson(mcdir, current);
+							VersionJson existing = jsons.putIfAbsent(current, json);
+							if (existing != null) {
+								json = existing;
+							}
+						}
+						hierarchy.add(json);
+						current = nextInHierarchy(hierarchy, json);
+					} while (current != null);
+					return parseAndStore(new Key(mcdir, name, platform), hierarchy, readTime);
+				}
+			}));
+		}
+		for (Map.Entry<String, Future<Object>> parse : parses.entrySet()) {
+			Object value = await(parse.getValue());
+			if (value != null) {
+				result.put(parse.getKey(), (Version) value);
+			}
+		}
+		return result;
+	}
+
+	private Version getCached(Key key) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.isUpToDate()) {
+			return entry.version;
+		}
+		return null;
+	}
+
+	private static String nextInHierarchy(List<VersionJson> hierarchy, VersionJson json) throws JSONException {
+		String parent = json.inheritsFrom;
+		if (parent != null) {
+			for (VersionJson child : hierarchy) {
+				if (parent.equals(child.name)) {
+					throw new JSONException("Circular inheritance: " + parent);
+				}
+			}
+		}
+		return parent;
+	}
+
+	private VersionJson readJson(MinecraftDirectory mcdir, String version) throws IOException, JSONException {
+		File file = mcdir.getVersionJson(version);
+		// stat before reading, so a concurrent modification invalidates the entry
+		FileStamp stamp = new FileStamp(file);
+		return new VersionJson(version, stamp, IOUtils.toJson(file));
+	}
+
+	private Version parseAndStore(Key key, List<VersionJson> hierarchy, long readTime) throws JSONException {
+		Stack<JSONObject> stack = new Stack<>();
+		FileStamp[] stamps = new FileStamp[hierarchy.size()];
+		boolean racy = false;
+		for (int i = 0; i < stamps.length; i++) {
+			VersionJson json = hierarchy.get(i);
+			stack.push(json.json);
+			stamps[i] = json.stamp;
+			if (json.stamp.lastModified > readTime - RACY_PERIOD) {
+				racy = true;
+			}
+		}
+
+		Version resolved = parser.parseVersion(stack, key.platform);
+		if (racy) {
+			entries.remove(key);
+		} else {
+			entries.put(key, new Entry(resolved, stamps));
+		}
+		return resolved;
+	}
+
+	// returns null if the task failed, the failed version is skipped
+	private static Object await(Future<Object> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Removes all the cached versions.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.to2mbn.jmccc.version.parsing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.to2mbn.jmccc.util.CompactReader;
+import org.to2mbn.jmccc.util.CompactWriter;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.AssetIndexInfo;
+import org.to2mbn.jmccc.version.DownloadInfo;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.LibraryInfo;
+import org.to2mbn.jmccc.version.Native;
+import org.to2mbn.jmccc.version.Version;
+
+/**
+ * Encodes resolved versions in a compact binary form.
+ * <p>
+ * A launcher can persist the resolved versions with
+ * {@link #writeVersions(Collection, OutputStream)}, and restore them with
+ * {@link #readVersions(byte[])} on the next start, without parsing any json.
+ * The libraries of the restored versions are decoded lazily, when the library
+ * set is accessed for the first time. If the library data turns out to be
+ * corrupted then, an {@link IllegalStateException} is thrown.
+ * <p>
+ * The format is versioned. A document of an unknown format version is
+ * rejected, so the caller should fall back to resolving the versions.
+ *
+ * @see CompactWriter
+ */
+public final class VersionCodec {
+
+	private static final int MAGIC = 0x4a4d5653; // "JMVS"
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int KIND_LIBRARY = 0;
+	private static final int KIND_NATIVE = 1;
+
+	/**
+	 * Writes the versions.
+	 *
+	 * @param versions the versions to write
+	 * @param out the stream to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void writeVersions(Collection<Version> versions, OutputStream out) throws IOException {
+		CompactWriter writer = new CompactWriter();
+		writer.writeVarInt(versions.size());
+		for (Version version : versions) {
+			writeVersion(writer, version);
+		}
+		writer.writeTo(out, MAGIC, FORMAT_VERSION);
+	}
+
+	/**
+	 * Reads the versions written by
+	 * {@link #writeVersions(Collection, OutputStream)}.
+	 *
+	 * @param data the encoded versions
+	 * @return the versions, in the order they are written
+	 * @throws IOException if the data is corrupted or in an unknown format
+	 */
+	public static List<Version> readVersions(byte[] data) throws IOException {
+		CompactReader reader = CompactReader.open(data, MAGIC, FORMAT_VERSION);
+		int count = reader.readVarInt();
+		List<Version> versions = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			try {
+				versions.add(readVersion(reader));
+			} catch (NullPointerException | IllegalArgumentException e) {
+				// thrown by the constructors of the models
+				throw new IOException("Corrupted version", e);
+			}
+		}
+		if (!reader.isEnd()) {
+			throw new IOException("Unexpected data after the versions");
+		}
+		return Collections.unmodifiableList(versions);
+	}
+
+	/**
+	 * Reads the versions written by
+	 * {@link #writeVersions(Collection, OutputStream)}.
+	 *
+	 * @param in the stream to read from
+	 * @return the versions, in the order they are written
+	 * @throws IOException if an I/O error occurs, or the data is corrupted or
+	 *             in an unknown format
+	 */
+	public static List<Version> readVersions(InputStream in) throws IOException {
+		return readVersions(IOUtils.toByteArray(in));
+	}
+
+	private static void writeVersion(CompactWriter writer, Version version) {
+		writer.writeString(version.getVersion());
+		writer.writeString(version.getType());
+		writer.writeString(version.getMainClass());
+		writer.writeString(version.getAssets());
+		writer.writeString(version.getLaunchArgs());
+		writer.writeString(version.getRoot());
+		writer.writeBoolean(version.isLegacy());
+
+		AssetIndexInfo assetIndex = version.getAssetIndexDownloadInfo();
+		writer.writeBoolean(assetIndex != null);
+		if (assetIndex != null) {
+			writeDownloadInfo(writer, assetIndex);
+			writer.writeString(assetIndex.getId());
+			writer.writeSignedVarLong(assetIndex.getTotalSize());
+		}
+
+		Map<String, DownloadInfo> downloads = version.getDownloads();
+		writer.writeVarInt(downloads.size());
+		for (Entry<String, DownloadInfo> entry : downloads.entrySet()) {
+			writer.writeString(entry.getKey());
+			writeDownloadInfo(writer, entry.getValue());
+		}
+
+		Set<Library> libraries = version.getLibraries();
+		CompactWriter block = writer.newBlock();
+		for (Library library : libraries) {
+			writeLibrary(block, library);
+		}
+		writer.writeVarInt(libraries.size());
+		writer.writeBlock(block);
+	}
+
+	private static Version readVersion(CompactReader reader) throws IOException {
+		String version = reader.readString();
+		String type = reader.readString();
+		String mainClass = reader.readString();
+		String assets = reader.readString();
+		String launchArgs = reader.readString();
+		String root = reader.readString();
+		boolean legacy = reader.readBoolean();
+
+		AssetIndexInfo assetIndex = null;
+		if (reader.readBoolean()) {
+			String url = reader.readString();
+			String checksum = reader.readString();
+			long size = reader.readSignedVarLong();
+			assetIndex = new AssetIndexInfo(url, checksum, size, reader.readString(), reader.readSignedVarLong());
+		}
+
+		int downloadsCount = reader.readVarInt();
+		Map<String, DownloadInfo> downloads = new LinkedHashMap<>();
+		for (int i = 0; i < downloadsCount; i++) {
+			String key = reader.readString();
+			downloads.put(key, new DownloadInfo(reader.readString(), reader.readString(), reader.readSignedVarLong()));
+		}
+
+		int librariesCount = reader.readVarInt();
+		Set<Library> libraries = new LazyLibrarySet(reader.readBlock(), librariesCount);
+
+		return new Version(version, type, mainClass, assets, launchArgs, root, libraries, legacy, assetIndex, Collections.unmodifiableMap(downloads));
+	}
+
+	static Set<Library> readLibraries(CompactReader reader, int count) throws IOException {
+		Set<Library> libraries = new LinkedHashSet<>();
+		for (int i = 0; i < count; i++) {
+			try {
+				libraries.add(readLibrary(reader));
+			} catch (NullPointerException | IllegalArgumentException e) {
+				throw new IOException("Corrupted library", e);
+			}
+		}
+		if (!reader.isEnd()) {
+			throw new IOException("Unexpected data after the libraries");
+		}
+		return Collections.unmodifiableSet(libraries);
+	}
+
+	private static void writeLibrary(CompactWriter writer, Library library) {
+		writer.writeVarInt(library instanceof Native ? KIND_NATIVE : KIND_LIBRARY);
+		writer.writeString(library.getGroupId());
+		writer.writeString(library.getArtifactId());
+		writer.writeString(library.getVersion());
+		writer.writeString(library.getClassifier());
+		writer.writeString(library.getType());
+
+		LibraryInfo info = library.getDownloadInfo();
+		writer.writeBoolean(info != null);
+		if (info != null) {
+			writeDownloadInfo(writer, info);
+			writer.writeString(info.getPath());
+		}
+
+		writer.writeString(library.getCustomizedUrl());
+		String[] checksums = library.getChecksums();
+		if (checksums == null) {
+			writer.writeVarInt(0);
+		} else {
+			writer.writeVarInt(checksums.length + 1);
+			for (String checksum : checksums) {
+				writer.writeString(checksum);
+			}
+		}
+
+		if (library instanceof Native) {
+			Set<String> excludes = ((Native) library).getExtractExcludes();
+			if (excludes == null) {
+				writer.writeVarInt(0);
+			} else {
+				writer.writeVarInt(excludes.size() + 1);
+				for (String exclude : excludes) {
+					writer.writeString(exclude);
+				}
+			}
+		}
+	}
+
+	private static Library readLibrary(CompactReader reader) throws IOException {
+		int kind = reader.readVarInt();
+		if (kind != KIND_LIBRARY && kind != KIND_NATIVE) {
+			throw new IOException("Unknown library kind: " + kind);
+		}
+		String groupId = reader.readString();
+		String artifactId = reader.readString();
+		String version = reader.readString();
+		String classifier = reader.readString();
+		String type = reader.readString();
+
+		LibraryInfo info = null;
+		if (reader.readBoolean()) {
+			String url = reader.readString();
+			String checksum = reader.readString();
+			long size = reader.readSignedVarLong();
+			info = new LibraryInfo(url, checksum, size, reader.readString());
+		}
+
+		String customizedUrl = reader.readString();
+		String[] checksums = null;
+		int checksumsCount = reader.readVarInt();
+		if (checksumsCount != 0) {
+			// don't trust the count before the data is read
+			List<String> checksumsList = new ArrayList<>();
+			for (int i = 0; i < checksumsCount - 1; i++) {
+				checksumsList.add(reader.readString());
+			}
+			checksums = checksumsList.toArray(new String[checksumsList.size()]);
+		}
+
+		if (kind == KIND_NATIVE) {
+			Set<String> excludes = null;
+			int excludesCount = reader.readVarInt();
+			if (excludesCount != 0) {
+				excludes = new LinkedHashSet<>();
+				for (int i = 0; i < excludesCount - 1; i++) {
+					excludes.add(reader.readString());
+				}
+				excludes = Collections.unmodifiableSet(excludes);
+			}
+			return new Native(groupId, artifactId, version, classifier, type, info, customizedUrl, checksums, excludes);
+		} else {
+			return new Library(groupId, artifactId, version, classifier, type, info, customizedUrl, checksums);
+		}
+	}
+
+	private static void writeDownloadInfo(CompactWriter writer, DownloadInfo info) {
+		writer.writeString(info.getUrl());
+		writer.writeString(info.getChecksum());
+		writer.writeSignedVarLong(info.getSize());
+	}
+
+	private VersionCodec() {}
+
+}
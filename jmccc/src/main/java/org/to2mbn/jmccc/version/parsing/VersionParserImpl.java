@@ -1,15 +1,18 @@
 package org.to2mbn.jmccc.version.parsing;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.to2mbn.jmccc.internal.org.json.JSONArray;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
 import org.to2mbn.jmccc.internal.org.json.JSONObject;
@@ -23,6 +26,8 @@ import org.to2mbn.jmccc.version.Version;
 
 class VersionParserImpl implements VersionParser {
 
+	private final ConcurrentMap<PlatformDescription, RuleEvaluator> ruleEvaluators = new ConcurrentHashMap<>();
+
 	@Override
 	public DownloadInfo parseDownloadInfo(JSONObject json) throws JSONException {
 		if (json == null) return null;
@@ -115,7 +120,7 @@ class VersionParserImpl implements VersionParser {
 		String mainClass = null;
 		String launchArgs = null;
 		String type = null;
-		Map<String, Library> librariesMap = new TreeMap<>();
+		Map<LibraryKey, Library> librariesMap = new HashMap<>();
 		Map<String, DownloadInfo> downloads = new TreeMap<>();
 		AssetIndexInfo assetIndexInfo = null;
 
@@ -128,15 +133,10 @@ class VersionParserImpl implements VersionParser {
 			launchArgs = parseMinecraftArgs(json);
 			type = json.optString("type", type);
 
-			Set<Library> currentLibraries = parseLibraries(json.optJSONArray("libraries"), platformDescription);
+			List<Library> currentLibraries = parseLibraries(json.optJSONArray("libraries"), platformDescription);
 			if (currentLibraries != null) {
 				for (Library library : currentLibraries) {
-					StringBuilder libId = new StringBuilder();
-					libId.append(library.getGroupId()).append(':')
-							.append(library.getArtifactId());
-					if (library.getClassifier() != null)
-						libId.append(':').append(library.getClassifier());
-					librariesMap.put(libId.toString(), library);
+					librariesMap.put(new LibraryKey(library), library);
 				}
 			}
 
@@ -155,7 +155,19 @@ class VersionParserImpl implements VersionParser {
 		if (launchArgs == null)
 			throw new JSONException("Missing minecraftArguments");
 
-		Set<Library> libraries = new LinkedHashSet<>(librariesMap.values());
+		// sort once, rather than keeping a sorted map during merging
+		List<Map.Entry<LibraryKey, Library>> sortedLibraries = new ArrayList<>(librariesMap.entrySet());
+		Collections.sort(sortedLibraries, new Comparator<Map.Entry<LibraryKey, Library>>() {
+
+			@Override
+			public int compare(Map.Entry<LibraryKey, Library> o1, Map.Entry<LibraryKey, Library> o2) {
+				return o1.getKey().compareTo(o2.getKey());
+			}
+		});
+		Set<Library> libraries = new LinkedHashSet<>();
+		for (Map.Entry<LibraryKey, Library> entry : sortedLibraries) {
+			libraries.add(entry.getValue());
+		}
 
 		return new Version(version,
 				type,
@@ -171,42 +183,19 @@ class VersionParserImpl implements VersionParser {
 
 	@Override
 	public boolean checkAllowed(JSONArray rules, PlatformDescription platformDescription) throws JSONException {
-		// by default it's allowed
-		if (rules == null || rules.length() == 0) {
-			return true;
-		}
-
-		// else it's disallow by default
-		boolean allow = false;
-		for (int i = 0; i < rules.length(); i++) {
-			JSONObject rule = rules.getJSONObject(i);
-
-			boolean action = rule.get("action").equals("allow");
-
-			// apply by default
-			boolean apply = true;
-
-			if (rule.has("os")) {
-				// don't apply by default if has os rule
-				apply = false;
-
-				JSONObject osRule = rule.getJSONObject("os");
-				String name = osRule.getString("name");
-				String version = osRule.has("version") ? osRule.getString("version") : null;
-
-				if (platformDescription.getPlatform().name().equalsIgnoreCase(name)) {
-					if (version == null || platformDescription.getVersion().matches(version)) {
-						apply = true;
-					}
-				}
-			}
+		return getRuleEvaluator(platformDescription).isAllowed(rules);
+	}
 
-			if (apply) {
-				allow = action;
+	private RuleEvaluator getRuleEvaluator(PlatformDescription platformDescription) {
+		RuleEvaluator evaluator = ruleEvaluators.get(platformDescription);
+		if (evaluator == null) {
+			evaluator = new RuleEvaluator(platformDescription);
+			RuleEvaluator existing = ruleEvaluators.putIfAbsent(platformDescription, evaluator);
+			if (existing != null) {
+				evaluator = existing;
 			}
 		}
-
-		return allow;
+		return evaluator;
 	}
 
 	private String[] parseChecksums(JSONArray json) throws JSONException {
@@ -255,9 +244,9 @@ class VersionParserImpl implements VersionParser {
 		return parseLibraryInfo(artifact);
 	}
 
-	private Set<Library> parseLibraries(JSONArray json, PlatformDescription platform) throws JSONException {
+	private List<Library> parseLibraries(JSONArray json, PlatformDescription platform) throws JSONException {
 		if (json == null) return null;
-		Set<Library> libraries = new HashSet<>();
+		List<Library> libraries = new ArrayList<>();
 		for (Object element : json) {
 			Library library = parseLibrary((JSONObject) element, platform);
 			if (library != null) {
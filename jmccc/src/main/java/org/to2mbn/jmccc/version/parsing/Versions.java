@@ -1,17 +1,30 @@
 package org.to2mbn.jmccc.version.parsing;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.Stack;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.to2mbn.jmccc.internal.org.json.JSONException;
-import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
 import org.to2mbn.jmccc.option.MinecraftDirectory;
 import org.to2mbn.jmccc.util.IOUtils;
 import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.AssetIndex;
 import org.to2mbn.jmccc.version.Version;
 
 /**
@@ -22,9 +35,14 @@ import org.to2mbn.jmccc.version.Version;
 public final class Versions {
 
 	private final static VersionParser PARSER = new VersionParserImpl();
+	private final static VersionCache CACHE = new VersionCache(PARSER);
 
 	/**
 	 * Resolves the version.
+	 * <p>
+	 * The resolved versions are cached. A cached version is reused as long as
+	 * the modification time and the size of every json in its inheritance
+	 * hierarchy are unchanged.
 	 * 
 	 * @param minecraftDir the minecraft directory
 	 * @param version the version name
@@ -34,20 +52,44 @@ public final class Versions {
 	 *             <code>minecraftDir==null || version==null</code>
 	 */
 	public static Version resolveVersion(MinecraftDirectory minecraftDir, String version) throws IOException {
+		return resolveVersion(minecraftDir, version, PlatformDescription.current());
+	}
+
+	/**
+	 * Resolves the version for the given platform.
+	 * 
+	 * @param minecraftDir the minecraft directory
+	 * @param version the version name
+	 * @param platformDescription the platform to resolve the libraries for
+	 * @return the version object, or null if the version does not exist
+	 * @throws IOException if an I/O error has occurred during resolving version
+	 * @throws NullPointerException if
+	 *             <code>minecraftDir==null || version==null || platformDescription==null</code>
+	 * @see #resolveVersion(MinecraftDirectory, String)
+	 */
+	public static Version resolveVersion(MinecraftDirectory minecraftDir, String version, PlatformDescription platformDescription) throws IOException {
 		Objects.requireNonNull(minecraftDir);
 		Objects.requireNonNull(version);
+		Objects.requireNonNull(platformDescription);
 
-		if (doesVersionExist(minecraftDir, version)) {
-			try {
-				return getVersionParser().parseVersion(resolveVersionHierarchy(version, minecraftDir), PlatformDescription.current());
-			} catch (JSONException e) {
-				throw new IOException("Couldn't parse version json: " + version, e);
-			}
-		} else {
-			return null;
+		try {
+			return CACHE.resolve(minecraftDir, version, platformDescription);
+		} catch (JSONException e) {
+			throw new IOException("Couldn't parse version json: " + version, e);
 		}
 	}
 
+	/**
+	 * Removes all the cached versions.
+	 * <p>
+	 * It's not necessary to call this method after a version json is
+	 * modified, because the cached versions are validated on every resolving.
+	 * It only releases the memory.
+	 */
+	public static void clearVersionCache() {
+		CACHE.clear();
+	}
+
 	/**
 	 * Returns the set of versions in the given minecraft directory.
 	 * <p>
@@ -73,6 +115,66 @@ public final class Versions {
 		return Collections.unmodifiableSet(versions);
 	}
 
+	/**
+	 * Resolves all the versions in the given minecraft directory in parallel.
+	 * <p>
+	 * Every json is read only once, even if it's the parent of many versions,
+	 * and the resolved versions are put into the same cache as
+	 * {@link #resolveVersion(MinecraftDirectory, String)}. The versions which
+	 * cannot be resolved (the json of the version or its parent is missing or
+	 * malformed) are excluded from the result. Use
+	 * {@link #resolveVersion(MinecraftDirectory, String)} to find out why.
+	 * 
+	 * @param minecraftDir the minecraft directory
+	 * @return the resolved versions, key is the version name
+	 * @throws IOException if an I/O error has occurred during listing versions
+	 * @throws NullPointerException if <code>minecraftDir==null</code>
+	 */
+	public static Map<String, Version> resolveVersions(MinecraftDirectory minecraftDir) throws IOException {
+		Objects.requireNonNull(minecraftDir);
+		final AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "version-resolver-" + threadNumber.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			return resolveVersions(minecraftDir, PlatformDescription.current(), executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Resolves all the versions in the given minecraft directory, using the
+	 * given executor to read and parse the jsons.
+	 * 
+	 * @param minecraftDir the minecraft directory
+	 * @param platformDescription the platform to resolve the libraries for
+	 * @param executor the executor to read and parse the jsons
+	 * @return the resolved versions, key is the version name
+	 * @throws IOException if an I/O error has occurred during listing
+	 *             versions, or the current thread is interrupted
+	 * @throws NullPointerException if any of the arguments is null
+	 * @see #resolveVersions(MinecraftDirectory)
+	 */
+	public static Map<String, Version> resolveVersions(MinecraftDirectory minecraftDir, PlatformDescription platformDescription, ExecutorService executor) throws IOException {
+		Objects.requireNonNull(minecraftDir);
+		Objects.requireNonNull(platformDescription);
+		Objects.requireNonNull(executor);
+
+		try {
+			return Collections.unmodifiableMap(CACHE.resolveAll(minecraftDir, platformDescription, executor));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while resolving versions");
+		}
+	}
+
 	/**
 	 * Resolves the asset index.
 	 * 
@@ -107,28 +209,175 @@ public final class Versions {
 		}
 
 		try {
-			return getVersionParser().parseAssetIndex(IOUtils.toJson(minecraftDir.getAssetIndex(assets)));
+			Set<Asset> result = new TreeSet<>(new Comparator<Asset>() {
+
+				@Override
+				public int compare(Asset o1, Asset o2) {
+					return o1.getVirtualPath().compareTo(o2.getVirtualPath());
+				}
+			});
+			result.addAll(readAssetIndex(minecraftDir.getAssetIndex(assets)).asList());
+			return Collections.unmodifiableSet(result);
 		} catch (JSONException e) {
 			throw new IOException("Couldn't parse asset index: " + assets, e);
 		}
 	}
 
+	/**
+	 * Resolves the asset index into a compact {@link AssetIndex}.
+	 * <p>
+	 * The parsed index is cached in a binary sidecar file next to the asset
+	 * index json (<code>assets/indexes/{assets}.json.bin</code>). The next call
+	 * reads the sidecar instead of parsing the json, as long as the
+	 * modification time and the size of the json are unchanged.
+	 * 
+	 * @param minecraftDir the minecraft directory
+	 * @param assets the name of the asset index, you can get this via
+	 *            {@link Version#getAssets()}
+	 * @return the asset index, null if the asset index does not exist
+	 * @throws IOException if an I/O error has occurred during resolving asset
+	 *             index
+	 * @throws NullPointerException if
+	 *             <code>minecraftDir==null || assets==null</code>
+	 */
+	public static AssetIndex resolveAssetIndex(MinecraftDirectory minecraftDir, String assets) throws IOException {
+		Objects.requireNonNull(minecraftDir);
+		Objects.requireNonNull(assets);
+		File json = minecraftDir.getAssetIndex(assets);
+		if (!json.isFile()) {
+			return null;
+		}
+
+		long readTime = System.currentTimeMillis();
+		long lastModified = json.lastModified();
+		long length = json.length();
+		File sidecar = getAssetIndexSidecar(minecraftDir, assets);
+		if (sidecar.isFile()) {
+			try {
+				// read into the heap rather than mapping the file,
+				// because a mapped file cannot be replaced on Windows
+				ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sidecar.toPath()));
+				AssetIndex cached = AssetIndex.readFrom(buffer, lastModified, length);
+				if (cached != null) {
+					return cached;
+				}
+			} catch (IOException e) {
+				// corrupted sidecar, fall back to the json
+			}
+		}
+
+		AssetIndex index;
+		try {
+			index = readAssetIndex(json);
+		} catch (JSONException e) {
+			throw new IOException("Couldn't parse asset index: " + assets, e);
+		}
+
+		// a modification in the same timestamp tick couldn't be detected by the stamp
+		if (lastModified <= readTime - VersionCache.RACY_PERIOD) {
+			writeAssetIndexSidecar(sidecar, index, lastModified, length);
+		}
+		return index;
+	}
+
+	/**
+	 * Resolves the asset index of the given version into a compact
+	 * {@link AssetIndex}.
+	 * 
+	 * @param minecraftDir the minecraft directory
+	 * @param version the owner version of the asset index
+	 * @return the asset index, or null if the asset index does not exist
+	 * @throws IOException if an I/O error occurs during resolving asset index
+	 * @throws NullPointerException if
+	 *             <code>minecraftDir==null || version==null</code>
+	 * @see #resolveAssetIndex(MinecraftDirectory, String)
+	 */
+	public static AssetIndex resolveAssetIndex(MinecraftDirectory minecraftDir, Version version) throws IOException {
+		return resolveAssetIndex(minecraftDir, version.getAssets());
+	}
+
 	public static VersionParser getVersionParser() {
 		return PARSER;
 	}
 
-	private static boolean doesVersionExist(MinecraftDirectory minecraftDir, String version) {
-		return minecraftDir.getVersionJson(version).isFile();
+	// streams the asset index into the builder, without building a JSONObject tree
+	private static AssetIndex readAssetIndex(File json) throws IOException, JSONException {
+		AssetIndex.Builder builder = AssetIndex.builder();
+		try (JSONPullParser parser = IOUtils.toJsonParser(json)) {
+			boolean hasObjects = false;
+			parser.beginObject();
+			while (parser.hasNext()) {
+				if (!"objects".equals(parser.nextName())) {
+					parser.skipValue();
+					continue;
+				}
+				hasObjects = true;
+				parser.beginObject();
+				while (parser.hasNext()) {
+					String virtualPath = parser.nextName();
+					String hash = null;
+					int size = -1;
+					parser.beginObject();
+					while (parser.hasNext()) {
+						switch (parser.nextName()) {
+							case "hash":
+								hash = parser.nextString();
+								break;
+							case "size":
+								size = parser.nextInt();
+								break;
+							default:
+								parser.skipValue();
+								break;
+						}
+					}
+					parser.endObject();
+					if (hash == null || size == -1) {
+						throw new JSONException("Incomplete asset: " + virtualPath);
+					}
+					try {
+						builder.add(virtualPath, hash, size);
+					} catch (IllegalArgumentException e) {
+						throw new JSONException("Invalid asset: " + virtualPath, e);
+					}
+				}
+				parser.endObject();
+			}
+			parser.endObject();
+			if (!hasObjects) {
+				throw new JSONException("JSONObject[\"objects\"] not found.");
+			}
+		}
+		return builder.build();
 	}
 
-	private static Stack<JSONObject> resolveVersionHierarchy(String version, MinecraftDirectory mcdir) throws IOException, JSONException {
-		Stack<JSONObject> result = new Stack<>();
-		do {
-			JSONObject json = IOUtils.toJson(mcdir.getVersionJson(version));
-			result.push(json);
-			version = json.optString("inheritsFrom", null);
-		} while (version != null);
-		return result;
+	// written to a temporary file first, so a crash or a concurrent launcher never leaves a torn sidecar
+	private static void writeAssetIndexSidecar(File sidecar, AssetIndex index, long lastModified, long length) {
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile(sidecar.getParentFile().toPath(), sidecar.getName(), ".tmp");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+				index.writeTo(out, lastModified, length);
+			}
+			Files.move(tmp, sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the sidecar is only a cache
+			if (tmp != null) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (IOException e1) {
+					e.addSuppressed(e1);
+				}
+			}
+		}
+	}
+
+	private static File getAssetIndexSidecar(MinecraftDirectory minecraftDir, String assets) {
+		return new File(minecraftDir.getAssetIndexes(), assets + ".json.bin");
+	}
+
+	private static boolean doesVersionExist(MinecraftDirectory minecraftDir, String version) {
+		return minecraftDir.getVersionJson(version).isFile();
 	}
 
 	private Versions() {}
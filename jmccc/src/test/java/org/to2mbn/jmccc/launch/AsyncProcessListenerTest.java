@@ -0,0 +1,235 @@
+package org.to2mbn.jmccc.launch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AsyncProcessListenerTest {
+
+	/**
+	 * Runs the drain tasks only when asked to.
+	 */
+	private static class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		void runAll() {
+			for (;;) {
+				Runnable task;
+				synchronized (this) {
+					if (tasks.isEmpty()) {
+						return;
+					}
+					task = tasks.remove(0);
+				}
+				task.run();
+			}
+		}
+
+	}
+
+	private static class RecordingListener implements BatchProcessListener {
+
+		final List<String> events = new CopyOnWriteArrayList<>();
+		final CountDownLatch exited = new CountDownLatch(1);
+
+		@Override
+		public void onLog(String log) {
+			events.add("out:" + log);
+		}
+
+		@Override
+		public void onErrorLog(String log) {
+			events.add("err:" + log);
+		}
+
+		@Override
+		public void onLogs(List<String> logs) {
+			events.add("out" + logs);
+		}
+
+		@Override
+		public void onErrorLogs(List<String> logs) {
+			events.add("err" + logs);
+		}
+
+		@Override
+		public void onExit(int code) {
+			events.add("exit:" + code);
+			exited.countDown();
+		}
+
+	}
+
+	/**
+	 * Hides the batch methods of the recording listener.
+	 */
+	private static ProcessListener single(final ProcessListener listener) {
+		return new ProcessListener() {
+
+			@Override
+			public void onLog(String log) {
+				listener.onLog(log);
+			}
+
+			@Override
+			public void onErrorLog(String log) {
+				listener.onErrorLog(log);
+			}
+
+			@Override
+			public void onExit(int code) {
+				listener.onExit(code);
+			}
+		};
+	}
+
+	@Test
+	public void testNoOverflow() {
+		ManualExecutor executor = new ManualExecutor();
+		RecordingListener recorder = new RecordingListener();
+		AsyncProcessListener listener = new AsyncProcessListener(single(recorder), 16, LogOverflowPolicy.BLOCK, executor);
+		listener.onLog("a");
+		listener.onErrorLog("b");
+		listener.onExit(0);
+		assertTrue(recorder.events.isEmpty());
+
+		executor.runAll();
+		assertEquals(Arrays.asList("out:a", "err:b", "exit:0"), recorder.events);
+	}
+
+	@Test
+	public void testDropOldest() {
+		ManualExecutor executor = new ManualExecutor();
+		RecordingListener recorder = new RecordingListener();
+		AsyncProcessListener listener = new AsyncProcessListener(single(recorder), 4, LogOverflowPolicy.DROP_OLDEST, executor);
+		for (int i = 0; i < 6; i++) {
+			listener.onLog(String.valueOf(i));
+		}
+		listener.onExit(1);
+
+		executor.runAll();
+		assertEquals(Arrays.asList("out:2", "out:3", "out:4", "out:5", "exit:1"), recorder.events);
+	}
+
+	@Test(timeout = 30000)
+	public void testBlock() throws Exception {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			RecordingListener recorder = new RecordingListener() {
+
+				@Override
+				public void onLog(String log) {
+					// slower than the producer
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+					super.onLog(log);
+				}
+			};
+			AsyncProcessListener listener = new AsyncProcessListener(single(recorder), 4, LogOverflowPolicy.BLOCK, executor);
+			List<String> expected = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				listener.onLog(String.valueOf(i));
+				expected.add("out:" + i);
+			}
+			listener.onExit(0);
+			expected.add("exit:0");
+
+			assertTrue(recorder.exited.await(30, TimeUnit.SECONDS));
+			// nothing is lost
+			assertEquals(expected, recorder.events);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testBatchSplitting() {
+		ManualExecutor executor = new ManualExecutor();
+		RecordingListener recorder = new RecordingListener();
+		AsyncProcessListener listener = new AsyncProcessListener(recorder, 1024, LogOverflowPolicy.BLOCK, executor);
+		listener.onLog("a");
+		listener.onLog("b");
+		listener.onErrorLog("c");
+		listener.onErrorLog("d");
+		listener.onLog("e");
+		listener.onExit(0);
+
+		executor.runAll();
+		// split by stream
+		assertEquals(Arrays.asList("out[a, b]", "err[c, d]", "out[e]", "exit:0"), recorder.events);
+
+		final List<Integer> sizes = new ArrayList<>();
+		listener = new AsyncProcessListener(new RecordingListener() {
+
+			@Override
+			public void onLogs(List<String> logs) {
+				sizes.add(logs.size());
+			}
+		}, 1024, LogOverflowPolicy.BLOCK, executor);
+		for (int i = 0; i < 600; i++) {
+			listener.onLog(String.valueOf(i));
+		}
+
+		executor.runAll();
+		// split by size
+		assertEquals(Arrays.asList(256, 256, 88), sizes);
+	}
+
+	@Test
+	public void testThrowingListener() {
+		ManualExecutor executor = new ManualExecutor();
+		RecordingListener recorder = new RecordingListener() {
+
+			@Override
+			public void onLog(String log) {
+				if ("bad".equals(log)) {
+					throw new IllegalStateException("expected by the test");
+				}
+				super.onLog(log);
+			}
+
+			@Override
+			public void onLogs(List<String> logs) {
+				throw new IllegalStateException("expected by the test");
+			}
+		};
+
+		AsyncProcessListener listener = new AsyncProcessListener(single(recorder), 16, LogOverflowPolicy.BLOCK, executor);
+		listener.onLog("bad");
+		listener.onLog("a");
+		executor.runAll();
+		// delivered by a new drain task
+		listener.onLog("b");
+		listener.onExit(0);
+		executor.runAll();
+		assertEquals(Arrays.asList("out:a", "out:b", "exit:0"), recorder.events);
+
+		listener = new AsyncProcessListener(recorder, 16, LogOverflowPolicy.BLOCK, executor);
+		recorder.events.clear();
+		listener.onLog("a");
+		listener.onErrorLog("b");
+		executor.runAll();
+		listener.onExit(0);
+		executor.runAll();
+		assertEquals(Arrays.asList("err[b]", "exit:0"), recorder.events);
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.to2mbn.jmccc.launch;
+
+import static org.junit.Assert.assertEquals;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class LineSplitterTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static class RecordingListener implements ProcessListener {
+
+		final List<String> lines = new ArrayList<>();
+
+		@Override
+		public void onLog(String log) {
+			lines.add(log);
+		}
+
+		@Override
+		public void onErrorLog(String log) {
+			lines.add("err:" + log);
+		}
+
+		@Override
+		public void onExit(int code) {}
+
+	}
+
+	private final RecordingListener listener = new RecordingListener();
+	private final LineSplitter splitter = new LineSplitter(listener, false, UTF_8);
+
+	private void feed(byte[] b) {
+		splitter.feed(b, 0, b.length);
+	}
+
+	private void feed(String s) {
+		feed(s.getBytes(UTF_8));
+	}
+
+	@Test
+	public void testTerminators() {
+		feed("a\nb\r\n\nc\rd\n");
+		assertEquals(Arrays.asList("a", "b", "", "c\rd"), listener.lines);
+	}
+
+	@Test
+	public void testCrLfAcrossBlocks() {
+		feed("a\r");
+		assertEquals(Collections.emptyList(), listener.lines);
+		feed("\nb\r");
+		feed("\n");
+		assertEquals(Arrays.asList("a", "b"), listener.lines);
+	}
+
+	@Test
+	public void testMultibyteAcrossBlocks() {
+		byte[] bytes = "x中é\n".getBytes(UTF_8);
+		// split inside both the 3-byte and the 2-byte characters
+		feed(Arrays.copyOfRange(bytes, 0, 2));
+		feed(Arrays.copyOfRange(bytes, 2, 5));
+		feed(Arrays.copyOfRange(bytes, 5, bytes.length));
+		assertEquals(Arrays.asList("x中é"), listener.lines);
+	}
+
+	@Test
+	public void testTrailingLine() {
+		feed("a\nb");
+		assertEquals(Arrays.asList("a"), listener.lines);
+		splitter.finish();
+		assertEquals(Arrays.asList("a", "b"), listener.lines);
+
+		// the terminator is stripped from the trailing line
+		feed("c\r");
+		splitter.finish();
+		assertEquals(Arrays.asList("a", "b", "c"), listener.lines);
+
+		// nothing is emitted if there is no trailing line
+		feed("d\n");
+		splitter.finish();
+		assertEquals(Arrays.asList("a", "b", "c", "d"), listener.lines);
+	}
+
+	@Test
+	public void testLongLine() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		String line = sb.toString();
+		feed(line + "\n" + line);
+		splitter.finish();
+		assertEquals(Arrays.asList(line, line), listener.lines);
+	}
+
+	@Test
+	public void testErrorStream() {
+		LineSplitter errSplitter = new LineSplitter(listener, true, UTF_8);
+		byte[] b = "e\n".getBytes(UTF_8);
+		errSplitter.feed(b, 0, b.length);
+		assertEquals(Arrays.asList("err:e"), listener.lines);
+	}
+
+}
@@ -0,0 +1,166 @@
+package org.to2mbn.jmccc.launch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.to2mbn.jmccc.option.JavaEnvironment;
+
+public class ProcessIOMultiplexerTest {
+
+	/**
+	 * The main class of the child processes.
+	 */
+	public static class Child {
+
+		public static void main(String[] args) {
+			System.out.println("out1");
+			System.err.println("err1");
+			System.out.println("out2");
+			if (args.length > 1) {
+				// more than a pipe can hold
+				for (int i = 0; i < Integer.parseInt(args[1]); i++) {
+					System.out.println("line " + i);
+				}
+			}
+			System.exit(Integer.parseInt(args[0]));
+		}
+
+	}
+
+	private static class RecordingListener implements ProcessListener {
+
+		final List<String> logs = new CopyOnWriteArrayList<>();
+		final List<String> errorLogs = new CopyOnWriteArrayList<>();
+		final CountDownLatch exited = new CountDownLatch(1);
+		volatile int exitCode;
+
+		@Override
+		public void onLog(String log) {
+			logs.add(log);
+		}
+
+		@Override
+		public void onErrorLog(String log) {
+			errorLogs.add(log);
+		}
+
+		@Override
+		public void onExit(int code) {
+			exitCode = code;
+			exited.countDown();
+		}
+
+		void await() throws InterruptedException {
+			assertTrue("exit not delivered", exited.await(30, TimeUnit.SECONDS));
+		}
+
+	}
+
+	private static Process startChild(int exitCode) throws IOException {
+		return startChild(exitCode, 0);
+	}
+
+	private static Process startChild(int exitCode, int lines) throws IOException {
+		return new ProcessBuilder(JavaEnvironment.getCurrentJavaPath().getPath(),
+				"-cp", System.getProperty("java.class.path"),
+				Child.class.getName(),
+				String.valueOf(exitCode),
+				String.valueOf(lines))
+						.start();
+	}
+
+	@Test
+	public void testExit() throws Exception {
+		ProcessIOMultiplexer multiplexer = new ProcessIOMultiplexer(1, true);
+		RecordingListener listener = new RecordingListener();
+		multiplexer.register(startChild(3), listener);
+
+		listener.await();
+		assertEquals(3, listener.exitCode);
+		// all the output is delivered before the exit
+		assertEquals(Arrays.asList("out1", "out2"), listener.logs);
+		assertEquals(Arrays.asList("err1"), listener.errorLogs);
+
+		// the worker is restarted for new processes
+		listener = new RecordingListener();
+		multiplexer.register(startChild(0), listener);
+		listener.await();
+		assertEquals(0, listener.exitCode);
+		assertEquals(Arrays.asList("out1", "out2"), listener.logs);
+	}
+
+	@Test
+	public void testThrowingListener() throws Exception {
+		ProcessIOMultiplexer multiplexer = new ProcessIOMultiplexer(1, true);
+		RecordingListener throwing = new RecordingListener() {
+
+			@Override
+			public void onLog(String log) {
+				throw new IllegalStateException("expected by the test");
+			}
+		};
+		RecordingListener throwingOnExit = new RecordingListener() {
+
+			@Override
+			public void onExit(int code) {
+				super.onExit(code);
+				throw new IllegalStateException("expected by the test");
+			}
+		};
+		RecordingListener normal = new RecordingListener();
+
+		// all the processes share the only worker
+		multiplexer.register(startChild(1), throwing);
+		multiplexer.register(startChild(2), throwingOnExit);
+		multiplexer.register(startChild(3), normal);
+
+		throwingOnExit.await();
+		normal.await();
+		assertEquals(3, normal.exitCode);
+		assertEquals(Arrays.asList("out1", "out2"), normal.logs);
+		assertEquals(1, throwing.exited.getCount());
+
+		// the worker is still alive
+		normal = new RecordingListener();
+		multiplexer.register(startChild(4), normal);
+		normal.await();
+		assertEquals(4, normal.exitCode);
+	}
+
+	@Test
+	public void testThrowingListenerDrained() throws Exception {
+		ProcessIOMultiplexer multiplexer = new ProcessIOMultiplexer(1, true);
+		RecordingListener throwing = new RecordingListener() {
+
+			@Override
+			public void onLog(String log) {
+				throw new IllegalStateException("expected by the test");
+			}
+		};
+		Process process = startChild(5, 100000);
+		multiplexer.register(process, throwing);
+
+		// the child would block on the full pipe if its output weren't drained
+		long deadline = System.currentTimeMillis() + 30000;
+		try {
+			for (;;) {
+				try {
+					assertEquals(5, process.exitValue());
+					break;
+				} catch (IllegalThreadStateException e) {
+					assertTrue("process blocked", System.currentTimeMillis() < deadline);
+					Thread.sleep(50);
+				}
+			}
+		} finally {
+			process.destroy();
+		}
+	}
+
+}
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.Set;
 import org.junit.Test;
 import org.to2mbn.jmccc.version.Asset;
+import org.to2mbn.jmccc.version.AssetIndex;
 import org.to2mbn.jmccc.version.parsing.Versions;
 
 public class AssetTest extends MinecraftEnvironmentTest {
@@ -16,9 +17,9 @@ public class AssetTest extends MinecraftEnvironmentTest {
 	protected void copyFiles() throws IOException {
 		new File("mcdir/assets/objects/00").mkdirs();
 		copyFromJar("/mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca2f", new File("mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca2f"));
-        copyFromJar("/mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca2f", new File("mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca20"));
-        new File("mcdir/assets/indexes").mkdirs();
-        copyFromJar("/mcdir/assets/indexes/test.json", new File("mcdir/assets/indexes/test.json"));
+		copyFromJar("/mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca2f", new File("mcdir/assets/objects/00/000c82756fd54e40cb236199f2b479629d0aca20"));
+		new File("mcdir/assets/indexes").mkdirs();
+		copyFromJar("/mcdir/assets/indexes/test.json", new File("mcdir/assets/indexes/test.json"));
 	}
 
 	@Test
@@ -36,14 +37,53 @@ public class AssetTest extends MinecraftEnvironmentTest {
 		assertEquals(false, new Asset("minecraft/sounds/mob/skeleton/step3.ogg", "000c82756fd54e40cb236199f2b479629d0aca20", 8565).isValid(mcdir()));
 	}
 
-    @Test
-    public void testFromJson() throws IOException {
-        Set<Asset> indexAc = Versions.resolveAssets(mcdir(), "test");
-        Set<Asset> assetsEx = new HashSet<>();
-        assetsEx.add(new Asset("test1", "10a54fc66c8f479bb65c8d39c3b62265ac82e742", 8112));
-        assetsEx.add(new Asset("test/test2", "14cfb2f24e7d91dbc22a2a0e3b880d9829320243", 7347));
-        assetsEx.add(new Asset("test/test3.test", "bf7fadaf64945f6b31c803d086ac6a652aabef9b", 3838));
-        assertEquals(assetsEx, indexAc);
-    }
+	@Test
+	public void testFromJson() throws IOException {
+		Set<Asset> indexAc = Versions.resolveAssets(mcdir(), "test");
+		Set<Asset> assetsEx = new HashSet<>();
+		assetsEx.add(new Asset("test1", "10a54fc66c8f479bb65c8d39c3b62265ac82e742", 8112));
+		assetsEx.add(new Asset("test/test2", "14cfb2f24e7d91dbc22a2a0e3b880d9829320243", 7347));
+		assetsEx.add(new Asset("test/test3.test", "bf7fadaf64945f6b31c803d086ac6a652aabef9b", 3838));
+		assertEquals(assetsEx, indexAc);
+	}
+
+	@Test
+	public void testCompactIndexFromJson() throws IOException {
+		AssetIndex index = Versions.resolveAssetIndex(mcdir(), "test");
+		assertEquals(3, index.size());
+		assertEquals(Versions.resolveAssets(mcdir(), "test"), index.toAssetSet());
+		assertEquals(new Asset("test/test2", "14cfb2f24e7d91dbc22a2a0e3b880d9829320243", 7347), index.getByPath("test/test2"));
+		assertEquals(new Asset("test1", "10a54fc66c8f479bb65c8d39c3b62265ac82e742", 8112), index.getByHash("10a54fc66c8f479bb65c8d39c3b62265ac82e742"));
+		assertNull(index.getByPath("test/test4"));
+		assertNull(index.getByHash("000c82756fd54e40cb236199f2b479629d0aca2f"));
+	}
+
+	@Test
+	public void testCompactIndexSidecar() throws IOException {
+		File json = new File("mcdir/assets/indexes/test.json");
+		File sidecar = new File("mcdir/assets/indexes/test.json.bin");
+
+		// just modified, the stamp can't tell a following modification
+		AssetIndex parsed = Versions.resolveAssetIndex(mcdir(), "test");
+		assertFalse(sidecar.exists());
+
+		json.setLastModified(System.currentTimeMillis() / 1000 * 1000 - 60_000);
+		assertEquals(parsed, Versions.resolveAssetIndex(mcdir(), "test"));
+		assertTrue(sidecar.isFile());
+		assertEquals(parsed, Versions.resolveAssetIndex(mcdir(), "test"));
+		// no temporary file is left
+		assertEquals(2, new File("mcdir/assets/indexes").list().length);
+	}
+
+	@Test
+	public void testCompactIndexUniqueObjects() {
+		AssetIndex index = AssetIndex.builder()
+				.add("a", "10a54fc66c8f479bb65c8d39c3b62265ac82e742", 8112)
+				.add("b", "10a54fc66c8f479bb65c8d39c3b62265ac82e742", 8112)
+				.add("c", "bf7fadaf64945f6b31c803d086ac6a652aabef9b", 3838)
+				.build();
+		assertEquals(3, index.size());
+		assertEquals(2, index.getUniqueObjects().size());
+	}
 
 }
@@ -0,0 +1,208 @@
+package org.to2mbn.jmccc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import org.junit.Test;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONException;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser;
+import org.to2mbn.jmccc.internal.org.json.JSONPullParser.Token;
+import org.to2mbn.jmccc.util.IOUtils;
+
+public class JSONPullParserTest {
+
+	private static JSONPullParser parser(String json) {
+		return new JSONPullParser(new StringReader(json));
+	}
+
+	@Test
+	public void testEscapes() {
+		JSONPullParser parser = parser("[\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\", \"\\u00e9\\u4e2D\", \"\\ud83d\\ude00!\"]");
+		parser.beginArray();
+		assertEquals("a\"b\\c/d\b\f\n\r\t", parser.nextString());
+		assertEquals("\u00e9\u4e2d", parser.nextString());
+		// a surrogate pair is decoded into one code point
+		String emoji = parser.nextString();
+		assertEquals("\ud83d\ude00!", emoji);
+		assertEquals(0x1f600, emoji.codePointAt(0));
+		parser.endArray();
+		assertEquals(Token.END_DOCUMENT, parser.peek());
+	}
+
+	@Test
+	public void testNames() {
+		JSONPullParser parser = parser("{\"a\\nb\": 1, \"\": 2}");
+		parser.beginObject();
+		assertEquals("a\nb", parser.nextName());
+		assertEquals(1, parser.nextInt());
+		assertEquals("", parser.nextName());
+		assertEquals(2, parser.nextInt());
+		assertFalse(parser.hasNext());
+		parser.endObject();
+	}
+
+	@Test
+	public void testNumbers() {
+		JSONPullParser parser = parser("[42, -1, 1234567890123, 3.0, \"7\", 1e3, 0.5, 1234567890123]");
+		parser.beginArray();
+		assertEquals(Token.NUMBER, parser.peek());
+		assertEquals(42, parser.nextInt());
+		assertEquals(-1, parser.nextInt());
+		assertEquals(1234567890123L, parser.nextLong());
+		assertEquals(3, parser.nextInt());
+		// a string containing a number is accepted, as JSONObject.getInt() does
+		assertEquals(7, parser.nextInt());
+		// the literal form is kept
+		assertEquals("1e3", parser.nextString());
+		assertEquals(0.5, (Double) parser.nextValue(), 0);
+		assertEquals(1234567890123L, parser.nextValue());
+		parser.endArray();
+	}
+
+	@Test
+	public void testNullsAndBooleans() {
+		JSONPullParser parser = parser("[null, null, null, true, false]");
+		parser.beginArray();
+		assertEquals(Token.NULL, parser.peek());
+		assertNull(parser.nextStringOrNull());
+		assertSame(JSONObject.NULL, parser.nextValue());
+		try {
+			parser.nextString();
+			fail();
+		} catch (JSONException e) {
+			// expected
+		}
+		parser.nextNull();
+		assertEquals(Token.BOOLEAN, parser.peek());
+		assertTrue(parser.nextBoolean());
+		assertFalse(parser.nextBoolean());
+		parser.endArray();
+	}
+
+	@Test
+	public void testSkipValue() {
+		JSONPullParser parser = parser("{\"a\": [1, {\"b\": [2, [3, \"]\"]]}, \"}\", null], \"c\": {\"d\": {\"e\": {}}, \"f\": []}, \"g\": true}");
+		parser.beginObject();
+		assertEquals("a", parser.nextName());
+		parser.skipValue();
+		assertEquals("c", parser.nextName());
+		parser.skipValue();
+		assertEquals("g", parser.nextName());
+		assertTrue(parser.nextBoolean());
+		parser.endObject();
+		assertEquals(Token.END_DOCUMENT, parser.peek());
+
+		// scalars
+		parser = parser("[\"x\", 1, null, false, []]");
+		parser.beginArray();
+		for (int i = 0; i < 5; i++) {
+			parser.skipValue();
+		}
+		parser.endArray();
+	}
+
+	@Test
+	public void testDeepNesting() {
+		int depth = 1000;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append("[{\"a\":");
+		}
+		sb.append("1");
+		for (int i = 0; i < depth; i++) {
+			sb.append("}]");
+		}
+		String json = sb.toString();
+
+		Object value = parser(json).nextValue();
+		for (int i = 0; i < depth; i++) {
+			value = ((JSONArray) value).getJSONObject(0).get("a");
+		}
+		assertEquals(1, value);
+
+		JSONPullParser parser = parser(json);
+		parser.skipValue();
+		assertEquals(Token.END_DOCUMENT, parser.peek());
+	}
+
+	@Test
+	public void testSameAsJSONObject() throws IOException {
+		byte[] data;
+		try (InputStream in = getClass().getResourceAsStream("/mcdir/versions/1.8/1.8.json")) {
+			data = IOUtils.toByteArray(in);
+		}
+		assertEquals(new JSONObject(new String(data, "UTF-8")), IOUtils.toJsonParser(data).nextObject());
+	}
+
+	@Test
+	public void testMalformed() {
+		String[] malformed = {
+				"",
+				"{",
+				"[1, 2",
+				"{\"a\": }",
+				"{\"a\" 1}",
+				"{\"a\": 1 \"b\": 2}",
+				"{1: 2}",
+				"[\"unterminated]",
+				"[\"\\x\"]",
+				"[\"\\u12\"]",
+				"[tru]",
+				"[nul]",
+				"[1 2]",
+				"{\"a\": 1, \"a\": 2}",
+				"[1]]",
+				"]"
+		};
+		for (String json : malformed) {
+			try {
+				JSONPullParser parser = parser(json);
+				parser.nextValue();
+				if (parser.peek() != Token.END_DOCUMENT) {
+					fail("Expected END_DOCUMENT: " + json);
+				}
+				fail("Accepted malformed json: " + json);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testUnexpectedToken() {
+		JSONPullParser parser = parser("{\"a\": [1]}");
+		try {
+			parser.beginArray();
+			fail();
+		} catch (JSONException e) {
+			// expected
+		}
+		parser.beginObject();
+		try {
+			parser.nextString();
+			fail();
+		} catch (JSONException e) {
+			// expected, a name is not a string value
+		}
+		assertEquals("a", parser.nextName());
+		try {
+			parser.nextInt();
+			fail();
+		} catch (JSONException e) {
+			// expected
+		}
+		parser.beginArray();
+		assertEquals(1, parser.nextInt());
+		parser.endArray();
+		parser.endObject();
+	}
+
+}
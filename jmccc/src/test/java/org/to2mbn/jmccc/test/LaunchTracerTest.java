@@ -0,0 +1,94 @@
+package org.to2mbn.jmccc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.to2mbn.jmccc.auth.AuthInfo;
+import org.to2mbn.jmccc.auth.AuthenticationException;
+import org.to2mbn.jmccc.auth.Authenticator;
+import org.to2mbn.jmccc.auth.OfflineAuthenticator;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.launch.LaunchPhase;
+import org.to2mbn.jmccc.launch.LaunchTracer;
+import org.to2mbn.jmccc.launch.Launcher;
+import org.to2mbn.jmccc.launch.LauncherBuilder;
+import org.to2mbn.jmccc.option.LaunchOption;
+
+public class LaunchTracerTest extends MinecraftEnvironmentTest {
+
+	private static final String VERSION = "tracer";
+
+	private static class RecordingTracer implements LaunchTracer {
+
+		final List<LaunchPhase> phases = new ArrayList<>();
+
+		@Override
+		public void onPhaseCompleted(LaunchOption option, LaunchPhase phase, long durationNanos, long bytes) {
+			assertTrue(durationNanos >= 0);
+			assertTrue(bytes >= -1);
+			phases.add(phase);
+		}
+
+	}
+
+	@Override
+	protected void copyFiles() throws IOException {
+		// a legacy version, so every phase is performed
+		JSONObject json = new JSONObject()
+				.put("id", VERSION)
+				.put("type", "release")
+				.put("assets", "legacy")
+				.put("mainClass", "org.to2mbn.jmccc.test.NoSuchMainClass")
+				.put("minecraftArguments", "--username ${auth_player_name}")
+				.put("libraries", new JSONArray());
+		File target = mcdir().getVersionJson(VERSION);
+		target.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(target)) {
+			out.write(json.toString().getBytes("UTF-8"));
+		}
+	}
+
+	@Test
+	public void testPhases() throws Exception {
+		RecordingTracer tracer = new RecordingTracer();
+		Launcher launcher = LauncherBuilder.create().tracer(tracer).build();
+		Process process = launcher.launch(new LaunchOption(VERSION, new OfflineAuthenticator("player"), mcdir()));
+		try {
+			assertEquals(Arrays.asList(LaunchPhase.values()), tracer.phases);
+		} finally {
+			// the main class doesn't exist, so the process exits immediately
+			process.waitFor();
+		}
+	}
+
+	@Test
+	public void testFailedLaunch() throws Exception {
+		RecordingTracer tracer = new RecordingTracer();
+		Launcher launcher = LauncherBuilder.create().tracer(tracer).build();
+		Authenticator failing = new Authenticator() {
+
+			@Override
+			public AuthInfo auth() throws AuthenticationException {
+				throw new AuthenticationException("expected by the test");
+			}
+		};
+		try {
+			launcher.launch(new LaunchOption(VERSION, failing, mcdir()));
+			fail();
+		} catch (AuthenticationException e) {
+			// expected
+		}
+		// the phases before the failed one are still reported
+		assertEquals(Arrays.asList(LaunchPhase.CHECK_LIBRARIES, LaunchPhase.EXTRACT_NATIVES, LaunchPhase.BUILD_LEGACY_ASSETS), tracer.phases);
+	}
+
+}
@@ -0,0 +1,55 @@
+package org.to2mbn.jmccc.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.to2mbn.jmccc.internal.org.json.JSONArray;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.util.Platform;
+import org.to2mbn.jmccc.version.parsing.PlatformDescription;
+import org.to2mbn.jmccc.version.parsing.VersionParser;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class RulesTest {
+
+	private static final PlatformDescription LINUX = new PlatformDescription(Platform.LINUX, "4.4", "64");
+	private static final PlatformDescription OSX = new PlatformDescription(Platform.OSX, "10.11", "64");
+
+	private final VersionParser parser = Versions.getVersionParser();
+
+	private static JSONArray osxOnly() {
+		return new JSONArray()
+				.put(new JSONObject().put("action", "allow")
+						.put("os", new JSONObject().put("name", "osx")));
+	}
+
+	@Test
+	public void testPlatforms() {
+		JSONArray rules = osxOnly();
+		assertTrue(parser.checkAllowed(rules, OSX));
+		assertFalse(parser.checkAllowed(rules, LINUX));
+		assertTrue(parser.checkAllowed(rules, OSX));
+		assertTrue(parser.checkAllowed(null, LINUX));
+	}
+
+	@Test
+	public void testModifiedRules() {
+		JSONArray rules = osxOnly();
+		assertFalse(parser.checkAllowed(rules, LINUX));
+
+		// the result isn't memoized by the identity of the array
+		rules.put(new JSONObject().put("action", "allow")
+				.put("os", new JSONObject().put("name", "linux")));
+		assertTrue(parser.checkAllowed(rules, LINUX));
+
+		JSONObject library = new JSONObject()
+				.put("name", "test:test:1.0")
+				.put("rules", rules);
+		assertNotNull(parser.parseLibrary(library, LINUX));
+		rules.remove(1);
+		assertNull(parser.parseLibrary(library, LINUX));
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.to2mbn.jmccc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.to2mbn.jmccc.test.TestUtils.hashSet;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import org.junit.Test;
+import org.to2mbn.jmccc.internal.org.json.JSONObject;
+import org.to2mbn.jmccc.util.IOUtils;
+import org.to2mbn.jmccc.version.Library;
+import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.Versions;
+
+public class VersionCacheTest extends MinecraftEnvironmentTest {
+
+	private static final String CHILD = "1.8-forge1.8-11.14.3.1514";
+	private static final String PARENT = "1.8";
+
+	// older than the racy period, so the versions can be cached
+	private static final long OLD_TIME = System.currentTimeMillis() / 1000 * 1000 - 60_000;
+
+	@Override
+	protected void copyFiles() throws IOException {
+		copyVersionJson(CHILD);
+		copyVersionJson(PARENT);
+	}
+
+	@Test
+	public void testCacheHit() throws IOException {
+		Version first = Versions.resolveVersion(mcdir(), CHILD);
+		assertSame(first, Versions.resolveVersion(mcdir(), CHILD));
+	}
+
+	@Test
+	public void testParentModified() throws IOException {
+		Version first = Versions.resolveVersion(mcdir(), CHILD);
+
+		File parentJson = mcdir().getVersionJson(PARENT);
+		JSONObject json = IOUtils.toJson(parentJson);
+		json.getJSONArray("libraries").put(new JSONObject().put("name", "test:extra:1.0"));
+		writeJson(parentJson, json, OLD_TIME + 1000);
+
+		Version second = Versions.resolveVersion(mcdir(), CHILD);
+		assertNotSame(first, second);
+		assertTrue(second.getLibraries().contains(new Library("test", "extra", "1.0")));
+	}
+
+	@Test
+	public void testVersionDeleted() throws IOException {
+		Versions.resolveVersion(mcdir(), CHILD);
+		mcdir().getVersionJson(CHILD).delete();
+		assertNull(Versions.resolveVersion(mcdir(), CHILD));
+	}
+
+	@Test
+	public void testResolveVersions() throws IOException {
+		new File("mcdir/versions/empty").mkdirs();
+		File broken = new File("mcdir/versions/broken/broken.json");
+		broken.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(broken)) {
+			out.write("{".getBytes("UTF-8"));
+		}
+
+		Map<String, Version> versions = Versions.resolveVersions(mcdir());
+		assertEquals(hashSet(CHILD, PARENT), versions.keySet());
+		assertEquals(Versions.resolveVersion(mcdir(), CHILD), versions.get(CHILD));
+		assertEquals(Versions.resolveVersion(mcdir(), PARENT), versions.get(PARENT));
+	}
+
+	private void copyVersionJson(String version) throws IOException {
+		new File("mcdir/versions/" + version).mkdirs();
+		File target = new File("mcdir/versions/" + version + "/" + version + ".json");
+		copyFromJar("/" + target.getPath(), target);
+		target.setLastModified(OLD_TIME);
+	}
+
+	private void writeJson(File file, JSONObject json, long lastModified) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(json.toString().getBytes("UTF-8"));
+		}
+		file.setLastModified(lastModified);
+	}
+
+}
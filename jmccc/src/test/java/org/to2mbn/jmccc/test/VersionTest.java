@@ -4,11 +4,13 @@ import static org.junit.Assert.assertEquals;
 import static org.to2mbn.jmccc.test.TestUtils.entry;
 import static org.to2mbn.jmccc.test.TestUtils.hashMap;
 import static org.to2mbn.jmccc.test.TestUtils.hashSet;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,6 +22,7 @@ import org.to2mbn.jmccc.version.Library;
 import org.to2mbn.jmccc.version.LibraryInfo;
 import org.to2mbn.jmccc.version.Native;
 import org.to2mbn.jmccc.version.Version;
+import org.to2mbn.jmccc.version.parsing.VersionCodec;
 import org.to2mbn.jmccc.version.parsing.Versions;
 
 @RunWith(Parameterized.class)
@@ -89,6 +92,16 @@ public class VersionTest extends MinecraftEnvironmentTest {
 		assertEquals(version, Versions.resolveVersion(mcdir(), versionNumber));
 	}
 
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+		Version resolved = Versions.resolveVersion(mcdir(), versionNumber);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VersionCodec.writeVersions(Collections.singleton(resolved), out);
+		List<Version> decoded = VersionCodec.readVersions(out.toByteArray());
+		assertEquals(Collections.singletonList(version), decoded);
+		assertEquals(version.getLibraries(), decoded.get(0).getLibraries());
+	}
+
 	private void copyVersionJson(String version) throws IOException {
 		new File("mcdir/versions/" + version).mkdirs();
 		String versionJsonPath = "mcdir/versions/" + version + "/" + version + ".json";